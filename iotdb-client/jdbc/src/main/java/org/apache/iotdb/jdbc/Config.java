@@ -85,4 +85,6 @@ public class Config {
   public static final String SQL_DIALECT = "sql_dialect";
 
   public static final String DATABASE = "db";
+
+  public static final String WAL_DURABILITY = "wal_durability";
 }
@@ -503,6 +503,9 @@ public class IoTDBConnection implements Connection {
     openReq.putToConfiguration(Config.VERSION, params.getVersion().toString());
     openReq.putToConfiguration(Config.SQL_DIALECT, params.getSqlDialect());
     params.getDb().ifPresent(db -> openReq.putToConfiguration(Config.DATABASE, db));
+    params
+        .getWalDurability()
+        .ifPresent(level -> openReq.putToConfiguration(Config.WAL_DURABILITY, level));
 
     TSOpenSessionResp openResp = null;
     try {
@@ -54,6 +54,8 @@ public class IoTDBConnectionParams {
 
   private String db;
 
+  private String walDurability;
+
   public IoTDBConnectionParams(String url) {
     this.jdbcUriString = url;
   }
@@ -197,4 +199,12 @@ public class IoTDBConnectionParams {
   public void setDb(String db) {
     this.db = db;
   }
+
+  public Optional<String> getWalDurability() {
+    return Optional.ofNullable(walDurability);
+  }
+
+  public void setWalDurability(String walDurability) {
+    this.walDurability = walDurability;
+  }
 }
@@ -139,6 +139,9 @@ public class Utils {
     if (info.containsKey(Config.SQL_DIALECT)) {
       params.setSqlDialect(info.getProperty(Config.SQL_DIALECT));
     }
+    if (info.containsKey(Config.WAL_DURABILITY)) {
+      params.setWalDurability(info.getProperty(Config.WAL_DURABILITY));
+    }
 
     return params;
   }
@@ -194,6 +194,10 @@ public class Session implements ISession {
   // may be null
   protected volatile String database;
 
+  // durability level of wal that writes of this session wait for, one of memory, page_cache and
+  // fsync, null means following the wal_mode of the DataNode
+  protected String walDurability;
+
   private static final String REDIRECT_TWICE = "redirect twice";
 
   private static final String REDIRECT_TWICE_RETRY = "redirect twice, please try again.";
@@ -459,6 +463,7 @@ public class Session implements ISession {
     this.sqlDialect = builder.sqlDialect;
     this.queryTimeoutInMs = builder.timeOut;
     this.database = builder.database;
+    this.walDurability = builder.walDurability;
   }
 
   @Override
@@ -3954,6 +3959,8 @@ public class Session implements ISession {
 
     private String database;
 
+    private String walDurability;
+
     public Builder useSSL(boolean useSSL) {
       this.useSSL = useSSL;
       return this;
@@ -4061,6 +4068,11 @@ public class Session implements ISession {
       return this;
     }
 
+    public Builder walDurability(String walDurability) {
+      this.walDurability = walDurability;
+      return this;
+    }
+
     public Session build() {
       if (nodeUrls != null
           && (!SessionConfig.DEFAULT_HOST.equals(host) || rpcPort != SessionConfig.DEFAULT_PORT)) {
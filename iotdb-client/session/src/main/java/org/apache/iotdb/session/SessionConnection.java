@@ -212,6 +212,9 @@ public class SessionConnection {
     if (database != null) {
       openReq.putToConfiguration("db", database);
     }
+    if (session.walDurability != null) {
+      openReq.putToConfiguration("wal_durability", session.walDurability);
+    }
 
     try {
       TSOpenSessionResp openResp = client.openSession(openReq);
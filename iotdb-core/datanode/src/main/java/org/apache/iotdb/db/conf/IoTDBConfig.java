@@ -39,6 +39,7 @@ import org.apache.iotdb.db.storageengine.dataregion.compaction.selector.constant
 import org.apache.iotdb.db.storageengine.dataregion.compaction.selector.constant.InnerSequenceCompactionSelector;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.selector.constant.InnerUnsequenceCompactionSelector;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.TimeIndexLevel;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALBufferType;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALMode;
 import org.apache.iotdb.db.utils.datastructure.TVListSortAlgorithm;
 import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
@@ -213,6 +214,12 @@ public class IoTDBConfig {
    */
   private volatile long walSyncModeFsyncDelayInMs = 3;
 
+  /**
+   * Whether to adjust the fsync delay of wal by the arrival rate of wal entries and the cost of
+   * fsync, the fsync delays above are used as upper bounds when it's enabled.
+   */
+  private volatile boolean enableWalAdaptiveFsyncDelay = false;
+
   /** Buffer size of each wal node. Unit: byte */
   private int walBufferSize = 32 * 1024 * 1024;
 
@@ -222,6 +229,15 @@ public class IoTDBConfig {
   /** Blocking queue capacity of each wal buffer */
   private int walBufferQueueCapacity = 500;
 
+  /** Implementation of each wal buffer */
+  private WALBufferType walBufferType = WALBufferType.QUEUE;
+
+  /** Number of off-heap segments of each wal buffer, only used by the concurrent wal buffer */
+  private int walBufferSegmentNum = 8;
+
+  /** Number of wal nodes recovered concurrently when restarting */
+  private int walRecoverThreadCount = Runtime.getRuntime().availableProcessors();
+
   /** Size threshold of each wal file. Unit: byte */
   private volatile long walFileSizeThresholdInByte = 30 * 1024 * 1024L;
 
@@ -351,6 +367,12 @@ public class IoTDBConfig {
   /** How many threads can concurrently flush. When <= 0, use CPU core number. */
   private int flushThreadCount = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * How many threads encode chunk groups of flushing memtables, shared by all flush tasks. When <=
+   * 0, use CPU core number.
+   */
+  private int flushEncodingThreadCount = Runtime.getRuntime().availableProcessors();
+
   /** How many threads can concurrently execute query statement. When <= 0, use CPU core number. */
   private int queryThreadCount = Runtime.getRuntime().availableProcessors();
 
@@ -420,6 +442,17 @@ public class IoTDBConfig {
   /** The sort algorithm used in TVList */
   private TVListSortAlgorithm tvListSortAlgorithm = TVListSortAlgorithm.TIM;
 
+  /**
+   * Whether to store timestamps and values of non-aligned fixed-length TVLists in off-heap memory
+   */
+  private boolean enableOffHeapTVList = false;
+
+  /**
+   * Proportion of the max direct memory for off-heap TVLists, new TVLists are created on-heap once
+   * it's used up
+   */
+  private double offHeapTVListMemoryProportion = 0.2;
+
   /** When average series point number reaches this, flush the memtable to disk */
   private int avgSeriesPointNumberThreshold = 100000;
 
@@ -580,6 +613,15 @@ public class IoTDBConfig {
   /** whether to cache meta data(ChunkMetaData and TsFileMetaData) or not. */
   private boolean metaDataCacheEnable = true;
 
+  /** Memory allocated for the cache of parsed mods files in read process. Unit: byte */
+  private long modsCacheSizeInByte = 32 * 1024 * 1024L;
+
+  /**
+   * Whether new mods files are written in the binary indexed format, which older versions cannot
+   * read. Mods files are also transferred by pipes as they are, so receivers must be upgraded first.
+   */
+  private boolean enableBinaryModsFile = false;
+
   /** Memory allocated for bloomFilter cache in read process */
   private long allocateMemoryForBloomFilterCache = allocateMemoryForRead / 1001;
 
@@ -589,6 +631,51 @@ public class IoTDBConfig {
   /** Memory allocated for chunk cache in read process */
   private long allocateMemoryForChunkCache = allocateMemoryForRead * 100 / 1001;
 
+  /**
+   * Off-heap memory allocated for the compressed chunk cache beneath the chunk cache, 0 means
+   * disabled. Unit: byte
+   */
+  private long chunkOffHeapCacheSizeInByte = 0;
+
+  /**
+   * A fragment instance reading at least this many TsFiles is treated as a large scan and does not
+   * populate the chunk, timeseries metadata and bloom filter caches, 0 means disabled.
+   */
+  private int readCacheBypassFileNumThreshold = 0;
+
+  /**
+   * How many chunks a series scan reads from disk ahead of consumption, 0 means disabled. A session
+   * can override it.
+   */
+  private int seriesScanReadAheadChunkNum = 0;
+
+  /** Threads shared by all series scans to read chunks ahead. */
+  private int seriesScanReadAheadThreadCount = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Max number of time partition ranges a raw series scan is split into, each scanned by its own
+   * driver. 1 means disabled. The degree of parallelism of the fragment instance also bounds it.
+   */
+  private int seriesScanTimeSplitNum = 1;
+
+  /**
+   * Whether to keep a device to TsFile index for each time partition, so that the TsFiles of a
+   * single device query are looked up instead of checked one by one.
+   */
+  private boolean enableTimePartitionDeviceIndex = false;
+
+  /**
+   * Local directory caching the blocks read from TsFiles on tiers above 0, empty means the cache is
+   * disabled.
+   */
+  private String coldTierReadCacheDir = "";
+
+  /** Max size of the cold tier read cache, pinned metadata blocks included. */
+  private long coldTierReadCacheSizeInMB = 10240;
+
+  /** Granularity in which TsFiles on cold tiers are read and cached. */
+  private int coldTierReadCacheBlockSizeInKB = 1024;
+
   /** Memory allocated for operators */
   private long allocateMemoryForCoordinator = allocateMemoryForRead * 50 / 1001;
 
@@ -965,6 +1052,18 @@ public class IoTDBConfig {
   /** Thread keep alive time in ms of mpp data exchange. */
   private int mppDataExchangeKeepAliveTimeInMs = 1000;
 
+  /**
+   * Compressor of TsBlocks sent to other DataNodes. Any value other than UNCOMPRESSED also encodes
+   * every column with a lightweight codec, which DataNodes of older versions can not read.
+   */
+  private CompressionType mppDataExchangeCompressor = CompressionType.UNCOMPRESSED;
+
+  /**
+   * Bytes of TsBlocks a remote upstream SinkChannel may push to a SourceHandle before they are
+   * consumed. 0 means TsBlocks are only pulled by the SourceHandle.
+   */
+  private long mppDataExchangeStreamingCreditInBytes = 0L;
+
   /** Thrift socket and connection timeout between data node and config node. */
   private int connectionTimeoutInMS = (int) TimeUnit.SECONDS.toMillis(60);
 
@@ -1043,6 +1142,19 @@ public class IoTDBConfig {
   /** Maximum execution time of a DriverTask */
   private int driverTaskExecutionTimeSliceInMs = 200;
 
+  /**
+   * Whether each query worker thread has its own ready queue and steals DriverTasks from the others
+   * when it is empty, instead of all the workers sharing one ready queue.
+   */
+  private boolean enableDriverTaskWorkStealing = false;
+
+  /**
+   * Definitions of the query resource groups separated by ';', see {@link
+   * org.apache.iotdb.db.queryengine.execution.resourcegroup.ResourceGroup}. Empty means queries are
+   * not limited.
+   */
+  private volatile String queryResourceGroups = "";
+
   /** Maximum size of wal buffer used in IoTConsensus. Unit: byte */
   private long throttleThreshold = 50 * 1024 * 1024 * 1024L;
 
@@ -1358,6 +1470,9 @@ public class IoTDBConfig {
     extPipeDir = addDataHomeDir(extPipeDir);
     queryDir = addDataHomeDir(queryDir);
     sortTmpDir = addDataHomeDir(sortTmpDir);
+    if (!coldTierReadCacheDir.isEmpty()) {
+      coldTierReadCacheDir = addDataHomeDir(coldTierReadCacheDir);
+    }
     formulateDataDirs(tierDataDirs);
   }
 
@@ -1732,6 +1847,14 @@ public class IoTDBConfig {
     this.flushThreadCount = flushThreadCount;
   }
 
+  public int getFlushEncodingThreadCount() {
+    return flushEncodingThreadCount;
+  }
+
+  void setFlushEncodingThreadCount(int flushEncodingThreadCount) {
+    this.flushEncodingThreadCount = flushEncodingThreadCount;
+  }
+
   public int getQueryThreadCount() {
     return queryThreadCount;
   }
@@ -1929,6 +2052,14 @@ public class IoTDBConfig {
     this.walSyncModeFsyncDelayInMs = walSyncModeFsyncDelayInMs;
   }
 
+  public boolean isEnableWalAdaptiveFsyncDelay() {
+    return enableWalAdaptiveFsyncDelay;
+  }
+
+  public void setEnableWalAdaptiveFsyncDelay(boolean enableWalAdaptiveFsyncDelay) {
+    this.enableWalAdaptiveFsyncDelay = enableWalAdaptiveFsyncDelay;
+  }
+
   public int getWalBufferSize() {
     return walBufferSize;
   }
@@ -1954,6 +2085,30 @@ public class IoTDBConfig {
     this.walBufferQueueCapacity = walBufferQueueCapacity;
   }
 
+  public WALBufferType getWalBufferType() {
+    return walBufferType;
+  }
+
+  public void setWalBufferType(WALBufferType walBufferType) {
+    this.walBufferType = walBufferType;
+  }
+
+  public int getWalBufferSegmentNum() {
+    return walBufferSegmentNum;
+  }
+
+  void setWalBufferSegmentNum(int walBufferSegmentNum) {
+    this.walBufferSegmentNum = walBufferSegmentNum;
+  }
+
+  public int getWalRecoverThreadCount() {
+    return walRecoverThreadCount;
+  }
+
+  void setWalRecoverThreadCount(int walRecoverThreadCount) {
+    this.walRecoverThreadCount = walRecoverThreadCount;
+  }
+
   public long getWalFileSizeThresholdInByte() {
     return walFileSizeThresholdInByte;
   }
@@ -2263,6 +2418,22 @@ public class IoTDBConfig {
     this.tvListSortAlgorithm = tvListSortAlgorithm;
   }
 
+  public boolean isEnableOffHeapTVList() {
+    return enableOffHeapTVList;
+  }
+
+  public void setEnableOffHeapTVList(boolean enableOffHeapTVList) {
+    this.enableOffHeapTVList = enableOffHeapTVList;
+  }
+
+  public double getOffHeapTVListMemoryProportion() {
+    return offHeapTVListMemoryProportion;
+  }
+
+  public void setOffHeapTVListMemoryProportion(double offHeapTVListMemoryProportion) {
+    this.offHeapTVListMemoryProportion = offHeapTVListMemoryProportion;
+  }
+
   public int getAvgSeriesPointNumberThreshold() {
     return avgSeriesPointNumberThreshold;
   }
@@ -2287,6 +2458,94 @@ public class IoTDBConfig {
     this.metaDataCacheEnable = metaDataCacheEnable;
   }
 
+  public long getModsCacheSizeInByte() {
+    return modsCacheSizeInByte;
+  }
+
+  void setModsCacheSizeInByte(long modsCacheSizeInByte) {
+    this.modsCacheSizeInByte = modsCacheSizeInByte;
+  }
+
+  public boolean isEnableBinaryModsFile() {
+    return enableBinaryModsFile;
+  }
+
+  public void setEnableBinaryModsFile(boolean enableBinaryModsFile) {
+    this.enableBinaryModsFile = enableBinaryModsFile;
+  }
+
+  public long getChunkOffHeapCacheSizeInByte() {
+    return chunkOffHeapCacheSizeInByte;
+  }
+
+  void setChunkOffHeapCacheSizeInByte(long chunkOffHeapCacheSizeInByte) {
+    this.chunkOffHeapCacheSizeInByte = chunkOffHeapCacheSizeInByte;
+  }
+
+  public int getReadCacheBypassFileNumThreshold() {
+    return readCacheBypassFileNumThreshold;
+  }
+
+  void setReadCacheBypassFileNumThreshold(int readCacheBypassFileNumThreshold) {
+    this.readCacheBypassFileNumThreshold = readCacheBypassFileNumThreshold;
+  }
+
+  public int getSeriesScanReadAheadChunkNum() {
+    return seriesScanReadAheadChunkNum;
+  }
+
+  void setSeriesScanReadAheadChunkNum(int seriesScanReadAheadChunkNum) {
+    this.seriesScanReadAheadChunkNum = seriesScanReadAheadChunkNum;
+  }
+
+  public int getSeriesScanReadAheadThreadCount() {
+    return seriesScanReadAheadThreadCount;
+  }
+
+  void setSeriesScanReadAheadThreadCount(int seriesScanReadAheadThreadCount) {
+    this.seriesScanReadAheadThreadCount = seriesScanReadAheadThreadCount;
+  }
+
+  public int getSeriesScanTimeSplitNum() {
+    return seriesScanTimeSplitNum;
+  }
+
+  public void setSeriesScanTimeSplitNum(int seriesScanTimeSplitNum) {
+    this.seriesScanTimeSplitNum = seriesScanTimeSplitNum;
+  }
+
+  public boolean isEnableTimePartitionDeviceIndex() {
+    return enableTimePartitionDeviceIndex;
+  }
+
+  public void setEnableTimePartitionDeviceIndex(boolean enableTimePartitionDeviceIndex) {
+    this.enableTimePartitionDeviceIndex = enableTimePartitionDeviceIndex;
+  }
+
+  public String getColdTierReadCacheDir() {
+    return coldTierReadCacheDir;
+  }
+
+  public void setColdTierReadCacheDir(String coldTierReadCacheDir) {
+    this.coldTierReadCacheDir = coldTierReadCacheDir;
+  }
+
+  public long getColdTierReadCacheSizeInMB() {
+    return coldTierReadCacheSizeInMB;
+  }
+
+  public void setColdTierReadCacheSizeInMB(long coldTierReadCacheSizeInMB) {
+    this.coldTierReadCacheSizeInMB = coldTierReadCacheSizeInMB;
+  }
+
+  public int getColdTierReadCacheBlockSizeInKB() {
+    return coldTierReadCacheBlockSizeInKB;
+  }
+
+  public void setColdTierReadCacheBlockSizeInKB(int coldTierReadCacheBlockSizeInKB) {
+    this.coldTierReadCacheBlockSizeInKB = coldTierReadCacheBlockSizeInKB;
+  }
+
   public long getAllocateMemoryForBloomFilterCache() {
     return allocateMemoryForBloomFilterCache;
   }
@@ -3244,6 +3503,22 @@ public class IoTDBConfig {
     this.mppDataExchangeKeepAliveTimeInMs = mppDataExchangeKeepAliveTimeInMs;
   }
 
+  public CompressionType getMppDataExchangeCompressor() {
+    return mppDataExchangeCompressor;
+  }
+
+  public void setMppDataExchangeCompressor(CompressionType mppDataExchangeCompressor) {
+    this.mppDataExchangeCompressor = mppDataExchangeCompressor;
+  }
+
+  public long getMppDataExchangeStreamingCreditInBytes() {
+    return mppDataExchangeStreamingCreditInBytes;
+  }
+
+  public void setMppDataExchangeStreamingCreditInBytes(long mppDataExchangeStreamingCreditInBytes) {
+    this.mppDataExchangeStreamingCreditInBytes = mppDataExchangeStreamingCreditInBytes;
+  }
+
   public int getConnectionTimeoutInMS() {
     return connectionTimeoutInMS;
   }
@@ -3457,6 +3732,22 @@ public class IoTDBConfig {
     this.driverTaskExecutionTimeSliceInMs = driverTaskExecutionTimeSliceInMs;
   }
 
+  public boolean isEnableDriverTaskWorkStealing() {
+    return enableDriverTaskWorkStealing;
+  }
+
+  public void setEnableDriverTaskWorkStealing(boolean enableDriverTaskWorkStealing) {
+    this.enableDriverTaskWorkStealing = enableDriverTaskWorkStealing;
+  }
+
+  public String getQueryResourceGroups() {
+    return queryResourceGroups;
+  }
+
+  public void setQueryResourceGroups(String queryResourceGroups) {
+    this.queryResourceGroups = queryResourceGroups;
+  }
+
   public double getWriteProportionForMemtable() {
     return writeProportionForMemtable;
   }
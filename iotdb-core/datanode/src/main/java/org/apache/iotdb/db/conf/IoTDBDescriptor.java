@@ -43,6 +43,7 @@ import org.apache.iotdb.db.storageengine.dataregion.compaction.selector.constant
 import org.apache.iotdb.db.storageengine.dataregion.compaction.selector.constant.InnerSequenceCompactionSelector;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.selector.constant.InnerUnsequenceCompactionSelector;
 import org.apache.iotdb.db.storageengine.dataregion.wal.WALManager;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALBufferType;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALMode;
 import org.apache.iotdb.db.storageengine.rescon.disk.TierManager;
 import org.apache.iotdb.db.storageengine.rescon.memory.SystemInfo;
@@ -351,6 +352,110 @@ public class IoTDBDescriptor {
                     "meta_data_cache_enable", Boolean.toString(conf.isMetaDataCacheEnable()))
                 .trim()));
 
+    long modsCacheSizeInByte =
+        Long.parseLong(
+            properties
+                .getProperty(
+                    "mods_cache_size_in_byte", Long.toString(conf.getModsCacheSizeInByte()))
+                .trim());
+    if (modsCacheSizeInByte > 0) {
+      conf.setModsCacheSizeInByte(modsCacheSizeInByte);
+    }
+
+    conf.setEnableBinaryModsFile(
+        Boolean.parseBoolean(
+            properties
+                .getProperty(
+                    "enable_binary_mods_file", Boolean.toString(conf.isEnableBinaryModsFile()))
+                .trim()));
+
+    long chunkOffHeapCacheSizeInByte =
+        Long.parseLong(
+            properties
+                .getProperty(
+                    "chunk_off_heap_cache_size_in_byte",
+                    Long.toString(conf.getChunkOffHeapCacheSizeInByte()))
+                .trim());
+    if (chunkOffHeapCacheSizeInByte >= 0) {
+      conf.setChunkOffHeapCacheSizeInByte(chunkOffHeapCacheSizeInByte);
+    }
+
+    int readCacheBypassFileNumThreshold =
+        Integer.parseInt(
+            properties
+                .getProperty(
+                    "read_cache_bypass_file_num_threshold",
+                    Integer.toString(conf.getReadCacheBypassFileNumThreshold()))
+                .trim());
+    if (readCacheBypassFileNumThreshold >= 0) {
+      conf.setReadCacheBypassFileNumThreshold(readCacheBypassFileNumThreshold);
+    }
+
+    int seriesScanReadAheadChunkNum =
+        Integer.parseInt(
+            properties
+                .getProperty(
+                    "series_scan_read_ahead_chunk_num",
+                    Integer.toString(conf.getSeriesScanReadAheadChunkNum()))
+                .trim());
+    if (seriesScanReadAheadChunkNum >= 0) {
+      conf.setSeriesScanReadAheadChunkNum(seriesScanReadAheadChunkNum);
+    }
+
+    int seriesScanReadAheadThreadCount =
+        Integer.parseInt(
+            properties
+                .getProperty(
+                    "series_scan_read_ahead_thread_count",
+                    Integer.toString(conf.getSeriesScanReadAheadThreadCount()))
+                .trim());
+    conf.setSeriesScanReadAheadThreadCount(
+        seriesScanReadAheadThreadCount > 0
+            ? seriesScanReadAheadThreadCount
+            : Runtime.getRuntime().availableProcessors());
+
+    int seriesScanTimeSplitNum =
+        Integer.parseInt(
+            properties
+                .getProperty(
+                    "series_scan_time_split_num",
+                    Integer.toString(conf.getSeriesScanTimeSplitNum()))
+                .trim());
+    if (seriesScanTimeSplitNum > 0) {
+      conf.setSeriesScanTimeSplitNum(seriesScanTimeSplitNum);
+    }
+
+    conf.setEnableTimePartitionDeviceIndex(
+        Boolean.parseBoolean(
+            properties
+                .getProperty(
+                    "enable_time_partition_device_index",
+                    Boolean.toString(conf.isEnableTimePartitionDeviceIndex()))
+                .trim()));
+
+    conf.setColdTierReadCacheDir(
+        properties.getProperty("cold_tier_read_cache_dir", conf.getColdTierReadCacheDir()).trim());
+    long coldTierReadCacheSizeInMB =
+        Long.parseLong(
+            properties
+                .getProperty(
+                    "cold_tier_read_cache_size_in_mb",
+                    Long.toString(conf.getColdTierReadCacheSizeInMB()))
+                .trim());
+    if (coldTierReadCacheSizeInMB > 0) {
+      conf.setColdTierReadCacheSizeInMB(coldTierReadCacheSizeInMB);
+    }
+    int coldTierReadCacheBlockSizeInKB =
+        Integer.parseInt(
+            properties
+                .getProperty(
+                    "cold_tier_read_cache_block_size_in_kb",
+                    Integer.toString(conf.getColdTierReadCacheBlockSizeInKB()))
+                .trim());
+    if (coldTierReadCacheBlockSizeInKB > 0) {
+      conf.setColdTierReadCacheBlockSizeInKB(coldTierReadCacheBlockSizeInKB);
+    }
+
     initMemoryAllocate(properties);
 
     String systemDir = properties.getProperty("dn_system_dir");
@@ -407,6 +512,17 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "tvlist_sort_algorithm", conf.getTvListSortAlgorithm().toString())));
 
+    conf.setEnableOffHeapTVList(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_off_heap_tvlist", Boolean.toString(conf.isEnableOffHeapTVList()))));
+
+    conf.setOffHeapTVListMemoryProportion(
+        Double.parseDouble(
+            properties.getProperty(
+                "off_heap_tvlist_memory_proportion",
+                Double.toString(conf.getOffHeapTVListMemoryProportion()))));
+
     conf.setAvgSeriesPointNumberThreshold(
         Integer.parseInt(
             properties.getProperty(
@@ -533,6 +649,16 @@ public class IoTDBDescriptor {
       conf.setFlushThreadCount(Runtime.getRuntime().availableProcessors());
     }
 
+    conf.setFlushEncodingThreadCount(
+        Integer.parseInt(
+            properties.getProperty(
+                "flush_encoding_thread_count",
+                Integer.toString(conf.getFlushEncodingThreadCount()))));
+
+    if (conf.getFlushEncodingThreadCount() <= 0) {
+      conf.setFlushEncodingThreadCount(Runtime.getRuntime().availableProcessors());
+    }
+
     // start: index parameter setting
     conf.setIndexRootFolder(properties.getProperty("index_root_dir", conf.getIndexRootFolder()));
 
@@ -1177,6 +1303,27 @@ public class IoTDBDescriptor {
       conf.setWalBufferQueueCapacity(walBufferQueueCapacity);
     }
 
+    conf.setWalBufferType(
+        WALBufferType.valueOf(
+            properties.getProperty("wal_buffer_type", conf.getWalBufferType().toString()).trim()));
+
+    int walBufferSegmentNum =
+        Integer.parseInt(
+            properties.getProperty(
+                "wal_buffer_segment_num", Integer.toString(conf.getWalBufferSegmentNum())));
+    if (walBufferSegmentNum > 1) {
+      conf.setWalBufferSegmentNum(walBufferSegmentNum);
+    }
+
+    int walRecoverThreadCount =
+        Integer.parseInt(
+            properties.getProperty(
+                "wal_recover_thread_count", Integer.toString(conf.getWalRecoverThreadCount())));
+    if (walRecoverThreadCount <= 0) {
+      walRecoverThreadCount = Runtime.getRuntime().availableProcessors();
+    }
+    conf.setWalRecoverThreadCount(walRecoverThreadCount);
+
     loadWALHotModifiedProps(properties);
   }
 
@@ -1501,6 +1648,13 @@ public class IoTDBDescriptor {
       conf.setWalSyncModeFsyncDelayInMs(walSyncModeFsyncDelayInMs);
     }
 
+    conf.setEnableWalAdaptiveFsyncDelay(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_wal_adaptive_fsync_delay",
+                ConfigurationFileUtils.getConfigurationDefaultValue(
+                    "enable_wal_adaptive_fsync_delay"))));
+
     long walFileSizeThreshold =
         Long.parseLong(
             properties.getProperty(
@@ -1939,6 +2093,15 @@ public class IoTDBDescriptor {
                       ConfigurationFileUtils.getConfigurationDefaultValue(
                           "pipe_all_sinks_rate_limit_bytes_per_second"))));
 
+      // update query resource groups
+      conf.setQueryResourceGroups(
+          Optional.ofNullable(
+                  properties.getProperty(
+                      "query_resource_groups",
+                      ConfigurationFileUtils.getConfigurationDefaultValue("query_resource_groups")))
+              .orElse("")
+              .trim());
+
       // update merge_threshold_of_explain_analyze
       conf.setMergeThresholdOfExplainAnalyze(
           Integer.parseInt(
@@ -2550,6 +2713,17 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "mpp_data_exchange_keep_alive_time_in_ms",
                 Integer.toString(conf.getMppDataExchangeKeepAliveTimeInMs()))));
+    conf.setMppDataExchangeCompressor(
+        CompressionType.valueOf(
+            properties
+                .getProperty(
+                    "mpp_data_exchange_compressor", conf.getMppDataExchangeCompressor().name())
+                .trim()));
+    conf.setMppDataExchangeStreamingCreditInBytes(
+        Long.parseLong(
+            properties.getProperty(
+                "mpp_data_exchange_streaming_credit_in_bytes",
+                Long.toString(conf.getMppDataExchangeStreamingCreditInBytes()))));
 
     conf.setPartitionCacheSize(
         Integer.parseInt(
@@ -2561,6 +2735,17 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "driver_task_execution_time_slice_in_ms",
                 Integer.toString(conf.getDriverTaskExecutionTimeSliceInMs()))));
+
+    conf.setEnableDriverTaskWorkStealing(
+        Boolean.parseBoolean(
+            properties
+                .getProperty(
+                    "enable_driver_task_work_stealing",
+                    Boolean.toString(conf.isEnableDriverTaskWorkStealing()))
+                .trim()));
+
+    conf.setQueryResourceGroups(
+        properties.getProperty("query_resource_groups", conf.getQueryResourceGroups()).trim());
   }
 
   /** Get default encode algorithm by data type */
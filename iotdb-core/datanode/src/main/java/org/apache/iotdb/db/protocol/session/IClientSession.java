@@ -20,6 +20,7 @@
 package org.apache.iotdb.db.protocol.session;
 
 import org.apache.iotdb.commons.conf.IoTDBConstant.ClientVersion;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
 import org.apache.iotdb.service.rpc.thrift.TSConnectionInfo;
 import org.apache.iotdb.service.rpc.thrift.TSConnectionType;
 
@@ -54,6 +55,16 @@ public abstract class IClientSession {
 
   @Nullable private String databaseName;
 
+  // null means following the wal mode of the DataNode
+  @Nullable private WALDurabilityLevel walDurabilityLevel;
+
+  // queries of this session do not populate ChunkCache, TimeSeriesMetadataCache and
+  // BloomFilterCache
+  private boolean bypassReadCache = false;
+
+  // chunks read ahead by series scans of this session, negative means the system default
+  private int readAheadChunkNum = -1;
+
   public abstract String getClientAddress();
 
   abstract int getClientPort();
@@ -163,6 +174,31 @@ public abstract class IClientSession {
     this.databaseName = databaseName;
   }
 
+  @Nullable
+  public WALDurabilityLevel getWalDurabilityLevel() {
+    return walDurabilityLevel;
+  }
+
+  public void setWalDurabilityLevel(@Nullable WALDurabilityLevel walDurabilityLevel) {
+    this.walDurabilityLevel = walDurabilityLevel;
+  }
+
+  public boolean isBypassReadCache() {
+    return bypassReadCache;
+  }
+
+  public void setBypassReadCache(boolean bypassReadCache) {
+    this.bypassReadCache = bypassReadCache;
+  }
+
+  public int getReadAheadChunkNum() {
+    return readAheadChunkNum;
+  }
+
+  public void setReadAheadChunkNum(int readAheadChunkNum) {
+    this.readAheadChunkNum = readAheadChunkNum;
+  }
+
   public enum SqlDialect {
     TREE((byte) 0),
     TABLE((byte) 1);
@@ -374,13 +374,18 @@ public class SessionManager implements SessionManagerMBean {
   }
 
   public SessionInfo getSessionInfo(IClientSession session) {
-    return new SessionInfo(
-        session.getId(),
-        session.getUsername(),
-        session.getZoneId(),
-        session.getClientVersion(),
-        session.getDatabaseName(),
-        session.getSqlDialect());
+    SessionInfo sessionInfo =
+        new SessionInfo(
+            session.getId(),
+            session.getUsername(),
+            session.getZoneId(),
+            session.getClientVersion(),
+            session.getDatabaseName(),
+            session.getSqlDialect());
+    sessionInfo.setWalDurabilityLevel(session.getWalDurabilityLevel());
+    sessionInfo.setBypassReadCache(session.isBypassReadCache());
+    sessionInfo.setReadAheadChunkNum(session.getReadAheadChunkNum());
+    return sessionInfo;
   }
 
   @Override
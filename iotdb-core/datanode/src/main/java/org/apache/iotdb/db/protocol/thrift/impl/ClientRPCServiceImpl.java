@@ -116,6 +116,7 @@ import org.apache.iotdb.db.queryengine.plan.statement.metadata.template.UnsetSch
 import org.apache.iotdb.db.schemaengine.template.TemplateQueryType;
 import org.apache.iotdb.db.storageengine.StorageEngine;
 import org.apache.iotdb.db.storageengine.dataregion.DataRegion;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
 import org.apache.iotdb.db.storageengine.rescon.quotas.DataNodeThrottleQuotaManager;
 import org.apache.iotdb.db.storageengine.rescon.quotas.OperationQuota;
 import org.apache.iotdb.db.subscription.agent.SubscriptionAgent;
@@ -1215,6 +1216,16 @@ public class ClientRPCServiceImpl implements IClientRPCServiceWithHandler {
       TSOpenSessionResp resp = new TSOpenSessionResp(tsStatus, CURRENT_RPC_VERSION);
       return resp.setSessionId(-1);
     }
+    WALDurabilityLevel walDurabilityLevel;
+    int readAheadChunkNum;
+    try {
+      walDurabilityLevel = parseWalDurabilityLevel(req);
+      readAheadChunkNum = parseReadAheadChunkNum(req);
+    } catch (IllegalArgumentException e) {
+      TSStatus tsStatus = RpcUtils.getStatus(TSStatusCode.ILLEGAL_PARAMETER, e.getMessage());
+      TSOpenSessionResp resp = new TSOpenSessionResp(tsStatus, CURRENT_RPC_VERSION);
+      return resp.setSessionId(-1);
+    }
     Optional<String> database = parseDatabase(req);
     IClientSession clientSession = SESSION_MANAGER.getCurrSession();
     BasicOpenSessionResp openSessionResp =
@@ -1231,6 +1242,11 @@ public class ClientRPCServiceImpl implements IClientRPCServiceWithHandler {
     if (tsStatus.getCode() == TSStatusCode.SUCCESS_STATUS.getStatusCode() && database.isPresent()) {
       clientSession.setDatabaseName(database.get());
     }
+    if (tsStatus.getCode() == TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
+      clientSession.setWalDurabilityLevel(walDurabilityLevel);
+      clientSession.setBypassReadCache(parseBypassReadCache(req));
+      clientSession.setReadAheadChunkNum(readAheadChunkNum);
+    }
     TSOpenSessionResp resp = new TSOpenSessionResp(tsStatus, CURRENT_RPC_VERSION);
     Map<String, String> configuration = new HashMap<>();
     configuration.put(
@@ -1262,6 +1278,32 @@ public class ClientRPCServiceImpl implements IClientRPCServiceWithHandler {
     }
   }
 
+  private WALDurabilityLevel parseWalDurabilityLevel(TSOpenSessionReq req) {
+    Map<String, String> configuration = req.configuration;
+    if (configuration != null && configuration.containsKey("wal_durability")) {
+      return WALDurabilityLevel.parse(configuration.get("wal_durability"));
+    }
+    return null;
+  }
+
+  private boolean parseBypassReadCache(TSOpenSessionReq req) {
+    Map<String, String> configuration = req.configuration;
+    return configuration != null && Boolean.parseBoolean(configuration.get("bypass_read_cache"));
+  }
+
+  private int parseReadAheadChunkNum(TSOpenSessionReq req) {
+    Map<String, String> configuration = req.configuration;
+    if (configuration != null && configuration.containsKey("read_ahead_chunk_num")) {
+      // NumberFormatException is an IllegalArgumentException
+      int readAheadChunkNum = Integer.parseInt(configuration.get("read_ahead_chunk_num").trim());
+      if (readAheadChunkNum < 0) {
+        throw new IllegalArgumentException("read_ahead_chunk_num should not be negative");
+      }
+      return readAheadChunkNum;
+    }
+    return -1;
+  }
+
   private Optional<String> parseDatabase(TSOpenSessionReq req) {
     Map<String, String> configuration = req.configuration;
     return configuration == null ? Optional.empty() : Optional.ofNullable(configuration.get("db"));
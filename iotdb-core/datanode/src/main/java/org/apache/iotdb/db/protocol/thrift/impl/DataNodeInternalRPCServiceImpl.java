@@ -137,6 +137,7 @@ import org.apache.iotdb.db.queryengine.plan.planner.plan.node.metadata.write.vie
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.pipe.PipeEnrichedDeleteDataNode;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.pipe.PipeEnrichedNonWritePlanNode;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.DeleteDataNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertNode;
 import org.apache.iotdb.db.queryengine.plan.relational.metadata.fetcher.TableDeviceSchemaFetcher;
 import org.apache.iotdb.db.queryengine.plan.scheduler.load.LoadTsFileScheduler;
 import org.apache.iotdb.db.queryengine.plan.statement.component.WhereCondition;
@@ -154,6 +155,7 @@ import org.apache.iotdb.db.storageengine.StorageEngine;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.repair.RepairTaskStatus;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.schedule.CompactionScheduleTaskManager;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.settle.SettleRequestHandler;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
 import org.apache.iotdb.db.storageengine.rescon.quotas.DataNodeSpaceQuotaManager;
 import org.apache.iotdb.db.storageengine.rescon.quotas.DataNodeThrottleQuotaManager;
 import org.apache.iotdb.db.subscription.agent.SubscriptionAgent;
@@ -380,6 +382,11 @@ public class DataNodeInternalRPCServiceImpl implements IDataNodeRPCService.Iface
                       ConsensusGroupId.Factory.createFromTConsensusGroupId(
                           request.getConsensusGroupId());
                   PlanNode planNode = PlanNodeType.deserialize(request.planNode.body);
+                  if (request.isSetWalDurabilityLevel() && planNode instanceof InsertNode) {
+                    ((InsertNode) planNode)
+                        .setWalDurabilityLevel(
+                            WALDurabilityLevel.valueOf(request.getWalDurabilityLevel()));
+                  }
                   RegionWriteExecutor executor = new RegionWriteExecutor();
                   TSendSinglePlanNodeResp resp = new TSendSinglePlanNodeResp();
                   RegionExecutionResult executionResult = executor.execute(groupId, planNode);
@@ -22,6 +22,7 @@ package org.apache.iotdb.db.queryengine.common;
 import org.apache.iotdb.commons.conf.IoTDBConstant.ClientVersion;
 import org.apache.iotdb.db.protocol.session.IClientSession;
 import org.apache.iotdb.db.queryengine.plan.relational.security.Identity;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
 
 import org.apache.tsfile.utils.ReadWriteIOUtils;
 
@@ -45,6 +46,14 @@ public class SessionInfo {
 
   private ClientVersion version = ClientVersion.V_1_0;
 
+  // not serialized, writes carry it in their dispatch requests instead
+  @Nullable private WALDurabilityLevel walDurabilityLevel;
+
+  // not serialized, FragmentInstance carries them to the executing DataNodes
+  private boolean bypassReadCache = false;
+  private int readAheadChunkNum = -1;
+  @Nullable private String resourceGroup;
+
   public SessionInfo(long sessionId, String userName, ZoneId zoneId) {
     this.sessionId = sessionId;
     this.userName = userName;
@@ -105,6 +114,42 @@ public class SessionInfo {
     return sqlDialect;
   }
 
+  @Nullable
+  public WALDurabilityLevel getWalDurabilityLevel() {
+    return walDurabilityLevel;
+  }
+
+  public void setWalDurabilityLevel(@Nullable WALDurabilityLevel walDurabilityLevel) {
+    this.walDurabilityLevel = walDurabilityLevel;
+  }
+
+  public boolean isBypassReadCache() {
+    return bypassReadCache;
+  }
+
+  public void setBypassReadCache(boolean bypassReadCache) {
+    this.bypassReadCache = bypassReadCache;
+  }
+
+  /** Negative means the system default series_scan_read_ahead_chunk_num is used. */
+  public int getReadAheadChunkNum() {
+    return readAheadChunkNum;
+  }
+
+  public void setReadAheadChunkNum(int readAheadChunkNum) {
+    this.readAheadChunkNum = readAheadChunkNum;
+  }
+
+  /** Name of the resource group the query was admitted into, null if it matches no group. */
+  @Nullable
+  public String getResourceGroup() {
+    return resourceGroup;
+  }
+
+  public void setResourceGroup(@Nullable String resourceGroup) {
+    this.resourceGroup = resourceGroup;
+  }
+
   public static SessionInfo deserializeFrom(final ByteBuffer buffer) {
     final long sessionId = ReadWriteIOUtils.readLong(buffer);
     final String userName = ReadWriteIOUtils.readString(buffer);
@@ -194,6 +194,7 @@ public class ColumnHeaderConstant {
   public static final String QUERY_ID = "QueryId";
   public static final String ELAPSED_TIME = "ElapsedTime";
   public static final String STATEMENT = "Statement";
+  public static final String RESOURCE_GROUP = "ResourceGroup";
 
   // column names for show space quota
   public static final String QUOTA_TYPE = "QuotaType";
@@ -500,7 +501,8 @@ public class ColumnHeaderConstant {
           new ColumnHeader(QUERY_ID, TSDataType.TEXT),
           new ColumnHeader(DATA_NODE_ID, TSDataType.INT32),
           new ColumnHeader(ELAPSED_TIME, TSDataType.FLOAT),
-          new ColumnHeader(STATEMENT, TSDataType.TEXT));
+          new ColumnHeader(STATEMENT, TSDataType.TEXT),
+          new ColumnHeader(RESOURCE_GROUP, TSDataType.TEXT));
 
   public static final List<ColumnHeader> showSpaceQuotaColumnHeaders =
       ImmutableList.of(
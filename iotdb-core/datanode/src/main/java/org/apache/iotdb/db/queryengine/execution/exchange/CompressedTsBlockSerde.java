@@ -0,0 +1,521 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.exchange;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.compress.ICompressor;
+import org.apache.tsfile.compress.IUnCompressor;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.column.BinaryColumn;
+import org.apache.tsfile.read.common.block.column.BooleanColumn;
+import org.apache.tsfile.read.common.block.column.ColumnEncoder;
+import org.apache.tsfile.read.common.block.column.DoubleColumn;
+import org.apache.tsfile.read.common.block.column.FloatColumn;
+import org.apache.tsfile.read.common.block.column.IntColumn;
+import org.apache.tsfile.read.common.block.column.LongColumn;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+import org.apache.tsfile.read.common.block.column.TimeColumn;
+import org.apache.tsfile.read.common.block.column.TsBlockSerde;
+import org.apache.tsfile.utils.Binary;
+import org.apache.tsfile.utils.PublicBAOS;
+import org.apache.tsfile.utils.ReadWriteForEncodingUtils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A {@link TsBlockSerde} that encodes every column with a lightweight codec and compresses the
+ * encoded block before it is shipped to a remote {@code SourceHandle}.
+ *
+ * <ul>
+ *   <li>INT64 and TIMESTAMP columns, including the time column, are stored as a start value and a
+ *       stride when the deltas are constant, and as zigzag varint deltas otherwise.
+ *   <li>INT32 and DATE columns are stored as zigzag varint deltas.
+ *   <li>TEXT, STRING and BLOB columns are dictionary encoded when at most half of the values are
+ *       distinct.
+ *   <li>{@link RunLengthEncodedColumn}s keep their single value only.
+ * </ul>
+ *
+ * <p>A block starts with {@link #COMPRESSED_FORMAT_MARKER}. The plain {@link TsBlockSerde} format
+ * starts with the non-negative value column count, so {@link #deserialize} accepts both formats and
+ * a receiver does not need to know how its upstream channel is configured. If the block compressor
+ * fails to save at least {@link #MIN_COMPRESSION_SAVING} of the encoded bytes for {@link
+ * #MAX_INEFFECTIVE_COMPRESSION_TIMES} blocks in a row, the channel stops compressing and only sends
+ * the encoded columns. With {@link CompressionType#UNCOMPRESSED} blocks are sent in the plain
+ * format, which DataNodes of older versions can read.
+ *
+ * <p>An instance is owned by a single {@code SinkChannel} or {@code SourceHandle}, whose methods
+ * are synchronized, so it is not thread-safe.
+ */
+public class CompressedTsBlockSerde extends TsBlockSerde {
+
+  public static final int COMPRESSED_FORMAT_MARKER = -1;
+
+  private static final double MIN_COMPRESSION_SAVING = 0.1;
+  private static final int MAX_INEFFECTIVE_COMPRESSION_TIMES = 8;
+
+  private static final byte PLAIN_COLUMN = 0;
+  private static final byte RLE_COLUMN = 1;
+
+  private static final byte DELTA_VALUES = 0;
+  private static final byte STRIDE_VALUES = 1;
+
+  private static final byte PLAIN_BINARIES = 0;
+  private static final byte DICTIONARY_BINARIES = 1;
+
+  private final ICompressor compressor;
+  private int ineffectiveCompressionTimes = 0;
+
+  public CompressedTsBlockSerde(CompressionType compressionType) {
+    this.compressor = ICompressor.getCompressor(compressionType);
+  }
+
+  @Override
+  public ByteBuffer serialize(TsBlock tsBlock) throws IOException {
+    if (compressor.getType() == CompressionType.UNCOMPRESSED || !isSupported(tsBlock)) {
+      ByteBuffer plain = super.serialize(tsBlock);
+      MPPDataExchangeServiceMetrics.recordSerializedTsBlock(
+          tsBlock.getSizeInBytes(), plain.remaining());
+      return plain;
+    }
+
+    PublicBAOS encoded = new PublicBAOS((int) tsBlock.getSizeInBytes());
+    DataOutputStream stream = new DataOutputStream(encoded);
+    stream.writeInt(tsBlock.getValueColumnCount());
+    for (int i = 0; i < tsBlock.getValueColumnCount(); i++) {
+      tsBlock.getColumn(i).getDataType().serializeTo(stream);
+    }
+    stream.writeInt(tsBlock.getPositionCount());
+    writeColumn(stream, tsBlock.getTimeColumn(), TSDataType.INT64);
+    for (int i = 0; i < tsBlock.getValueColumnCount(); i++) {
+      Column column = tsBlock.getColumn(i);
+      writeColumn(stream, column, column.getDataType());
+    }
+    stream.flush();
+
+    CompressionType compressionType = CompressionType.UNCOMPRESSED;
+    byte[] payload = encoded.getBuf();
+    int payloadLength = encoded.size();
+    if (ineffectiveCompressionTimes < MAX_INEFFECTIVE_COMPRESSION_TIMES) {
+      byte[] compressed = new byte[compressor.getMaxBytesForCompression(payloadLength)];
+      int compressedLength = compressor.compress(payload, 0, payloadLength, compressed);
+      if (compressedLength <= payloadLength * (1 - MIN_COMPRESSION_SAVING)) {
+        ineffectiveCompressionTimes = 0;
+        compressionType = compressor.getType();
+        payload = compressed;
+        payloadLength = compressedLength;
+      } else {
+        ineffectiveCompressionTimes++;
+      }
+    }
+
+    ByteBuffer output = ByteBuffer.allocate(Integer.BYTES * 2 + Byte.BYTES + payloadLength);
+    output.putInt(COMPRESSED_FORMAT_MARKER);
+    output.put(compressionType.serialize());
+    output.putInt(encoded.size());
+    output.put(payload, 0, payloadLength);
+    output.flip();
+    MPPDataExchangeServiceMetrics.recordSerializedTsBlock(
+        tsBlock.getSizeInBytes(), output.remaining());
+    return output;
+  }
+
+  /** Whether the serialized block is in the compressed format rather than the plain one. */
+  public static boolean isCompressedFormat(ByteBuffer byteBuffer) {
+    return byteBuffer.remaining() >= Integer.BYTES
+        && byteBuffer.getInt(byteBuffer.position()) == COMPRESSED_FORMAT_MARKER;
+  }
+
+  @Override
+  public TsBlock deserialize(ByteBuffer byteBuffer) {
+    if (!isCompressedFormat(byteBuffer)) {
+      return super.deserialize(byteBuffer);
+    }
+    byteBuffer.getInt();
+    CompressionType compressionType = CompressionType.deserialize(byteBuffer.get());
+    int uncompressedLength = byteBuffer.getInt();
+
+    ByteBuffer encoded;
+    if (compressionType == CompressionType.UNCOMPRESSED) {
+      encoded = byteBuffer.slice();
+    } else {
+      byte[] compressed = new byte[byteBuffer.remaining()];
+      byteBuffer.get(compressed);
+      byte[] uncompressed = new byte[uncompressedLength];
+      try {
+        IUnCompressor.getUnCompressor(compressionType)
+            .uncompress(compressed, 0, compressed.length, uncompressed, 0);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      encoded = ByteBuffer.wrap(uncompressed);
+    }
+
+    int valueColumnCount = encoded.getInt();
+    List<TSDataType> valueColumnDataTypes = new ArrayList<>(valueColumnCount);
+    for (int i = 0; i < valueColumnCount; i++) {
+      valueColumnDataTypes.add(TSDataType.deserializeFrom(encoded));
+    }
+    int positionCount = encoded.getInt();
+    Column timeColumn = readColumn(encoded, TSDataType.INT64, positionCount, true);
+    Column[] valueColumns = new Column[valueColumnCount];
+    for (int i = 0; i < valueColumnCount; i++) {
+      valueColumns[i] = readColumn(encoded, valueColumnDataTypes.get(i), positionCount, false);
+    }
+    return new TsBlock(positionCount, timeColumn, valueColumns);
+  }
+
+  private static boolean isSupported(TsBlock tsBlock) {
+    for (int i = 0; i < tsBlock.getValueColumnCount(); i++) {
+      switch (tsBlock.getColumn(i).getDataType()) {
+        case BOOLEAN:
+        case INT32:
+        case DATE:
+        case INT64:
+        case TIMESTAMP:
+        case FLOAT:
+        case DOUBLE:
+        case TEXT:
+        case STRING:
+        case BLOB:
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  private static void writeColumn(DataOutputStream stream, Column column, TSDataType dataType)
+      throws IOException {
+    if (column instanceof RunLengthEncodedColumn) {
+      stream.writeByte(RLE_COLUMN);
+      writeValues(stream, ((RunLengthEncodedColumn) column).getValue(), dataType);
+    } else {
+      stream.writeByte(PLAIN_COLUMN);
+      writeValues(stream, column, dataType);
+    }
+  }
+
+  private static Column readColumn(
+      ByteBuffer buffer, TSDataType dataType, int positionCount, boolean isTimeColumn) {
+    if (buffer.get() == RLE_COLUMN) {
+      return new RunLengthEncodedColumn(
+          readValues(buffer, dataType, 1, isTimeColumn), positionCount);
+    }
+    return readValues(buffer, dataType, positionCount, isTimeColumn);
+  }
+
+  private static void writeValues(DataOutputStream stream, Column column, TSDataType dataType)
+      throws IOException {
+    int positionCount = column.getPositionCount();
+    ColumnEncoder.serializeNullIndicators(stream, column);
+    switch (dataType) {
+      case BOOLEAN:
+        writeBooleans(stream, column, positionCount);
+        break;
+      case INT32:
+      case DATE:
+        int previousInt = 0;
+        for (int i = 0; i < positionCount; i++) {
+          if (!column.isNull(i)) {
+            int value = column.getInt(i);
+            ReadWriteForEncodingUtils.writeVarInt(value - previousInt, stream);
+            previousInt = value;
+          }
+        }
+        break;
+      case INT64:
+      case TIMESTAMP:
+        writeLongs(stream, column, positionCount);
+        break;
+      case FLOAT:
+        for (int i = 0; i < positionCount; i++) {
+          if (!column.isNull(i)) {
+            stream.writeFloat(column.getFloat(i));
+          }
+        }
+        break;
+      case DOUBLE:
+        for (int i = 0; i < positionCount; i++) {
+          if (!column.isNull(i)) {
+            stream.writeDouble(column.getDouble(i));
+          }
+        }
+        break;
+      case TEXT:
+      case STRING:
+      case BLOB:
+        writeBinaries(stream, column, positionCount);
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+    }
+  }
+
+  private static Column readValues(
+      ByteBuffer buffer, TSDataType dataType, int positionCount, boolean isTimeColumn) {
+    boolean[] nullIndicators = ColumnEncoder.deserializeNullIndicators(buffer, positionCount);
+    Optional<boolean[]> valueIsNull = Optional.ofNullable(nullIndicators);
+    switch (dataType) {
+      case BOOLEAN:
+        return new BooleanColumn(
+            positionCount, valueIsNull, readBooleans(buffer, nullIndicators, positionCount));
+      case INT32:
+      case DATE:
+        int[] ints = new int[positionCount];
+        int previousInt = 0;
+        for (int i = 0; i < positionCount; i++) {
+          if (nullIndicators == null || !nullIndicators[i]) {
+            previousInt += ReadWriteForEncodingUtils.readVarInt(buffer);
+            ints[i] = previousInt;
+          }
+        }
+        return new IntColumn(positionCount, valueIsNull, ints);
+      case INT64:
+      case TIMESTAMP:
+        long[] longs = readLongs(buffer, nullIndicators, positionCount);
+        return isTimeColumn
+            ? new TimeColumn(positionCount, longs)
+            : new LongColumn(positionCount, valueIsNull, longs);
+      case FLOAT:
+        float[] floats = new float[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+          if (nullIndicators == null || !nullIndicators[i]) {
+            floats[i] = buffer.getFloat();
+          }
+        }
+        return new FloatColumn(positionCount, valueIsNull, floats);
+      case DOUBLE:
+        double[] doubles = new double[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+          if (nullIndicators == null || !nullIndicators[i]) {
+            doubles[i] = buffer.getDouble();
+          }
+        }
+        return new DoubleColumn(positionCount, valueIsNull, doubles);
+      case TEXT:
+      case STRING:
+      case BLOB:
+        return new BinaryColumn(
+            positionCount, valueIsNull, readBinaries(buffer, nullIndicators, positionCount));
+      default:
+        throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+    }
+  }
+
+  private static void writeBooleans(DataOutputStream stream, Column column, int positionCount)
+      throws IOException {
+    int packed = 0;
+    int bits = 0;
+    for (int i = 0; i < positionCount; i++) {
+      if (!column.isNull(i)) {
+        packed = (packed << 1) | (column.getBoolean(i) ? 1 : 0);
+        if (++bits == Byte.SIZE) {
+          stream.writeByte(packed);
+          packed = 0;
+          bits = 0;
+        }
+      }
+    }
+    if (bits > 0) {
+      stream.writeByte(packed << (Byte.SIZE - bits));
+    }
+  }
+
+  private static boolean[] readBooleans(
+      ByteBuffer buffer, boolean[] nullIndicators, int positionCount) {
+    boolean[] values = new boolean[positionCount];
+    int packed = 0;
+    int bits = 0;
+    for (int i = 0; i < positionCount; i++) {
+      if (nullIndicators == null || !nullIndicators[i]) {
+        if (bits == 0) {
+          packed = buffer.get() & 0xFF;
+          bits = Byte.SIZE;
+        }
+        values[i] = ((packed >>> --bits) & 1) == 1;
+      }
+    }
+    return values;
+  }
+
+  private static void writeLongs(DataOutputStream stream, Column column, int positionCount)
+      throws IOException {
+    int nonNullCount = 0;
+    long first = 0;
+    long previous = 0;
+    long stride = 0;
+    boolean constantStride = true;
+    for (int i = 0; i < positionCount; i++) {
+      if (column.isNull(i)) {
+        continue;
+      }
+      long value = column.getLong(i);
+      if (nonNullCount == 0) {
+        first = value;
+      } else if (nonNullCount == 1) {
+        stride = value - previous;
+      } else if (value - previous != stride) {
+        constantStride = false;
+        break;
+      }
+      previous = value;
+      nonNullCount++;
+    }
+
+    if (constantStride) {
+      stream.writeByte(STRIDE_VALUES);
+      stream.writeLong(first);
+      stream.writeLong(stride);
+      return;
+    }
+    stream.writeByte(DELTA_VALUES);
+    previous = 0;
+    for (int i = 0; i < positionCount; i++) {
+      if (!column.isNull(i)) {
+        long value = column.getLong(i);
+        writeVarLong(stream, value - previous);
+        previous = value;
+      }
+    }
+  }
+
+  private static long[] readLongs(ByteBuffer buffer, boolean[] nullIndicators, int positionCount) {
+    long[] values = new long[positionCount];
+    if (buffer.get() == STRIDE_VALUES) {
+      long value = buffer.getLong();
+      long stride = buffer.getLong();
+      for (int i = 0; i < positionCount; i++) {
+        if (nullIndicators == null || !nullIndicators[i]) {
+          values[i] = value;
+          value += stride;
+        }
+      }
+      return values;
+    }
+    long previous = 0;
+    for (int i = 0; i < positionCount; i++) {
+      if (nullIndicators == null || !nullIndicators[i]) {
+        previous += readVarLong(buffer);
+        values[i] = previous;
+      }
+    }
+    return values;
+  }
+
+  private static void writeBinaries(DataOutputStream stream, Column column, int positionCount)
+      throws IOException {
+    Map<Binary, Integer> dictionary = new HashMap<>();
+    List<Binary> dictionaryEntries = new ArrayList<>();
+    int nonNullCount = 0;
+    for (int i = 0; i < positionCount; i++) {
+      if (!column.isNull(i)) {
+        nonNullCount++;
+        if (dictionary.putIfAbsent(column.getBinary(i), dictionaryEntries.size()) == null) {
+          dictionaryEntries.add(column.getBinary(i));
+        }
+      }
+    }
+
+    if (dictionaryEntries.size() * 2 > nonNullCount) {
+      stream.writeByte(PLAIN_BINARIES);
+      for (int i = 0; i < positionCount; i++) {
+        if (!column.isNull(i)) {
+          writeBinary(stream, column.getBinary(i));
+        }
+      }
+      return;
+    }
+    stream.writeByte(DICTIONARY_BINARIES);
+    ReadWriteForEncodingUtils.writeUnsignedVarInt(dictionaryEntries.size(), stream);
+    for (Binary entry : dictionaryEntries) {
+      writeBinary(stream, entry);
+    }
+    for (int i = 0; i < positionCount; i++) {
+      if (!column.isNull(i)) {
+        ReadWriteForEncodingUtils.writeUnsignedVarInt(dictionary.get(column.getBinary(i)), stream);
+      }
+    }
+  }
+
+  private static Binary[] readBinaries(
+      ByteBuffer buffer, boolean[] nullIndicators, int positionCount) {
+    Binary[] values = new Binary[positionCount];
+    boolean useDictionary = buffer.get() == DICTIONARY_BINARIES;
+    Binary[] dictionary = null;
+    if (useDictionary) {
+      dictionary = new Binary[ReadWriteForEncodingUtils.readUnsignedVarInt(buffer)];
+      for (int i = 0; i < dictionary.length; i++) {
+        dictionary[i] = readBinary(buffer);
+      }
+    }
+    for (int i = 0; i < positionCount; i++) {
+      if (nullIndicators == null || !nullIndicators[i]) {
+        values[i] =
+            useDictionary
+                ? dictionary[ReadWriteForEncodingUtils.readUnsignedVarInt(buffer)]
+                : readBinary(buffer);
+      }
+    }
+    return values;
+  }
+
+  private static void writeBinary(DataOutputStream stream, Binary binary) throws IOException {
+    ReadWriteForEncodingUtils.writeUnsignedVarInt(binary.getLength(), stream);
+    stream.write(binary.getValues(), 0, binary.getLength());
+  }
+
+  private static Binary readBinary(ByteBuffer buffer) {
+    byte[] bytes = new byte[ReadWriteForEncodingUtils.readUnsignedVarInt(buffer)];
+    buffer.get(bytes);
+    return new Binary(bytes);
+  }
+
+  private static void writeVarLong(DataOutputStream stream, long value) throws IOException {
+    long zigzag = (value << 1) ^ (value >> 63);
+    while ((zigzag & ~0x7FL) != 0) {
+      stream.writeByte((int) ((zigzag & 0x7F) | 0x80));
+      zigzag >>>= 7;
+    }
+    stream.writeByte((int) zigzag);
+  }
+
+  private static long readVarLong(ByteBuffer buffer) {
+    long zigzag = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get();
+      zigzag |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return (zigzag >>> 1) ^ -(zigzag & 1);
+  }
+}
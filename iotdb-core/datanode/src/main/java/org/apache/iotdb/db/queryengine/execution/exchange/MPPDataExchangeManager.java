@@ -163,8 +163,11 @@ public class MPPDataExchangeManager implements IMPPDataExchangeManager {
           return;
         }
         // index of the channel must be a SinkChannel
-        ((SinkChannel) (sinkHandle.getChannel(e.getIndex())))
-            .acknowledgeTsBlock(e.getStartSequenceId(), e.getEndSequenceId());
+        SinkChannel sinkChannel = (SinkChannel) sinkHandle.getChannel(e.getIndex());
+        sinkChannel.acknowledgeTsBlock(e.getStartSequenceId(), e.getEndSequenceId());
+        if (e.isSetCreditBytes()) {
+          sinkChannel.grantStreamingCredit(e.getCreditBytes());
+        }
       } catch (Throwable t) {
         LOGGER.warn(
             "ack TsBlock [{}, {}) failed.", e.getStartSequenceId(), e.getEndSequenceId(), t);
@@ -245,7 +248,12 @@ public class MPPDataExchangeManager implements IMPPDataExchangeManager {
           return;
         }
 
-        sourceHandle.updatePendingDataBlockInfo(e.getStartSequenceId(), e.getBlockSizes());
+        if (e.isSetTsBlocks()) {
+          sourceHandle.receivePushedTsBlocks(
+              e.getStartSequenceId(), e.getBlockSizes(), e.getTsBlocks());
+        } else {
+          sourceHandle.updatePendingDataBlockInfo(e.getStartSequenceId(), e.getBlockSizes());
+        }
       } finally {
         DATA_EXCHANGE_COST_METRICS.recordDataExchangeCost(
             SEND_NEW_DATA_BLOCK_EVENT_TASK_SERVER, System.nanoTime() - startTime);
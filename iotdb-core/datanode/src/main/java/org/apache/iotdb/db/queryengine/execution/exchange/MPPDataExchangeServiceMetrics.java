@@ -24,11 +24,20 @@ import org.apache.iotdb.commons.service.AbstractThriftServiceThread;
 import org.apache.iotdb.commons.service.metric.enums.Metric;
 import org.apache.iotdb.commons.service.metric.enums.Tag;
 import org.apache.iotdb.metrics.AbstractMetricService;
+import org.apache.iotdb.metrics.impl.DoNothingMetricManager;
 import org.apache.iotdb.metrics.metricsets.IMetricSet;
+import org.apache.iotdb.metrics.type.Counter;
 import org.apache.iotdb.metrics.utils.MetricLevel;
 import org.apache.iotdb.metrics.utils.MetricType;
 
 public class MPPDataExchangeServiceMetrics implements IMetricSet {
+  private static final String SERIALIZED = "serialized";
+  private static final String WIRE = "wire";
+
+  // shared by all serdes of this DataNode, which are created independently of the metric set
+  private static Counter serializedBytesCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+  private static Counter wireBytesCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+
   private AbstractThriftServiceThread thriftServiceThread;
 
   public MPPDataExchangeServiceMetrics(AbstractThriftServiceThread thriftServiceThread) {
@@ -44,6 +53,18 @@ public class MPPDataExchangeServiceMetrics implements IMetricSet {
         AbstractThriftServiceThread::getActiveThreadCount,
         Tag.NAME.toString(),
         ThreadName.MPP_DATA_EXCHANGE_RPC_SERVICE.getName());
+    serializedBytesCounter =
+        metricService.getOrCreateCounter(
+            Metric.DATA_EXCHANGE_BYTES.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            SERIALIZED);
+    wireBytesCounter =
+        metricService.getOrCreateCounter(
+            Metric.DATA_EXCHANGE_BYTES.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            WIRE);
   }
 
   @Override
@@ -53,5 +74,22 @@ public class MPPDataExchangeServiceMetrics implements IMetricSet {
         Metric.THRIFT_ACTIVE_THREADS.toString(),
         Tag.NAME.toString(),
         ThreadName.MPP_DATA_EXCHANGE_RPC_SERVICE.getName());
+    serializedBytesCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+    wireBytesCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+    metricService.remove(
+        MetricType.COUNTER, Metric.DATA_EXCHANGE_BYTES.toString(), Tag.TYPE.toString(), SERIALIZED);
+    metricService.remove(
+        MetricType.COUNTER, Metric.DATA_EXCHANGE_BYTES.toString(), Tag.TYPE.toString(), WIRE);
+  }
+
+  /**
+   * Record a TsBlock sent to a remote DataNode.
+   *
+   * @param serializedBytes size of the TsBlock's column data before encoding
+   * @param wireBytes size of the buffer actually sent
+   */
+  public static void recordSerializedTsBlock(long serializedBytes, long wireBytes) {
+    serializedBytesCounter.inc(serializedBytes);
+    wireBytesCounter.inc(wireBytes);
   }
 }
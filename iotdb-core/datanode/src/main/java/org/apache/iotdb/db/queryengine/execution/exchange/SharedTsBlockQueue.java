@@ -36,7 +36,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.concurrent.ExecutorService;
 
@@ -60,7 +60,15 @@ public class SharedTsBlockQueue {
 
   private long bufferRetainedSizeInBytes = 0L;
 
-  private final Queue<TsBlock> queue = new LinkedList<>();
+  /**
+   * Bytes reserved from the memory pool, including the amount of memory being reserved. It is never
+   * less than {@link #bufferRetainedSizeInBytes}. The surplus is kept as credit for the following
+   * TsBlocks, so that a producer and a consumer running at the same pace do not call into the
+   * memory pool for every TsBlock.
+   */
+  private long reservedBytes = 0L;
+
+  private final Queue<TsBlock> queue = new ArrayDeque<>();
 
   private SettableFuture<Void> blocked = SettableFuture.create();
 
@@ -161,6 +169,9 @@ public class SharedTsBlockQueue {
       return;
     }
     this.noMoreTsBlocks = noMoreTsBlocks;
+    if (noMoreTsBlocks && queue.isEmpty()) {
+      freeSurplusReservation(0L);
+    }
     if (!blocked.isDone()) {
       blocked.set(null);
     }
@@ -180,18 +191,16 @@ public class SharedTsBlockQueue {
       throw new IllegalStateException("queue has been destroyed");
     }
     TsBlock tsBlock = queue.remove();
-    localMemoryManager
-        .getQueryPool()
-        .free(
-            localFragmentInstanceId.getQueryId(),
-            fullFragmentInstanceId,
-            localPlanNodeId,
-            tsBlock.getRetainedSizeInBytes());
     bufferRetainedSizeInBytes -= tsBlock.getRetainedSizeInBytes();
-    // Every time LocalSourceHandle consumes a TsBlock, it needs to send the event to
-    // corresponding LocalSinkChannel.
-    if (sinkChannel != null) {
-      sinkChannel.checkAndInvokeOnFinished();
+    if (noMoreTsBlocks && queue.isEmpty()) {
+      freeSurplusReservation(0L);
+      // LocalSinkChannel only needs to be notified when the queue is finished
+      if (sinkChannel != null) {
+        sinkChannel.checkAndInvokeOnFinished();
+      }
+    } else {
+      // keep the memory of one TsBlock for the next TsBlock added
+      freeSurplusReservation(tsBlock.getRetainedSizeInBytes());
     }
     if (blocked.isDone() && queue.isEmpty() && !noMoreTsBlocks) {
       blocked = SettableFuture.create();
@@ -212,6 +221,17 @@ public class SharedTsBlockQueue {
     Validate.notNull(tsBlock, "TsBlock cannot be null");
     Validate.isTrue(
         blockedOnMemory == null || blockedOnMemory.isDone(), "SharedTsBlockQueue is full");
+    bufferRetainedSizeInBytes += tsBlock.getRetainedSizeInBytes();
+    long bytesToReserve = bufferRetainedSizeInBytes - reservedBytes;
+    if (bytesToReserve <= 0L) {
+      // the credit left by consumed TsBlocks covers this TsBlock
+      queue.add(tsBlock);
+      if (!blocked.isDone()) {
+        blocked.set(null);
+      }
+      return immediateVoidFuture();
+    }
+
     if (!alreadyRegistered) {
       localMemoryManager
           .getQueryPool()
@@ -226,10 +246,10 @@ public class SharedTsBlockQueue {
                 localFragmentInstanceId.getQueryId(),
                 fullFragmentInstanceId,
                 localPlanNodeId,
-                tsBlock.getRetainedSizeInBytes(),
+                bytesToReserve,
                 maxBytesCanReserve);
     blockedOnMemory = pair.left;
-    bufferRetainedSizeInBytes += tsBlock.getRetainedSizeInBytes();
+    reservedBytes += bytesToReserve;
 
     // reserve memory failed, we should wait until there is enough memory
     if (!Boolean.TRUE.equals(pair.right)) {
@@ -273,19 +293,11 @@ public class SharedTsBlockQueue {
       canAddTsBlock.set(null);
     }
     if (blockedOnMemory != null) {
-      bufferRetainedSizeInBytes -= localMemoryManager.getQueryPool().tryCancel(blockedOnMemory);
+      reservedBytes -= localMemoryManager.getQueryPool().tryCancel(blockedOnMemory);
     }
     queue.clear();
-    if (bufferRetainedSizeInBytes > 0L) {
-      localMemoryManager
-          .getQueryPool()
-          .free(
-              localFragmentInstanceId.getQueryId(),
-              fullFragmentInstanceId,
-              localPlanNodeId,
-              bufferRetainedSizeInBytes);
-      bufferRetainedSizeInBytes = 0;
-    }
+    bufferRetainedSizeInBytes = 0L;
+    freeSurplusReservation(0L);
     if (sinkChannel != null) {
       // attention: LocalSinkChannel of this SharedTsBlockQueue could be null when we close
       // LocalSourceHandle(with limit clause it's possible) before constructing the corresponding
@@ -312,19 +324,11 @@ public class SharedTsBlockQueue {
       canAddTsBlock.set(null);
     }
     if (blockedOnMemory != null) {
-      bufferRetainedSizeInBytes -= localMemoryManager.getQueryPool().tryCancel(blockedOnMemory);
+      reservedBytes -= localMemoryManager.getQueryPool().tryCancel(blockedOnMemory);
     }
     queue.clear();
-    if (bufferRetainedSizeInBytes > 0L) {
-      localMemoryManager
-          .getQueryPool()
-          .free(
-              localFragmentInstanceId.getQueryId(),
-              fullFragmentInstanceId,
-              localPlanNodeId,
-              bufferRetainedSizeInBytes);
-      bufferRetainedSizeInBytes = 0;
-    }
+    bufferRetainedSizeInBytes = 0L;
+    freeSurplusReservation(0L);
   }
 
   /** Destroy the queue and cancel the future. Should only be called in abnormal case */
@@ -340,18 +344,25 @@ public class SharedTsBlockQueue {
       canAddTsBlock.set(null);
     }
     if (blockedOnMemory != null) {
-      bufferRetainedSizeInBytes -= localMemoryManager.getQueryPool().tryCancel(blockedOnMemory);
+      reservedBytes -= localMemoryManager.getQueryPool().tryCancel(blockedOnMemory);
     }
     queue.clear();
-    if (bufferRetainedSizeInBytes > 0L) {
+    bufferRetainedSizeInBytes = 0L;
+    freeSurplusReservation(0L);
+  }
+
+  /** Return the reserved memory exceeding the buffered TsBlocks plus creditBytes to the pool. */
+  private void freeSurplusReservation(long creditBytes) {
+    long bytesToFree = reservedBytes - bufferRetainedSizeInBytes - creditBytes;
+    if (bytesToFree > 0L) {
       localMemoryManager
           .getQueryPool()
           .free(
               localFragmentInstanceId.getQueryId(),
               fullFragmentInstanceId,
               localPlanNodeId,
-              bufferRetainedSizeInBytes);
-      bufferRetainedSizeInBytes = 0;
+              bytesToFree);
+      reservedBytes -= bytesToFree;
     }
   }
 }
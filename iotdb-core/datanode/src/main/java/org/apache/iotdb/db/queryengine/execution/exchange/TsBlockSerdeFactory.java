@@ -19,6 +19,8 @@
 
 package org.apache.iotdb.db.queryengine.execution.exchange;
 
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+
 import org.apache.tsfile.read.common.block.column.TsBlockSerde;
 
 import java.util.function.Supplier;
@@ -26,6 +28,9 @@ import java.util.function.Supplier;
 public class TsBlockSerdeFactory implements Supplier<TsBlockSerde> {
   @Override
   public TsBlockSerde get() {
-    return new TsBlockSerde();
+    // always hand out a CompressedTsBlockSerde so that blocks from upstream DataNodes using either
+    // format can be read
+    return new CompressedTsBlockSerde(
+        IoTDBDescriptor.getInstance().getConfig().getMppDataExchangeCompressor());
   }
 }
@@ -48,6 +48,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -107,6 +108,16 @@ public class SinkChannel implements ISinkChannel {
   /** The actual buffered memory in bytes, including the amount of memory being reserved. */
   private long bufferRetainedSizeInBytes;
 
+  /**
+   * Total bytes of TsBlocks that can be pushed to the downstream SourceHandle along with the
+   * NewDataBlockEvent, granted by the SourceHandle through AcknowledgeDataBlockEvents. TsBlocks not
+   * covered by the credit are pulled by the SourceHandle.
+   */
+  private long streamingCreditBytes = 0L;
+
+  /** Total bytes of TsBlocks pushed to the downstream SourceHandle. */
+  private long pushedBytes = 0L;
+
   private boolean aborted = false;
 
   private boolean closed = false;
@@ -181,8 +192,10 @@ public class SinkChannel implements ISinkChannel {
     return nonCancellationPropagating(blocked);
   }
 
-  private void submitSendNewDataBlockEventTask(int startSequenceId, List<Long> blockSizes) {
-    executorService.submit(new SendNewDataBlockEventTask(startSequenceId, blockSizes));
+  private void submitSendNewDataBlockEventTask(
+      int startSequenceId, List<Long> blockSizes, boolean pushTsBlocks) {
+    executorService.submit(
+        new SendNewDataBlockEventTask(startSequenceId, blockSizes, pushTsBlocks));
   }
 
   @Override
@@ -220,8 +233,13 @@ public class SinkChannel implements ISinkChannel {
       nextSequenceId += 1;
       currentTsBlockSize = retainedSizeInBytes;
 
+      boolean pushTsBlock = pushedBytes + retainedSizeInBytes <= streamingCreditBytes;
+      if (pushTsBlock) {
+        pushedBytes += retainedSizeInBytes;
+      }
       // TODO: consider merge multiple NewDataBlockEvent for less network traffic.
-      submitSendNewDataBlockEventTask(startSequenceId, ImmutableList.of(retainedSizeInBytes));
+      submitSendNewDataBlockEventTask(
+          startSequenceId, ImmutableList.of(retainedSizeInBytes), pushTsBlock);
     } finally {
       DATA_EXCHANGE_COST_METRIC_SET.recordDataExchangeCost(
           SINK_HANDLE_SEND_TSBLOCK_REMOTE, System.nanoTime() - startTime);
@@ -399,6 +417,17 @@ public class SinkChannel implements ISinkChannel {
     }
   }
 
+  /**
+   * Allow pushing TsBlocks to the downstream SourceHandle until creditBytes bytes are pushed in
+   * total. The credit is cumulative so that duplicate or reordered grants are harmless.
+   */
+  public synchronized void grantStreamingCredit(long creditBytes) {
+    if (aborted || closed) {
+      return;
+    }
+    streamingCreditBytes = Math.max(streamingCreditBytes, creditBytes);
+  }
+
   @Override
   public TFragmentInstanceId getLocalFragmentInstanceId() {
     return localFragmentInstanceId;
@@ -476,8 +505,9 @@ public class SinkChannel implements ISinkChannel {
 
     private final int startSequenceId;
     private final List<Long> blockSizes;
+    private final boolean pushTsBlocks;
 
-    SendNewDataBlockEventTask(int startSequenceId, List<Long> blockSizes) {
+    SendNewDataBlockEventTask(int startSequenceId, List<Long> blockSizes, boolean pushTsBlocks) {
       Validate.isTrue(
           startSequenceId >= 0,
           "Start sequence ID should be greater than or equal to zero, but was: "
@@ -485,6 +515,7 @@ public class SinkChannel implements ISinkChannel {
               + ".");
       this.startSequenceId = startSequenceId;
       this.blockSizes = Validate.notNull(blockSizes);
+      this.pushTsBlocks = pushTsBlocks;
     }
 
     @Override
@@ -506,6 +537,21 @@ public class SinkChannel implements ISinkChannel {
                 localFragmentInstanceId,
                 startSequenceId,
                 blockSizes);
+        if (pushTsBlocks) {
+          List<ByteBuffer> tsBlocks = new ArrayList<>(blockSizes.size());
+          try {
+            for (int i = 0; i < blockSizes.size(); i++) {
+              tsBlocks.add(getSerializedTsBlock(startSequenceId + i));
+            }
+          } catch (GetTsBlockFromClosedOrAbortedChannelException e) {
+            // the downstream SourceHandle does not need the TsBlocks any more
+            return;
+          } catch (IOException e) {
+            sinkListener.onFailure(SinkChannel.this, e);
+            return;
+          }
+          newDataBlockEvent.setTsBlocks(tsBlocks);
+        }
         while (attempt < MAX_ATTEMPT_TIMES) {
           attempt += 1;
           long startTime = System.nanoTime();
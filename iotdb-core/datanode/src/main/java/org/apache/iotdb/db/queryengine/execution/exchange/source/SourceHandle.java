@@ -22,9 +22,11 @@ package org.apache.iotdb.db.queryengine.execution.exchange.source;
 import org.apache.iotdb.common.rpc.thrift.TEndPoint;
 import org.apache.iotdb.commons.client.IClientManager;
 import org.apache.iotdb.commons.client.sync.SyncDataNodeMPPDataExchangeServiceClient;
+import org.apache.iotdb.commons.exception.IoTDBException;
 import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
+import org.apache.iotdb.db.queryengine.execution.exchange.CompressedTsBlockSerde;
 import org.apache.iotdb.db.queryengine.execution.exchange.MPPDataExchangeManager.SourceHandleListener;
 import org.apache.iotdb.db.queryengine.execution.memory.LocalMemoryManager;
 import org.apache.iotdb.db.queryengine.metric.DataExchangeCostMetricSet;
@@ -35,6 +37,7 @@ import org.apache.iotdb.mpp.rpc.thrift.TCloseSinkChannelEvent;
 import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
 import org.apache.iotdb.mpp.rpc.thrift.TGetDataBlockRequest;
 import org.apache.iotdb.mpp.rpc.thrift.TGetDataBlockResponse;
+import org.apache.iotdb.rpc.TSStatusCode;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
@@ -49,8 +52,10 @@ import org.slf4j.LoggerFactory;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 
@@ -70,6 +75,9 @@ public class SourceHandle implements ISourceHandle {
   public static final int MAX_ATTEMPT_TIMES = 3;
   private static final long DEFAULT_RETRY_INTERVAL_IN_MS = 1000;
 
+  /** serializes blocks returned to clients, which only read the plain format. */
+  private static final TsBlockSerde PLAIN_SERDE = new TsBlockSerde();
+
   private final TEndPoint remoteEndpoint;
   private final TFragmentInstanceId remoteFragmentInstanceId;
   private final TFragmentInstanceId localFragmentInstanceId;
@@ -86,6 +94,9 @@ public class SourceHandle implements ISourceHandle {
   private final Map<Integer, Long> sequenceIdToDataBlockSize = new HashMap<>();
   private final Map<Integer, ByteBuffer> sequenceIdToTsBlock = new HashMap<>();
 
+  /** Sequence IDs of TsBlocks pushed by the upstream SinkChannel that are not consumed yet. */
+  private final Set<Integer> pushedSequenceIds = new HashSet<>();
+
   private final String threadName;
   private long retryIntervalInMs;
 
@@ -99,6 +110,19 @@ public class SourceHandle implements ISourceHandle {
   /** The actual buffered memory in bytes, including the amount of memory being reserved. */
   private long bufferRetainedSizeInBytes = 0L;
 
+  /** Bytes of the streaming credit granted to the upstream SinkChannel when this handle starts. */
+  private long streamingCreditInBytes =
+      IoTDBDescriptor.getInstance().getConfig().getMppDataExchangeStreamingCreditInBytes();
+
+  /** Memory reserved for TsBlocks the upstream SinkChannel may push but has not pushed yet. */
+  private long grantedCreditBytes = 0L;
+
+  /** Memory of consumed pushed TsBlocks, which is kept and granted to the upstream again. */
+  private long returnedCreditBytes = 0L;
+
+  /** Total bytes of the credit granted to the upstream SinkChannel. */
+  private long totalGrantedCreditBytes = 0L;
+
   private int currSequenceId = 0;
   private int nextSequenceId = 0;
   private int lastSequenceId = Integer.MAX_VALUE;
@@ -165,7 +189,7 @@ public class SourceHandle implements ISourceHandle {
 
   @Override
   public synchronized TsBlock receive() {
-    ByteBuffer tsBlock = getSerializedTsBlock();
+    ByteBuffer tsBlock = pollSerializedTsBlock();
     if (tsBlock != null) {
       long startTime = System.nanoTime();
       try {
@@ -179,8 +203,29 @@ public class SourceHandle implements ISourceHandle {
     }
   }
 
+  /**
+   * The serialized TsBlock is returned to clients as is, e.g., by the result handle of a query, so
+   * a block in the compressed exchange format is converted to the plain {@link TsBlockSerde} format
+   * that clients can read.
+   */
   @Override
-  public synchronized ByteBuffer getSerializedTsBlock() {
+  public synchronized ByteBuffer getSerializedTsBlock() throws IoTDBException {
+    ByteBuffer tsBlock = pollSerializedTsBlock();
+    if (tsBlock == null || !CompressedTsBlockSerde.isCompressedFormat(tsBlock)) {
+      return tsBlock;
+    }
+    long startTime = System.nanoTime();
+    try {
+      return PLAIN_SERDE.serialize(serde.deserialize(tsBlock));
+    } catch (Exception e) {
+      throw new IoTDBException(e, TSStatusCode.TSBLOCK_SERIALIZE_ERROR.getStatusCode());
+    } finally {
+      DATA_EXCHANGE_COST_METRIC_SET.recordDataExchangeCost(
+          SOURCE_HANDLE_DESERIALIZE_TSBLOCK_REMOTE, System.nanoTime() - startTime);
+    }
+  }
+
+  private synchronized ByteBuffer pollSerializedTsBlock() {
     long startTime = System.nanoTime();
     try (SetThreadName sourceHandleName = new SetThreadName(threadName)) {
       checkState();
@@ -197,15 +242,25 @@ public class SourceHandle implements ISourceHandle {
       if (LOGGER.isDebugEnabled()) {
         LOGGER.debug("[GetTsBlockFromBuffer] sequenceId:{}, size:{}", currSequenceId, retainedSize);
       }
-      currSequenceId += 1;
       bufferRetainedSizeInBytes -= retainedSize;
-      localMemoryManager
-          .getQueryPool()
-          .free(
-              localFragmentInstanceId.getQueryId(),
-              fullFragmentInstanceId,
-              localPlanNodeId,
-              retainedSize);
+      if (pushedSequenceIds.remove(currSequenceId) && lastSequenceId == Integer.MAX_VALUE) {
+        returnedCreditBytes += retainedSize;
+        // return the credit in batches rather than once per TsBlock
+        if (returnedCreditBytes * 2 >= streamingCreditInBytes) {
+          executorService.submit(
+              new SendAcknowledgeDataBlockEventTask(
+                  currSequenceId, currSequenceId, takeReturnedCredit()));
+        }
+      } else {
+        localMemoryManager
+            .getQueryPool()
+            .free(
+                localFragmentInstanceId.getQueryId(),
+                fullFragmentInstanceId,
+                localPlanNodeId,
+                retainedSize);
+      }
+      currSequenceId += 1;
 
       if (sequenceIdToTsBlock.isEmpty() && !isFinished()) {
         if (LOGGER.isDebugEnabled()) {
@@ -228,6 +283,10 @@ public class SourceHandle implements ISourceHandle {
     if (aborted || closed) {
       return;
     }
+    // pushed TsBlocks need not be pulled
+    while (pushedSequenceIds.contains(nextSequenceId)) {
+      nextSequenceId++;
+    }
     if (blockedOnMemory != null && !blockedOnMemory.isDone()) {
       return;
     }
@@ -237,7 +296,8 @@ public class SourceHandle implements ISourceHandle {
     long reservedBytes = 0L;
     Pair<ListenableFuture<Void>, Boolean> pair = null;
     long blockedSize = 0L;
-    while (sequenceIdToDataBlockSize.containsKey(endSequenceId)) {
+    while (sequenceIdToDataBlockSize.containsKey(endSequenceId)
+        && !pushedSequenceIds.contains(endSequenceId)) {
       Long bytesToReserve = sequenceIdToDataBlockSize.get(endSequenceId);
       if (bytesToReserve == null) {
         throw new IllegalStateException("Data block size is null.");
@@ -299,6 +359,7 @@ public class SourceHandle implements ISourceHandle {
     checkState();
     if (!canGetTsBlockFromRemote) {
       canGetTsBlockFromRemote = true;
+      grantInitialStreamingCredit();
       // submit get data task once isBlocked is called to ensure that the blocked future will be
       // completed in case that trySubmitGetDataBlocksTask() is not called.
       trySubmitGetDataBlocksTask();
@@ -311,6 +372,17 @@ public class SourceHandle implements ISourceHandle {
       LOGGER.debug("[ReceiveNoMoreTsBlockEvent]");
     }
     this.lastSequenceId = lastSequenceId;
+    // no more credit is needed once all TsBlocks have been sent
+    if (returnedCreditBytes > 0L) {
+      localMemoryManager
+          .getQueryPool()
+          .free(
+              localFragmentInstanceId.getQueryId(),
+              fullFragmentInstanceId,
+              localPlanNodeId,
+              returnedCreditBytes);
+      returnedCreditBytes = 0L;
+    }
     if (!blocked.isDone() && remoteTsBlockedConsumedUp()) {
       blocked.set(null);
     }
@@ -336,6 +408,103 @@ public class SourceHandle implements ISourceHandle {
     }
   }
 
+  /**
+   * Receive TsBlocks pushed by the upstream SinkChannel with the NewDataBlockEvent. Their memory
+   * has been reserved when granting the credit, so they are buffered directly and only
+   * acknowledged.
+   */
+  public synchronized void receivePushedTsBlocks(
+      int startSequenceId, List<Long> dataBlockSizes, List<ByteBuffer> tsBlocks) {
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(
+          "[ReceivePushedTsBlocks] [{}, {}), each size is: {}",
+          startSequenceId,
+          startSequenceId + dataBlockSizes.size(),
+          dataBlockSizes);
+    }
+    if (aborted || closed) {
+      return;
+    }
+    for (int i = 0; i < dataBlockSizes.size(); i++) {
+      int sequenceId = startSequenceId + i;
+      // there may exist duplicate events caused by the upstream retrying
+      if (sequenceId < currSequenceId || sequenceIdToTsBlock.containsKey(sequenceId)) {
+        continue;
+      }
+      long retainedSize = dataBlockSizes.get(i);
+      sequenceIdToDataBlockSize.put(sequenceId, retainedSize);
+      sequenceIdToTsBlock.put(sequenceId, tsBlocks.get(i));
+      pushedSequenceIds.add(sequenceId);
+      grantedCreditBytes -= retainedSize;
+      bufferRetainedSizeInBytes += retainedSize;
+    }
+    if (!blocked.isDone()) {
+      blocked.set(null);
+    }
+    executorService.submit(
+        new SendAcknowledgeDataBlockEventTask(
+            startSequenceId, startSequenceId + dataBlockSizes.size(), takeReturnedCredit()));
+    trySubmitGetDataBlocksTask();
+  }
+
+  /**
+   * Reserve the streaming credit and grant it to the upstream SinkChannel. TsBlocks are only pulled
+   * if the memory can not be reserved immediately.
+   */
+  private void grantInitialStreamingCredit() {
+    long creditBytes = Math.min(streamingCreditInBytes, maxBytesCanReserve);
+    if (creditBytes <= 0L) {
+      return;
+    }
+    Pair<ListenableFuture<Void>, Boolean> pair =
+        localMemoryManager
+            .getQueryPool()
+            .reserve(
+                localFragmentInstanceId.getQueryId(),
+                fullFragmentInstanceId,
+                localPlanNodeId,
+                creditBytes,
+                maxBytesCanReserve);
+    // tryCancel returns 0 if the reservation has just been completed
+    if (!Boolean.TRUE.equals(pair.right)
+        && localMemoryManager.getQueryPool().tryCancel(pair.left) > 0L) {
+      return;
+    }
+    streamingCreditInBytes = creditBytes;
+    grantedCreditBytes = creditBytes;
+    totalGrantedCreditBytes = creditBytes;
+    executorService.submit(
+        new SendAcknowledgeDataBlockEventTask(currSequenceId, currSequenceId, creditBytes));
+  }
+
+  /**
+   * @return the total credit to grant to the upstream, 0 if there is no credit to return
+   */
+  private long takeReturnedCredit() {
+    if (returnedCreditBytes == 0L) {
+      return 0L;
+    }
+    grantedCreditBytes += returnedCreditBytes;
+    totalGrantedCreditBytes += returnedCreditBytes;
+    returnedCreditBytes = 0L;
+    return totalGrantedCreditBytes;
+  }
+
+  private void freeStreamingCredit() {
+    long creditBytes = grantedCreditBytes + returnedCreditBytes;
+    grantedCreditBytes = 0L;
+    returnedCreditBytes = 0L;
+    if (creditBytes > 0L) {
+      localMemoryManager
+          .getQueryPool()
+          .free(
+              localFragmentInstanceId.getQueryId(),
+              fullFragmentInstanceId,
+              localPlanNodeId,
+              creditBytes);
+    }
+  }
+
   @Override
   public synchronized void abort() {
     try (SetThreadName sourceHandleName = new SetThreadName(threadName)) {
@@ -349,6 +518,7 @@ public class SourceHandle implements ISourceHandle {
         bufferRetainedSizeInBytes -= localMemoryManager.getQueryPool().tryCancel(blockedOnMemory);
       }
       sequenceIdToDataBlockSize.clear();
+      freeStreamingCredit();
       if (bufferRetainedSizeInBytes > 0) {
         localMemoryManager
             .getQueryPool()
@@ -377,6 +547,7 @@ public class SourceHandle implements ISourceHandle {
         bufferRetainedSizeInBytes -= localMemoryManager.getQueryPool().tryCancel(blockedOnMemory);
       }
       sequenceIdToDataBlockSize.clear();
+      freeStreamingCredit();
       if (bufferRetainedSizeInBytes > 0) {
         localMemoryManager
             .getQueryPool()
@@ -405,6 +576,7 @@ public class SourceHandle implements ISourceHandle {
         bufferRetainedSizeInBytes -= localMemoryManager.getQueryPool().tryCancel(blockedOnMemory);
       }
       sequenceIdToDataBlockSize.clear();
+      freeStreamingCredit();
       if (bufferRetainedSizeInBytes > 0) {
         localMemoryManager
             .getQueryPool()
@@ -648,10 +820,21 @@ public class SourceHandle implements ISourceHandle {
 
     private final int startSequenceId;
     private final int endSequenceId;
+    private final long creditBytes;
 
     public SendAcknowledgeDataBlockEventTask(int startSequenceId, int endSequenceId) {
+      this(startSequenceId, endSequenceId, 0L);
+    }
+
+    /**
+     * @param creditBytes total bytes of TsBlocks the upstream SinkChannel may push, 0 if no credit
+     *     is granted
+     */
+    public SendAcknowledgeDataBlockEventTask(
+        int startSequenceId, int endSequenceId, long creditBytes) {
       this.startSequenceId = startSequenceId;
       this.endSequenceId = endSequenceId;
+      this.creditBytes = creditBytes;
     }
 
     @Override
@@ -667,6 +850,9 @@ public class SourceHandle implements ISourceHandle {
                 startSequenceId,
                 endSequenceId,
                 indexOfUpstreamSinkHandle);
+        if (creditBytes > 0L) {
+          acknowledgeDataBlockEvent.setCreditBytes(creditBytes);
+        }
         while (attempt < MAX_ATTEMPT_TIMES) {
           attempt += 1;
           long startTime = System.nanoTime();
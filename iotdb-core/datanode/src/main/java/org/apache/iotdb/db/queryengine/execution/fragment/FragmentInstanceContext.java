@@ -24,6 +24,7 @@ import org.apache.iotdb.commons.exception.IoTDBException;
 import org.apache.iotdb.commons.exception.IoTDBRuntimeException;
 import org.apache.iotdb.commons.path.IFullPath;
 import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.queryengine.common.DeviceContext;
 import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
@@ -393,6 +394,19 @@ public class FragmentInstanceContext extends QueryContext {
     return sessionInfo;
   }
 
+  /** How many chunks each series scan of this instance reads ahead, 0 means no read-ahead. */
+  public int getChunkReadAheadNum() {
+    if (sessionInfo != null && sessionInfo.getReadAheadChunkNum() >= 0) {
+      return sessionInfo.getReadAheadChunkNum();
+    }
+    return IoTDBDescriptor.getInstance().getConfig().getSeriesScanReadAheadChunkNum();
+  }
+
+  @Override
+  public boolean isBypassReadCache() {
+    return super.isBypassReadCache() || (sessionInfo != null && sessionInfo.isBypassReadCache());
+  }
+
   public Optional<Throwable> getFailureCause() {
     return Optional.ofNullable(stateMachine.getFailureCauses().peek());
   }
@@ -582,6 +596,8 @@ public class FragmentInstanceContext extends QueryContext {
     // Record statistics of files of unseqFiles
     unclosedUnseqFileNum = unClosedFilePaths.size() - unclosedSeqFileNum;
     closedUnseqFileNum = closedFilePaths.size() - closedSeqFileNum;
+
+    markLargeScan();
   }
 
   private void addUsedFilesForRegionQuery(QueryDataSourceForRegionScan dataSource) {
@@ -602,6 +618,20 @@ public class FragmentInstanceContext extends QueryContext {
 
     unclosedUnseqFileNum = unClosedFilePaths.size() - unclosedSeqFileNum;
     closedUnseqFileNum = closedFilePaths.size() - closedSeqFileNum;
+
+    markLargeScan();
+  }
+
+  /**
+   * A fragment instance reading at least read_cache_bypass_file_num_threshold files is a large
+   * scan, whose chunks and metadata are unlikely to be read again soon, so it stops populating the
+   * read caches.
+   */
+  private void markLargeScan() {
+    int threshold = IoTDBDescriptor.getInstance().getConfig().getReadCacheBypassFileNumThreshold();
+    if (threshold > 0 && closedFilePaths.size() + unClosedFilePaths.size() >= threshold) {
+      setBypassReadCache(true);
+    }
   }
 
   /**
@@ -23,6 +23,7 @@ import org.apache.iotdb.commons.exception.IllegalPathException;
 import org.apache.iotdb.commons.path.PartialPath;
 import org.apache.iotdb.commons.path.PatternTreeMap;
 import org.apache.iotdb.db.storageengine.dataregion.modification.Modification;
+import org.apache.iotdb.db.storageengine.dataregion.modification.ModificationCache;
 import org.apache.iotdb.db.storageengine.dataregion.modification.ModificationFile;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
@@ -61,6 +62,9 @@ public class QueryContext {
 
   private volatile boolean isInterrupted = false;
 
+  // whether chunks and metadata read by this query should be kept out of the read caches
+  private volatile boolean bypassReadCache = false;
+
   private final Set<TsFileID> nonExistentModFiles = new CopyOnWriteArraySet<>();
 
   public QueryContext() {}
@@ -98,7 +102,7 @@ public class QueryContext {
         k -> {
           PatternTreeMap<Modification, ModsSerializer> modifications =
               PatternTreeMapFactory.getModsPatternTreeMap();
-          for (Modification modification : modFile.getModificationsIter()) {
+          for (Modification modification : modFile.getCachedModifications()) {
             modifications.append(modification.getPath(), modification);
           }
           return modifications;
@@ -112,8 +116,15 @@ public class QueryContext {
       return Collections.emptyList();
     }
 
+    ModificationFile modFile = tsFileResource.getModFile();
+    if (!fileModCache.containsKey(modFile.getFilePath())
+        && !ModificationCache.getInstance().isCacheable(modFile)) {
+      // the mods file is too large to be parsed as a whole, only seek the deletions of this series
+      return ModificationFile.sortAndMerge(
+          modFile.getModifications(path -> path.matchFullPath(deviceID, measurement)));
+    }
     return ModificationFile.sortAndMerge(
-        getAllModifications(tsFileResource.getModFile()).getOverlapped(deviceID, measurement));
+        getAllModifications(modFile).getOverlapped(deviceID, measurement));
   }
 
   public List<Modification> getPathModifications(TsFileResource tsFileResource, IDeviceID deviceID)
@@ -150,6 +161,14 @@ public class QueryContext {
     return debug;
   }
 
+  public boolean isBypassReadCache() {
+    return bypassReadCache;
+  }
+
+  public void setBypassReadCache(boolean bypassReadCache) {
+    this.bypassReadCache = bypassReadCache;
+  }
+
   public long getStartTime() {
     return startTime;
   }
@@ -77,6 +77,11 @@ public class QueryStatistics {
   // statistics for count and time of page decode
   private final AtomicLong pageReaderMaxUsedMemorySize = new AtomicLong(0);
 
+  // statistics for count of files, chunks and pages skipped by push-down filter statistics
+  private final AtomicLong timeSeriesMetadataSkippedByStatisticsCount = new AtomicLong(0);
+  private final AtomicLong chunkSkippedByStatisticsCount = new AtomicLong(0);
+  private final AtomicLong pageSkippedByStatisticsCount = new AtomicLong(0);
+
   public AtomicLong getLoadTimeSeriesMetadataDiskSeqCount() {
     return loadTimeSeriesMetadataDiskSeqCount;
   }
@@ -225,6 +230,18 @@ public class QueryStatistics {
     return pageReaderMaxUsedMemorySize;
   }
 
+  public AtomicLong getTimeSeriesMetadataSkippedByStatisticsCount() {
+    return timeSeriesMetadataSkippedByStatisticsCount;
+  }
+
+  public AtomicLong getChunkSkippedByStatisticsCount() {
+    return chunkSkippedByStatisticsCount;
+  }
+
+  public AtomicLong getPageSkippedByStatisticsCount() {
+    return pageSkippedByStatisticsCount;
+  }
+
   public TQueryStatistics toThrift() {
     return new TQueryStatistics(
         loadTimeSeriesMetadataDiskSeqCount.get(),
@@ -263,6 +280,9 @@ public class QueryStatistics {
         alignedTimeSeriesMetadataModificationCount.get(),
         alignedTimeSeriesMetadataModificationTime.get(),
         nonAlignedTimeSeriesMetadataModificationCount.get(),
-        nonAlignedTimeSeriesMetadataModificationTime.get());
+        nonAlignedTimeSeriesMetadataModificationTime.get(),
+        timeSeriesMetadataSkippedByStatisticsCount.get(),
+        chunkSkippedByStatisticsCount.get(),
+        pageSkippedByStatisticsCount.get());
   }
 }
@@ -19,6 +19,9 @@
 
 package org.apache.iotdb.db.queryengine.execution.operator.source;
 
+import org.apache.iotdb.db.storageengine.dataregion.read.IQueryDataSource;
+
+import com.google.common.util.concurrent.ListenableFuture;
 import org.apache.tsfile.enums.TSDataType;
 import org.apache.tsfile.read.common.block.TsBlock;
 
@@ -77,7 +80,8 @@ public abstract class AbstractSeriesScanOperator extends AbstractDataSourceOpera
 
       } while (System.nanoTime() - start < maxRuntime
           && !resultTsBlockBuilder.isFull()
-          && retainedTsBlock == null);
+          && retainedTsBlock == null
+          && seriesScanUtil.isBlocked().isDone());
 
       finished = (resultTsBlockBuilder.isEmpty() && retainedTsBlock == null && noMoreData);
 
@@ -87,6 +91,24 @@ public abstract class AbstractSeriesScanOperator extends AbstractDataSourceOpera
     }
   }
 
+  @Override
+  public void initQueryDataSource(IQueryDataSource dataSource) {
+    super.initQueryDataSource(dataSource);
+    seriesScanUtil.enableChunkReadAhead();
+  }
+
+  /** Yield the driver while the chunk to be scanned next is still being read ahead. */
+  @Override
+  public ListenableFuture<?> isBlocked() {
+    return seriesScanUtil.isBlocked();
+  }
+
+  @Override
+  public void close() throws Exception {
+    seriesScanUtil.close();
+    super.close();
+  }
+
   protected boolean readFileData() throws IOException {
     while (seriesScanUtil.hasNextFile()) {
       if (readChunkData()) {
@@ -92,8 +92,8 @@ public class AlignedSeriesScanOperator extends AbstractSeriesScanOperator {
     Column timeColumn = tsBlock.getTimeColumn();
     for (int i = 0; i < size; i++) {
       timeColumnBuilder.writeLong(timeColumn.getLong(i));
-      builder.declarePosition();
     }
+    builder.declarePositions(size);
     for (int columnIndex = 0, columnSize = tsBlock.getValueColumnCount();
         columnIndex < columnSize;
         columnIndex++) {
@@ -109,4 +109,11 @@ public class AlignedSeriesScanUtil extends SeriesScanUtil {
     }
     return metadata.timeAllSelected();
   }
+
+  @Override
+  protected boolean valueStatisticsSurviveDeletion() {
+    // a deletion on one value column leaves nulls behind, which null-checking predicates could
+    // match even though the statistics say otherwise
+    return false;
+  }
 }
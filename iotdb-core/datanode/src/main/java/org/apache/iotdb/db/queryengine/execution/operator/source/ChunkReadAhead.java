@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.source;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.commons.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet;
+import org.apache.iotdb.db.storageengine.dataregion.read.reader.chunk.DiskAlignedChunkLoader;
+import org.apache.iotdb.db.storageengine.dataregion.read.reader.chunk.DiskChunkLoader;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.apache.tsfile.file.metadata.IChunkMetadata;
+import org.apache.tsfile.read.controller.IChunkLoader;
+import org.apache.tsfile.read.filter.basic.Filter;
+import org.apache.tsfile.read.reader.IPageReader;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Reads the disk chunks of one series scan ahead of consumption.
+ *
+ * <p>The scan registers chunk metadata as soon as it unpacks a TimeSeriesMetadata. At most {@code
+ * maxReadAheadChunkNum} of them are read at a time on a shared thread pool, in the order the scan
+ * consumes them, and the page readers of a chunk are handed over when the scan unpacks it. The scan
+ * can ask for the future of the chunk it is about to unpack, so that its driver yields instead of
+ * blocking the query thread on the read.
+ *
+ * <p>Only the driver thread of the scan accesses this class.
+ */
+public class ChunkReadAhead {
+
+  private static final SeriesScanCostMetricSet SERIES_SCAN_COST_METRIC_SET =
+      SeriesScanCostMetricSet.getInstance();
+
+  private final int maxReadAheadChunkNum;
+
+  // time filter may be stateful, every read copies it
+  private final Filter globalTimeFilter;
+
+  // registered chunks not being read yet, in consumption order
+  private final PriorityQueue<IChunkMetadata> pendingChunks;
+
+  private final Map<IChunkMetadata, SettableFuture<List<IPageReader>>> readingChunks =
+      new IdentityHashMap<>();
+
+  public ChunkReadAhead(
+      int maxReadAheadChunkNum,
+      Filter globalTimeFilter,
+      Comparator<IChunkMetadata> consumptionOrder) {
+    this.maxReadAheadChunkNum = maxReadAheadChunkNum;
+    this.globalTimeFilter = globalTimeFilter;
+    this.pendingChunks = new PriorityQueue<>(consumptionOrder);
+  }
+
+  public void register(List<IChunkMetadata> chunkMetadataList) {
+    for (IChunkMetadata chunkMetadata : chunkMetadataList) {
+      if (isOnDisk(chunkMetadata)) {
+        pendingChunks.add(chunkMetadata);
+      }
+    }
+    readAhead();
+  }
+
+  /**
+   * @return the future of reading the given chunk, null if the chunk is not being read ahead
+   */
+  public ListenableFuture<?> getReadFuture(IChunkMetadata chunkMetadata) {
+    return readingChunks.get(chunkMetadata);
+  }
+
+  /**
+   * Get the page readers of the given chunk, waiting for its read if it is still running. A chunk
+   * that was not read ahead is read by the calling thread.
+   */
+  public List<IPageReader> take(IChunkMetadata chunkMetadata, Filter globalTimeFilter)
+      throws IOException {
+    SettableFuture<List<IPageReader>> future = readingChunks.remove(chunkMetadata);
+    if (future == null) {
+      if (isOnDisk(chunkMetadata)) {
+        pendingChunks.remove(chunkMetadata);
+        SERIES_SCAN_COST_METRIC_SET.recordChunkReadAhead(false);
+      }
+      readAhead();
+      return FileLoaderUtils.loadPageReaderList(chunkMetadata, globalTimeFilter);
+    }
+
+    SERIES_SCAN_COST_METRIC_SET.recordChunkReadAhead(future.isDone());
+    readAhead();
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading chunk ahead", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /** The scan skips the given chunk, stop reading it. */
+  public void discard(IChunkMetadata chunkMetadata) {
+    SettableFuture<List<IPageReader>> future = readingChunks.remove(chunkMetadata);
+    if (future != null) {
+      future.cancel(false);
+    } else {
+      pendingChunks.remove(chunkMetadata);
+    }
+    readAhead();
+  }
+
+  public void close() {
+    pendingChunks.clear();
+    readingChunks.values().forEach(future -> future.cancel(false));
+    readingChunks.clear();
+  }
+
+  private void readAhead() {
+    while (readingChunks.size() < maxReadAheadChunkNum && !pendingChunks.isEmpty()) {
+      IChunkMetadata chunkMetadata = pendingChunks.poll();
+      Filter filter = globalTimeFilter == null ? null : globalTimeFilter.copy();
+      SettableFuture<List<IPageReader>> future = SettableFuture.create();
+      readingChunks.put(chunkMetadata, future);
+      ReadAheadPoolHolder.POOL.execute(
+          () -> {
+            if (future.isCancelled()) {
+              return;
+            }
+            try {
+              future.set(FileLoaderUtils.loadPageReaderList(chunkMetadata, filter));
+            } catch (Exception e) {
+              future.setException(e);
+            }
+          });
+    }
+  }
+
+  private static boolean isOnDisk(IChunkMetadata chunkMetadata) {
+    IChunkLoader chunkLoader = chunkMetadata.getChunkLoader();
+    return chunkLoader instanceof DiskChunkLoader || chunkLoader instanceof DiskAlignedChunkLoader;
+  }
+
+  private static class ReadAheadPoolHolder {
+
+    private static final ExecutorService POOL =
+        IoTDBThreadPoolFactory.newFixedThreadPoolWithDaemonThread(
+            IoTDBDescriptor.getInstance().getConfig().getSeriesScanReadAheadThreadCount(),
+            ThreadName.CHUNK_READ_AHEAD.getName());
+
+    private ReadAheadPoolHolder() {}
+  }
+}
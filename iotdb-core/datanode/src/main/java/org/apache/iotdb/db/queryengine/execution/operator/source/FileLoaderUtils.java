@@ -100,7 +100,8 @@ public class FileLoaderUtils {
                         seriesPath.getMeasurement()),
                     allSensors,
                     resource.getTimeIndexType() == ITimeIndex.FILE_TIME_INDEX_TYPE,
-                    context.isDebug());
+                    context.isDebug(),
+                    context.isBypassReadCache());
         if (timeSeriesMetadata != null) {
           long t2 = System.nanoTime();
           List<Modification> pathModifications =
@@ -260,6 +261,7 @@ public class FileLoaderUtils {
     Set<String> allSensors = new HashSet<>(valueMeasurementList);
     allSensors.add("");
     boolean isDebug = context.isDebug();
+    boolean bypassReadCache = context.isBypassReadCache();
     String filePath = resource.getTsFilePath();
     IDeviceID deviceId = alignedPath.getDeviceId();
 
@@ -271,7 +273,8 @@ public class FileLoaderUtils {
             new TimeSeriesMetadataCacheKey(resource.getTsFileID(), deviceId, ""),
             allSensors,
             resource.getTimeIndexType() == ITimeIndex.FILE_TIME_INDEX_TYPE,
-            isDebug);
+            isDebug,
+            bypassReadCache);
     if (timeColumn != null) {
       // only need time column, like count_time aggregation
       if (valueMeasurementList.isEmpty()) {
@@ -293,7 +296,8 @@ public class FileLoaderUtils {
                       resource.getTsFileID(), deviceId, valueMeasurement),
                   allSensors,
                   resource.getTimeIndexType() == ITimeIndex.FILE_TIME_INDEX_TYPE,
-                  isDebug);
+                  isDebug,
+                  bypassReadCache);
           exist = (exist || (valueColumn != null));
           valueTimeSeriesMetadataList.add(valueColumn);
         }
@@ -58,29 +58,30 @@ public class SeriesScanOperator extends AbstractSeriesScanOperator {
 
   @Override
   protected void buildResult(TsBlock tsBlock) {
+    // copy column by column so that each loop stays on one primitive array
     int size = tsBlock.getPositionCount();
     TimeColumnBuilder timeColumnBuilder = resultTsBlockBuilder.getTimeColumnBuilder();
     Column timeColumn = tsBlock.getTimeColumn();
+    for (int i = 0; i < size; i++) {
+      timeColumnBuilder.writeLong(timeColumn.getLong(i));
+    }
+
     ColumnBuilder columnBuilder = resultTsBlockBuilder.getColumnBuilder(0);
     Column column = tsBlock.getColumn(0);
-
     if (column.mayHaveNull()) {
       for (int i = 0; i < size; i++) {
-        timeColumnBuilder.writeLong(timeColumn.getLong(i));
         if (column.isNull(i)) {
           columnBuilder.appendNull();
         } else {
           columnBuilder.write(column, i);
         }
-        resultTsBlockBuilder.declarePosition();
       }
     } else {
       for (int i = 0; i < size; i++) {
-        timeColumnBuilder.writeLong(timeColumn.getLong(i));
         columnBuilder.write(column, i);
-        resultTsBlockBuilder.declarePosition();
       }
     }
+    resultTsBlockBuilder.declarePositions(size);
   }
 
   @Override
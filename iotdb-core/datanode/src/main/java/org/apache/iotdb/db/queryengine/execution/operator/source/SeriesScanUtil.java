@@ -35,6 +35,7 @@ import org.apache.iotdb.db.storageengine.dataregion.read.reader.common.MergeRead
 import org.apache.iotdb.db.storageengine.dataregion.read.reader.common.PriorityMergeReader;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import org.apache.tsfile.enums.TSDataType;
 import org.apache.tsfile.file.metadata.IChunkMetadata;
 import org.apache.tsfile.file.metadata.IDeviceID;
@@ -44,7 +45,6 @@ import org.apache.tsfile.file.metadata.statistics.Statistics;
 import org.apache.tsfile.read.TimeValuePair;
 import org.apache.tsfile.read.common.block.TsBlock;
 import org.apache.tsfile.read.common.block.TsBlockBuilder;
-import org.apache.tsfile.read.common.block.TsBlockUtil;
 import org.apache.tsfile.read.filter.basic.Filter;
 import org.apache.tsfile.read.reader.IPageReader;
 import org.apache.tsfile.read.reader.IPointReader;
@@ -66,6 +66,7 @@ import java.util.PriorityQueue;
 import java.util.function.ToLongFunction;
 
 import static com.google.common.base.Preconditions.checkState;
+import static org.apache.iotdb.db.queryengine.execution.operator.Operator.NOT_BLOCKED;
 import static org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet.BUILD_TSBLOCK_FROM_MERGE_READER_ALIGNED;
 import static org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet.BUILD_TSBLOCK_FROM_MERGE_READER_NONALIGNED;
 
@@ -98,6 +99,9 @@ public class SeriesScanUtil implements Accountable {
   private IChunkMetadata firstChunkMetadata;
   private final PriorityQueue<IChunkMetadata> cachedChunkMetadata;
 
+  // reads disk chunks ahead of consumption, null if disabled
+  private ChunkReadAhead chunkReadAhead;
+
   // page cache
   private VersionPageReader firstPageReader;
   private final List<VersionPageReader> seqPageReaders;
@@ -184,6 +188,48 @@ public class SeriesScanUtil implements Accountable {
     curUnseqFileIndex = 0;
   }
 
+  /**
+   * Read the disk chunks of this scan ahead of consumption if the query asks for it. Only scans
+   * that consume the chunks they unpack should enable it, scans answering aggregations with
+   * statistics would read chunks they never use.
+   */
+  public void enableChunkReadAhead() {
+    int readAheadChunkNum = context.getChunkReadAheadNum();
+    if (readAheadChunkNum > 0 && chunkReadAhead == null) {
+      chunkReadAhead =
+          new ChunkReadAhead(
+              readAheadChunkNum,
+              scanOptions.getGlobalTimeFilter(),
+              orderUtils.comparingLong(
+                  chunkMetadata -> orderUtils.getOrderTime(chunkMetadata.getStatistics())));
+    }
+  }
+
+  /**
+   * @return a future that completes when the chunk this scan unpacks next has been read ahead, or
+   *     {@code NOT_BLOCKED} if the scan can go on without waiting
+   */
+  public ListenableFuture<?> isBlocked() {
+    if (chunkReadAhead == null
+        || firstPageReader != null
+        || !seqPageReaders.isEmpty()
+        || !unSeqPageReaders.isEmpty()
+        || hasCachedNextOverlappedPage) {
+      return NOT_BLOCKED;
+    }
+    IChunkMetadata nextChunkMetadata =
+        firstChunkMetadata != null ? firstChunkMetadata : cachedChunkMetadata.peek();
+    ListenableFuture<?> readFuture =
+        nextChunkMetadata == null ? null : chunkReadAhead.getReadFuture(nextChunkMetadata);
+    return readFuture == null || readFuture.isDone() ? NOT_BLOCKED : readFuture;
+  }
+
+  public void close() {
+    if (chunkReadAhead != null) {
+      chunkReadAhead.close();
+    }
+  }
+
   protected PriorityMergeReader getPriorityMergeReader() {
     return new PriorityMergeReader();
   }
@@ -315,14 +361,19 @@ public class SeriesScanUtil implements Accountable {
       return;
     }
 
-    if (currentChunkOverlapped() || firstChunkMetadata.isModified()) {
+    if (currentChunkOverlapped()) {
       return;
     }
 
     // globalTimeFilter.canSkip() must be FALSE
     Filter pushDownFilter = scanOptions.getPushDownFilter();
-    if (pushDownFilter != null && pushDownFilter.canSkip(firstChunkMetadata)) {
+    if (canSkipByPushDownFilter(
+        pushDownFilter, firstChunkMetadata, firstChunkMetadata.isModified())) {
       skipCurrentChunk();
+      context.getQueryStatistics().getChunkSkippedByStatisticsCount().incrementAndGet();
+      return;
+    }
+    if (firstChunkMetadata.isModified()) {
       return;
     }
 
@@ -394,6 +445,9 @@ public class SeriesScanUtil implements Accountable {
     chunkMetadataList.forEach(chunkMetadata -> chunkMetadata.setSeq(timeSeriesMetadata.isSeq()));
 
     cachedChunkMetadata.addAll(chunkMetadataList);
+    if (chunkReadAhead != null) {
+      chunkReadAhead.register(chunkMetadataList);
+    }
   }
 
   private boolean currentChunkOverlapped() {
@@ -423,6 +477,9 @@ public class SeriesScanUtil implements Accountable {
   }
 
   public void skipCurrentChunk() {
+    if (chunkReadAhead != null && firstChunkMetadata != null) {
+      chunkReadAhead.discard(firstChunkMetadata);
+    }
     firstChunkMetadata = null;
   }
 
@@ -558,7 +615,9 @@ public class SeriesScanUtil implements Accountable {
 
   private void unpackOneChunkMetaData(IChunkMetadata chunkMetaData) throws IOException {
     List<IPageReader> pageReaderList =
-        FileLoaderUtils.loadPageReaderList(chunkMetaData, scanOptions.getGlobalTimeFilter());
+        chunkReadAhead == null
+            ? FileLoaderUtils.loadPageReaderList(chunkMetaData, scanOptions.getGlobalTimeFilter())
+            : chunkReadAhead.take(chunkMetaData, scanOptions.getGlobalTimeFilter());
     long timestampInFileName = FileLoaderUtils.getTimestampInFileName(chunkMetaData);
 
     // init TsBlockBuilder for each page reader
@@ -680,15 +739,19 @@ public class SeriesScanUtil implements Accountable {
         return null;
       }
 
-      firstPageReader.addPushDownFilter(scanOptions.getPushDownFilter());
+      // the push-down filter is evaluated over the decoded columns rather than point by point
+      // inside the page reader, so the reader can decode the whole page in its fast path
+      Filter pushDownFilter = scanOptions.getPushDownFilter();
       TsBlock tsBlock;
-      if (orderUtils.getAscending()) {
+      if (pushDownFilter == null && orderUtils.getAscending()) {
         firstPageReader.setLimitOffset(paginationController);
-        tsBlock = firstPageReader.getAllSatisfiedPageData(orderUtils.getAscending());
+        tsBlock = firstPageReader.getAllSatisfiedPageData(true);
       } else {
         tsBlock =
-            paginationController.applyTsBlock(
-                firstPageReader.getAllSatisfiedPageData(orderUtils.getAscending()));
+            applyPushDownFilterAndLimitOffset(
+                firstPageReader.getAllSatisfiedPageData(orderUtils.getAscending()),
+                pushDownFilter,
+                paginationController);
       }
 
       firstPageReader = null;
@@ -699,11 +762,8 @@ public class SeriesScanUtil implements Accountable {
 
   private TsBlock applyPushDownFilterAndLimitOffset(
       TsBlock tsBlock, Filter pushDownFilter, PaginationController paginationController) {
-    if (pushDownFilter == null) {
-      return paginationController.applyTsBlock(tsBlock);
-    }
-    return TsBlockUtil.applyFilterAndLimitOffsetToTsBlock(
-        tsBlock, new TsBlockBuilder(getTsDataTypeList()), pushDownFilter, paginationController);
+    return TsBlockFilterUtils.applyFilterAndLimitOffset(
+        tsBlock, pushDownFilter, paginationController);
   }
 
   private void filterFirstPageReader() {
@@ -712,14 +772,15 @@ public class SeriesScanUtil implements Accountable {
     }
 
     IPageReader pageReader = firstPageReader.data;
-    if (pageReader.isModified()) {
-      return;
-    }
 
     // globalTimeFilter.canSkip() must be FALSE
     Filter pushDownFilter = scanOptions.getPushDownFilter();
-    if (pushDownFilter != null && pushDownFilter.canSkip(pageReader)) {
+    if (canSkipByPushDownFilter(pushDownFilter, pageReader, pageReader.isModified())) {
       skipCurrentPage();
+      context.getQueryStatistics().getPageSkippedByStatisticsCount().incrementAndGet();
+      return;
+    }
+    if (pageReader.isModified()) {
       return;
     }
 
@@ -1111,14 +1172,22 @@ public class SeriesScanUtil implements Accountable {
       return;
     }
 
-    if (currentFileOverlapped() || firstTimeSeriesMetadata.isModified()) {
+    if (currentFileOverlapped()) {
       return;
     }
 
     // globalTimeFilter.canSkip() must be FALSE
     Filter pushDownFilter = scanOptions.getPushDownFilter();
-    if (pushDownFilter != null && pushDownFilter.canSkip(firstTimeSeriesMetadata)) {
+    if (canSkipByPushDownFilter(
+        pushDownFilter, firstTimeSeriesMetadata, firstTimeSeriesMetadata.isModified())) {
       skipCurrentFile();
+      context
+          .getQueryStatistics()
+          .getTimeSeriesMetadataSkippedByStatisticsCount()
+          .incrementAndGet();
+      return;
+    }
+    if (firstTimeSeriesMetadata.isModified()) {
       return;
     }
 
@@ -1187,6 +1256,22 @@ public class SeriesScanUtil implements Accountable {
     return true;
   }
 
+  /**
+   * Deletions only ever remove points from a file, chunk or page, so statistics of modified data
+   * still bound the values that remain. Subclasses whose deletions can turn values into nulls
+   * instead must not rely on them.
+   */
+  protected boolean valueStatisticsSurviveDeletion() {
+    return true;
+  }
+
+  private boolean canSkipByPushDownFilter(
+      Filter pushDownFilter, IMetadata metadata, boolean isModified) {
+    return pushDownFilter != null
+        && (!isModified || valueStatisticsSurviveDeletion())
+        && pushDownFilter.canSkip(metadata);
+  }
+
   private boolean filterAllSatisfy(Filter filter, IMetadata metadata) {
     return filter == null || filter.allSatisfy(metadata);
   }
@@ -1260,10 +1345,6 @@ public class SeriesScanUtil implements Accountable {
       }
     }
 
-    void addPushDownFilter(Filter pushDownFilter) {
-      data.addRecordFilter(pushDownFilter);
-    }
-
     boolean isModified() {
       return data.isModified();
     }
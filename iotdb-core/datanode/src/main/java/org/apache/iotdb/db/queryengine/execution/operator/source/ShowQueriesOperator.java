@@ -22,6 +22,7 @@ package org.apache.iotdb.db.queryengine.execution.operator.source;
 import org.apache.iotdb.db.queryengine.common.header.DatasetHeaderFactory;
 import org.apache.iotdb.db.queryengine.execution.MemoryEstimationHelper;
 import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
+import org.apache.iotdb.db.queryengine.execution.resourcegroup.ResourceGroupManager;
 import org.apache.iotdb.db.queryengine.plan.Coordinator;
 import org.apache.iotdb.db.queryengine.plan.execution.IQueryExecution;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
@@ -129,6 +130,7 @@ public class ShowQueriesOperator implements SourceOperator {
       long currTime = System.currentTimeMillis();
       String[] splits = queryExecutions.get(0).getQueryId().split("_");
       int dataNodeId = Integer.parseInt(splits[splits.length - 1]);
+      ResourceGroupManager resourceGroupManager = ResourceGroupManager.getInstance();
 
       for (IQueryExecution queryExecution : queryExecutions) {
         timeColumnBuilder.writeLong(
@@ -140,6 +142,9 @@ public class ShowQueriesOperator implements SourceOperator {
             (float) (currTime - queryExecution.getStartExecutionTime()) / 1000);
         columnBuilders[3].writeBinary(
             BytesUtils.valueOf(queryExecution.getExecuteSQL().orElse("UNKNOWN")));
+        columnBuilders[4].writeBinary(
+            BytesUtils.valueOf(
+                resourceGroupManager.getResourceGroupName(queryExecution.getQueryId())));
         builder.declarePosition();
       }
     }
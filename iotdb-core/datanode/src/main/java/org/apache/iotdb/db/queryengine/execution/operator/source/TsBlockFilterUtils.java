@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.source;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.filter.basic.Filter;
+import org.apache.tsfile.read.reader.series.PaginationController;
+
+import java.util.Arrays;
+
+/**
+ * Column-at-a-time filtering of decoded page data. The push-down filter is evaluated over the whole
+ * {@link TsBlock} into a selection bitmap, limit and offset are applied to the selected positions,
+ * and the surviving positions are copied out of every column in one pass instead of being
+ * re-appended to a builder row by row.
+ */
+public class TsBlockFilterUtils {
+
+  private TsBlockFilterUtils() {
+    // util class
+  }
+
+  public static TsBlock applyFilterAndLimitOffset(
+      TsBlock tsBlock, Filter pushDownFilter, PaginationController paginationController) {
+    if (pushDownFilter == null) {
+      return paginationController.applyTsBlock(tsBlock);
+    }
+
+    int positionCount = tsBlock.getPositionCount();
+    boolean[] selection = new boolean[positionCount];
+    Arrays.fill(selection, true);
+    selection = pushDownFilter.satisfyTsBlock(selection, tsBlock);
+
+    int[] selectedPositions = new int[positionCount];
+    int selectedCount = 0;
+    for (int i = 0; i < positionCount; i++) {
+      if (!selection[i]) {
+        continue;
+      }
+      if (paginationController.hasCurOffset()) {
+        paginationController.consumeOffset();
+        continue;
+      }
+      if (!paginationController.hasCurLimit()) {
+        break;
+      }
+      selectedPositions[selectedCount++] = i;
+      paginationController.consumeLimit();
+    }
+
+    if (selectedCount == positionCount) {
+      return tsBlock;
+    }
+    return copyPositions(tsBlock, selectedPositions, selectedCount);
+  }
+
+  private static TsBlock copyPositions(TsBlock tsBlock, int[] positions, int length) {
+    Column timeColumn = tsBlock.getTimeColumn().copyPositions(positions, 0, length);
+    Column[] valueColumns = new Column[tsBlock.getValueColumnCount()];
+    for (int i = 0; i < valueColumns.length; i++) {
+      valueColumns[i] = tsBlock.getColumn(i).copyPositions(positions, 0, length);
+    }
+    return new TsBlock(length, timeColumn, valueColumns);
+  }
+}
@@ -156,7 +156,8 @@ public class TableScanOperator extends AbstractSeriesScanOperator {
 
       } while (System.nanoTime() - start < maxRuntime
           && !measurementDataBuilder.isFull()
-          && measurementDataBlock == null);
+          && measurementDataBlock == null
+          && seriesScanUtil.isBlocked().isDone());
 
       // current device' data is consumed up
       if (measurementDataBuilder.isEmpty()
@@ -279,6 +280,7 @@ public class TableScanOperator extends AbstractSeriesScanOperator {
   public void initQueryDataSource(IQueryDataSource dataSource) {
     this.queryDataSource = (QueryDataSource) dataSource;
     this.seriesScanUtil.initQueryDataSource(queryDataSource);
+    this.seriesScanUtil.enableChunkReadAhead();
     this.resultTsBlockBuilder = new TsBlockBuilder(getResultDataTypes());
     this.resultTsBlockBuilder.setMaxTsBlockLineNumber(this.maxTsBlockLineNum);
     this.measurementDataBuilder = new TsBlockBuilder(this.measurementColumnTSDataTypes);
@@ -288,11 +290,13 @@ public class TableScanOperator extends AbstractSeriesScanOperator {
   private void prepareForNextDevice() {
     if (currentDeviceIndex < deviceCount) {
       // construct AlignedSeriesScanUtil for next device
+      this.seriesScanUtil.close();
       this.seriesScanUtil = constructAlignedSeriesScanUtil(deviceEntries.get(currentDeviceIndex));
 
       // reset QueryDataSource
       queryDataSource.reset();
       this.seriesScanUtil.initQueryDataSource(queryDataSource);
+      this.seriesScanUtil.enableChunkReadAhead();
     }
   }
 
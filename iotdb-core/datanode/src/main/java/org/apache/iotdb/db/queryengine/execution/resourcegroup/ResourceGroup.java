@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.resourcegroup;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A group of queries sharing the same limits. A query joins the group if its user, client address
+ * and statement type match the selectors of the group, and an empty selector matches anything.
+ *
+ * <p>The limits of a group are:
+ *
+ * <ul>
+ *   <li>max_running: the number of queries of the group running at the same time, the others wait
+ *       in a FIFO queue. Non-positive means no limit.
+ *   <li>max_queued: the number of queries waiting in the queue, the others are rejected. Negative
+ *       means no limit.
+ *   <li>cpu_share: the weight of the group in the DriverScheduler, a query of the group is charged
+ *       time / cpu_share for the time it runs.
+ *   <li>memory_share: the proportion of the memory for operators the group can use on a DataNode.
+ * </ul>
+ */
+public class ResourceGroup {
+
+  private final String name;
+
+  private volatile Set<String> users = Collections.emptySet();
+  private volatile Set<String> clients = Collections.emptySet();
+  private volatile Set<String> statementTypes = Collections.emptySet();
+
+  private volatile int maxRunningQueries = 0;
+  private volatile int maxQueuedQueries = -1;
+  private volatile double cpuShare = 1.0;
+  private volatile double memoryShare = 1.0;
+
+  // guarded by this
+  private int runningQueries = 0;
+  private final Deque<Object> queuedQueries = new ArrayDeque<>();
+  private long reservedOperatorMemory = 0L;
+
+  public ResourceGroup(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Parse a group from name:key=value,key=value,... Values of the selectors (user, client and
+   * statement) are separated by '|'.
+   *
+   * @throws IllegalArgumentException if the definition is illegal
+   */
+  public static ResourceGroup parse(String definition) {
+    String[] nameAndProperties = definition.split(":", 2);
+    String name = nameAndProperties[0].trim();
+    if (name.isEmpty()) {
+      throw new IllegalArgumentException("Resource group name is empty: " + definition);
+    }
+    ResourceGroup group = new ResourceGroup(name);
+    if (nameAndProperties.length < 2 || nameAndProperties[1].trim().isEmpty()) {
+      return group;
+    }
+    for (String property : nameAndProperties[1].split(",")) {
+      String[] keyAndValue = property.split("=", 2);
+      if (keyAndValue.length < 2) {
+        throw new IllegalArgumentException(
+            String.format("Illegal property %s of resource group %s", property, name));
+      }
+      String key = keyAndValue[0].trim();
+      String value = keyAndValue[1].trim();
+      switch (key) {
+        case "user":
+          group.users = parseSelector(value);
+          break;
+        case "client":
+          group.clients = parseSelector(value);
+          break;
+        case "statement":
+          group.statementTypes = parseSelector(value);
+          break;
+        case "max_running":
+          group.maxRunningQueries = Integer.parseInt(value);
+          break;
+        case "max_queued":
+          group.maxQueuedQueries = Integer.parseInt(value);
+          break;
+        case "cpu_share":
+          group.cpuShare = Double.parseDouble(value);
+          if (group.cpuShare <= 0) {
+            throw new IllegalArgumentException(
+                String.format("cpu_share of resource group %s should be positive", name));
+          }
+          break;
+        case "memory_share":
+          group.memoryShare = Double.parseDouble(value);
+          if (group.memoryShare <= 0 || group.memoryShare > 1) {
+            throw new IllegalArgumentException(
+                String.format("memory_share of resource group %s should be in (0, 1]", name));
+          }
+          break;
+        default:
+          throw new IllegalArgumentException(
+              String.format("Unknown property %s of resource group %s", key, name));
+      }
+    }
+    return group;
+  }
+
+  private static Set<String> parseSelector(String value) {
+    Set<String> values = new HashSet<>(Arrays.asList(value.split("\\|")));
+    values.remove("");
+    return values;
+  }
+
+  /** Take the selectors and limits of the other group, waking the queued queries if needed. */
+  synchronized void update(ResourceGroup other) {
+    this.users = other.users;
+    this.clients = other.clients;
+    this.statementTypes = other.statementTypes;
+    this.maxRunningQueries = other.maxRunningQueries;
+    this.maxQueuedQueries = other.maxQueuedQueries;
+    this.cpuShare = other.cpuShare;
+    this.memoryShare = other.memoryShare;
+    notifyAll();
+  }
+
+  boolean matches(String user, String client, String statementType) {
+    return matches(users, user)
+        && matches(clients, client)
+        && matches(statementTypes, statementType);
+  }
+
+  private static boolean matches(Set<String> selector, String value) {
+    return selector.isEmpty() || (value != null && selector.contains(value));
+  }
+
+  /**
+   * Wait until a query can run in this group. Queries are admitted in the order they arrive.
+   *
+   * @return false if the queue is full or the query has waited for timeoutMs
+   * @throws InterruptedException if interrupted while waiting
+   */
+  synchronized boolean admit(long timeoutMs) throws InterruptedException {
+    if (queuedQueries.isEmpty() && hasRunningSlot()) {
+      runningQueries++;
+      return true;
+    }
+    if (maxQueuedQueries >= 0 && queuedQueries.size() >= maxQueuedQueries) {
+      return false;
+    }
+    Object ticket = new Object();
+    queuedQueries.addLast(ticket);
+    long deadline =
+        timeoutMs >= Long.MAX_VALUE - System.currentTimeMillis()
+            ? Long.MAX_VALUE
+            : System.currentTimeMillis() + timeoutMs;
+    try {
+      while (queuedQueries.peekFirst() != ticket || !hasRunningSlot()) {
+        long remainingMs = deadline - System.currentTimeMillis();
+        if (remainingMs <= 0) {
+          return false;
+        }
+        wait(remainingMs);
+      }
+      runningQueries++;
+      return true;
+    } finally {
+      queuedQueries.remove(ticket);
+      // the next query in the queue may be able to run now
+      notifyAll();
+    }
+  }
+
+  private boolean hasRunningSlot() {
+    return maxRunningQueries <= 0 || runningQueries < maxRunningQueries;
+  }
+
+  synchronized void release() {
+    runningQueries--;
+    notifyAll();
+  }
+
+  /**
+   * Reserve the estimated memory of a fragment instance from the share of this group.
+   *
+   * @param totalOperatorMemory the memory for operators of the DataNode
+   * @return false if the share is used up
+   */
+  public synchronized boolean tryReserveOperatorMemory(long bytes, long totalOperatorMemory) {
+    if (reservedOperatorMemory + bytes > (long) (totalOperatorMemory * memoryShare)) {
+      return false;
+    }
+    reservedOperatorMemory += bytes;
+    return true;
+  }
+
+  public synchronized void releaseOperatorMemory(long bytes) {
+    reservedOperatorMemory -= bytes;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public double getCpuShare() {
+    return cpuShare;
+  }
+
+  public double getMemoryShare() {
+    return memoryShare;
+  }
+
+  public synchronized int getRunningQueries() {
+    return runningQueries;
+  }
+
+  public synchronized int getQueuedQueries() {
+    return queuedQueries.size();
+  }
+}
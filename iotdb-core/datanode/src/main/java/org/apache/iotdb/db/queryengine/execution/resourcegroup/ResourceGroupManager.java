@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.resourcegroup;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The manager of {@link ResourceGroup}s, which are defined by query_resource_groups and reloaded
+ * once it is modified. Queries matching no group are not limited.
+ */
+public class ResourceGroupManager {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResourceGroupManager.class);
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  /** Name of the resource group shown for the queries matching no group. */
+  public static final String DEFAULT_RESOURCE_GROUP = "default";
+
+  private volatile String loadedDefinition = "";
+  private volatile List<ResourceGroup> resourceGroups = Collections.emptyList();
+
+  /** QueryId -> the admission of the query, only for queries of some resource group. */
+  private final Map<String, Admission> admissions = new ConcurrentHashMap<>();
+
+  private ResourceGroupManager() {}
+
+  public static ResourceGroupManager getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * @return the first resource group matching the query, null if there is none
+   */
+  public ResourceGroup select(String user, String client, String statementType) {
+    for (ResourceGroup group : getResourceGroups()) {
+      if (group.matches(user, client, statementType)) {
+        return group;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the resource group of the name, null if there is none
+   */
+  public ResourceGroup getResourceGroup(String name) {
+    if (name == null) {
+      return null;
+    }
+    for (ResourceGroup group : getResourceGroups()) {
+      if (group.getName().equals(name)) {
+        return group;
+      }
+    }
+    return null;
+  }
+
+  public double getCpuShare(String resourceGroupName) {
+    ResourceGroup group = getResourceGroup(resourceGroupName);
+    return group == null ? 1.0 : group.getCpuShare();
+  }
+
+  private List<ResourceGroup> getResourceGroups() {
+    String definition = CONFIG.getQueryResourceGroups();
+    if (!definition.equals(loadedDefinition)) {
+      reload(definition);
+    }
+    return resourceGroups;
+  }
+
+  private synchronized void reload(String definition) {
+    if (definition.equals(loadedDefinition)) {
+      return;
+    }
+    List<ResourceGroup> parsedGroups = new ArrayList<>();
+    try {
+      for (String groupDefinition : definition.split(";")) {
+        if (!groupDefinition.trim().isEmpty()) {
+          parsedGroups.add(ResourceGroup.parse(groupDefinition.trim()));
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn(
+          "Illegal query_resource_groups {}, the previous resource groups are kept", definition, e);
+      loadedDefinition = definition;
+      return;
+    }
+
+    // keep the groups still defined, so that their running and queued queries are not lost
+    Map<String, ResourceGroup> previousGroups = new HashMap<>();
+    for (ResourceGroup group : resourceGroups) {
+      previousGroups.put(group.getName(), group);
+    }
+    List<ResourceGroup> newGroups = new ArrayList<>(parsedGroups.size());
+    for (ResourceGroup parsedGroup : parsedGroups) {
+      ResourceGroup previousGroup = previousGroups.get(parsedGroup.getName());
+      if (previousGroup != null) {
+        previousGroup.update(parsedGroup);
+        newGroups.add(previousGroup);
+      } else {
+        newGroups.add(parsedGroup);
+      }
+    }
+    resourceGroups = Collections.unmodifiableList(newGroups);
+    loadedDefinition = definition;
+    LOGGER.info("Resource groups are reloaded: {}", definition);
+  }
+
+  /**
+   * Wait until the query can run in the resource group. The query must be released by {@link
+   * #release(String)} once it is done.
+   *
+   * @return false if the query is rejected by the group or has waited for timeoutMs
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean admit(String queryId, ResourceGroup group, long timeoutMs)
+      throws InterruptedException {
+    Admission admission = new Admission(group);
+    admissions.put(queryId, admission);
+    boolean admitted = false;
+    try {
+      admitted = group.admit(timeoutMs);
+    } finally {
+      synchronized (admission) {
+        if (admitted && admission.released) {
+          // the query has been cleaned up while waiting
+          group.release();
+          admitted = false;
+        }
+        admission.running = admitted;
+      }
+      if (!admitted) {
+        admissions.remove(queryId);
+      }
+    }
+    return admitted;
+  }
+
+  public void release(String queryId) {
+    Admission admission = admissions.remove(queryId);
+    if (admission == null) {
+      return;
+    }
+    synchronized (admission) {
+      admission.released = true;
+      if (admission.running) {
+        admission.group.release();
+      }
+    }
+  }
+
+  public String getResourceGroupName(String queryId) {
+    Admission admission = admissions.get(queryId);
+    return admission == null ? DEFAULT_RESOURCE_GROUP : admission.group.getName();
+  }
+
+  private static class Admission {
+
+    private final ResourceGroup group;
+
+    // modified while holding the lock of the admission
+    private volatile boolean running = false;
+    private volatile boolean released = false;
+
+    private Admission(ResourceGroup group) {
+      this.group = group;
+    }
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {}
+
+    private static final ResourceGroupManager INSTANCE = new ResourceGroupManager();
+  }
+}
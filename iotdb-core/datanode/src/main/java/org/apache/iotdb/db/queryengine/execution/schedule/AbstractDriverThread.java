@@ -60,7 +60,7 @@ public abstract class AbstractDriverThread extends Thread implements Closeable {
     try {
       while (!closed && !Thread.currentThread().isInterrupted()) {
         try {
-          next = queue.poll();
+          next = pollTask();
         } catch (InterruptedException e) {
           logger.warn("Executor {} failed to poll driver task from queue", this.getName());
           Thread.currentThread().interrupt();
@@ -110,6 +110,16 @@ public abstract class AbstractDriverThread extends Thread implements Closeable {
     }
   }
 
+  /**
+   * Get the next task to process. If there is no task, this call will be blocked until a task has
+   * been pushed.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  protected DriverTask pollTask() throws InterruptedException {
+    return queue.poll();
+  }
+
   /**
    * Processing a task.
    *
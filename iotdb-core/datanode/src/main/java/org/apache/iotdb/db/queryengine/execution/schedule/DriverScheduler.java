@@ -36,11 +36,13 @@ import org.apache.iotdb.db.queryengine.execution.driver.DataDriver;
 import org.apache.iotdb.db.queryengine.execution.driver.IDriver;
 import org.apache.iotdb.db.queryengine.execution.exchange.IMPPDataExchangeManager;
 import org.apache.iotdb.db.queryengine.execution.exchange.MPPDataExchangeService;
+import org.apache.iotdb.db.queryengine.execution.resourcegroup.ResourceGroupManager;
 import org.apache.iotdb.db.queryengine.execution.schedule.queue.IndexedBlockingQueue;
 import org.apache.iotdb.db.queryengine.execution.schedule.queue.IndexedBlockingReserveQueue;
 import org.apache.iotdb.db.queryengine.execution.schedule.queue.L1PriorityQueue;
 import org.apache.iotdb.db.queryengine.execution.schedule.queue.multilevelqueue.DriverTaskHandle;
 import org.apache.iotdb.db.queryengine.execution.schedule.queue.multilevelqueue.MultilevelPriorityQueue;
+import org.apache.iotdb.db.queryengine.execution.schedule.queue.multilevelqueue.WorkStealingMultilevelPriorityQueue;
 import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTask;
 import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTaskStatus;
 import org.apache.iotdb.db.queryengine.metric.DriverSchedulerMetricSet;
@@ -101,7 +103,11 @@ public class DriverScheduler implements IDriverScheduler, IService {
 
   private DriverScheduler() {
     this.readyQueue =
-        new MultilevelPriorityQueue(LEVEL_TIME_MULTIPLIER, TASK_MAX_CAPACITY, new DriverTask());
+        config.isEnableDriverTaskWorkStealing()
+            ? new WorkStealingMultilevelPriorityQueue(
+                LEVEL_TIME_MULTIPLIER, TASK_MAX_CAPACITY, new DriverTask(), WORKER_THREAD_NUM)
+            : new MultilevelPriorityQueue(
+                LEVEL_TIME_MULTIPLIER, TASK_MAX_CAPACITY, new DriverTask());
     this.timeoutQueue =
         new L1PriorityQueue<>(
             QUERY_MAX_CAPACITY, new DriverTask.TimeoutComparator(), new DriverTask());
@@ -126,14 +132,12 @@ public class DriverScheduler implements IDriverScheduler, IService {
                 ThreadGroup workerGroups,
                 IndexedBlockingQueue<DriverTask> queue,
                 ThreadProducer producer) {
-              DriverTaskThread newThread =
-                  new DriverTaskThread(threadName, workerGroups, readyQueue, scheduler, this);
+              AbstractDriverThread newThread = createWorkerThread(threadName, index, this);
               threads.set(index, newThread);
               newThread.start();
             }
           };
-      AbstractDriverThread t =
-          new DriverTaskThread(threadName, workerGroups, readyQueue, scheduler, producer);
+      AbstractDriverThread t = createWorkerThread(threadName, index, producer);
       threads.add(t);
       t.start();
     }
@@ -162,6 +166,20 @@ public class DriverScheduler implements IDriverScheduler, IService {
     t.start();
   }
 
+  private AbstractDriverThread createWorkerThread(
+      String threadName, int index, ThreadProducer producer) {
+    if (readyQueue instanceof WorkStealingMultilevelPriorityQueue) {
+      return new WorkStealingDriverTaskThread(
+          threadName,
+          workerGroups,
+          (WorkStealingMultilevelPriorityQueue) readyQueue,
+          index,
+          scheduler,
+          producer);
+    }
+    return new DriverTaskThread(threadName, workerGroups, readyQueue, scheduler, producer);
+  }
+
   @Override
   public void stop() {
     this.threads.forEach(
@@ -187,7 +205,9 @@ public class DriverScheduler implements IDriverScheduler, IService {
         new DriverTaskHandle(
             getNextDriverTaskHandleId(),
             (MultilevelPriorityQueue) readyQueue,
-            OptionalInt.of(Integer.MAX_VALUE));
+            OptionalInt.of(Integer.MAX_VALUE),
+            ResourceGroupManager.getInstance()
+                .getCpuShare(sessionInfo == null ? null : sessionInfo.getResourceGroup()));
     List<DriverTask> tasks = new ArrayList<>();
     drivers.forEach(
         driver ->
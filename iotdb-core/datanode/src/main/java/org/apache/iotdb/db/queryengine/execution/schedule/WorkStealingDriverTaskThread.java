@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.schedule;
+
+import org.apache.iotdb.db.queryengine.execution.schedule.queue.multilevelqueue.WorkStealingMultilevelPriorityQueue;
+import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTask;
+
+/**
+ * The worker thread of {@link DriverTask} which polls its own local queue first and steals from the
+ * other workers when it is empty.
+ */
+public class WorkStealingDriverTaskThread extends DriverTaskThread {
+
+  private final WorkStealingMultilevelPriorityQueue queue;
+  private final int workerIndex;
+
+  public WorkStealingDriverTaskThread(
+      String workerId,
+      ThreadGroup tg,
+      WorkStealingMultilevelPriorityQueue queue,
+      int workerIndex,
+      ITaskScheduler scheduler,
+      ThreadProducer producer) {
+    super(workerId, tg, queue, scheduler, producer);
+    this.queue = queue;
+    this.workerIndex = workerIndex;
+  }
+
+  @Override
+  protected DriverTask pollTask() throws InterruptedException {
+    return queue.poll(workerIndex);
+  }
+}
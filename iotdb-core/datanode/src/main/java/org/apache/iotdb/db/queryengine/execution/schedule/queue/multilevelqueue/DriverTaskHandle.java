@@ -39,18 +39,33 @@ public class DriverTaskHandle {
   /** It is not used for now but can be used to limit the driverNum per Task in the future. */
   private final OptionalInt maxDriversPerTask;
 
+  /** CPU share of the resource group the query belongs to, 1 if it belongs to none. */
+  private final double cpuShare;
+
   private final AtomicReference<Priority> priority = new AtomicReference<>(new Priority(0, 0));
 
   public DriverTaskHandle(
       int driverTaskHandleId,
       MultilevelPriorityQueue driverTaskQueue,
       OptionalInt maxDriversPerTask) {
+    this(driverTaskHandleId, driverTaskQueue, maxDriversPerTask, 1.0);
+  }
+
+  public DriverTaskHandle(
+      int driverTaskHandleId,
+      MultilevelPriorityQueue driverTaskQueue,
+      OptionalInt maxDriversPerTask,
+      double cpuShare) {
     this.driverTaskHandleId = driverTaskHandleId;
     this.driverTaskQueue = requireNonNull(driverTaskQueue, "driverTaskQueue is null");
     this.maxDriversPerTask = requireNonNull(maxDriversPerTask, "maxDriversPerTask is null");
+    this.cpuShare = cpuShare > 0 ? cpuShare : 1.0;
   }
 
   public synchronized Priority addScheduledTimeInNanos(long durationNanos) {
+    // the time is charged in proportion to the cpu share, so that a task with a larger share stays
+    // in lower levels and is polled before others with the same scheduled time
+    durationNanos = (long) (durationNanos / cpuShare);
     scheduledTimeInNanos += durationNanos;
     Priority newPriority =
         driverTaskQueue.updatePriority(priority.get(), durationNanos, scheduledTimeInNanos);
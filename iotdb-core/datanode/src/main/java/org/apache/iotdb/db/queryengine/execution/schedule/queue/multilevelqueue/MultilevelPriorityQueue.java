@@ -24,6 +24,7 @@ import org.apache.iotdb.db.queryengine.execution.schedule.queue.IndexedBlockingR
 import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTask;
 
 import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -44,6 +45,12 @@ public class MultilevelPriorityQueue extends IndexedBlockingReserveQueue<DriverT
 
   private final PriorityQueue<DriverTask>[] levelWaitingSplits;
 
+  /**
+   * Number of TASKs waiting in each level. It is shared by the queues sharing the scheduled time of
+   * each level, so that a level is treated as empty only if it is empty in all of them.
+   */
+  private final AtomicInteger[] levelWaitingNum;
+
   /**
    * This queue is independent of the other priority queues and has the highest priority. It is used
    * to assign the highest execution priority to tasks like "ShowQuery," without considering
@@ -73,16 +80,37 @@ public class MultilevelPriorityQueue extends IndexedBlockingReserveQueue<DriverT
     this.levelScheduledTime = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
     this.levelMinScheduledTime = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
     this.levelWaitingSplits = new PriorityQueue[LEVEL_THRESHOLD_SECONDS.length];
+    this.levelWaitingNum = new AtomicInteger[LEVEL_THRESHOLD_SECONDS.length];
     this.highestPriorityLevelQueue =
         new PriorityQueue<>(new DriverTask.SchedulePriorityComparator());
     for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
       levelScheduledTime[level] = new AtomicLong();
       levelMinScheduledTime[level] = new AtomicLong(-1);
+      levelWaitingNum[level] = new AtomicInteger(0);
       levelWaitingSplits[level] = new PriorityQueue<>(new DriverTask.SchedulePriorityComparator());
     }
     this.levelTimeMultiplier = levelTimeMultiplier;
   }
 
+  /**
+   * Create a queue sharing the scheduled time and the number of waiting TASKs of each level with
+   * the given queue, so that the levels are balanced across all the queues rather than within each
+   * of them.
+   */
+  MultilevelPriorityQueue(MultilevelPriorityQueue levelTimeHolder, DriverTask queryHolder) {
+    super(Integer.MAX_VALUE, queryHolder);
+    this.levelScheduledTime = levelTimeHolder.levelScheduledTime;
+    this.levelMinScheduledTime = levelTimeHolder.levelMinScheduledTime;
+    this.levelWaitingNum = levelTimeHolder.levelWaitingNum;
+    this.levelWaitingSplits = new PriorityQueue[LEVEL_THRESHOLD_SECONDS.length];
+    this.highestPriorityLevelQueue =
+        new PriorityQueue<>(new DriverTask.SchedulePriorityComparator());
+    for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+      levelWaitingSplits[level] = new PriorityQueue<>(new DriverTask.SchedulePriorityComparator());
+    }
+    this.levelTimeMultiplier = levelTimeHolder.levelTimeMultiplier;
+  }
+
   // region overridden functions
 
   /**
@@ -106,7 +134,7 @@ public class MultilevelPriorityQueue extends IndexedBlockingReserveQueue<DriverT
     }
 
     int level = task.getPriority().getLevel();
-    if (levelWaitingSplits[level].isEmpty()) {
+    if (levelWaitingNum[level].getAndIncrement() == 0) {
       // Accesses to levelScheduledTime are not synchronized, so we have a data race
       // here - our level time math will be off. However, the staleness is bounded by
       // the fact that only running splits that complete during this computation
@@ -149,8 +177,9 @@ public class MultilevelPriorityQueue extends IndexedBlockingReserveQueue<DriverT
     if (highestPriorityLevelQueue.remove(driverTask)) {
       return driverTask;
     }
-    for (PriorityQueue<DriverTask> level : levelWaitingSplits) {
-      if (level.remove(driverTask)) {
+    for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+      if (levelWaitingSplits[level].remove(driverTask)) {
+        levelWaitingNum[level].decrementAndGet();
         return driverTask;
       }
     }
@@ -194,8 +223,9 @@ public class MultilevelPriorityQueue extends IndexedBlockingReserveQueue<DriverT
   @Override
   protected void clearAllElements() {
     highestPriorityLevelQueue.clear();
-    for (PriorityQueue<DriverTask> level : levelWaitingSplits) {
-      level.clear();
+    for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+      levelWaitingNum[level].addAndGet(-levelWaitingSplits[level].size());
+      levelWaitingSplits[level].clear();
     }
   }
 
@@ -233,6 +263,7 @@ public class MultilevelPriorityQueue extends IndexedBlockingReserveQueue<DriverT
     checkState(selectedLevel != -1, "selected level can not equal to -1");
     DriverTask result = levelWaitingSplits[selectedLevel].poll();
     checkState(result != null, "result driverTask cannot be null");
+    levelWaitingNum[selectedLevel].decrementAndGet();
     return result;
   }
 
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.schedule.queue.multilevelqueue;
+
+import org.apache.iotdb.db.queryengine.execution.schedule.queue.ID;
+import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTask;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A {@link MultilevelPriorityQueue} split into one local queue for each worker thread. A worker
+ * polls its own local queue first and steals from the others only if it is empty, so that the
+ * workers rarely contend on the same lock.
+ *
+ * <p>A DriverTask is pushed back to the local queue of the worker which has last polled it, which
+ * keeps a driver on the same worker across time slices unless it is stolen by an idle worker.
+ *
+ * <p>All the local queues share the scheduled time of each level, so the time slice priorities are
+ * still balanced among all the DriverTasks rather than within each local queue.
+ */
+public class WorkStealingMultilevelPriorityQueue extends MultilevelPriorityQueue {
+
+  private final MultilevelPriorityQueue[] localQueues;
+
+  /** Number of DriverTasks in all the local queues. */
+  private final AtomicInteger readySize = new AtomicInteger(0);
+
+  /**
+   * Number of DriverTasks in all the local queues plus the ones polled out for running or blocked,
+   * which is checked against the capacity.
+   */
+  private final AtomicInteger totalSize = new AtomicInteger(0);
+
+  /** Used to spread the DriverTasks that have never been polled among the local queues. */
+  private final AtomicInteger nextLocalQueue = new AtomicInteger(0);
+
+  /** Idle workers wait on it until a DriverTask is pushed. */
+  private final Object idleMonitor = new Object();
+
+  private final AtomicInteger idleWorkers = new AtomicInteger(0);
+
+  public WorkStealingMultilevelPriorityQueue(
+      double levelTimeMultiplier, int maxCapacity, DriverTask queryHolder, int workerNum) {
+    super(levelTimeMultiplier, maxCapacity, queryHolder);
+    checkArgument(workerNum > 0, "workerNum should be greater than 0");
+    this.localQueues = new MultilevelPriorityQueue[workerNum];
+    for (int i = 0; i < workerNum; i++) {
+      localQueues[i] = new MultilevelPriorityQueue(this, new DriverTask());
+    }
+  }
+
+  /** Callers other than the workers poll as the first worker. */
+  @Override
+  public DriverTask poll() throws InterruptedException {
+    return poll(0);
+  }
+
+  /**
+   * Get and remove a DriverTask for the given worker. If all the local queues are empty, this call
+   * will be blocked until a DriverTask has been pushed.
+   *
+   * @param workerIndex the index of the worker, in [0, workerNum)
+   * @return the polled DriverTask
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public DriverTask poll(int workerIndex) throws InterruptedException {
+    while (true) {
+      DriverTask task = tryPoll(workerIndex);
+      if (task != null) {
+        return task;
+      }
+      synchronized (idleMonitor) {
+        idleWorkers.incrementAndGet();
+        try {
+          while (readySize.get() == 0) {
+            idleMonitor.wait();
+          }
+        } finally {
+          idleWorkers.decrementAndGet();
+        }
+      }
+    }
+  }
+
+  private DriverTask tryPoll(int workerIndex) {
+    int queueNum = localQueues.length;
+    // the local queue first, then steal from the others one by one
+    for (int i = 0; i < queueNum; i++) {
+      MultilevelPriorityQueue localQueue = localQueues[(workerIndex + i) % queueNum];
+      DriverTask task;
+      synchronized (localQueue) {
+        if (localQueue.isEmpty()) {
+          continue;
+        }
+        task = localQueue.pollFirst();
+      }
+      // the polled DriverTask keeps its place in totalSize
+      readySize.decrementAndGet();
+      task.setWorkerIndex(workerIndex);
+      return task;
+    }
+    return null;
+  }
+
+  @Override
+  public void push(DriverTask task) {
+    if (task == null) {
+      throw new NullPointerException("pushed element is null");
+    }
+    // reserve the place before pushing, so that concurrent pushes can not exceed the capacity
+    int size;
+    do {
+      size = totalSize.get();
+      checkState(size < capacity, "The system can't allow more query tasks.");
+    } while (!totalSize.compareAndSet(size, size + 1));
+    pushToLocalQueue(task);
+  }
+
+  @Override
+  public void repush(DriverTask task) {
+    if (task == null) {
+      throw new NullPointerException("pushed element is null");
+    }
+    pushToLocalQueue(task);
+  }
+
+  private void pushToLocalQueue(DriverTask task) {
+    int workerIndex = task.getWorkerIndex();
+    if (workerIndex < 0 || workerIndex >= localQueues.length) {
+      workerIndex = Math.floorMod(nextLocalQueue.getAndIncrement(), localQueues.length);
+    }
+    MultilevelPriorityQueue localQueue = localQueues[workerIndex];
+    synchronized (localQueue) {
+      localQueue.pushToQueue(task);
+    }
+    readySize.incrementAndGet();
+    // readySize is increased before checking idleWorkers while a worker increases idleWorkers
+    // before checking readySize, so that the worker can not miss the DriverTask.
+    if (idleWorkers.get() > 0) {
+      synchronized (idleMonitor) {
+        idleMonitor.notify();
+      }
+    }
+  }
+
+  @Override
+  public DriverTask remove(ID id) {
+    DriverTask removed = null;
+    // the queryHolder is shared, and removing by id only happens when aborting
+    synchronized (this) {
+      queryHolder.setId(id);
+      for (MultilevelPriorityQueue localQueue : localQueues) {
+        synchronized (localQueue) {
+          removed = localQueue.remove(queryHolder);
+        }
+        if (removed != null) {
+          break;
+        }
+      }
+    }
+    if (removed == null) {
+      return null;
+    }
+    checkState(readySize.decrementAndGet() >= 0, "The size of readyQueue cannot be negative.");
+    totalSize.decrementAndGet();
+    return removed;
+  }
+
+  @Override
+  public void decreaseReservedSize() {
+    totalSize.decrementAndGet();
+  }
+
+  @Override
+  public void clear() {
+    for (MultilevelPriorityQueue localQueue : localQueues) {
+      synchronized (localQueue) {
+        localQueue.clearAllElements();
+      }
+    }
+    totalSize.addAndGet(-readySize.getAndSet(0));
+  }
+
+  @Override
+  public int size() {
+    return readySize.get();
+  }
+
+  public int getWorkerNum() {
+    return localQueues.length;
+  }
+}
@@ -62,6 +62,9 @@ public class DriverTask implements IDIndexedAccessible {
 
   private long estimatedMemorySize;
 
+  /** Index of the worker thread which has last polled this task, -1 if it has never been polled. */
+  private volatile int workerIndex = -1;
+
   /** Initialize a dummy instance for queryHolder. */
   public DriverTask() {
     this(new StubFragmentInstance(), 0L, null, null, 0, false);
@@ -194,6 +197,14 @@ public class DriverTask implements IDIndexedAccessible {
     this.lastEnterReadyQueueTime = lastEnterReadyQueueTime;
   }
 
+  public int getWorkerIndex() {
+    return workerIndex;
+  }
+
+  public void setWorkerIndex(int workerIndex) {
+    this.workerIndex = workerIndex;
+  }
+
   public long getLastEnterBlockQueueTime() {
     return lastEnterBlockQueueTime;
   }
@@ -22,6 +22,7 @@ package org.apache.iotdb.db.queryengine.metric;
 import org.apache.iotdb.commons.service.metric.enums.Metric;
 import org.apache.iotdb.commons.service.metric.enums.Tag;
 import org.apache.iotdb.db.storageengine.buffer.ChunkCache;
+import org.apache.iotdb.db.storageengine.buffer.OffHeapChunkCache;
 import org.apache.iotdb.metrics.AbstractMetricService;
 import org.apache.iotdb.metrics.metricsets.IMetricSet;
 import org.apache.iotdb.metrics.utils.MetricLevel;
@@ -46,12 +47,24 @@ public class ChunkCacheMetrics implements IMetricSet {
         ChunkCache::getHitRate,
         Tag.NAME.toString(),
         "chunk");
+    metricService.createAutoGauge(
+        Metric.CACHE_HIT_RATE.toString(),
+        MetricLevel.IMPORTANT,
+        chunkCache.getOffHeapCache(),
+        OffHeapChunkCache::getHitRate,
+        Tag.NAME.toString(),
+        "off_heap_chunk");
   }
 
   @Override
   public void unbindFrom(AbstractMetricService metricService) {
     metricService.remove(
         MetricType.AUTO_GAUGE, Metric.CACHE_HIT_RATE.toString(), Tag.NAME.toString(), "chunk");
+    metricService.remove(
+        MetricType.AUTO_GAUGE,
+        Metric.CACHE_HIT_RATE.toString(),
+        Tag.NAME.toString(),
+        "off_heap_chunk");
   }
 
   @Override
@@ -24,6 +24,7 @@ import org.apache.iotdb.commons.service.metric.enums.Tag;
 import org.apache.iotdb.metrics.AbstractMetricService;
 import org.apache.iotdb.metrics.impl.DoNothingMetricManager;
 import org.apache.iotdb.metrics.metricsets.IMetricSet;
+import org.apache.iotdb.metrics.type.Counter;
 import org.apache.iotdb.metrics.type.Histogram;
 import org.apache.iotdb.metrics.type.Timer;
 import org.apache.iotdb.metrics.utils.MetricLevel;
@@ -1247,6 +1248,138 @@ public class SeriesScanCostMetricSet implements IMetricSet {
                     type));
   }
 
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  // prepare mem chunk
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  private static final String PREPARE_MEM_CHUNK = "prepare_mem_chunk";
+  public static final String PREPARE_MEM_CHUNK_ALIGNED = PREPARE_MEM_CHUNK + "_" + ALIGNED;
+  public static final String PREPARE_MEM_CHUNK_NONALIGNED = PREPARE_MEM_CHUNK + "_" + NON_ALIGNED;
+
+  private Timer prepareMemChunkAlignedTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer prepareMemChunkNonAlignedTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Histogram memChunkCopiedPointsAlignedHistogram =
+      DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+  private Histogram memChunkCopiedPointsNonAlignedHistogram =
+      DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+
+  /** Record points copied from the working memtable to build a snapshot for queries. */
+  public void recordMemChunkCopiedPoints(boolean aligned, long points) {
+    if (aligned) {
+      memChunkCopiedPointsAlignedHistogram.update(points);
+    } else {
+      memChunkCopiedPointsNonAlignedHistogram.update(points);
+    }
+  }
+
+  private void bindPrepareMemChunk(AbstractMetricService metricService) {
+    prepareMemChunkAlignedTimer =
+        metricService.getOrCreateTimer(
+            Metric.SERIES_SCAN_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.STAGE.toString(),
+            PREPARE_MEM_CHUNK,
+            Tag.TYPE.toString(),
+            ALIGNED,
+            Tag.FROM.toString(),
+            MEM);
+    prepareMemChunkNonAlignedTimer =
+        metricService.getOrCreateTimer(
+            Metric.SERIES_SCAN_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.STAGE.toString(),
+            PREPARE_MEM_CHUNK,
+            Tag.TYPE.toString(),
+            NON_ALIGNED,
+            Tag.FROM.toString(),
+            MEM);
+    memChunkCopiedPointsAlignedHistogram =
+        metricService.getOrCreateHistogram(
+            Metric.METRIC_MEM_CHUNK_COPIED_POINTS.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            ALIGNED);
+    memChunkCopiedPointsNonAlignedHistogram =
+        metricService.getOrCreateHistogram(
+            Metric.METRIC_MEM_CHUNK_COPIED_POINTS.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            NON_ALIGNED);
+  }
+
+  private void unbindPrepareMemChunk(AbstractMetricService metricService) {
+    prepareMemChunkAlignedTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    prepareMemChunkNonAlignedTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    memChunkCopiedPointsAlignedHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+    memChunkCopiedPointsNonAlignedHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+    Arrays.asList(ALIGNED, NON_ALIGNED)
+        .forEach(
+            type -> {
+              metricService.remove(
+                  MetricType.TIMER,
+                  Metric.SERIES_SCAN_COST.toString(),
+                  Tag.STAGE.toString(),
+                  PREPARE_MEM_CHUNK,
+                  Tag.TYPE.toString(),
+                  type,
+                  Tag.FROM.toString(),
+                  MEM);
+              metricService.remove(
+                  MetricType.HISTOGRAM,
+                  Metric.METRIC_MEM_CHUNK_COPIED_POINTS.toString(),
+                  Tag.TYPE.toString(),
+                  type);
+            });
+  }
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  // chunk read ahead
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  private static final String READ_AHEAD_HIT = "hit";
+  private static final String READ_AHEAD_MISS = "miss";
+
+  private Counter chunkReadAheadHitCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+  private Counter chunkReadAheadMissCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+
+  /**
+   * Record whether a chunk consumed by a series scan had already been read ahead. A chunk still
+   * being read when it is consumed counts as a miss.
+   */
+  public void recordChunkReadAhead(boolean hit) {
+    if (hit) {
+      chunkReadAheadHitCounter.inc();
+    } else {
+      chunkReadAheadMissCounter.inc();
+    }
+  }
+
+  private void bindChunkReadAhead(AbstractMetricService metricService) {
+    chunkReadAheadHitCounter =
+        metricService.getOrCreateCounter(
+            Metric.CHUNK_READ_AHEAD.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            READ_AHEAD_HIT);
+    chunkReadAheadMissCounter =
+        metricService.getOrCreateCounter(
+            Metric.CHUNK_READ_AHEAD.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            READ_AHEAD_MISS);
+  }
+
+  private void unbindChunkReadAhead(AbstractMetricService metricService) {
+    chunkReadAheadHitCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+    chunkReadAheadMissCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+    Arrays.asList(READ_AHEAD_HIT, READ_AHEAD_MISS)
+        .forEach(
+            type ->
+                metricService.remove(
+                    MetricType.COUNTER,
+                    Metric.CHUNK_READ_AHEAD.toString(),
+                    Tag.TYPE.toString(),
+                    type));
+  }
+
   @Override
   public void bindTo(AbstractMetricService metricService) {
     bindTimeseriesMetadata(metricService);
@@ -1261,6 +1394,8 @@ public class SeriesScanCostMetricSet implements IMetricSet {
     bindInitChunkReader(metricService);
     bindTsBlockFromPageReader(metricService);
     bindBuildTsBlockFromMergeReader(metricService);
+    bindPrepareMemChunk(metricService);
+    bindChunkReadAhead(metricService);
   }
 
   @Override
@@ -1276,6 +1411,8 @@ public class SeriesScanCostMetricSet implements IMetricSet {
     unbindInitChunkReader(metricService);
     unbindTsBlockFromPageReader(metricService);
     unbindBuildTsBlockFromMergeReader(metricService);
+    unbindPrepareMemChunk(metricService);
+    unbindChunkReadAhead(metricService);
   }
 
   public void recordSeriesScanCost(String type, long cost) {
@@ -1352,6 +1489,12 @@ public class SeriesScanCostMetricSet implements IMetricSet {
       case READ_CHUNK_FILE:
         readChunkFileTimer.updateNanos(cost);
         break;
+      case PREPARE_MEM_CHUNK_ALIGNED:
+        prepareMemChunkAlignedTimer.updateNanos(cost);
+        break;
+      case PREPARE_MEM_CHUNK_NONALIGNED:
+        prepareMemChunkNonAlignedTimer.updateNanos(cost);
+        break;
       default:
         break;
     }
@@ -30,11 +30,14 @@ import org.apache.iotdb.commons.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.protocol.session.IClientSession;
+import org.apache.iotdb.db.protocol.session.SessionManager;
 import org.apache.iotdb.db.queryengine.common.DataNodeEndPoints;
 import org.apache.iotdb.db.queryengine.common.MPPQueryContext;
 import org.apache.iotdb.db.queryengine.common.QueryId;
 import org.apache.iotdb.db.queryengine.common.SessionInfo;
 import org.apache.iotdb.db.queryengine.execution.QueryIdGenerator;
+import org.apache.iotdb.db.queryengine.execution.resourcegroup.ResourceGroup;
+import org.apache.iotdb.db.queryengine.execution.resourcegroup.ResourceGroupManager;
 import org.apache.iotdb.db.queryengine.plan.analyze.IPartitionFetcher;
 import org.apache.iotdb.db.queryengine.plan.analyze.lock.DataNodeSchemaLockManager;
 import org.apache.iotdb.db.queryengine.plan.analyze.schema.ISchemaFetcher;
@@ -54,6 +57,7 @@ import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.DescribeTable;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.DropDB;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.DropTable;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Flush;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Query;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SetConfiguration;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SetProperties;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.ShowCluster;
@@ -68,6 +72,8 @@ import org.apache.iotdb.db.queryengine.plan.relational.sql.parser.SqlParser;
 import org.apache.iotdb.db.queryengine.plan.statement.IConfigStatement;
 import org.apache.iotdb.db.queryengine.plan.statement.Statement;
 import org.apache.iotdb.db.utils.SetThreadName;
+import org.apache.iotdb.rpc.RpcUtils;
+import org.apache.iotdb.rpc.TSStatusCode;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -126,18 +132,42 @@ public class Coordinator {
     this.scheduledExecutor = getScheduledExecutor();
   }
 
+  /**
+   * @param isQuery whether the statement is a query, only queries are admitted through resource
+   *     groups
+   * @param statementType type of the statement used to select its resource group, null if unknown
+   */
   private ExecutionResult execution(
       long queryId,
       SessionInfo session,
       String sql,
+      boolean isQuery,
+      String statementType,
+      long timeOut,
       BiFunction<MPPQueryContext, Long, IQueryExecution> iQueryExecutionFactory) {
     long startTime = System.currentTimeMillis();
     QueryId globalQueryId = queryIdGenerator.createNextQueryId();
     MPPQueryContext queryContext = null;
+    boolean admitted = false;
+    boolean registered = false;
     try (SetThreadName queryName = new SetThreadName(globalQueryId.getId())) {
       if (sql != null && !sql.isEmpty()) {
         LOGGER.debug("[QueryStart] sql: {}", sql);
       }
+      // admit before analysis, so that queued queries hold no memory of the front end
+      ResourceGroup group = isQuery ? selectResourceGroup(session, statementType) : null;
+      if (group != null) {
+        admitted = admit(globalQueryId.getId(), group, session, timeOut, startTime);
+        if (!admitted) {
+          return new ExecutionResult(
+              globalQueryId,
+              RpcUtils.getStatus(
+                  TSStatusCode.TOO_MANY_CONCURRENT_QUERIES_ERROR,
+                  String.format(
+                      "The query is rejected by resource group %s, too many queries are running or queued",
+                      group.getName())));
+        }
+      }
       queryContext =
           new MPPQueryContext(
               sql,
@@ -149,6 +179,8 @@ public class Coordinator {
       IQueryExecution execution = iQueryExecutionFactory.apply(queryContext, startTime);
       if (execution.isQuery()) {
         queryExecutionMap.put(queryId, execution);
+        // the admission is released in cleanupQueryExecution from now on
+        registered = true;
       } else {
         // we won't limit write operation's execution time
         queryContext.setTimeOut(Long.MAX_VALUE);
@@ -161,6 +193,9 @@ public class Coordinator {
       }
       return result;
     } finally {
+      if (admitted && !registered) {
+        ResourceGroupManager.getInstance().release(globalQueryId.getId());
+      }
       if (queryContext != null) {
         queryContext.releaseAllMemoryReservedForFrontEnd();
       }
@@ -168,6 +203,38 @@ public class Coordinator {
     }
   }
 
+  /**
+   * @return the first resource group matching the query, null if there is none
+   */
+  private ResourceGroup selectResourceGroup(SessionInfo session, String statementType) {
+    IClientSession clientSession = SessionManager.getInstance().getCurrSession();
+    return ResourceGroupManager.getInstance()
+        .select(
+            session == null ? null : session.getUserName(),
+            clientSession == null ? null : clientSession.getClientAddress(),
+            statementType);
+  }
+
+  /**
+   * Admit the query through its resource group, blocking while the group is full until the query
+   * times out.
+   *
+   * @return false if the query is rejected by its resource group
+   */
+  private boolean admit(
+      String queryId, ResourceGroup group, SessionInfo session, long timeOut, long startTime) {
+    if (session != null) {
+      session.setResourceGroup(group.getName());
+    }
+    long timeoutMs = timeOut - (System.currentTimeMillis() - startTime);
+    try {
+      return ResourceGroupManager.getInstance().admit(queryId, group, timeoutMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
   /** This method is called by the write method. So it does not set the timeout parameter. */
   public ExecutionResult executeForTreeModel(
       Statement statement,
@@ -188,17 +255,21 @@ public class Coordinator {
       IPartitionFetcher partitionFetcher,
       ISchemaFetcher schemaFetcher,
       long timeOut) {
+    long queryTimeOut = timeOut > 0 ? timeOut : CONFIG.getQueryTimeoutThreshold();
     return execution(
         queryId,
         session,
         sql,
+        statement.isQuery(),
+        statement.getType().name(),
+        queryTimeOut,
         ((queryContext, startTime) ->
             createQueryExecutionForTreeModel(
                 statement,
                 queryContext,
                 partitionFetcher,
                 schemaFetcher,
-                timeOut > 0 ? timeOut : CONFIG.getQueryTimeoutThreshold(),
+                queryTimeOut,
                 startTime)));
   }
 
@@ -241,10 +312,14 @@ public class Coordinator {
       String sql,
       Metadata metadata,
       long timeOut) {
+    long queryTimeOut = timeOut > 0 ? timeOut : CONFIG.getQueryTimeoutThreshold();
     return execution(
         queryId,
         session,
         sql,
+        statement instanceof Query,
+        null,
+        queryTimeOut,
         ((queryContext, startTime) ->
             createQueryExecutionForTableModel(
                 statement,
@@ -252,7 +327,7 @@ public class Coordinator {
                 clientSession,
                 queryContext,
                 metadata,
-                timeOut > 0 ? timeOut : CONFIG.getQueryTimeoutThreshold(),
+                queryTimeOut,
                 startTime)));
   }
 
@@ -265,10 +340,14 @@ public class Coordinator {
       String sql,
       Metadata metadata,
       long timeOut) {
+    long queryTimeOut = timeOut > 0 ? timeOut : CONFIG.getQueryTimeoutThreshold();
     return execution(
         queryId,
         session,
         sql,
+        statement.isQuery(),
+        statement.getType().name(),
+        queryTimeOut,
         ((queryContext, startTime) ->
             createQueryExecutionForTableModel(
                 statement,
@@ -276,7 +355,7 @@ public class Coordinator {
                 clientSession,
                 queryContext,
                 metadata,
-                timeOut > 0 ? timeOut : CONFIG.getQueryTimeoutThreshold(),
+                queryTimeOut,
                 startTime)));
   }
 
@@ -397,6 +476,7 @@ public class Coordinator {
         LOGGER.debug("[CleanUpQuery]]");
         queryExecution.stopAndCleanup(t);
         queryExecutionMap.remove(queryId);
+        ResourceGroupManager.getInstance().release(queryExecution.getQueryId());
         if (queryExecution.isQuery()) {
           long costTime = queryExecution.getTotalExecutionTime();
           if (costTime / 1_000_000 >= CONFIG.getSlowQueryThreshold()) {
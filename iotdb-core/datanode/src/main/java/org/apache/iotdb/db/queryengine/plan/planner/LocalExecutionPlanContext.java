@@ -97,6 +97,9 @@ public class LocalExecutionPlanContext {
   // use AtomicReference not for thread-safe, just for updating same field in different pipeline
   private AtomicReference<List<Long>> timePartitions = new AtomicReference<>();
 
+  // time range of one sub-scan when a series scan is split by time partition, null otherwise
+  private Filter subScanTimeFilter;
+
   /** Records the parent of each pipeline. The order of each list does not matter for now. */
   private Map<PlanNodeId, List<PipelineMemoryEstimator>> parentPlanNodeIdToMemoryEstimator =
       new ConcurrentHashMap<>();
@@ -320,9 +323,16 @@ public class LocalExecutionPlanContext {
   }
 
   public Filter getGlobalTimeFilter() {
+    if (subScanTimeFilter != null) {
+      return subScanTimeFilter;
+    }
     return driverContext.getFragmentInstanceContext().getGlobalTimeFilter();
   }
 
+  public void setSubScanTimeFilter(Filter subScanTimeFilter) {
+    this.subScanTimeFilter = subScanTimeFilter;
+  }
+
   public Optional<List<Long>> getTimePartitions() {
     return Optional.ofNullable(timePartitions.get());
   }
@@ -29,6 +29,8 @@ import org.apache.iotdb.db.queryengine.execution.fragment.DataNodeQueryContext;
 import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext;
 import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceStateMachine;
 import org.apache.iotdb.db.queryengine.execution.operator.Operator;
+import org.apache.iotdb.db.queryengine.execution.resourcegroup.ResourceGroup;
+import org.apache.iotdb.db.queryengine.execution.resourcegroup.ResourceGroupManager;
 import org.apache.iotdb.db.queryengine.metric.QueryRelatedResourceMetricSet;
 import org.apache.iotdb.db.queryengine.plan.analyze.TypeProvider;
 import org.apache.iotdb.db.queryengine.plan.planner.memory.PipelineMemoryEstimator;
@@ -102,7 +104,7 @@ public class LocalExecutionPlanner {
     context.invalidateParentPlanNodeIdToMemoryEstimator();
 
     // check whether current free memory is enough to execute current query
-    long estimatedMemorySize = checkMemory(memoryEstimator, instanceContext.getStateMachine());
+    long estimatedMemorySize = checkMemory(memoryEstimator, instanceContext);
 
     context.addPipelineDriverFactory(root, context.getDriverContext(), estimatedMemorySize);
 
@@ -136,7 +138,7 @@ public class LocalExecutionPlanner {
     context.invalidateParentPlanNodeIdToMemoryEstimator();
 
     // check whether current free memory is enough to execute current query
-    checkMemory(memoryEstimator, instanceContext.getStateMachine());
+    checkMemory(memoryEstimator, instanceContext);
 
     context.addPipelineDriverFactory(root, context.getDriverContext(), 0);
 
@@ -169,7 +171,7 @@ public class LocalExecutionPlanner {
   }
 
   private long checkMemory(
-      final PipelineMemoryEstimator memoryEstimator, FragmentInstanceStateMachine stateMachine)
+      final PipelineMemoryEstimator memoryEstimator, FragmentInstanceContext instanceContext)
       throws MemoryNotEnoughException {
 
     // if it is disabled, just return
@@ -182,6 +184,13 @@ public class LocalExecutionPlanner {
 
     QueryRelatedResourceMetricSet.getInstance().updateEstimatedMemory(estimatedMemorySize);
 
+    FragmentInstanceStateMachine stateMachine = instanceContext.getStateMachine();
+    ResourceGroup resourceGroup =
+        instanceContext.getSessionInfo() == null
+            ? null
+            : ResourceGroupManager.getInstance()
+                .getResourceGroup(instanceContext.getSessionInfo().getResourceGroup());
+
     synchronized (this) {
       if (estimatedMemorySize > freeMemoryForOperators) {
         throw new MemoryNotEnoughException(
@@ -190,6 +199,14 @@ public class LocalExecutionPlanner {
                     + "current remaining free memory is %dB, "
                     + "estimated memory usage for current fragment instance is %dB",
                 freeMemoryForOperators, estimatedMemorySize));
+      } else if (resourceGroup != null
+          && !resourceGroup.tryReserveOperatorMemory(
+              estimatedMemorySize, ALLOCATE_MEMORY_FOR_OPERATORS)) {
+        throw new MemoryNotEnoughException(
+            String.format(
+                "There is not enough memory in resource group %s to execute current fragment "
+                    + "instance, estimated memory usage for current fragment instance is %dB",
+                resourceGroup.getName(), estimatedMemorySize));
       } else {
         freeMemoryForOperators -= estimatedMemorySize;
         if (LOGGER.isDebugEnabled()) {
@@ -208,6 +225,9 @@ public class LocalExecutionPlanner {
                 new SetThreadName(stateMachine.getFragmentInstanceId().getFullId())) {
               synchronized (this) {
                 this.freeMemoryForOperators += estimatedMemorySize;
+                if (resourceGroup != null) {
+                  resourceGroup.releaseOperatorMemory(estimatedMemorySize);
+                }
                 if (LOGGER.isDebugEnabled()) {
                   LOGGER.debug(
                       "[ReleaseMemory] release: {}, current remaining memory: {}",
@@ -28,6 +28,7 @@ import org.apache.iotdb.commons.path.IFullPath;
 import org.apache.iotdb.commons.path.MeasurementPath;
 import org.apache.iotdb.commons.path.NonAlignedFullPath;
 import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.commons.utils.TimePartitionUtils;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.queryengine.common.DeviceContext;
@@ -57,6 +58,7 @@ import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
 import org.apache.iotdb.db.queryengine.execution.operator.process.ActiveRegionScanMergeOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.process.AggregationMergeSortOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.process.AggregationOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.process.CollectOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.process.ColumnInjectOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.process.DeviceViewIntoOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.process.DeviceViewOperator;
@@ -272,9 +274,12 @@ import org.apache.tsfile.common.conf.TSFileDescriptor;
 import org.apache.tsfile.enums.TSDataType;
 import org.apache.tsfile.file.metadata.IDeviceID;
 import org.apache.tsfile.read.TimeValuePair;
+import org.apache.tsfile.read.common.TimeRange;
 import org.apache.tsfile.read.common.block.TsBlockBuilder;
 import org.apache.tsfile.read.common.block.column.TimeColumn;
 import org.apache.tsfile.read.filter.basic.Filter;
+import org.apache.tsfile.read.filter.factory.FilterFactory;
+import org.apache.tsfile.read.filter.factory.TimeFilterApi;
 import org.apache.tsfile.read.filter.operator.TimeFilterOperators.TimeGt;
 import org.apache.tsfile.read.filter.operator.TimeFilterOperators.TimeGtEq;
 import org.apache.tsfile.utils.Binary;
@@ -348,6 +353,13 @@ public class OperatorTreeGenerator extends PlanVisitor<Operator, LocalExecutionP
 
   @Override
   public Operator visitSeriesScan(SeriesScanNode node, LocalExecutionPlanContext context) {
+    List<Filter> subScanTimeFilters =
+        splitScanTimeFilterByTimePartition(
+            node.getScanOrder(), node.getPushDownLimit(), node.getPushDownOffset(), context);
+    if (!subScanTimeFilters.isEmpty()) {
+      return constructTimeSplitScanOperator(node, subScanTimeFilters, context);
+    }
+
     NonAlignedFullPath seriesPath =
         (NonAlignedFullPath) IFullPath.convertToIFullPath(node.getSeriesPath());
 
@@ -437,6 +449,13 @@ public class OperatorTreeGenerator extends PlanVisitor<Operator, LocalExecutionP
   @Override
   public Operator visitAlignedSeriesScan(
       AlignedSeriesScanNode node, LocalExecutionPlanContext context) {
+    List<Filter> subScanTimeFilters =
+        splitScanTimeFilterByTimePartition(
+            node.getScanOrder(), node.getPushDownLimit(), node.getPushDownOffset(), context);
+    if (!subScanTimeFilters.isEmpty()) {
+      return constructTimeSplitScanOperator(node, subScanTimeFilters, context);
+    }
+
     AlignedFullPath seriesPath =
         (AlignedFullPath) IFullPath.convertToIFullPath(node.getAlignedPath());
 
@@ -838,6 +857,93 @@ public class OperatorTreeGenerator extends PlanVisitor<Operator, LocalExecutionP
             && !TAggregationType.FIRST_VALUE.equals(aggregationType));
   }
 
+  /**
+   * Split the time range of a raw series scan into contiguous groups of time partitions, one
+   * sub-scan for each group. Files never cross a time partition, so every sequence and unsequence
+   * file, together with all data overlapping it, belongs to exactly one sub-scan and the sub-scans
+   * can run independently and be concatenated in scan order.
+   *
+   * @return time filter of each sub-scan in scan order, or empty list if the scan should not be
+   *     split
+   */
+  private List<Filter> splitScanTimeFilterByTimePartition(
+      Ordering scanOrder,
+      long pushDownLimit,
+      long pushDownOffset,
+      LocalExecutionPlanContext context) {
+    int splitNum =
+        Math.min(
+            IoTDBDescriptor.getInstance().getConfig().getSeriesScanTimeSplitNum(),
+            context.getDegreeOfParallelism());
+    Filter globalTimeFilter = context.getGlobalTimeFilter();
+    // limit and offset have to be applied to the whole series, not to each sub-scan
+    if (splitNum <= 1 || pushDownLimit > 0 || pushDownOffset > 0 || globalTimeFilter == null) {
+      return Collections.emptyList();
+    }
+
+    List<TimeRange> timeRanges = globalTimeFilter.getTimeRanges();
+    if (timeRanges.isEmpty()) {
+      return Collections.emptyList();
+    }
+    long startTime = timeRanges.get(0).getMin();
+    long endTime = timeRanges.get(timeRanges.size() - 1).getMax();
+    if (startTime == Long.MIN_VALUE || endTime == Long.MAX_VALUE) {
+      return Collections.emptyList();
+    }
+    long partitionNum =
+        TimePartitionUtils.getTimePartitionId(endTime)
+            - TimePartitionUtils.getTimePartitionId(startTime)
+            + 1;
+    if (partitionNum <= 1) {
+      return Collections.emptyList();
+    }
+
+    splitNum = (int) Math.min(splitNum, partitionNum);
+    long partitionInterval = TimePartitionUtils.getTimePartitionInterval();
+    long firstPartitionLowerBound = TimePartitionUtils.getTimePartitionLowerBound(startTime);
+    List<Filter> subScanTimeFilters = new ArrayList<>(splitNum);
+    long subScanStartTime = startTime;
+    long consumedPartitionNum = 0;
+    for (int i = 0; i < splitNum; i++) {
+      consumedPartitionNum += partitionNum / splitNum + (i < partitionNum % splitNum ? 1 : 0);
+      long subScanEndTime =
+          i == splitNum - 1
+              ? endTime
+              : firstPartitionLowerBound + consumedPartitionNum * partitionInterval - 1;
+      subScanTimeFilters.add(
+          FilterFactory.and(
+              globalTimeFilter.copy(), TimeFilterApi.between(subScanStartTime, subScanEndTime)));
+      subScanStartTime = subScanEndTime + 1;
+    }
+    if (scanOrder != ASC) {
+      Collections.reverse(subScanTimeFilters);
+    }
+    return subScanTimeFilters;
+  }
+
+  /** Each sub-scan runs on its own driver, their results are concatenated in scan order. */
+  private Operator constructTimeSplitScanOperator(
+      PlanNode node, List<Filter> subScanTimeFilters, LocalExecutionPlanContext context) {
+    List<Operator> children = new ArrayList<>(subScanTimeFilters.size());
+    for (Filter subScanTimeFilter : subScanTimeFilters) {
+      LocalExecutionPlanContext subContext = context.createSubContext();
+      // dop of the sub-context is 1, so the sub-scan will not be split again
+      subContext.setDegreeOfParallelism(1);
+      subContext.setSubScanTimeFilter(subScanTimeFilter);
+      children.add(createNewPipelineForChildNode(context, subContext, node, node.getPlanNodeId()));
+    }
+    context.addExchangeSumNum(subScanTimeFilters.size());
+
+    OperatorContext operatorContext =
+        context
+            .getDriverContext()
+            .addOperatorContext(
+                context.getNextOperatorId(),
+                node.getPlanNodeId(),
+                CollectOperator.class.getSimpleName());
+    return new CollectOperator(operatorContext, children);
+  }
+
   private SeriesScanOptions.Builder getSeriesScanOptionsBuilder(LocalExecutionPlanContext context) {
     SeriesScanOptions.Builder scanOptionsBuilder = new SeriesScanOptions.Builder();
 
@@ -28,6 +28,7 @@ import org.apache.iotdb.db.queryengine.plan.planner.plan.PlanFragment;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.SubPlan;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.WritePlanNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertNode;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -78,6 +79,10 @@ public class WriteFragmentParallelPlanner implements IFragmentParallelPlaner {
               queryContext.getQueryType(),
               queryContext.getTimeOut(),
               queryContext.getSession());
+      if (split instanceof InsertNode && queryContext.getSession() != null) {
+        ((InsertNode) split)
+            .setWalDurabilityLevel(queryContext.getSession().getWalDurabilityLevel());
+      }
       if (split.getRegionReplicaSet() != null) {
         instance.setExecutorAndHost(new StorageExecutor(split.getRegionReplicaSet()));
       }
@@ -236,6 +236,16 @@ public class FragmentInstance implements IConsensusRequest {
     fragmentInstance.hostDataNode =
         hasHostDataNode ? ThriftCommonsSerDeUtils.deserializeTDataNodeLocation(buffer) : null;
     fragmentInstance.isExplainAnalyze = ReadWriteIOUtils.readBool(buffer);
+    // appended last so that instances sent by older nodes can still be read
+    if (sessionInfo != null && buffer.hasRemaining()) {
+      sessionInfo.setBypassReadCache(ReadWriteIOUtils.readBool(buffer));
+    }
+    if (sessionInfo != null && buffer.hasRemaining()) {
+      sessionInfo.setReadAheadChunkNum(ReadWriteIOUtils.readInt(buffer));
+    }
+    if (sessionInfo != null && buffer.hasRemaining()) {
+      sessionInfo.setResourceGroup(ReadWriteIOUtils.readString(buffer));
+    }
     return fragmentInstance;
   }
 
@@ -260,6 +270,11 @@ public class FragmentInstance implements IConsensusRequest {
         ThriftCommonsSerDeUtils.serializeTDataNodeLocation(hostDataNode, outputStream);
       }
       ReadWriteIOUtils.write(isExplainAnalyze, outputStream);
+      ReadWriteIOUtils.write(sessionInfo != null && sessionInfo.isBypassReadCache(), outputStream);
+      ReadWriteIOUtils.write(
+          sessionInfo != null ? sessionInfo.getReadAheadChunkNum() : -1, outputStream);
+      ReadWriteIOUtils.write(
+          sessionInfo != null ? sessionInfo.getResourceGroup() : null, outputStream);
       return ByteBuffer.wrap(publicBAOS.getBuf(), 0, publicBAOS.size());
     } catch (IOException e) {
       LOGGER.error("Unexpected error occurs when serializing this FragmentInstance.", e);
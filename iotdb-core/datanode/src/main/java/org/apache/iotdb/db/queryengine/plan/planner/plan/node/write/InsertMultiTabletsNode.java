@@ -28,6 +28,7 @@ import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeType;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanVisitor;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.WritePlanNode;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
 
 import org.apache.tsfile.exception.NotImplementedException;
 import org.apache.tsfile.utils.ReadWriteIOUtils;
@@ -257,6 +258,12 @@ public class InsertMultiTabletsNode extends InsertNode {
     insertTabletNodeList.forEach(InsertTabletNode::markAsGeneratedByRemoteConsensusLeader);
   }
 
+  @Override
+  public void setWalDurabilityLevel(WALDurabilityLevel walDurabilityLevel) {
+    super.setWalDurabilityLevel(walDurabilityLevel);
+    insertTabletNodeList.forEach(node -> node.setWalDurabilityLevel(walDurabilityLevel));
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
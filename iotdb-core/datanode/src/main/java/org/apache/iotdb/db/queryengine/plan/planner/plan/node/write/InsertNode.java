@@ -32,6 +32,7 @@ import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.DeviceIDFactory;
 import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.IWALByteBufferView;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALWriteUtils;
 
 import org.apache.tsfile.enums.TSDataType;
@@ -83,6 +84,12 @@ public abstract class InsertNode extends SearchNode implements ComparableConsens
 
   protected ProgressIndex progressIndex;
 
+  /**
+   * Durability of wal the client waits for, null means following the wal mode. It's only kept in
+   * memory and passed along with the node when it's dispatched.
+   */
+  protected WALDurabilityLevel walDurabilityLevel;
+
   private static final DeviceIDFactory deviceIDFactory = DeviceIDFactory.getInstance();
 
   protected InsertNode(PlanNodeId id) {
@@ -224,6 +231,14 @@ public abstract class InsertNode extends SearchNode implements ComparableConsens
     isGeneratedByRemoteConsensusLeader = true;
   }
 
+  public WALDurabilityLevel getWalDurabilityLevel() {
+    return walDurabilityLevel;
+  }
+
+  public void setWalDurabilityLevel(WALDurabilityLevel walDurabilityLevel) {
+    this.walDurabilityLevel = walDurabilityLevel;
+  }
+
   @Override
   protected void serializeAttributes(ByteBuffer byteBuffer) {
     throw new NotImplementedException("serializeAttributes of InsertNode is not implemented");
@@ -33,6 +33,7 @@ import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanVisitor;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.WritePlanNode;
 import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.IWALByteBufferView;
 import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.WALEntryValue;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
 
 import org.apache.tsfile.exception.NotImplementedException;
 import org.apache.tsfile.utils.ReadWriteIOUtils;
@@ -236,6 +237,12 @@ public class InsertRowsNode extends InsertNode implements WALEntryValue {
     insertRowNodeList.forEach(InsertRowNode::markAsGeneratedByRemoteConsensusLeader);
   }
 
+  @Override
+  public void setWalDurabilityLevel(WALDurabilityLevel walDurabilityLevel) {
+    super.setWalDurabilityLevel(walDurabilityLevel);
+    insertRowNodeList.forEach(node -> node.setWalDurabilityLevel(walDurabilityLevel));
+  }
+
   @Override
   public List<WritePlanNode> splitByPartition(IAnalysis analysis) {
     Map<TRegionReplicaSet, InsertRowsNode> splitMap = new HashMap<>();
@@ -373,7 +380,9 @@ public class InsertRowsNode extends InsertNode implements WALEntryValue {
   }
 
   public InsertRowsNode emptyClone() {
-    return new InsertRowsNode(this.getPlanNodeId());
+    InsertRowsNode clone = new InsertRowsNode(this.getPlanNodeId());
+    clone.setWalDurabilityLevel(walDurabilityLevel);
+    return clone;
   }
   // endregion
 }
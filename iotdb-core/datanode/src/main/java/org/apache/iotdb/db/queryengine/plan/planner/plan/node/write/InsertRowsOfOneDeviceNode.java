@@ -33,6 +33,7 @@ import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeType;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanVisitor;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.WritePlanNode;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
 
 import org.apache.tsfile.enums.TSDataType;
 import org.apache.tsfile.exception.NotImplementedException;
@@ -302,6 +303,12 @@ public class InsertRowsOfOneDeviceNode extends InsertNode {
     insertRowNodeList.forEach(InsertRowNode::markAsGeneratedByRemoteConsensusLeader);
   }
 
+  @Override
+  public void setWalDurabilityLevel(WALDurabilityLevel walDurabilityLevel) {
+    super.setWalDurabilityLevel(walDurabilityLevel);
+    insertRowNodeList.forEach(node -> node.setWalDurabilityLevel(walDurabilityLevel));
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
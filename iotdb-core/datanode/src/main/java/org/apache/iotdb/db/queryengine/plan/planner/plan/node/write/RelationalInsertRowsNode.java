@@ -187,6 +187,8 @@ public class RelationalInsertRowsNode extends InsertRowsNode {
   }
 
   public RelationalInsertRowsNode emptyClone() {
-    return new RelationalInsertRowsNode(this.getPlanNodeId());
+    RelationalInsertRowsNode clone = new RelationalInsertRowsNode(this.getPlanNodeId());
+    clone.setWalDurabilityLevel(walDurabilityLevel);
+    return clone;
   }
 }
@@ -24,6 +24,8 @@ import org.apache.iotdb.common.rpc.thrift.TSStatus;
 import org.apache.iotdb.commons.client.IClientManager;
 import org.apache.iotdb.commons.client.async.AsyncDataNodeInternalServiceClient;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.FragmentInstance;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertNode;
 import org.apache.iotdb.mpp.rpc.thrift.TPlanNode;
 import org.apache.iotdb.mpp.rpc.thrift.TSendBatchPlanNodeReq;
 import org.apache.iotdb.mpp.rpc.thrift.TSendSinglePlanNodeReq;
@@ -70,12 +72,7 @@ public class AsyncPlanNodeSender {
           .computeIfAbsent(
               instances.get(i).getHostDataNode().getInternalEndPoint(),
               x -> new BatchRequestWithIndex())
-          .addSinglePlanNodeReq(
-              i,
-              new TSendSinglePlanNodeReq(
-                  new TPlanNode(
-                      instances.get(i).getFragment().getPlanNodeTree().serializeToByteBuffer()),
-                  instances.get(i).getRegionReplicaSet().getRegionId()));
+          .addSinglePlanNodeReq(i, buildSendSinglePlanNodeReq(instances.get(i)));
     }
     this.instanceId2RespMap = new ConcurrentHashMap<>(instances.size() + 1, 1);
     this.needRetryInstanceIndex = Collections.synchronizedList(new ArrayList<>());
@@ -170,14 +167,7 @@ public class AsyncPlanNodeSender {
               x -> new BatchRequestWithIndex())
           .addSinglePlanNodeReq(
               fragmentInstanceIndex,
-              new TSendSinglePlanNodeReq(
-                  new TPlanNode(
-                      instances
-                          .get(fragmentInstanceIndex)
-                          .getFragment()
-                          .getPlanNodeTree()
-                          .serializeToByteBuffer()),
-                  instances.get(fragmentInstanceIndex).getRegionReplicaSet().getRegionId()));
+              buildSendSinglePlanNodeReq(instances.get(fragmentInstanceIndex)));
     }
 
     // 2. reset the pendingNumber, needRetryInstanceIds and startSendTime
@@ -192,6 +182,19 @@ public class AsyncPlanNodeSender {
     waitUntilCompleted();
   }
 
+  static TSendSinglePlanNodeReq buildSendSinglePlanNodeReq(FragmentInstance instance) {
+    PlanNode planNode = instance.getFragment().getPlanNodeTree();
+    TSendSinglePlanNodeReq req =
+        new TSendSinglePlanNodeReq(
+            new TPlanNode(planNode.serializeToByteBuffer()),
+            instance.getRegionReplicaSet().getRegionId());
+    // durability of wal is not a part of the plan node, so it's carried by the request
+    if (planNode instanceof InsertNode && ((InsertNode) planNode).getWalDurabilityLevel() != null) {
+      req.setWalDurabilityLevel(((InsertNode) planNode).getWalDurabilityLevel().getCode());
+    }
+    return req;
+  }
+
   /**
    * This class is used to aggregate PlanNode of the same datanode into one rpc. In order to ensure
    * the one-to-one correspondence between response and request, the corresponding index needs to be
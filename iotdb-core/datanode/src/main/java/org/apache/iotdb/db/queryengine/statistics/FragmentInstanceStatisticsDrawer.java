@@ -356,6 +356,21 @@ public class FragmentInstanceStatisticsDrawer {
         2,
         "pageReaderMaxUsedMemorySize",
         queryStatistics.pageReaderMaxUsedMemorySize);
+    addLineWithValueCheck(
+        singleFragmentInstanceArea,
+        2,
+        "timeSeriesMetadataSkippedByStatisticsCount",
+        queryStatistics.timeSeriesMetadataSkippedByStatisticsCount);
+    addLineWithValueCheck(
+        singleFragmentInstanceArea,
+        2,
+        "chunkSkippedByStatisticsCount",
+        queryStatistics.chunkSkippedByStatisticsCount);
+    addLineWithValueCheck(
+        singleFragmentInstanceArea,
+        2,
+        "pageSkippedByStatisticsCount",
+        queryStatistics.pageSkippedByStatisticsCount);
   }
 
   private void addLine(List<StatisticLine> resultForSingleInstance, int level, String value) {
@@ -23,6 +23,7 @@ import org.apache.iotdb.commons.path.IFullPath;
 import org.apache.iotdb.commons.path.NonAlignedFullPath;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.queryengine.execution.fragment.QueryContext;
+import org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.AlignedReadOnlyMemChunk;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.AlignedWritableMemChunk;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.AlignedWritableMemChunkGroup;
@@ -59,6 +60,8 @@ import java.util.List;
 import java.util.Map;
 
 import static org.apache.iotdb.commons.path.AlignedPath.VECTOR_PLACEHOLDER;
+import static org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet.PREPARE_MEM_CHUNK_ALIGNED;
+import static org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet.PREPARE_MEM_CHUNK_NONALIGNED;
 
 /**
  * Obtain required resources through path, such as readers and writers and etc. AlignedPath and
@@ -201,21 +204,32 @@ class AlignedResourceByPathUtils extends ResourceByPathUtils {
     if (!containsMeasurement) {
       return null;
     }
+    long startTime = System.nanoTime();
     // get sorted tv list is synchronized so different query can get right sorted list reference
     TVList alignedTvListCopy =
         alignedMemChunk.getSortedTvListForQuery(alignedFullPath.getSchemaList());
-    List<List<TimeRange>> deletionList = null;
-    if (modsToMemtable != null) {
-      deletionList =
-          ModificationUtils.constructDeletionList(
-              alignedFullPath.getDeviceId(),
-              alignedFullPath.getMeasurementList(),
-              memTable,
-              modsToMemtable,
-              timeLowerBound);
+    ReadOnlyMemChunk readOnlyMemChunk;
+    try {
+      List<List<TimeRange>> deletionList = null;
+      if (modsToMemtable != null) {
+        deletionList =
+            ModificationUtils.constructDeletionList(
+                alignedFullPath.getDeviceId(),
+                alignedFullPath.getMeasurementList(),
+                memTable,
+                modsToMemtable,
+                timeLowerBound);
+      }
+      readOnlyMemChunk =
+          new AlignedReadOnlyMemChunk(
+              context, getMeasurementSchema(), alignedTvListCopy, deletionList);
+    } finally {
+      // the points have been copied into the ReadOnlyMemChunk
+      alignedTvListCopy.decreaseReferenceCount();
     }
-    return new AlignedReadOnlyMemChunk(
-        context, getMeasurementSchema(), alignedTvListCopy, deletionList);
+    SeriesScanCostMetricSet.getInstance()
+        .recordSeriesScanCost(PREPARE_MEM_CHUNK_ALIGNED, System.nanoTime() - startTime);
+    return readOnlyMemChunk;
   }
 
   public VectorMeasurementSchema getMeasurementSchema() {
@@ -345,26 +359,37 @@ class MeasurementResourceByPathUtils extends ResourceByPathUtils {
     }
     IWritableMemChunk memChunk =
         memTableMap.get(deviceID).getMemChunkMap().get(fullPath.getMeasurement());
+    long startTime = System.nanoTime();
     // get sorted tv list is synchronized so different query can get right sorted list reference
     TVList chunkCopy = memChunk.getSortedTvListForQuery();
-    List<TimeRange> deletionList = null;
-    if (modsToMemtable != null) {
-      deletionList =
-          ModificationUtils.constructDeletionList(
-              fullPath.getDeviceId(),
+    ReadOnlyMemChunk readOnlyMemChunk;
+    try {
+      List<TimeRange> deletionList = null;
+      if (modsToMemtable != null) {
+        deletionList =
+            ModificationUtils.constructDeletionList(
+                fullPath.getDeviceId(),
+                fullPath.getMeasurement(),
+                memTable,
+                modsToMemtable,
+                timeLowerBound);
+      }
+      readOnlyMemChunk =
+          new ReadOnlyMemChunk(
+              context,
               fullPath.getMeasurement(),
-              memTable,
-              modsToMemtable,
-              timeLowerBound);
+              fullPath.getMeasurementSchema().getType(),
+              fullPath.getMeasurementSchema().getEncodingType(),
+              chunkCopy,
+              fullPath.getMeasurementSchema().getProps(),
+              deletionList);
+    } finally {
+      // the points have been copied into the ReadOnlyMemChunk
+      chunkCopy.decreaseReferenceCount();
     }
-    return new ReadOnlyMemChunk(
-        context,
-        fullPath.getMeasurement(),
-        fullPath.getMeasurementSchema().getType(),
-        fullPath.getMeasurementSchema().getEncodingType(),
-        chunkCopy,
-        fullPath.getMeasurementSchema().getProps(),
-        deletionList);
+    SeriesScanCostMetricSet.getInstance()
+        .recordSeriesScanCost(PREPARE_MEM_CHUNK_NONALIGNED, System.nanoTime() - startTime);
+    return readOnlyMemChunk;
   }
 
   @Override
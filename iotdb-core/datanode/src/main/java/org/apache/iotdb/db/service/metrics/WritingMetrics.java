@@ -182,6 +182,8 @@ public class WritingMetrics implements IMetricSet {
   public static final String READ_WAL_BUFFER_COST_NS = "read_wal_buffer_cost";
   public static final String WRITE_WAL_BUFFER_COST_NS = "write_wal_buffer_cost";
   public static final String ENTRIES_COUNT = "entries_count";
+  public static final String WAL_RECOVER_COST_PER_GB_MS = "wal_recover_cost_per_gb";
+  public static final String WAL_RECOVER_SIZE_BYTE = "wal_recover_size";
 
   private Histogram usedRatioHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
   private Histogram entriesCountHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
@@ -192,6 +194,8 @@ public class WritingMetrics implements IMetricSet {
   private Histogram readWALBufferSizeHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
   private Histogram readWALBufferCostHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
   private Histogram writeWALBufferCostHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+  private Histogram walRecoverCostPerGBHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+  private Histogram walRecoverSizeHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
 
   private void bindWALMetrics(AbstractMetricService metricService) {
     metricService.createAutoGauge(
@@ -253,6 +257,18 @@ public class WritingMetrics implements IMetricSet {
             MetricLevel.IMPORTANT,
             Tag.NAME.toString(),
             WRITE_WAL_BUFFER_COST_NS);
+    walRecoverCostPerGBHistogram =
+        metricService.getOrCreateHistogram(
+            Metric.WAL_BUFFER.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            WAL_RECOVER_COST_PER_GB_MS);
+    walRecoverSizeHistogram =
+        metricService.getOrCreateHistogram(
+            Metric.WAL_BUFFER.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            WAL_RECOVER_SIZE_BYTE);
   }
 
   private void unbindWALMetrics(AbstractMetricService metricService) {
@@ -260,6 +276,8 @@ public class WritingMetrics implements IMetricSet {
         MetricType.AUTO_GAUGE, Metric.WAL_NODE_NUM.toString(), Tag.NAME.toString(), WAL_NODES_NUM);
     usedRatioHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
     entriesCountHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+    walRecoverCostPerGBHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+    walRecoverSizeHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
     Arrays.asList(
             USED_RATIO,
             ENTRIES_COUNT,
@@ -269,7 +287,9 @@ public class WritingMetrics implements IMetricSet {
             WAL_UNCOMPRESS_COST_NS,
             READ_WAL_BUFFER_SIZE_BYTE,
             READ_WAL_BUFFER_COST_NS,
-            WRITE_WAL_BUFFER_COST_NS)
+            WRITE_WAL_BUFFER_COST_NS,
+            WAL_RECOVER_COST_PER_GB_MS,
+            WAL_RECOVER_SIZE_BYTE)
         .forEach(
             name ->
                 metricService.remove(
@@ -891,6 +911,15 @@ public class WritingMetrics implements IMetricSet {
     readWALBufferCostHistogram.update(costTimeInNanos);
   }
 
+  /** Record the recovery time normalized by the size of wal files read to redo logs. */
+  public void recordWALRecover(long walSizeInByte, long costTimeInMillis) {
+    walRecoverSizeHistogram.update(walSizeInByte);
+    if (walSizeInByte > 0) {
+      walRecoverCostPerGBHistogram.update(
+          (long) (costTimeInMillis * (1024.0 * 1024 * 1024) / walSizeInByte));
+    }
+  }
+
   public void recordSyncWALBufferCost(long costTimeInNanos, boolean forceFlag) {
     if (forceFlag) {
       // fsync mode
@@ -51,6 +51,8 @@ public class BloomFilterCache {
 
   private final LoadingCache<BloomFilterCacheKey, BloomFilter> lruCache;
 
+  private final ReadCacheHitCounter hitCounter = new ReadCacheHitCounter();
+
   private BloomFilterCache() {
     if (CACHE_ENABLE) {
       LOGGER.info("BloomFilterCache size = {}", MEMORY_THRESHOLD_IN_BLOOM_FILTER_CACHE);
@@ -65,6 +67,7 @@ public class BloomFilterCache {
             .recordStats()
             .build(
                 key -> {
+                  hitCounter.recordMiss(false);
                   TsFileSequenceReader reader =
                       FileReaderManager.getInstance().get(key.filePath, true);
                   return reader.readBloomFilter();
@@ -80,12 +83,31 @@ public class BloomFilterCache {
   }
 
   public BloomFilter get(BloomFilterCacheKey key, boolean debug) throws IOException {
+    return get(key, debug, false);
+  }
+
+  /**
+   * @param bypassCache if true, a missed bloom filter is read from the file without being admitted
+   *     into the cache
+   */
+  public BloomFilter get(BloomFilterCacheKey key, boolean debug, boolean bypassCache)
+      throws IOException {
     if (!CACHE_ENABLE) {
       TsFileSequenceReader reader = FileReaderManager.getInstance().get(key.filePath, true);
       return reader.readBloomFilter();
     }
 
-    BloomFilter bloomFilter = lruCache.get(key);
+    hitCounter.recordRequest(bypassCache);
+    BloomFilter bloomFilter;
+    if (bypassCache) {
+      bloomFilter = lruCache.getIfPresent(key);
+      if (bloomFilter == null) {
+        hitCounter.recordMiss(true);
+        bloomFilter = FileReaderManager.getInstance().get(key.filePath, true).readBloomFilter();
+      }
+    } else {
+      bloomFilter = lruCache.get(key);
+    }
 
     if (debug) {
       DEBUG_LOGGER.info("get bloomFilter from cache where filePath is: {}", key.filePath);
@@ -98,6 +120,10 @@ public class BloomFilterCache {
     return lruCache.stats().hitRate();
   }
 
+  public ReadCacheHitCounter getHitCounter() {
+    return hitCounter;
+  }
+
   public long getEvictionCount() {
     return lruCache.stats().evictionCount();
   }
@@ -83,6 +83,16 @@ public class CacheHitRatioMonitor implements CacheHitRatioMonitorMXBean, IServic
     return 0;
   }
 
+  @Override
+  public double getChunkNormalQueryHitRatio() {
+    return ChunkCache.getInstance().getHitCounter().getNormalQueryHitRatio();
+  }
+
+  @Override
+  public double getChunkBypassQueryHitRatio() {
+    return ChunkCache.getInstance().getHitCounter().getBypassQueryHitRatio();
+  }
+
   @Override
   public double getTimeSeriesMetadataHitRatio() {
     return TimeSeriesMetadataCache.getInstance().calculateTimeSeriesMetadataHitRatio();
@@ -108,6 +118,16 @@ public class CacheHitRatioMonitor implements CacheHitRatioMonitorMXBean, IServic
     return TimeSeriesMetadataCache.getInstance().getAverageSize();
   }
 
+  @Override
+  public double getTimeSeriesMetadataNormalQueryHitRatio() {
+    return TimeSeriesMetadataCache.getInstance().getHitCounter().getNormalQueryHitRatio();
+  }
+
+  @Override
+  public double getTimeSeriesMetadataBypassQueryHitRatio() {
+    return TimeSeriesMetadataCache.getInstance().getHitCounter().getBypassQueryHitRatio();
+  }
+
   @Override
   public double getBloomFilterHitRatio() {
     return BloomFilterCache.getInstance().calculateBloomFilterHitRatio();
@@ -133,6 +153,16 @@ public class CacheHitRatioMonitor implements CacheHitRatioMonitorMXBean, IServic
     return BloomFilterCache.getInstance().getAverageSize();
   }
 
+  @Override
+  public double getBloomFilterNormalQueryHitRatio() {
+    return BloomFilterCache.getInstance().getHitCounter().getNormalQueryHitRatio();
+  }
+
+  @Override
+  public double getBloomFilterBypassQueryHitRatio() {
+    return BloomFilterCache.getInstance().getHitCounter().getBypassQueryHitRatio();
+  }
+
   public static CacheHitRatioMonitor getInstance() {
     return instance;
   }
@@ -31,6 +31,10 @@ public interface CacheHitRatioMonitorMXBean {
 
   long getChunkCacheAverageSize();
 
+  double getChunkNormalQueryHitRatio();
+
+  double getChunkBypassQueryHitRatio();
+
   double getTimeSeriesMetadataHitRatio();
 
   long getTimeSeriesMetadataCacheEvictionCount();
@@ -41,6 +45,10 @@ public interface CacheHitRatioMonitorMXBean {
 
   long getTimeSeriesMetaDataCacheAverageSize();
 
+  double getTimeSeriesMetadataNormalQueryHitRatio();
+
+  double getTimeSeriesMetadataBypassQueryHitRatio();
+
   double getBloomFilterHitRatio();
 
   long getBloomFilterCacheEvictionCount();
@@ -51,6 +59,10 @@ public interface CacheHitRatioMonitorMXBean {
 
   long getBloomFilterCacheAverageSize();
 
+  double getBloomFilterNormalQueryHitRatio();
+
+  double getBloomFilterBypassQueryHitRatio();
+
   long getTotalMemTableSize();
 
   double getFlushThershold();
@@ -48,7 +48,8 @@ import static org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet.REA
 
 /**
  * This class is used to cache <code>Chunk</code> of <code>ChunkMetaData</code> in IoTDB. The
- * caching strategy is LRU.
+ * caching strategy is LRU. Chunks missed here are looked up in {@link OffHeapChunkCache} before
+ * reading the disk, and chunks read from the disk are also put into it.
  */
 @SuppressWarnings("squid:S6548")
 public class ChunkCache {
@@ -66,6 +67,10 @@ public class ChunkCache {
   // to save memory footprint, we don't save measurementId in ChunkHeader of Chunk
   private final LoadingCache<ChunkCacheKey, Chunk> lruCache;
 
+  private final OffHeapChunkCache offHeapCache = OffHeapChunkCache.getInstance();
+
+  private final ReadCacheHitCounter hitCounter = new ReadCacheHitCounter();
+
   private ChunkCache() {
     if (CACHE_ENABLE) {
       LOGGER.info("ChunkCache size = {}", MEMORY_THRESHOLD_IN_CHUNK_CACHE);
@@ -80,24 +85,37 @@ public class ChunkCache {
             .recordStats()
             .build(
                 key -> {
-                  long startTime = System.nanoTime();
-                  try {
-                    TsFileSequenceReader reader =
-                        FileReaderManager.getInstance().get(key.getFilePath(), key.closed);
-                    Chunk chunk = reader.readMemChunk(key.offsetOfChunkHeader);
-                    // to save memory footprint, we don't save measurementId in ChunkHeader of Chunk
-                    chunk.getHeader().setMeasurementID(null);
-                    return chunk;
-                  } finally {
-                    SERIES_SCAN_COST_METRIC_SET.recordSeriesScanCost(
-                        READ_CHUNK_FILE, System.nanoTime() - startTime);
-                  }
+                  hitCounter.recordMiss(false);
+                  return loadChunk(key, true);
                 });
 
     // add metrics
     MetricService.getInstance().addMetricSet(new ChunkCacheMetrics(this));
   }
 
+  private Chunk loadChunk(ChunkCacheKey key, boolean populateOffHeapCache) throws IOException {
+    // promote the chunk from the off-heap tier
+    Chunk cachedChunk = offHeapCache.get(key);
+    if (cachedChunk != null) {
+      return cachedChunk;
+    }
+    long startTime = System.nanoTime();
+    try {
+      TsFileSequenceReader reader =
+          FileReaderManager.getInstance().get(key.getFilePath(), key.closed);
+      Chunk chunk = reader.readMemChunk(key.offsetOfChunkHeader);
+      // to save memory footprint, we don't save measurementId in ChunkHeader of Chunk
+      chunk.getHeader().setMeasurementID(null);
+      if (populateOffHeapCache) {
+        offHeapCache.put(key, chunk);
+      }
+      return chunk;
+    } finally {
+      SERIES_SCAN_COST_METRIC_SET.recordSeriesScanCost(
+          READ_CHUNK_FILE, System.nanoTime() - startTime);
+    }
+  }
+
   public double getHitRate() {
     return lruCache.stats().hitRate() * 100;
   }
@@ -112,6 +130,21 @@ public class ChunkCache {
       Statistics chunkStatistic,
       boolean debug)
       throws IOException {
+    return get(chunkCacheKey, timeRangeList, chunkStatistic, debug, false);
+  }
+
+  /**
+   * @param bypassCache if true, a cached chunk is still returned but a missed one is read from disk
+   *     without being admitted into either tier, so that a large scan cannot evict the hot working
+   *     set
+   */
+  public Chunk get(
+      ChunkCacheKey chunkCacheKey,
+      List<TimeRange> timeRangeList,
+      Statistics chunkStatistic,
+      boolean debug,
+      boolean bypassCache)
+      throws IOException {
     long startTime = System.nanoTime();
     try {
       if (!CACHE_ENABLE) {
@@ -122,7 +155,17 @@ public class ChunkCache {
             chunk.getHeader(), chunk.getData().duplicate(), timeRangeList, chunkStatistic);
       }
 
-      Chunk chunk = lruCache.get(chunkCacheKey);
+      hitCounter.recordRequest(bypassCache);
+      Chunk chunk;
+      if (bypassCache) {
+        chunk = lruCache.getIfPresent(chunkCacheKey);
+        if (chunk == null) {
+          hitCounter.recordMiss(true);
+          chunk = loadChunk(chunkCacheKey, false);
+        }
+      } else {
+        chunk = lruCache.get(chunkCacheKey);
+      }
 
       if (debug) {
         DEBUG_LOGGER.info("get chunk from cache whose key is: {}", chunkCacheKey);
@@ -140,6 +183,10 @@ public class ChunkCache {
     return lruCache.stats().hitRate();
   }
 
+  public ReadCacheHitCounter getHitCounter() {
+    return hitCounter;
+  }
+
   public long getEvictionCount() {
     return lruCache.stats().evictionCount();
   }
@@ -152,10 +199,15 @@ public class ChunkCache {
     return lruCache.stats().averageLoadPenalty();
   }
 
+  public OffHeapChunkCache getOffHeapCache() {
+    return offHeapCache;
+  }
+
   /** clear LRUCache. */
   public void clear() {
     lruCache.invalidateAll();
     lruCache.cleanUp();
+    offHeapCache.clear();
   }
 
   @TestOnly
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.buffer;
+
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.storageengine.buffer.ChunkCache.ChunkCacheKey;
+
+import org.apache.tsfile.file.header.ChunkHeader;
+import org.apache.tsfile.read.common.Chunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The second tier beneath {@link ChunkCache}, which keeps the compressed data of chunks in off-heap
+ * slabs so that a large cache does not burden the GC. Only the index (the {@link ChunkHeader} and
+ * the location of the data of each chunk) is kept on heap.
+ *
+ * <p>The slabs are filled one after another. When the last slab is full, the oldest slab is
+ * recycled as a whole, dropping all the chunks in it, i.e., the eviction is FIFO in the unit of
+ * slabs. Chunks hit in this tier are promoted into {@link ChunkCache}, so hot chunks are mostly
+ * served on heap and this tier holds the larger warm working set.
+ */
+public class OffHeapChunkCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapChunkCache.class);
+
+  private static final int MAX_SLAB_SIZE = 64 * 1024 * 1024;
+
+  private final int slabSize;
+
+  private final Slab[] slabs;
+
+  private final Map<ChunkCacheKey, Entry> index = new ConcurrentHashMap<>();
+
+  /** the slab being filled, guarded by this. */
+  private int currentSlab = 0;
+
+  /** the position to write in the slab being filled, guarded by this. */
+  private int writePosition = 0;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong requestCount = new AtomicLong();
+
+  private OffHeapChunkCache() {
+    this(IoTDBDescriptor.getInstance().getConfig().getChunkOffHeapCacheSizeInByte(), MAX_SLAB_SIZE);
+  }
+
+  @TestOnly
+  OffHeapChunkCache(long cacheSizeInByte, int maxSlabSize) {
+    slabSize = (int) Math.min(maxSlabSize, cacheSizeInByte);
+    int slabNum = slabSize > 0 ? (int) (cacheSizeInByte / slabSize) : 0;
+    slabs = new Slab[slabNum];
+    for (int i = 0; i < slabNum; i++) {
+      slabs[i] = new Slab(ByteBuffer.allocateDirect(slabSize));
+    }
+    if (slabNum > 0) {
+      LOGGER.info("OffHeapChunkCache size = {}, slab num = {}", (long) slabSize * slabNum, slabNum);
+    }
+  }
+
+  public static OffHeapChunkCache getInstance() {
+    return OffHeapChunkCacheHolder.INSTANCE;
+  }
+
+  public boolean isEnabled() {
+    return slabs.length > 0;
+  }
+
+  /**
+   * Get the chunk from this tier.
+   *
+   * @return a chunk whose data is copied on heap, or null if the chunk is not cached
+   */
+  public Chunk get(ChunkCacheKey key) {
+    if (!isEnabled()) {
+      return null;
+    }
+    requestCount.incrementAndGet();
+    Entry entry = index.get(key);
+    if (entry == null) {
+      return null;
+    }
+    Slab slab = slabs[entry.slabIndex];
+    byte[] data = new byte[entry.length];
+    slab.lock.readLock().lock();
+    try {
+      if (slab.generation != entry.generation) {
+        // the slab has been recycled
+        return null;
+      }
+      ByteBuffer buffer = slab.buffer.duplicate();
+      buffer.position(entry.offset);
+      buffer.get(data);
+    } finally {
+      slab.lock.readLock().unlock();
+    }
+    hitCount.incrementAndGet();
+    return new Chunk(entry.header, ByteBuffer.wrap(data));
+  }
+
+  /** Put the compressed data of the chunk into this tier, recycling the oldest slab if needed. */
+  public synchronized void put(ChunkCacheKey key, Chunk chunk) {
+    ByteBuffer data = chunk.getData().duplicate();
+    int length = data.remaining();
+    if (!isEnabled() || length > slabSize || index.containsKey(key)) {
+      return;
+    }
+    if (writePosition + length > slabSize) {
+      currentSlab = (currentSlab + 1) % slabs.length;
+      writePosition = 0;
+      recycle(currentSlab);
+    }
+    Slab slab = slabs[currentSlab];
+    ByteBuffer buffer = slab.buffer.duplicate();
+    buffer.position(writePosition);
+    buffer.put(data);
+    Entry entry = new Entry(chunk.getHeader(), currentSlab, slab.generation, writePosition, length);
+    writePosition += length;
+    slab.keys.add(key);
+    index.put(key, entry);
+  }
+
+  private void recycle(int slabIndex) {
+    Slab slab = slabs[slabIndex];
+    slab.lock.writeLock().lock();
+    try {
+      slab.generation++;
+    } finally {
+      slab.lock.writeLock().unlock();
+    }
+    for (ChunkCacheKey key : slab.keys) {
+      index.computeIfPresent(
+          key,
+          (k, entry) ->
+              entry.slabIndex == slabIndex && entry.generation != slab.generation ? null : entry);
+    }
+    slab.keys.clear();
+  }
+
+  public double getHitRate() {
+    long requests = requestCount.get();
+    return requests == 0 ? 0 : (double) hitCount.get() / requests * 100;
+  }
+
+  public long getCachedChunkNum() {
+    return index.size();
+  }
+
+  /** drop all the cached chunks, the slabs are kept for reuse. */
+  public synchronized void clear() {
+    for (int i = 0; i < slabs.length; i++) {
+      recycle(i);
+    }
+    index.clear();
+    currentSlab = 0;
+    writePosition = 0;
+  }
+
+  private static class Slab {
+
+    private final ByteBuffer buffer;
+
+    /** excludes reading the slab and recycling it. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** increased each time the slab is recycled. */
+    private volatile long generation = 0;
+
+    /** keys of the chunks in this slab, guarded by the cache. */
+    private final List<ChunkCacheKey> keys = new ArrayList<>();
+
+    private Slab(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+  }
+
+  private static class Entry {
+
+    private final ChunkHeader header;
+    private final int slabIndex;
+    private final long generation;
+    private final int offset;
+    private final int length;
+
+    private Entry(ChunkHeader header, int slabIndex, long generation, int offset, int length) {
+      this.header = header;
+      this.slabIndex = slabIndex;
+      this.generation = generation;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  /** singleton pattern. */
+  private static class OffHeapChunkCacheHolder {
+
+    private static final OffHeapChunkCache INSTANCE = new OffHeapChunkCache();
+  }
+}
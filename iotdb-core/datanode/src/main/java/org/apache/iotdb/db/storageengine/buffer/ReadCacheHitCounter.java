@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.buffer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the requests and misses of one read cache, separately for normal queries and for queries
+ * that bypass cache population (large scans or sessions asking for it), so that the hit ratio seen
+ * by point and range queries is not hidden by the misses of full-history scans.
+ */
+public class ReadCacheHitCounter {
+
+  private final LongAdder normalRequestCount = new LongAdder();
+  private final LongAdder normalMissCount = new LongAdder();
+  private final LongAdder bypassRequestCount = new LongAdder();
+  private final LongAdder bypassMissCount = new LongAdder();
+
+  public void recordRequest(boolean bypassCache) {
+    (bypassCache ? bypassRequestCount : normalRequestCount).increment();
+  }
+
+  public void recordMiss(boolean bypassCache) {
+    (bypassCache ? bypassMissCount : normalMissCount).increment();
+  }
+
+  public double getNormalQueryHitRatio() {
+    return hitRatio(normalRequestCount.sum(), normalMissCount.sum());
+  }
+
+  public double getBypassQueryHitRatio() {
+    return hitRatio(bypassRequestCount.sum(), bypassMissCount.sum());
+  }
+
+  public long getBypassRequestCount() {
+    return bypassRequestCount.sum();
+  }
+
+  private static double hitRatio(long requestCount, long missCount) {
+    // same convention as Caffeine's CacheStats: no request means every request hit
+    return requestCount == 0 ? 1.0 : (double) Math.max(requestCount - missCount, 0) / requestCount;
+  }
+}
@@ -76,6 +76,8 @@ public class TimeSeriesMetadataCache {
 
   private final AtomicLong entryAverageSize = new AtomicLong(0);
 
+  private final ReadCacheHitCounter hitCounter = new ReadCacheHitCounter();
+
   private final Map<String, WeakReference<String>> devices =
       Collections.synchronizedMap(new WeakHashMap<>());
   private static final String SEPARATOR = "$";
@@ -102,7 +104,6 @@ public class TimeSeriesMetadataCache {
     return TimeSeriesMetadataCache.TimeSeriesMetadataCacheHolder.INSTANCE;
   }
 
-  @SuppressWarnings({"squid:S1860", "squid:S6541", "squid:S3776"}) // Suppress synchronize warning
   public TimeseriesMetadata get(
       String filePath,
       TimeSeriesMetadataCacheKey key,
@@ -110,6 +111,22 @@ public class TimeSeriesMetadataCache {
       boolean ignoreNotExists,
       boolean debug)
       throws IOException {
+    return get(filePath, key, allSensors, ignoreNotExists, debug, false);
+  }
+
+  /**
+   * @param bypassCache if true, cached metadata is still returned but the metadata read from the
+   *     file on a miss is not put into the cache, and neither is the bloom filter of the file
+   */
+  @SuppressWarnings({"squid:S1860", "squid:S6541", "squid:S3776"}) // Suppress synchronize warning
+  public TimeseriesMetadata get(
+      String filePath,
+      TimeSeriesMetadataCacheKey key,
+      Set<String> allSensors,
+      boolean ignoreNotExists,
+      boolean debug,
+      boolean bypassCache)
+      throws IOException {
     long startTime = System.nanoTime();
     boolean cacheHit = true;
     try {
@@ -158,7 +175,8 @@ public class TimeSeriesMetadataCache {
                             key.timePartitionId,
                             key.tsFileVersion,
                             key.compactionVersion),
-                        debug);
+                        debug,
+                        bypassCache);
             if (bloomFilter != null
                 && !bloomFilter.contains(
                     deviceStringFormat + TsFileConstant.PATH_SEPARATOR + key.measurement)) {
@@ -180,7 +198,7 @@ public class TimeSeriesMetadataCache {
                       key.compactionVersion,
                       key.device,
                       metadata.getMeasurementId());
-              if (metadata.getStatistics().getCount() != 0) {
+              if (!bypassCache && metadata.getStatistics().getCount() != 0) {
                 lruCache.put(k, metadata);
               }
               if (metadata.getMeasurementId().equals(key.measurement)) {
@@ -207,6 +225,12 @@ public class TimeSeriesMetadataCache {
         return new TimeseriesMetadata(timeseriesMetadata);
       }
     } finally {
+      if (CACHE_ENABLE) {
+        hitCounter.recordRequest(bypassCache);
+        if (!cacheHit) {
+          hitCounter.recordMiss(bypassCache);
+        }
+      }
       SERIES_SCAN_COST_METRIC_SET.recordSeriesScanCost(
           cacheHit ? READ_TIMESERIES_METADATA_CACHE : READ_TIMESERIES_METADATA_FILE,
           System.nanoTime() - startTime);
@@ -217,6 +241,10 @@ public class TimeSeriesMetadataCache {
     return lruCache.stats().hitRate();
   }
 
+  public ReadCacheHitCounter getHitCounter() {
+    return hitCounter;
+  }
+
   public long getEvictionCount() {
     return lruCache.stats().evictionCount();
   }
@@ -85,6 +85,7 @@ import org.apache.iotdb.db.storageengine.dataregion.flush.FlushListener;
 import org.apache.iotdb.db.storageengine.dataregion.flush.FlushStatus;
 import org.apache.iotdb.db.storageengine.dataregion.flush.TsFileFlushPolicy;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.IMemTable;
+import org.apache.iotdb.db.storageengine.dataregion.memtable.InsertTabletRange;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.TsFileProcessor;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.TsFileProcessorInfo;
 import org.apache.iotdb.db.storageengine.dataregion.modification.Deletion;
@@ -103,6 +104,7 @@ import org.apache.iotdb.db.storageengine.dataregion.tsfile.generator.TsFileNameG
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.generator.VersionController;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.FileTimeIndex;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.FileTimeIndexCacheRecorder;
+import org.apache.iotdb.db.storageengine.dataregion.utils.fileTimeIndexCache.DeviceTimeIndexCacheReader;
 import org.apache.iotdb.db.storageengine.dataregion.utils.fileTimeIndexCache.FileTimeIndexCacheReader;
 import org.apache.iotdb.db.storageengine.dataregion.utils.validate.TsFileValidator;
 import org.apache.iotdb.db.storageengine.dataregion.wal.WALManager;
@@ -142,6 +144,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -557,6 +560,8 @@ public class DataRegion implements IDataRegionForQuery {
             throw new RuntimeException(e);
           }
         }
+        Map<TsFileID, ByteBuffer> deviceTimeIndexMap =
+            loadDeviceTimeIndexCache(partitionTmpSeqTsFiles, partitionTmpUnseqTsFiles);
         for (Entry<Long, List<TsFileResource>> partitionFiles : partitionTmpSeqTsFiles.entrySet()) {
           Callable<Void> asyncRecoverTask =
               recoverFilesInPartition(
@@ -564,6 +569,7 @@ public class DataRegion implements IDataRegionForQuery {
                   dataRegionRecoveryContext,
                   partitionFiles.getValue(),
                   fileTimeIndexMap,
+                  deviceTimeIndexMap,
                   true);
           if (asyncRecoverTask != null) {
             asyncTsFileResourceRecoverTaskList.add(asyncRecoverTask);
@@ -577,6 +583,7 @@ public class DataRegion implements IDataRegionForQuery {
                   dataRegionRecoveryContext,
                   partitionFiles.getValue(),
                   fileTimeIndexMap,
+                  deviceTimeIndexMap,
                   false);
           if (asyncRecoverTask != null) {
             asyncTsFileResourceRecoverTaskList.add(asyncRecoverTask);
@@ -879,11 +886,63 @@ public class DataRegion implements IDataRegionForQuery {
     }
   }
 
+  /**
+   * Map the DeviceTimeIndexCache of every time partition that still has TsFiles, caches of
+   * partitions without TsFiles are removed.
+   */
+  private Map<TsFileID, ByteBuffer> loadDeviceTimeIndexCache(
+      Map<Long, List<TsFileResource>> partitionTmpSeqTsFiles,
+      Map<Long, List<TsFileResource>> partitionTmpUnseqTsFiles) {
+    Map<TsFileID, ByteBuffer> deviceTimeIndexMap = new HashMap<>();
+    File[] cacheFiles =
+        SystemFileFactory.INSTANCE
+            .getFile(dataRegionSysDir, FileTimeIndexCacheRecorder.DEVICE_TIME_INDEX_CACHE_DIR_NAME)
+            .listFiles();
+    if (cacheFiles == null) {
+      return deviceTimeIndexMap;
+    }
+    long startTime = System.currentTimeMillis();
+    int entryNum = 0;
+    int partitionNum = 0;
+    for (File cacheFile : cacheFiles) {
+      long partitionId;
+      try {
+        partitionId = Long.parseLong(cacheFile.getName());
+      } catch (NumberFormatException e) {
+        continue;
+      }
+      if (!partitionTmpSeqTsFiles.containsKey(partitionId)
+          && !partitionTmpUnseqTsFiles.containsKey(partitionId)) {
+        if (!cacheFile.delete()) {
+          logger.warn("Failed to delete DeviceTimeIndexCache {}", cacheFile.getAbsolutePath());
+        }
+        continue;
+      }
+      try {
+        entryNum +=
+            new DeviceTimeIndexCacheReader(cacheFile, dataRegionId).read(deviceTimeIndexMap);
+        partitionNum++;
+      } catch (IOException e) {
+        // the TsFiles of this partition fall back to loading their resource files
+        logger.warn("Failed to read DeviceTimeIndexCache {}", cacheFile.getAbsolutePath(), e);
+      }
+    }
+    logger.info(
+        "The DeviceTimeIndexCache of data region {}[{}] is mapped, {} entries in {} partitions, which takes {} ms.",
+        databaseName,
+        dataRegionId,
+        entryNum,
+        partitionNum,
+        System.currentTimeMillis() - startTime);
+    return deviceTimeIndexMap;
+  }
+
   private Callable<Void> recoverFilesInPartition(
       long partitionId,
       DataRegionRecoveryContext context,
       List<TsFileResource> resourceList,
       Map<TsFileID, FileTimeIndex> fileTimeIndexMap,
+      Map<TsFileID, ByteBuffer> deviceTimeIndexMap,
       boolean isSeq) {
     List<TsFileResource> resourceListForAsyncRecover = new ArrayList<>();
     List<TsFileResource> resourceListForSyncRecover = new ArrayList<>();
@@ -891,6 +950,12 @@ public class DataRegion implements IDataRegionForQuery {
     for (TsFileResource tsFileResource : resourceList) {
       if (fileTimeIndexMap.containsKey(tsFileResource.getTsFileID())) {
         tsFileResource.setTimeIndex(fileTimeIndexMap.get(tsFileResource.getTsFileID()));
+        // queries arriving before the resource file is loaded prune by device with the mapped
+        // device time index instead of reading the resource file
+        ByteBuffer deviceTimeIndex = deviceTimeIndexMap.get(tsFileResource.getTsFileID());
+        if (deviceTimeIndex != null) {
+          tsFileResource.setMappedDeviceTimeIndex(deviceTimeIndex);
+        }
         tsFileResource.setStatus(TsFileResourceStatus.NORMAL);
         tsFileManager.add(tsFileResource, isSeq);
         resourceListForAsyncRecover.add(tsFileResource);
@@ -1064,8 +1129,24 @@ public class DataRegion implements IDataRegionForQuery {
         : Long.MAX_VALUE;
   }
 
-  private boolean splitAndInsert(InsertTabletNode insertTabletNode, int loc, TSStatus[] results)
-      throws BatchProcessException, WriteProcessException {
+  /** Inserts the rows [start, end) of a tablet, which belong to the same TsFileProcessor. */
+  @FunctionalInterface
+  private interface TabletRangeInserter {
+
+    /**
+     * @return false if any failure occurs when inserting the rows, true otherwise
+     */
+    boolean insert(int start, int end, boolean sequence, long timePartitionId, boolean noFailure);
+  }
+
+  /**
+   * Split the rows from loc of a tablet into ranges of the same time partition and the same kind of
+   * TsFileProcessor, and hand each range to inserter.
+   *
+   * @return false if any failure occurs when inserting the ranges, true otherwise
+   */
+  private boolean splitAndInsert(
+      InsertTabletNode insertTabletNode, int loc, TabletRangeInserter inserter) {
     boolean noFailure = true;
 
     // before is first start point
@@ -1090,15 +1171,7 @@ public class DataRegion implements IDataRegionForQuery {
         lastFlushTime = getLastFlushTime(timePartitionId, insertTabletNode.getDeviceID(loc));
         // a new partition, insert the remaining of the previous partition
         noFailure =
-            insertTabletToTsFileProcessor(
-                    insertTabletNode,
-                    before,
-                    loc,
-                    isSequence,
-                    results,
-                    beforeTimePartition,
-                    noFailure)
-                && noFailure;
+            inserter.insert(before, loc, isSequence, beforeTimePartition, noFailure) && noFailure;
         if (before < loc) {
           insertCnt += 1;
           logger.debug(
@@ -1117,15 +1190,7 @@ public class DataRegion implements IDataRegionForQuery {
           // the same partition and switch to sequence data
           // insert previous range into unsequence
           noFailure =
-              insertTabletToTsFileProcessor(
-                      insertTabletNode,
-                      before,
-                      loc,
-                      isSequence,
-                      results,
-                      beforeTimePartition,
-                      noFailure)
-                  && noFailure;
+              inserter.insert(before, loc, isSequence, beforeTimePartition, noFailure) && noFailure;
           before = loc;
           if (before < loc) {
             insertCnt += 1;
@@ -1146,15 +1211,7 @@ public class DataRegion implements IDataRegionForQuery {
     // do not forget last part
     if (before < loc) {
       noFailure =
-          insertTabletToTsFileProcessor(
-                  insertTabletNode,
-                  before,
-                  loc,
-                  isSequence,
-                  results,
-                  beforeTimePartition,
-                  noFailure)
-              && noFailure;
+          inserter.insert(before, loc, isSequence, beforeTimePartition, noFailure) && noFailure;
       insertCnt += 1;
       logger.debug(
           "insertTabletToTsFileProcessor, insertCnt:{}, noFailure:{}, before:{}, loc:{}",
@@ -1192,7 +1249,20 @@ public class DataRegion implements IDataRegionForQuery {
           insertTabletNode.checkTTL(
               results, i -> DataNodeTTLCache.getInstance().getTTL(insertTabletNode.getDeviceID(i)));
       noFailure = loc == 0;
-      noFailure = noFailure && splitAndInsert(insertTabletNode, loc, results);
+      noFailure =
+          noFailure
+              && splitAndInsert(
+                  insertTabletNode,
+                  loc,
+                  (start, end, sequence, timePartitionId, rangeNoFailure) ->
+                      insertTabletToTsFileProcessor(
+                          insertTabletNode,
+                          start,
+                          end,
+                          sequence,
+                          results,
+                          timePartitionId,
+                          rangeNoFailure));
 
       if (CommonDescriptor.getInstance().getConfig().isLastCacheEnable()) {
         if (!insertTabletNode.isGeneratedByRemoteConsensusLeader()) {
@@ -1447,6 +1517,7 @@ public class DataRegion implements IDataRegionForQuery {
               if (insertRowNode.isGeneratedByRemoteConsensusLeader()) {
                 v.markAsGeneratedByRemoteConsensusLeader();
               }
+              v.setWalDurabilityLevel(insertRowNode.getWalDurabilityLevel());
             }
             v.addOneInsertRowNode(insertRowNode, finalI);
             v.updateProgressIndex(insertRowNode.getProgressIndex());
@@ -2025,9 +2096,10 @@ public class DataRegion implements IDataRegionForQuery {
       List<Long> timePartitions)
       throws QueryProcessException {
     try {
+      IDeviceID indexedDeviceId = config.isEnableTimePartitionDeviceIndex() ? singleDeviceId : null;
       List<TsFileResource> seqResources =
           getFileResourceListForQuery(
-              tsFileManager.getTsFileList(true, timePartitions, globalTimeFilter),
+              tsFileManager.getTsFileList(true, timePartitions, globalTimeFilter, indexedDeviceId),
               pathList,
               singleDeviceId,
               context,
@@ -2035,7 +2107,7 @@ public class DataRegion implements IDataRegionForQuery {
               true);
       List<TsFileResource> unseqResources =
           getFileResourceListForQuery(
-              tsFileManager.getTsFileList(false, timePartitions, globalTimeFilter),
+              tsFileManager.getTsFileList(false, timePartitions, globalTimeFilter, indexedDeviceId),
               pathList,
               singleDeviceId,
               context,
@@ -3539,6 +3611,7 @@ public class DataRegion implements IDataRegionForQuery {
                 if (insertRowNode.isGeneratedByRemoteConsensusLeader()) {
                   v.markAsGeneratedByRemoteConsensusLeader();
                 }
+                v.setWalDurabilityLevel(insertRowNode.getWalDurabilityLevel());
               }
               v.addOneInsertRowNode(insertRowNode, finalI);
               v.updateProgressIndex(insertRowNode.getProgressIndex());
@@ -3663,24 +3736,94 @@ public class DataRegion implements IDataRegionForQuery {
   }
 
   /**
-   * Insert batch of tablets belongs to multiple devices
+   * Insert batch of tablets belongs to multiple devices. The tablets are inserted under one
+   * acquisition of the write lock. Their rows are split by time partition and grouped by
+   * TsFileProcessor, and each group is inserted at once so that its WAL entries share one WAL
+   * flush.
    *
    * @param insertMultiTabletsNode batch of tablets belongs to multiple devices
    */
+  @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
   public void insertTablets(InsertMultiTabletsNode insertMultiTabletsNode)
       throws BatchProcessException {
-    for (int i = 0; i < insertMultiTabletsNode.getInsertTabletNodeList().size(); i++) {
-      InsertTabletNode insertTabletNode = insertMultiTabletsNode.getInsertTabletNodeList().get(i);
-      try {
-        insertTablet(insertTabletNode);
-      } catch (WriteProcessException e) {
+    List<InsertTabletNode> insertTabletNodeList = insertMultiTabletsNode.getInsertTabletNodeList();
+    try {
+      StorageEngine.blockInsertionIfReject();
+    } catch (WriteProcessRejectException e) {
+      for (int i = 0; i < insertTabletNodeList.size(); i++) {
         insertMultiTabletsNode
             .getResults()
             .put(i, RpcUtils.getStatus(e.getErrorCode(), e.getMessage()));
-      } catch (BatchProcessException e) {
-        // for each error
+      }
+      throw new BatchProcessException("Rejected inserting multi tablets");
+    }
+    long startTime = System.nanoTime();
+    writeLock("insertTablets");
+    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(System.nanoTime() - startTime);
+    try {
+      if (deleted) {
+        logger.info(
+            "Won't insert tablets {}, because region is deleted",
+            insertMultiTabletsNode.getSearchIndex());
+        return;
+      }
+      TSStatus[][] results = new TSStatus[insertTabletNodeList.size()][];
+      // time partition -> ranges of the partition, sorted by time partition
+      Map<Long, List<InsertTabletRange>> sequenceRanges = new TreeMap<>();
+      Map<Long, List<InsertTabletRange>> unsequenceRanges = new TreeMap<>();
+      for (int i = 0; i < insertTabletNodeList.size(); i++) {
+        InsertTabletNode insertTabletNode = insertTabletNodeList.get(i);
+        TSStatus[] tabletResults = new TSStatus[insertTabletNode.getRowCount()];
+        Arrays.fill(tabletResults, RpcUtils.SUCCESS_STATUS);
+        int loc;
+        try {
+          loc =
+              insertTabletNode.checkTTL(
+                  tabletResults,
+                  row -> DataNodeTTLCache.getInstance().getTTL(insertTabletNode.getDeviceID(row)));
+        } catch (OutOfTTLException e) {
+          insertMultiTabletsNode
+              .getResults()
+              .put(i, RpcUtils.getStatus(e.getErrorCode(), e.getMessage()));
+          continue;
+        }
+        results[i] = tabletResults;
+        if (loc != 0) {
+          // like insertTablet, a tablet with rows out of TTL is not inserted at all, and the
+          // statuses of those rows are reported
+          continue;
+        }
+        splitAndInsert(
+            insertTabletNode,
+            loc,
+            (start, end, sequence, timePartitionId, rangeNoFailure) -> {
+              if (start < end && !insertTabletNode.allMeasurementFailed()) {
+                (sequence ? sequenceRanges : unsequenceRanges)
+                    .computeIfAbsent(timePartitionId, k -> new ArrayList<>())
+                    .add(new InsertTabletRange(insertTabletNode, start, end, tabletResults, true));
+              }
+              return true;
+            });
+      }
+
+      insertTabletRangesToTsFileProcessors(sequenceRanges, true);
+      insertTabletRangesToTsFileProcessors(unsequenceRanges, false);
+
+      for (int i = 0; i < insertTabletNodeList.size(); i++) {
+        if (results[i] == null) {
+          continue;
+        }
+        InsertTabletNode insertTabletNode = insertTabletNodeList.get(i);
+        if (CommonDescriptor.getInstance().getConfig().isLastCacheEnable()
+            && !insertTabletNode.isGeneratedByRemoteConsensusLeader()) {
+          // disable updating last cache on follower
+          startTime = System.nanoTime();
+          tryToUpdateInsertTabletLastCache(insertTabletNode);
+          PERFORMANCE_OVERVIEW_METRICS.recordScheduleUpdateLastCacheCost(
+              System.nanoTime() - startTime);
+        }
         TSStatus firstStatus = null;
-        for (TSStatus status : e.getFailingStatus()) {
+        for (TSStatus status : results[i]) {
           if (status.getCode() != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
             firstStatus = status;
           }
@@ -3690,8 +3833,12 @@ public class DataRegion implements IDataRegionForQuery {
             throw new BatchProcessException("Rejected inserting multi tablets");
           }
         }
-        insertMultiTabletsNode.getResults().put(i, firstStatus);
+        if (firstStatus != null) {
+          insertMultiTabletsNode.getResults().put(i, firstStatus);
+        }
       }
+    } finally {
+      writeUnlock();
     }
 
     if (!insertMultiTabletsNode.getResults().isEmpty()) {
@@ -3699,6 +3846,37 @@ public class DataRegion implements IDataRegionForQuery {
     }
   }
 
+  private void insertTabletRangesToTsFileProcessors(
+      Map<Long, List<InsertTabletRange>> timePartitionRanges, boolean sequence) {
+    for (Map.Entry<Long, List<InsertTabletRange>> entry : timePartitionRanges.entrySet()) {
+      long timePartitionId = entry.getKey();
+      List<InsertTabletRange> ranges = entry.getValue();
+      TsFileProcessor tsFileProcessor = getOrCreateTsFileProcessor(timePartitionId, sequence);
+      if (tsFileProcessor == null) {
+        for (InsertTabletRange range : ranges) {
+          for (int i = range.getStart(); i < range.getEnd(); i++) {
+            range.getResults()[i] =
+                RpcUtils.getStatus(
+                    TSStatusCode.INTERNAL_SERVER_ERROR,
+                    "can not create TsFileProcessor, timePartitionId: " + timePartitionId);
+          }
+        }
+        continue;
+      }
+
+      for (InsertTabletRange range : ranges) {
+        // register TableSchema (and maybe more) for table insertion
+        registerToTsFile(range.getInsertTabletNode(), tsFileProcessor);
+      }
+      tsFileProcessor.insertTablets(ranges);
+
+      // check memtable size and may async try to flush the work memtable
+      if (tsFileProcessor.shouldFlush()) {
+        fileFlushPolicy.apply(this, tsFileProcessor, sequence);
+      }
+    }
+  }
+
   /**
    * @return the disk space occupied by this data region, unit is MB
    */
@@ -25,6 +25,7 @@ import org.apache.iotdb.commons.service.IService;
 import org.apache.iotdb.commons.service.JMXService;
 import org.apache.iotdb.commons.service.ServiceType;
 import org.apache.iotdb.commons.service.metric.MetricService;
+import org.apache.iotdb.db.storageengine.dataregion.flush.pool.FlushEncodingPoolManager;
 import org.apache.iotdb.db.storageengine.dataregion.flush.pool.FlushSubTaskPoolManager;
 import org.apache.iotdb.db.storageengine.dataregion.flush.pool.FlushTaskPoolManager;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.TsFileProcessor;
@@ -46,13 +47,16 @@ public class FlushManager implements FlushManagerMBean, IService {
 
   private FlushTaskPoolManager flushPool = FlushTaskPoolManager.getInstance();
 
+  private final FlushManagerMetrics flushManagerMetrics = new FlushManagerMetrics(this);
+
   @Override
   public void start() throws StartupException {
     FlushSubTaskPoolManager.getInstance().start();
+    FlushEncodingPoolManager.getInstance().start();
     flushPool.start();
     try {
       JMXService.registerMBean(this, ServiceType.FLUSH_SERVICE.getJmxName());
-      MetricService.getInstance().addMetricSet(new FlushManagerMetrics(this));
+      MetricService.getInstance().addMetricSet(flushManagerMetrics);
     } catch (Exception e) {
       throw new StartupException(this.getID().getName(), e.getMessage());
     }
@@ -61,6 +65,7 @@ public class FlushManager implements FlushManagerMBean, IService {
   @Override
   public void stop() {
     FlushSubTaskPoolManager.getInstance().stop();
+    FlushEncodingPoolManager.getInstance().stop();
     FlushTaskPoolManager.getInstance().stop();
     JMXService.deregisterMBean(ServiceType.FLUSH_SERVICE.getJmxName());
   }
@@ -85,6 +90,18 @@ public class FlushManager implements FlushManagerMBean, IService {
     return flushPool.getWaitingTasksNumber();
   }
 
+  public int getNumberOfWorkingEncodingTasks() {
+    return FlushEncodingPoolManager.getInstance().getWorkingTasksNumber();
+  }
+
+  public int getNumberOfWaitingEncodingTasks() {
+    return FlushEncodingPoolManager.getInstance().getWaitingTasksNumber();
+  }
+
+  public FlushManagerMetrics getFlushManagerMetrics() {
+    return flushManagerMetrics;
+  }
+
   @Override
   public int getNumberOfWorkingSubTasks() {
     return FlushSubTaskPoolManager.getInstance().getWorkingTasksNumber();
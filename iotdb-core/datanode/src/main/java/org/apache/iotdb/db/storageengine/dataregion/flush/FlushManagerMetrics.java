@@ -22,16 +22,30 @@ package org.apache.iotdb.db.storageengine.dataregion.flush;
 import org.apache.iotdb.commons.service.metric.enums.Metric;
 import org.apache.iotdb.commons.service.metric.enums.Tag;
 import org.apache.iotdb.metrics.AbstractMetricService;
+import org.apache.iotdb.metrics.impl.DoNothingMetricManager;
 import org.apache.iotdb.metrics.metricsets.IMetricSet;
+import org.apache.iotdb.metrics.type.Timer;
 import org.apache.iotdb.metrics.utils.MetricLevel;
 import org.apache.iotdb.metrics.utils.MetricType;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 public class FlushManagerMetrics implements IMetricSet {
   private FlushManager flushManager;
 
   private static final String FLUSH = "flush";
+  private static final String FLUSH_ENCODING = "flush_encoding";
+
+  public static final String FLUSH_STAGE_TOTAL = "total";
+  public static final String FLUSH_STAGE_SORT = "sort";
+  public static final String FLUSH_STAGE_ENCODING = "encoding";
+  public static final String FLUSH_STAGE_IO = "io";
+
+  private Timer flushTotalTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer flushSortTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer flushEncodingTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer flushIOTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
 
   public FlushManagerMetrics(FlushManager flushManager) {
     this.flushManager = flushManager;
@@ -57,24 +71,79 @@ public class FlushManagerMetrics implements IMetricSet {
         FLUSH,
         Tag.STATUS.toString(),
         "running");
-  }
-
-  @Override
-  public void unbindFrom(AbstractMetricService metricService) {
-    metricService.remove(
-        MetricType.AUTO_GAUGE,
+    metricService.createAutoGauge(
         Metric.QUEUE.toString(),
+        MetricLevel.IMPORTANT,
+        flushManager,
+        FlushManager::getNumberOfWaitingEncodingTasks,
         Tag.NAME.toString(),
-        FLUSH,
+        FLUSH_ENCODING,
         Tag.STATUS.toString(),
         "waiting");
-    metricService.remove(
-        MetricType.AUTO_GAUGE,
+    metricService.createAutoGauge(
         Metric.QUEUE.toString(),
+        MetricLevel.IMPORTANT,
+        flushManager,
+        FlushManager::getNumberOfWorkingEncodingTasks,
         Tag.NAME.toString(),
-        FLUSH,
+        FLUSH_ENCODING,
         Tag.STATUS.toString(),
         "running");
+    flushTotalTimer = createFlushStageTimer(metricService, FLUSH_STAGE_TOTAL);
+    flushSortTimer = createFlushStageTimer(metricService, FLUSH_STAGE_SORT);
+    flushEncodingTimer = createFlushStageTimer(metricService, FLUSH_STAGE_ENCODING);
+    flushIOTimer = createFlushStageTimer(metricService, FLUSH_STAGE_IO);
+  }
+
+  private Timer createFlushStageTimer(AbstractMetricService metricService, String stage) {
+    return metricService.getOrCreateTimer(
+        Metric.FLUSH_MEMTABLE_COST.toString(), MetricLevel.IMPORTANT, Tag.STAGE.toString(), stage);
+  }
+
+  @Override
+  public void unbindFrom(AbstractMetricService metricService) {
+    Arrays.asList(FLUSH, FLUSH_ENCODING)
+        .forEach(
+            name -> {
+              metricService.remove(
+                  MetricType.AUTO_GAUGE,
+                  Metric.QUEUE.toString(),
+                  Tag.NAME.toString(),
+                  name,
+                  Tag.STATUS.toString(),
+                  "waiting");
+              metricService.remove(
+                  MetricType.AUTO_GAUGE,
+                  Metric.QUEUE.toString(),
+                  Tag.NAME.toString(),
+                  name,
+                  Tag.STATUS.toString(),
+                  "running");
+            });
+    flushTotalTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    flushSortTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    flushEncodingTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    flushIOTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    Arrays.asList(FLUSH_STAGE_TOTAL, FLUSH_STAGE_SORT, FLUSH_STAGE_ENCODING, FLUSH_STAGE_IO)
+        .forEach(
+            stage ->
+                metricService.remove(
+                    MetricType.TIMER,
+                    Metric.FLUSH_MEMTABLE_COST.toString(),
+                    Tag.STAGE.toString(),
+                    stage));
+  }
+
+  /**
+   * Record the cost of flushing one memtable. Sort and encoding time are summed over all the
+   * encoding threads, so they may exceed the total wall-clock time of the flush.
+   */
+  public void recordFlushMemTableCost(
+      long totalTimeInMs, long sortTimeInMs, long encodingTimeInMs, long ioTimeInMs) {
+    flushTotalTimer.updateMillis(totalTimeInMs);
+    flushSortTimer.updateMillis(sortTimeInMs);
+    flushEncodingTimer.updateMillis(encodingTimeInMs);
+    flushIOTimer.updateMillis(ioTimeInMs);
   }
 
   @Override
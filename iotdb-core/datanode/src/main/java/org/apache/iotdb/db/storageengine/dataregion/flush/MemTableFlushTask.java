@@ -24,8 +24,10 @@ import org.apache.iotdb.commons.service.metric.enums.Tag;
 import org.apache.iotdb.commons.utils.CommonDateTimeUtils;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.runtime.FlushRunTimeException;
 import org.apache.iotdb.db.service.metrics.WritingMetrics;
 import org.apache.iotdb.db.storageengine.dataregion.DataRegion;
+import org.apache.iotdb.db.storageengine.dataregion.flush.pool.FlushEncodingPoolManager;
 import org.apache.iotdb.db.storageengine.dataregion.flush.pool.FlushSubTaskPoolManager;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.IMemTable;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.IWritableMemChunk;
@@ -49,16 +51,21 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * flush task to flush one memtable using a pipeline model to flush, which is sort memtable ->
- * encoding -> write to disk (io task)
+ * encoding -> write to disk (io task). Sorting and encoding of different chunk groups are fanned
+ * out to the shared {@link FlushEncodingPoolManager}, while the encoding task collects the results
+ * in device order so that the io task still writes chunk groups in order.
  */
 public class MemTableFlushTask {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MemTableFlushTask.class);
   private static final FlushSubTaskPoolManager SUB_TASK_POOL_MANAGER =
       FlushSubTaskPoolManager.getInstance();
+  private static final FlushEncodingPoolManager ENCODING_POOL_MANAGER =
+      FlushEncodingPoolManager.getInstance();
   private static final WritingMetrics WRITING_METRICS = WritingMetrics.getInstance();
   private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
   /* storage group name -> last time */
@@ -67,7 +74,10 @@ public class MemTableFlushTask {
   private final Future<?> ioTaskFuture;
   private RestorableTsFileIOWriter writer;
 
-  private final LinkedBlockingQueue<Object> encodingTaskQueue = new LinkedBlockingQueue<>();
+  /* bound the chunk groups being encoded ahead of the io task */
+  private final int encodingTaskQueueSize = ENCODING_POOL_MANAGER.getParallelism() * 2;
+  private final LinkedBlockingQueue<Object> encodingTaskQueue =
+      new LinkedBlockingQueue<>(encodingTaskQueueSize);
   private final LinkedBlockingQueue<Object> ioTaskQueue =
       (SystemInfo.getInstance().isEncodingFasterThanIo())
           ? new LinkedBlockingQueue<>(config.getIoTaskQueueSizeForFlushing())
@@ -78,7 +88,8 @@ public class MemTableFlushTask {
 
   private IMemTable memTable;
 
-  private volatile long memSerializeTime = 0L;
+  private final AtomicLong sortTime = new AtomicLong(0L);
+  private final AtomicLong memSerializeTime = new AtomicLong(0L);
   private volatile long ioTime = 0L;
 
   /**
@@ -117,6 +128,9 @@ public class MemTableFlushTask {
         memTable.getTotalPointsNum(),
         avgSeriesPointsNum);
 
+    // for map do not use get(key) to iterate
+    Map<IDeviceID, IWritableMemChunkGroup> memTableMap = memTable.getMemTableMap();
+
     long estimatedTemporaryMemSize = 0L;
     if (SystemInfo.getInstance().isEncodingFasterThanIo()) {
       estimatedTemporaryMemSize =
@@ -125,50 +139,47 @@ public class MemTableFlushTask {
               : memTable.memSize()
                   / memTable.getSeriesNumber()
                   * config.getIoTaskQueueSizeForFlushing();
+      // encoded chunk groups waiting in the encoding task queue
+      estimatedTemporaryMemSize +=
+          memTableMap.isEmpty()
+              ? 0
+              : memTable.memSize()
+                  / memTableMap.size()
+                  * Math.min(memTableMap.size(), encodingTaskQueueSize);
       SystemInfo.getInstance().applyTemporaryMemoryForFlushing(estimatedTemporaryMemSize);
     }
     long start = System.currentTimeMillis();
-    long sortTime = 0;
 
-    // for map do not use get(key) to iterate
-    Map<IDeviceID, IWritableMemChunkGroup> memTableMap = memTable.getMemTableMap();
     List<IDeviceID> deviceIDList = new ArrayList<>(memTableMap.keySet());
     // sort the IDeviceID in lexicographical order
     Collections.sort(deviceIDList);
     for (IDeviceID deviceID : deviceIDList) {
+      // the encoding task has exited, do not submit more work to the shared encoding pool
+      if (encodingTaskFuture.isDone()) {
+        break;
+      }
       final Map<String, IWritableMemChunk> value = memTableMap.get(deviceID).getMemChunkMap();
       // skip the empty device/chunk group
       if (memTableMap.get(deviceID).count() == 0 || value.isEmpty()) {
         continue;
       }
-      encodingTaskQueue.put(new StartFlushGroupIOTask(deviceID));
       List<String> seriesInOrder = new ArrayList<>(value.keySet());
       Collections.sort(seriesInOrder);
+      List<IWritableMemChunk> seriesList = new ArrayList<>(seriesInOrder.size());
       for (String seriesId : seriesInOrder) {
-        long startTime = System.currentTimeMillis();
         IWritableMemChunk series = value.get(seriesId);
-        if (series.count() == 0) {
-          continue;
+        if (series.count() != 0) {
+          seriesList.add(series);
         }
-        /*
-         * sort task (first task of flush pipeline)
-         */
-        series.sortTvListForFlush();
-        long subTaskTime = System.currentTimeMillis() - startTime;
-        sortTime += subTaskTime;
-        WRITING_METRICS.recordFlushSubTaskCost(WritingMetrics.SORT_TASK, subTaskTime);
-        encodingTaskQueue.put(series);
       }
-
-      encodingTaskQueue.put(new EndChunkGroupIoTask());
+      Future<List<IChunkWriter>> encodedChunkWriters =
+          ENCODING_POOL_MANAGER.submit(() -> sortAndEncodeChunkGroup(seriesList));
+      if (!putEncodingTask(new EncodeChunkGroupTask(deviceID, encodedChunkWriters))) {
+        encodedChunkWriters.cancel(true);
+        break;
+      }
     }
-    encodingTaskQueue.put(new TaskEnd());
-    LOGGER.debug(
-        "Database {} memtable flushing into file {}: data sort time cost {} ms.",
-        storageGroup,
-        writer.getFile().getName(),
-        sortTime);
-    WRITING_METRICS.recordFlushCost(WritingMetrics.FLUSH_STAGE_SORT, sortTime);
+    putEncodingTask(new TaskEnd());
 
     try {
       encodingTaskFuture.get();
@@ -179,6 +190,12 @@ public class MemTableFlushTask {
       }
       throw e;
     }
+    LOGGER.debug(
+        "Database {} memtable flushing into file {}: data sort time cost {} ms.",
+        storageGroup,
+        writer.getFile().getName(),
+        sortTime.get());
+    WRITING_METRICS.recordFlushCost(WritingMetrics.FLUSH_STAGE_SORT, sortTime.get());
 
     ioTaskFuture.get();
 
@@ -195,11 +212,18 @@ public class MemTableFlushTask {
     if (estimatedTemporaryMemSize != 0) {
       SystemInfo.getInstance().releaseTemporaryMemoryForFlushing(estimatedTemporaryMemSize);
     }
-    SystemInfo.getInstance().setEncodingFasterThanIo(ioTime >= memSerializeTime);
-
+    // encoding time is summed over all the encoding threads
+    SystemInfo.getInstance()
+        .setEncodingFasterThanIo(
+            ioTime >= memSerializeTime.get() / ENCODING_POOL_MANAGER.getParallelism());
+
+    long flushTime = System.currentTimeMillis() - start;
+    FlushManager.getInstance()
+        .getFlushManagerMetrics()
+        .recordFlushMemTableCost(flushTime, sortTime.get(), memSerializeTime.get(), ioTime);
     MetricService.getInstance()
         .timer(
-            System.currentTimeMillis() - start,
+            flushTime,
             TimeUnit.MILLISECONDS,
             Metric.COST_TASK.toString(),
             MetricLevel.CORE,
@@ -207,7 +231,48 @@ public class MemTableFlushTask {
             "flush");
   }
 
-  /** encoding task (second task of pipeline) */
+  /**
+   * Put a task into the bounded encoding task queue. Stop waiting if the encoding task has exited,
+   * otherwise the flush thread would be blocked forever.
+   *
+   * @return false if the encoding task has exited and the task is not queued
+   */
+  private boolean putEncodingTask(Object task) throws InterruptedException {
+    while (!encodingTaskQueue.offer(task, 100, TimeUnit.MILLISECONDS)) {
+      if (encodingTaskFuture.isDone()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** sort and encode all the series of one chunk group, run in the encoding pool */
+  private List<IChunkWriter> sortAndEncodeChunkGroup(List<IWritableMemChunk> seriesList) {
+    List<IChunkWriter> chunkWriters = new ArrayList<>(seriesList.size());
+    for (IWritableMemChunk series : seriesList) {
+      long startTime = System.currentTimeMillis();
+      /*
+       * sort task (first task of flush pipeline)
+       */
+      series.sortTvListForFlush();
+      long subTaskTime = System.currentTimeMillis() - startTime;
+      sortTime.addAndGet(subTaskTime);
+      WRITING_METRICS.recordFlushSubTaskCost(WritingMetrics.SORT_TASK, subTaskTime);
+
+      startTime = System.currentTimeMillis();
+      IChunkWriter seriesWriter = series.createIChunkWriter();
+      series.encode(seriesWriter);
+      seriesWriter.sealCurrentPage();
+      seriesWriter.clearPageWriter();
+      chunkWriters.add(seriesWriter);
+      subTaskTime = System.currentTimeMillis() - startTime;
+      memSerializeTime.addAndGet(subTaskTime);
+      WRITING_METRICS.recordFlushSubTaskCost(WritingMetrics.ENCODING_TASK, subTaskTime);
+    }
+    return chunkWriters;
+  }
+
+  /** encoding task (second task of pipeline), collects encoded chunk groups in device order */
   private Runnable encodingTask =
       new Runnable() {
 
@@ -228,38 +293,35 @@ public class MemTableFlushTask {
               Thread.currentThread().interrupt();
               break;
             }
-            if (task instanceof StartFlushGroupIOTask || task instanceof EndChunkGroupIoTask) {
-              try {
-                ioTaskQueue.put(task);
-              } catch (
-                  @SuppressWarnings("squid:S2142")
-                  InterruptedException e) {
-                LOGGER.error(
-                    "Database {} memtable flushing to file {}, encoding task is interrupted.",
-                    storageGroup,
-                    writer.getFile().getName(),
-                    e);
-                // generally it is because the thread pool is shutdown so the task should be aborted
-                break;
-              }
-            } else if (task instanceof TaskEnd) {
+            if (task instanceof TaskEnd) {
               break;
-            } else {
-              long starTime = System.currentTimeMillis();
-              IWritableMemChunk writableMemChunk = (IWritableMemChunk) task;
-              IChunkWriter seriesWriter = writableMemChunk.createIChunkWriter();
-              writableMemChunk.encode(seriesWriter);
-              seriesWriter.sealCurrentPage();
-              seriesWriter.clearPageWriter();
-              try {
-                ioTaskQueue.put(seriesWriter);
-              } catch (InterruptedException e) {
-                LOGGER.error("Put task into ioTaskQueue Interrupted");
-                Thread.currentThread().interrupt();
+            }
+            EncodeChunkGroupTask chunkGroupTask = (EncodeChunkGroupTask) task;
+            try {
+              List<IChunkWriter> chunkWriters = chunkGroupTask.encodedChunkWriters.get();
+              ioTaskQueue.put(new StartFlushGroupIOTask(chunkGroupTask.deviceId));
+              for (IChunkWriter chunkWriter : chunkWriters) {
+                ioTaskQueue.put(chunkWriter);
               }
-              long subTaskTime = System.currentTimeMillis() - starTime;
-              WRITING_METRICS.recordFlushSubTaskCost(WritingMetrics.ENCODING_TASK, subTaskTime);
-              memSerializeTime += subTaskTime;
+              ioTaskQueue.put(new EndChunkGroupIoTask());
+            } catch (
+                @SuppressWarnings("squid:S2142")
+                InterruptedException e) {
+              LOGGER.error(
+                  "Database {} memtable flushing to file {}, encoding task is interrupted.",
+                  storageGroup,
+                  writer.getFile().getName(),
+                  e);
+              // generally it is because the thread pool is shutdown so the task should be aborted
+              break;
+            } catch (ExecutionException e) {
+              LOGGER.error(
+                  "Database {} memtable flushing to file {}, fail to encode chunk group {}.",
+                  storageGroup,
+                  writer.getFile().getName(),
+                  chunkGroupTask.deviceId,
+                  e);
+              throw new FlushRunTimeException(e);
             }
           }
           try {
@@ -274,7 +336,8 @@ public class MemTableFlushTask {
                   databaseName ->
                       recordFlushPointsMetricInternal(
                           memTable.getTotalPointsNum(), databaseName, dataRegionId));
-          WRITING_METRICS.recordFlushCost(WritingMetrics.FLUSH_STAGE_ENCODING, memSerializeTime);
+          WRITING_METRICS.recordFlushCost(
+              WritingMetrics.FLUSH_STAGE_ENCODING, memSerializeTime.get());
         }
       };
 
@@ -365,6 +428,17 @@ public class MemTableFlushTask {
     EndChunkGroupIoTask() {}
   }
 
+  static class EncodeChunkGroupTask {
+
+    private final IDeviceID deviceId;
+    private final Future<List<IChunkWriter>> encodedChunkWriters;
+
+    EncodeChunkGroupTask(IDeviceID deviceId, Future<List<IChunkWriter>> encodedChunkWriters) {
+      this.deviceId = deviceId;
+      this.encodedChunkWriters = encodedChunkWriters;
+    }
+  }
+
   static class StartFlushGroupIOTask {
 
     private final IDeviceID deviceId;
@@ -110,6 +110,9 @@ public abstract class AbstractMemTable implements IMemTable {
    */
   private long tvListRamCost = 0;
 
+  /** Memory usage of the arrays of the off-heap TVLists, updated when arrays are allocated. */
+  private final AtomicLong offHeapTVListRamCost = new AtomicLong(0);
+
   private int seriesNumber = 0;
 
   private long totalPointsNum = 0;
@@ -174,7 +177,8 @@ public abstract class AbstractMemTable implements IMemTable {
   private IWritableMemChunkGroup createMemChunkGroupIfNotExistAndGet(
       IDeviceID deviceId, List<IMeasurementSchema> schemaList) {
     IWritableMemChunkGroup memChunkGroup =
-        memTableMap.computeIfAbsent(deviceId, k -> new WritableMemChunkGroup());
+        memTableMap.computeIfAbsent(
+            deviceId, k -> new WritableMemChunkGroup(offHeapTVListRamCost));
     for (IMeasurementSchema schema : schemaList) {
       if (schema != null && !memChunkGroup.contains(schema.getMeasurementId())) {
         seriesNumber++;
@@ -674,7 +678,13 @@ public abstract class AbstractMemTable implements IMemTable {
     IWritableMemChunk memChunk = memTableMap.get(deviceID).getMemChunkMap().get(measurementId);
 
     TVList tvListCopy = memChunk.getSortedTvListForQuery();
-    long[] timestamps = filterDeletedTimestamp(tvListCopy, deletionList);
+    long[] timestamps;
+    try {
+      timestamps = filterDeletedTimestamp(tvListCopy, deletionList);
+    } finally {
+      // the timestamps have been copied out of the list
+      tvListCopy.decreaseReferenceCount();
+    }
 
     chunkMetadataMap
         .computeIfAbsent(measurementId, k -> new ArrayList<>())
@@ -682,7 +692,7 @@ public abstract class AbstractMemTable implements IMemTable {
             buildChunkMetaDataForMemoryChunk(
                 measurementId,
                 timestamps[0],
-                timestamps[tvListCopy.rowCount() - 1],
+                timestamps[timestamps.length - 1],
                 Collections.emptyList()));
     memChunkHandleMap
         .computeIfAbsent(measurementId, k -> new ArrayList<>())
@@ -713,13 +723,17 @@ public abstract class AbstractMemTable implements IMemTable {
     AlignedTVList alignedTVListCopy =
         (AlignedTVList) alignedMemChunk.getSortedTvListForQuery(schemaList);
 
-    buildAlignedMemChunkHandle(
-        deviceID,
-        alignedTVListCopy,
-        deletionList,
-        schemaList,
-        chunkMetadataList,
-        memChunkHandleMap);
+    try {
+      buildAlignedMemChunkHandle(
+          deviceID,
+          alignedTVListCopy,
+          deletionList,
+          schemaList,
+          chunkMetadataList,
+          memChunkHandleMap);
+    } finally {
+      alignedTVListCopy.decreaseReferenceCount();
+    }
   }
 
   private void getMemAlignedChunkHandleFromMemTable(
@@ -736,21 +750,25 @@ public abstract class AbstractMemTable implements IMemTable {
 
     AlignedTVList alignedTVListCopy = (AlignedTVList) memChunk.getSortedTvListForQuery(schemaList);
 
-    List<List<TimeRange>> deletionList = new ArrayList<>();
-    if (modsToMemTabled != null) {
-      for (IMeasurementSchema schema : schemaList) {
-        deletionList.add(
-            ModificationUtils.constructDeletionList(
-                deviceID, schema.getMeasurementId(), this, modsToMemTabled, ttlLowerBound));
+    try {
+      List<List<TimeRange>> deletionList = new ArrayList<>();
+      if (modsToMemTabled != null) {
+        for (IMeasurementSchema schema : schemaList) {
+          deletionList.add(
+              ModificationUtils.constructDeletionList(
+                  deviceID, schema.getMeasurementId(), this, modsToMemTabled, ttlLowerBound));
+        }
       }
+      buildAlignedMemChunkHandle(
+          deviceID,
+          alignedTVListCopy,
+          deletionList,
+          schemaList,
+          chunkMetadataList,
+          memChunkHandleMap);
+    } finally {
+      alignedTVListCopy.decreaseReferenceCount();
     }
-    buildAlignedMemChunkHandle(
-        deviceID,
-        alignedTVListCopy,
-        deletionList,
-        schemaList,
-        chunkMetadataList,
-        memChunkHandleMap);
   }
 
   private void getMemChunkHandleFromMemTable(
@@ -769,20 +787,26 @@ public abstract class AbstractMemTable implements IMemTable {
       IWritableMemChunk writableMemChunk = entry.getValue();
       TVList tvListCopy = writableMemChunk.getSortedTvListForQuery();
 
-      List<TimeRange> deletionList = new ArrayList<>();
-      if (modsToMemTabled != null) {
-        deletionList =
-            ModificationUtils.constructDeletionList(
-                deviceID, measurementId, this, modsToMemTabled, ttlLowerBound);
+      long[] timestamps;
+      try {
+        List<TimeRange> deletionList = new ArrayList<>();
+        if (modsToMemTabled != null) {
+          deletionList =
+              ModificationUtils.constructDeletionList(
+                  deviceID, measurementId, this, modsToMemTabled, ttlLowerBound);
+        }
+        timestamps = filterDeletedTimestamp(tvListCopy, deletionList);
+      } finally {
+        // the timestamps have been copied out of the list
+        tvListCopy.decreaseReferenceCount();
       }
-      long[] timestamps = filterDeletedTimestamp(tvListCopy, deletionList);
       chunkMetadataMap
           .computeIfAbsent(measurementId, k -> new ArrayList<>())
           .add(
               buildChunkMetaDataForMemoryChunk(
                   measurementId,
                   timestamps[0],
-                  timestamps[tvListCopy.rowCount() - 1],
+                  timestamps[timestamps.length - 1],
                   Collections.emptyList()));
       memChunkHandleMap
           .computeIfAbsent(measurementId, k -> new ArrayList<>())
@@ -963,6 +987,11 @@ public abstract class AbstractMemTable implements IMemTable {
     return tvListRamCost;
   }
 
+  @Override
+  public long getOffHeapTVListsRamCost() {
+    return offHeapTVListRamCost.get();
+  }
+
   @Override
   public void addTextDataSize(long textDataSize) {
     this.memSize += textDataSize;
@@ -20,6 +20,7 @@
 package org.apache.iotdb.db.storageengine.dataregion.memtable;
 
 import org.apache.iotdb.common.rpc.thrift.TSStatus;
+import org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet;
 import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.IWALByteBufferView;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALWriteUtils;
 import org.apache.iotdb.db.utils.datastructure.AlignedTVList;
@@ -40,7 +41,6 @@ import java.io.DataInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -207,30 +207,41 @@ public class AlignedWritableMemChunk implements IWritableMemChunk {
    */
   private Pair<Object[], BitMap[]> checkAndReorderColumnValuesInInsertPlan(
       List<IMeasurementSchema> schemaListInInsertPlan, Object[] columnValues, BitMap[] bitMaps) {
-    Object[] reorderedColumnValues = new Object[schemaList.size()];
-    BitMap[] reorderedBitMaps = bitMaps == null ? null : new BitMap[schemaList.size()];
+    int[] columnIndexes = new int[schemaListInInsertPlan.size()];
+    // the columns of the insert plan are usually the same as this chunk and in the same order
+    boolean sameOrder = schemaListInInsertPlan.size() == schemaList.size();
     for (int i = 0; i < schemaListInInsertPlan.size(); i++) {
       IMeasurementSchema measurementSchema = schemaListInInsertPlan.get(i);
-      if (measurementSchema != null) {
-        Integer index = this.measurementIndexMap.get(measurementSchema.getMeasurementId());
-        // Index is null means this measurement was not in this AlignedTVList before.
-        // We need to extend a new column in AlignedMemChunk and AlignedTVList.
-        // And the reorderedColumnValues should extend one more column for the new measurement
-        if (index == null) {
-          index = measurementIndexMap.size();
-          this.measurementIndexMap.put(schemaListInInsertPlan.get(i).getMeasurementId(), index);
-          this.schemaList.add(schemaListInInsertPlan.get(i));
-          this.list.extendColumn(schemaListInInsertPlan.get(i).getType());
-          reorderedColumnValues =
-              Arrays.copyOf(reorderedColumnValues, reorderedColumnValues.length + 1);
-          if (reorderedBitMaps != null) {
-            reorderedBitMaps = Arrays.copyOf(reorderedBitMaps, reorderedBitMaps.length + 1);
-          }
-        }
-        reorderedColumnValues[index] = columnValues[i];
-        if (bitMaps != null) {
-          reorderedBitMaps[index] = bitMaps[i];
-        }
+      if (measurementSchema == null) {
+        columnIndexes[i] = -1;
+        sameOrder = false;
+        continue;
+      }
+      Integer index = this.measurementIndexMap.get(measurementSchema.getMeasurementId());
+      // Index is null means this measurement was not in this AlignedTVList before.
+      // We need to extend a new column in AlignedMemChunk and AlignedTVList.
+      if (index == null) {
+        index = measurementIndexMap.size();
+        this.measurementIndexMap.put(measurementSchema.getMeasurementId(), index);
+        this.schemaList.add(measurementSchema);
+        this.list.extendColumn(measurementSchema.getType());
+      }
+      columnIndexes[i] = index;
+      sameOrder = sameOrder && index == i;
+    }
+    if (sameOrder && columnValues.length == schemaList.size()) {
+      return new Pair<>(columnValues, bitMaps);
+    }
+    // the reordered columns also cover the new columns extended above
+    Object[] reorderedColumnValues = new Object[schemaList.size()];
+    BitMap[] reorderedBitMaps = bitMaps == null ? null : new BitMap[schemaList.size()];
+    for (int i = 0; i < columnIndexes.length; i++) {
+      if (columnIndexes[i] == -1) {
+        continue;
+      }
+      reorderedColumnValues[columnIndexes[i]] = columnValues[i];
+      if (bitMaps != null) {
+        reorderedBitMaps[columnIndexes[i]] = bitMaps[i];
       }
     }
     return new Pair<>(reorderedColumnValues, reorderedBitMaps);
@@ -286,7 +297,11 @@ public class AlignedWritableMemChunk implements IWritableMemChunk {
   private void sortTVList() {
     // check reference count
     if ((list.getReferenceCount() > 0 && !list.isSorted())) {
+      AlignedTVList referencedList = list;
       list = list.clone();
+      // cleared when the queries referencing it are done
+      referencedList.release();
+      SeriesScanCostMetricSet.getInstance().recordMemChunkCopiedPoints(true, list.rowCount());
     }
 
     if (!list.isSorted()) {
@@ -300,7 +315,7 @@ public class AlignedWritableMemChunk implements IWritableMemChunk {
   }
 
   @Override
-  public int delete(long lowerBound, long upperBound) {
+  public synchronized int delete(long lowerBound, long upperBound) {
     return list.delete(lowerBound, upperBound);
   }
 
@@ -468,27 +483,25 @@ public class AlignedWritableMemChunk implements IWritableMemChunk {
 
   @Override
   public void release() {
-    if (list.getReferenceCount() == 0) {
-      list.clear();
-    }
+    list.release();
   }
 
   @Override
-  public long getFirstPoint() {
+  public synchronized long getFirstPoint() {
     if (list.rowCount() == 0) {
       return Long.MAX_VALUE;
     }
-    return getSortedTvListForQuery().getTimeValuePair(0).getTimestamp();
+    sortTVList();
+    return list.getTime(0);
   }
 
   @Override
-  public long getLastPoint() {
+  public synchronized long getLastPoint() {
     if (list.rowCount() == 0) {
       return Long.MIN_VALUE;
     }
-    return getSortedTvListForQuery()
-        .getTimeValuePair(getSortedTvListForQuery().rowCount() - 1)
-        .getTimestamp();
+    sortTVList();
+    return list.getTime(list.rowCount() - 1);
   }
 
   @Override
@@ -84,6 +84,9 @@ public interface IMemTable extends WALEntryValue {
   /** only used when mem control enabled */
   long getTVListsRamCost();
 
+  /** Memory usage of the off-heap arrays held by the TVLists of this memtable. */
+  long getOffHeapTVListsRamCost();
+
   boolean reachChunkSizeOrPointNumThreshold();
 
   int getSeriesNumber();
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.memtable;
+
+import org.apache.iotdb.common.rpc.thrift.TSStatus;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertTabletNode;
+
+/**
+ * The rows [start, end) of a tablet that belong to the same time partition and the same kind
+ * (sequence or unsequence) of TsFileProcessor, which are inserted together with other ranges.
+ */
+public class InsertTabletRange {
+
+  private final InsertTabletNode insertTabletNode;
+  private final int start;
+  private final int end;
+  // the results of all rows in the tablet, shared by the ranges of the tablet
+  private final TSStatus[] results;
+  // whether all rows of the tablet have passed the checks before insertion
+  private final boolean noFailure;
+
+  public InsertTabletRange(
+      InsertTabletNode insertTabletNode,
+      int start,
+      int end,
+      TSStatus[] results,
+      boolean noFailure) {
+    this.insertTabletNode = insertTabletNode;
+    this.start = start;
+    this.end = end;
+    this.results = results;
+    this.noFailure = noFailure;
+  }
+
+  public InsertTabletNode getInsertTabletNode() {
+    return insertTabletNode;
+  }
+
+  public int getStart() {
+    return start;
+  }
+
+  public int getEnd() {
+    return end;
+  }
+
+  public TSStatus[] getResults() {
+    return results;
+  }
+
+  public boolean isNoFailure() {
+    return noFailure;
+  }
+}
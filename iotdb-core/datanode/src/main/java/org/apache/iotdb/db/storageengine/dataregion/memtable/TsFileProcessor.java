@@ -534,7 +534,106 @@ public class TsFileProcessor {
       PERFORMANCE_OVERVIEW_METRICS.recordScheduleWalCost(System.nanoTime() - startTime);
     }
 
-    startTime = System.nanoTime();
+    insertTabletToMemTable(insertTabletNode, start, end, results, noFailure, walFlushListener);
+  }
+
+  /**
+   * Insert several ranges of tablets into the workingMemtable. Their WAL entries are submitted
+   * together before waiting for any of them, so that they are flushed and synced by the WAL buffer
+   * at once. A range that fails only fails its own rows in {@link InsertTabletRange#getResults()}
+   * and does not prevent others from being inserted.
+   *
+   * @param ranges ranges of tablets that belong to this TsFileProcessor
+   */
+  public void insertTablets(List<InsertTabletRange> ranges) {
+    if (workMemTable == null) {
+      long startTime = System.nanoTime();
+      createNewWorkingMemTable();
+      PERFORMANCE_OVERVIEW_METRICS.recordCreateMemtableBlockCost(System.nanoTime() - startTime);
+      WritingMetrics.getInstance()
+          .recordActiveMemTableCount(dataRegionInfo.getDataRegion().getDataRegionId(), 1);
+    }
+
+    long[][] memIncrements = new long[ranges.size()][];
+    for (int i = 0; i < ranges.size(); i++) {
+      InsertTabletRange range = ranges.get(i);
+      try {
+        memIncrements[i] =
+            checkMemCost(
+                range.getInsertTabletNode(),
+                range.getStart(),
+                range.getEnd(),
+                range.getResults(),
+                range.isNoFailure());
+      } catch (WriteProcessException e) {
+        logger.warn("insert to TsFileProcessor rejected, {}", e.getMessage());
+      }
+    }
+
+    long startTime = System.nanoTime();
+    WALFlushListener[] walFlushListeners = new WALFlushListener[ranges.size()];
+    for (int i = 0; i < ranges.size(); i++) {
+      InsertTabletRange range = ranges.get(i);
+      if (memIncrements[i] == null) {
+        continue;
+      }
+      try {
+        walFlushListeners[i] =
+            walNode.log(
+                workMemTable.getMemTableId(),
+                range.getInsertTabletNode(),
+                range.getStart(),
+                range.getEnd());
+      } catch (Exception e) {
+        failTabletRange(range, memIncrements[i], e);
+      }
+    }
+    for (int i = 0; i < ranges.size(); i++) {
+      if (walFlushListeners[i] != null
+          && walFlushListeners[i].waitForResult() == WALFlushListener.Status.FAILURE) {
+        failTabletRange(ranges.get(i), memIncrements[i], walFlushListeners[i].getCause());
+        walFlushListeners[i] = null;
+      }
+    }
+    PERFORMANCE_OVERVIEW_METRICS.recordScheduleWalCost(System.nanoTime() - startTime);
+
+    for (int i = 0; i < ranges.size(); i++) {
+      if (walFlushListeners[i] == null) {
+        continue;
+      }
+      InsertTabletRange range = ranges.get(i);
+      try {
+        insertTabletToMemTable(
+            range.getInsertTabletNode(),
+            range.getStart(),
+            range.getEnd(),
+            range.getResults(),
+            range.isNoFailure(),
+            walFlushListeners[i]);
+      } catch (WriteProcessException e) {
+        logger.error("insert to TsFileProcessor error ", e);
+      }
+    }
+  }
+
+  private void failTabletRange(InsertTabletRange range, long[] memIncrements, Exception cause) {
+    logger.error("insert to TsFileProcessor error ", cause);
+    for (int i = range.getStart(); i < range.getEnd(); i++) {
+      range.getResults()[i] =
+          RpcUtils.getStatus(TSStatusCode.INTERNAL_SERVER_ERROR, cause.getMessage());
+    }
+    rollbackMemoryInfo(memIncrements);
+  }
+
+  private void insertTabletToMemTable(
+      InsertTabletNode insertTabletNode,
+      int start,
+      int end,
+      TSStatus[] results,
+      boolean noFailure,
+      WALFlushListener walFlushListener)
+      throws WriteProcessException {
+    long startTime = System.nanoTime();
 
     PipeDataNodeAgent.runtime().assignSimpleProgressIndexIfNeeded(insertTabletNode);
     if (!insertTabletNode.isGeneratedByPipe()) {
@@ -1388,6 +1487,7 @@ public class TsFileProcessor {
     updateLatestFlushTimeCallback.call(this, lastTimeForEachDevice, lastWorkMemtableFlushTime);
 
     SystemInfo.getInstance().addFlushingMemTableCost(tobeFlushed.getTVListsRamCost());
+    SystemInfo.getInstance().addFlushingOffHeapTVListCost(tobeFlushed);
     flushingMemTables.addLast(tobeFlushed);
     if (logger.isDebugEnabled()) {
       logger.debug(
@@ -1447,6 +1547,7 @@ public class TsFileProcessor {
       // Report to System
       SystemInfo.getInstance().resetStorageGroupStatus(dataRegionInfo);
       SystemInfo.getInstance().resetFlushingMemTableCost(memTable.getTVListsRamCost());
+      SystemInfo.getInstance().resetFlushingOffHeapTVListCost(memTable);
       if (logger.isDebugEnabled()) {
         logger.debug(
             "{}: {} flush finished, remove a memtable from flushing list, "
@@ -2229,6 +2330,16 @@ public class TsFileProcessor {
     return workMemTable != null ? workMemTable.getTVListsRamCost() : 0;
   }
 
+  public long getWorkMemTableOffHeapTVListRamCost() {
+    IMemTable memTable = workMemTable;
+    return memTable != null ? memTable.getOffHeapTVListsRamCost() : 0;
+  }
+
+  public boolean isWorkMemTableMarkedToFlush() {
+    IMemTable memTable = workMemTable;
+    return memTable != null && memTable.shouldFlush();
+  }
+
   /** Return Long.MAX_VALUE if workMemTable is null */
   public long getWorkMemTableCreatedTime() {
     return workMemTable != null ? workMemTable.getCreatedTime() : Long.MAX_VALUE;
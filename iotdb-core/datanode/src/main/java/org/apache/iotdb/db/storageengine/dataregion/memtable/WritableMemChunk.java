@@ -21,6 +21,7 @@ package org.apache.iotdb.db.storageengine.dataregion.memtable;
 import org.apache.iotdb.common.rpc.thrift.TSStatus;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet;
 import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.IWALByteBufferView;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 
@@ -39,6 +40,7 @@ import java.io.DataInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class WritableMemChunk implements IWritableMemChunk {
 
@@ -50,8 +52,12 @@ public class WritableMemChunk implements IWritableMemChunk {
   private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
 
   public WritableMemChunk(IMeasurementSchema schema) {
+    this(schema, null);
+  }
+
+  public WritableMemChunk(IMeasurementSchema schema, AtomicLong memTableOffHeapCost) {
     this.schema = schema;
-    this.list = TVList.newList(schema.getType());
+    this.list = TVList.newList(schema.getType(), memTableOffHeapCost);
   }
 
   private WritableMemChunk() {}
@@ -230,7 +236,11 @@ public class WritableMemChunk implements IWritableMemChunk {
   private void sortTVList() {
     // check reference count
     if ((list.getReferenceCount() > 0 && !list.isSorted())) {
+      TVList referencedList = list;
       list = list.clone();
+      // cleared when the queries referencing it are done
+      referencedList.release();
+      SeriesScanCostMetricSet.getInstance().recordMemChunkCopiedPoints(false, list.rowCount());
     }
 
     if (!list.isSorted()) {
@@ -264,21 +274,21 @@ public class WritableMemChunk implements IWritableMemChunk {
   }
 
   @Override
-  public long getFirstPoint() {
+  public synchronized long getFirstPoint() {
     if (list.rowCount() == 0) {
       return Long.MAX_VALUE;
     }
-    return getSortedTvListForQuery().getTimeValuePair(0).getTimestamp();
+    sortTVList();
+    return list.getTime(0);
   }
 
   @Override
-  public long getLastPoint() {
+  public synchronized long getLastPoint() {
     if (list.rowCount() == 0) {
       return Long.MIN_VALUE;
     }
-    return getSortedTvListForQuery()
-        .getTimeValuePair(getSortedTvListForQuery().rowCount() - 1)
-        .getTimestamp();
+    sortTVList();
+    return list.getTime(list.rowCount() - 1);
   }
 
   @Override
@@ -287,7 +297,7 @@ public class WritableMemChunk implements IWritableMemChunk {
   }
 
   @Override
-  public int delete(long lowerBound, long upperBound) {
+  public synchronized int delete(long lowerBound, long upperBound) {
     return list.delete(lowerBound, upperBound);
   }
 
@@ -380,9 +390,7 @@ public class WritableMemChunk implements IWritableMemChunk {
 
   @Override
   public void release() {
-    if (list.getReferenceCount() == 0) {
-      list.clear();
-    }
+    list.release();
   }
 
   @Override
@@ -36,13 +36,22 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class WritableMemChunkGroup implements IWritableMemChunkGroup {
 
   private Map<String, IWritableMemChunk> memChunkMap;
 
+  // off-heap memory of the lists of the owning memtable, null if there is no owner
+  private final AtomicLong memTableOffHeapCost;
+
   public WritableMemChunkGroup() {
+    this(null);
+  }
+
+  public WritableMemChunkGroup(AtomicLong memTableOffHeapCost) {
     memChunkMap = new HashMap<>();
+    this.memTableOffHeapCost = memTableOffHeapCost;
   }
 
   @Override
@@ -74,7 +83,7 @@ public class WritableMemChunkGroup implements IWritableMemChunkGroup {
 
   private IWritableMemChunk createMemChunkIfNotExistAndGet(IMeasurementSchema schema) {
     return memChunkMap.computeIfAbsent(
-        schema.getMeasurementId(), k -> new WritableMemChunk(schema));
+        schema.getMeasurementId(), k -> new WritableMemChunk(schema, memTableOffHeapCost));
   }
 
   @Override
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.modification;
+
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class caches the parsed modifications of mods files, so that queries on a TsFile with
+ * deletions do not parse its mods file again. Each entry remembers how many bytes of the mods file
+ * it has covered. Modifications appended to a binary mods file later are read incrementally, and
+ * other changes of the file reload it as a whole. The caching strategy is LRU.
+ */
+@SuppressWarnings("squid:S6548")
+public class ModificationCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ModificationCache.class);
+
+  // parsed modifications take several times the space of their serialized form
+  private static final int MEMORY_EXPANSION_RATIO = 4;
+
+  private final long maxEntryFileSize;
+  private final Cache<String, CachedModifications> lruCache;
+
+  private ModificationCache() {
+    long cacheSize = IoTDBDescriptor.getInstance().getConfig().getModsCacheSizeInByte();
+    LOGGER.info("ModificationCache size = {}", cacheSize);
+    // a mods file taking more than half of the cache is read by seeking its index instead
+    maxEntryFileSize = cacheSize / 2 / MEMORY_EXPANSION_RATIO;
+    lruCache =
+        Caffeine.newBuilder()
+            .maximumWeight(cacheSize)
+            .weigher(
+                (Weigher<String, CachedModifications>)
+                    (filePath, modifications) ->
+                        (int)
+                            Math.min(
+                                Integer.MAX_VALUE,
+                                filePath.length() * 2L
+                                    + modifications.coveredLength * MEMORY_EXPANSION_RATIO))
+            .build();
+  }
+
+  public static ModificationCache getInstance() {
+    return ModificationCacheHolder.INSTANCE;
+  }
+
+  /** Whether the modifications of modFile are small enough to be kept in this cache. */
+  public boolean isCacheable(ModificationFile modFile) {
+    return modFile.getSize() <= maxEntryFileSize;
+  }
+
+  /**
+   * Get all modifications of modFile. The returned list is shared by all readers and must not be
+   * modified, nor the modifications in it.
+   */
+  public List<Modification> get(ModificationFile modFile) {
+    String filePath = modFile.getFilePath();
+    long fileLength = new File(filePath).length();
+    CachedModifications cached = lruCache.getIfPresent(filePath);
+    if (cached != null && cached.coveredLength == fileLength) {
+      return cached.modifications;
+    }
+    if (!isCacheable(modFile)) {
+      List<Modification> modifications = new ArrayList<>();
+      modFile.readModifications(0, modifications);
+      return modifications;
+    }
+    return lruCache
+        .asMap()
+        .compute(filePath, (k, old) -> load(modFile, old, fileLength))
+        .modifications;
+  }
+
+  private CachedModifications load(
+      ModificationFile modFile, CachedModifications old, long fileLength) {
+    if (old != null && old.coveredLength == fileLength) {
+      return old;
+    }
+    List<Modification> modifications = new ArrayList<>();
+    long from = 0;
+    // records are only appended to a binary mods file until it is truncated, which invalidates
+    // the entry, so the records after the covered part are all that is new
+    if (old != null && old.coveredLength < fileLength && modFile.isBinaryFormat()) {
+      modifications.addAll(old.modifications);
+      from = old.coveredLength;
+    }
+    long coveredLength = modFile.readModifications(from, modifications);
+    return new CachedModifications(Collections.unmodifiableList(modifications), coveredLength);
+  }
+
+  /** Remove the modifications of a mods file, which must be called after it is not appended. */
+  public void invalidate(String filePath) {
+    lruCache.invalidate(filePath);
+  }
+
+  @TestOnly
+  public void clear() {
+    lruCache.invalidateAll();
+  }
+
+  private static class CachedModifications {
+
+    private final List<Modification> modifications;
+    private final long coveredLength;
+
+    private CachedModifications(List<Modification> modifications, long coveredLength) {
+      this.modifications = modifications;
+      this.coveredLength = coveredLength;
+    }
+  }
+
+  /** singleton pattern. */
+  private static class ModificationCacheHolder {
+    private static final ModificationCache INSTANCE = new ModificationCache();
+  }
+}
@@ -19,6 +19,9 @@
 
 package org.apache.iotdb.db.storageengine.dataregion.modification;
 
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.storageengine.dataregion.modification.io.LocalBinaryModificationAccessor;
 import org.apache.iotdb.db.storageengine.dataregion.modification.io.LocalTextModificationAccessor;
 import org.apache.iotdb.db.storageengine.dataregion.modification.io.ModificationReader;
 import org.apache.iotdb.db.storageengine.dataregion.modification.io.ModificationWriter;
@@ -41,12 +44,18 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * ModificationFile stores the Modifications of a TsFile or unseq file in another file in the same
  * directory. Methods in this class are highly synchronized for concurrency safety.
+ *
+ * <p>New mods files are written in the text format of {@link LocalTextModificationAccessor}, or in
+ * the binary format of {@link LocalBinaryModificationAccessor} if enable_binary_mods_file is set.
+ * An existing file is always read and appended in its own format. Files are rewritten in the format
+ * of new files when they are compacted, so text files are upgraded once the binary format is
+ * enabled.
  */
 public class ModificationFile implements AutoCloseable {
 
@@ -58,8 +67,9 @@ public class ModificationFile implements AutoCloseable {
   // whether to verify the last line, it may be incomplete in extreme cases
   private boolean needVerify = true;
 
-  private final ModificationWriter writer;
-  private final ModificationReader reader;
+  // null until the format of the file is known
+  private ModificationWriter writer;
+  private ModificationReader reader;
   private String filePath;
   private final SecureRandom random = new SecureRandom();
 
@@ -73,17 +83,82 @@ public class ModificationFile implements AutoCloseable {
    * @param filePath the path of the storage file.
    */
   public ModificationFile(String filePath) {
-    LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(filePath);
-    this.writer = accessor;
-    this.reader = accessor;
     this.filePath = filePath;
   }
 
+  private static boolean isBinaryFormatForNewFiles() {
+    return IoTDBDescriptor.getInstance().getConfig().isEnableBinaryModsFile();
+  }
+
+  /**
+   * Choose the accessor by the content of the file. The format of a file that does not exist or is
+   * empty is not fixed until the file is written, since the file may be created by others in the
+   * meantime.
+   */
+  private synchronized void resolveAccessor() {
+    if (reader != null) {
+      return;
+    }
+    File file = new File(filePath);
+    if (file.length() > 0) {
+      useAccessor(LocalBinaryModificationAccessor.isBinaryFormat(file));
+    }
+  }
+
+  private void useAccessor(boolean binaryFormat) {
+    if (binaryFormat) {
+      LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(filePath);
+      this.writer = accessor;
+      this.reader = accessor;
+    } else {
+      LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(filePath);
+      this.writer = accessor;
+      this.reader = accessor;
+    }
+  }
+
+  private synchronized ModificationWriter getWriter() {
+    resolveAccessor();
+    if (writer == null) {
+      useAccessor(isBinaryFormatForNewFiles());
+    }
+    return writer;
+  }
+
+  private synchronized ModificationReader getReader() {
+    resolveAccessor();
+    if (reader != null) {
+      return reader;
+    }
+    // nothing to read yet
+    return isBinaryFormatForNewFiles()
+        ? new LocalBinaryModificationAccessor(filePath)
+        : new LocalTextModificationAccessor(filePath);
+  }
+
+  /** Forget the format of the file, which may change after the file is truncated or removed. */
+  private synchronized void resetAccessor() throws IOException {
+    if (writer != null) {
+      writer.close();
+    }
+    writer = null;
+    reader = null;
+  }
+
+  public synchronized boolean isBinaryFormat() {
+    resolveAccessor();
+    return reader == null
+        ? isBinaryFormatForNewFiles()
+        : reader instanceof LocalBinaryModificationAccessor;
+  }
+
   /** Release resources such as streams and caches. */
   @Override
   public void close() throws IOException {
     synchronized (this) {
-      writer.close();
+      if (writer != null) {
+        writer.close();
+      }
     }
   }
 
@@ -96,11 +171,12 @@ public class ModificationFile implements AutoCloseable {
    */
   public void write(Modification mod) throws IOException {
     synchronized (this) {
+      ModificationWriter modificationWriter = getWriter();
       if (needVerify && new File(filePath).exists()) {
-        writer.mayTruncateLastLine();
+        modificationWriter.mayTruncateLastLine();
         needVerify = false;
       }
-      writer.write(mod);
+      modificationWriter.write(mod);
     }
   }
 
@@ -114,17 +190,28 @@ public class ModificationFile implements AutoCloseable {
    */
   public void writeWithoutSync(Modification mod) throws IOException {
     synchronized (this) {
+      ModificationWriter modificationWriter = getWriter();
       if (needVerify && new File(filePath).exists()) {
-        writer.mayTruncateLastLine();
+        modificationWriter.mayTruncateLastLine();
         needVerify = false;
       }
-      writer.writeWithOutSync(mod);
+      modificationWriter.writeWithOutSync(mod);
     }
   }
 
   @GuardedBy("TsFileResource-WriteLock")
   public void truncate(long size) {
-    writer.truncate(size);
+    synchronized (this) {
+      getWriter().truncate(size);
+      ModificationCache.getInstance().invalidate(filePath);
+      if (size == 0) {
+        try {
+          resetAccessor();
+        } catch (IOException e) {
+          logger.warn("Cannot close the writer of {}", filePath, e);
+        }
+      }
+    }
   }
 
   /**
@@ -134,12 +221,55 @@ public class ModificationFile implements AutoCloseable {
    */
   public Collection<Modification> getModifications() {
     synchronized (this) {
-      return reader.read();
+      return getReader().read();
     }
   }
 
   public Iterable<Modification> getModificationsIter() {
-    return reader::getModificationIterator;
+    return () -> getReader().getModificationIterator();
+  }
+
+  /**
+   * Get all modifications stored in this file through {@link ModificationCache}, so that the file
+   * is not parsed again by every query. The modifications are shared and must not be modified.
+   */
+  public List<Modification> getCachedModifications() {
+    return ModificationCache.getInstance().get(this);
+  }
+
+  /**
+   * Get the modifications whose path pattern is accepted by pathFilter. Only the index groups that
+   * may match are read if the file is indexed, otherwise the whole file is scanned.
+   */
+  public List<Modification> getModifications(Predicate<PartialPath> pathFilter) {
+    ModificationReader modificationReader = getReader();
+    if (modificationReader instanceof LocalBinaryModificationAccessor) {
+      return ((LocalBinaryModificationAccessor) modificationReader)
+          .read(pathFilter, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+    List<Modification> result = new ArrayList<>();
+    for (Modification modification : getModificationsIter()) {
+      if (pathFilter.test(modification.getPath())) {
+        result.add(modification);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Read the modifications after the given position of the file into result. Positions other than 0
+   * are only supported by the binary format.
+   *
+   * @return the position up to which the file has been read.
+   */
+  long readModifications(long position, List<Modification> result) {
+    ModificationReader modificationReader = getReader();
+    if (modificationReader instanceof LocalBinaryModificationAccessor) {
+      return ((LocalBinaryModificationAccessor) modificationReader).readFrom(position, result);
+    }
+    long fileLength = getSize();
+    result.addAll(modificationReader.read());
+    return fileLength;
   }
 
   public String getFilePath() {
@@ -147,14 +277,24 @@ public class ModificationFile implements AutoCloseable {
   }
 
   public void setFilePath(String filePath) {
-    this.filePath = filePath;
+    synchronized (this) {
+      try {
+        resetAccessor();
+      } catch (IOException e) {
+        logger.warn("Cannot close the writer of {}", this.filePath, e);
+      }
+      this.filePath = filePath;
+    }
   }
 
   public void remove() throws IOException {
-    close();
-    boolean deleted = FSFactoryProducer.getFSFactory().getFile(filePath).delete();
-    if (!deleted) {
-      logger.warn("Delete ModificationFile {} failed.", filePath);
+    synchronized (this) {
+      resetAccessor();
+      boolean deleted = FSFactoryProducer.getFSFactory().getFile(filePath).delete();
+      if (!deleted) {
+        logger.warn("Delete ModificationFile {} failed.", filePath);
+      }
+      ModificationCache.getInstance().invalidate(filePath);
     }
   }
 
@@ -216,16 +356,11 @@ public class ModificationFile implements AutoCloseable {
           getModifications().stream().collect(Collectors.groupingBy(Modification::getPathString));
       String newModsFileName = filePath + COMPACT_SUFFIX;
       List<Modification> allSettledModifications = new ArrayList<>();
+      for (List<Modification> modifications : pathModificationMap.values()) {
+        allSettledModifications.addAll(sortAndMerge(modifications));
+      }
       try (ModificationFile compactedModificationFile = new ModificationFile(newModsFileName)) {
-        Set<Map.Entry<String, List<Modification>>> modificationsEntrySet =
-            pathModificationMap.entrySet();
-        for (Map.Entry<String, List<Modification>> modificationEntry : modificationsEntrySet) {
-          List<Modification> settledModifications = sortAndMerge(modificationEntry.getValue());
-          for (Modification settledModification : settledModifications) {
-            compactedModificationFile.write(settledModification);
-          }
-          allSettledModifications.addAll(settledModifications);
-        }
+        compactedModificationFile.rewrite(allSettledModifications);
       } catch (IOException e) {
         logger.error("compact mods file exception of {}", filePath, e);
       }
@@ -250,6 +385,31 @@ public class ModificationFile implements AutoCloseable {
     }
   }
 
+  /**
+   * Rewrite this file with the given modifications in the format of new files, and sync them once.
+   * The binary format also indexes them by path, so modifications of the same path should be
+   * adjacent.
+   */
+  public void rewrite(List<Modification> modifications) throws IOException {
+    synchronized (this) {
+      resetAccessor();
+      if (isBinaryFormatForNewFiles()) {
+        new LocalBinaryModificationAccessor(filePath).writeIndexed(modifications);
+      } else {
+        Files.deleteIfExists(new File(filePath).toPath());
+        try (LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(filePath)) {
+          for (Modification modification : modifications) {
+            accessor.writeWithOutSync(modification);
+          }
+          if (!modifications.isEmpty()) {
+            accessor.force();
+          }
+        }
+      }
+      ModificationCache.getInstance().invalidate(filePath);
+    }
+  }
+
   public static List<Modification> sortAndMerge(List<Modification> modifications) {
     modifications.sort(
         (o1, o2) -> {
@@ -0,0 +1,664 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.modification.io;
+
+import org.apache.iotdb.commons.path.MeasurementPath;
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.storageengine.dataregion.modification.Deletion;
+import org.apache.iotdb.db.storageengine.dataregion.modification.Modification;
+
+import org.apache.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.tsfile.utils.PublicBAOS;
+import org.apache.tsfile.utils.ReadWriteIOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * LocalBinaryModificationAccessor uses a file on local file system to store the modifications in a
+ * binary format. The file starts with a fixed size header, followed by length-prefixed and
+ * checksummed records. New modifications are appended to the tail of the file.
+ *
+ * <p>When a mods file is rewritten as a whole by {@link #writeIndexed(List)}, its records are
+ * grouped by path pattern and an index describing the offset and time range of every group is
+ * written after them, so that a reader interested in some series only seeks the groups that may
+ * affect it. Records appended afterwards are stored behind the index and are scanned sequentially.
+ *
+ * <pre>
+ * header: magic(6 bytes) | version(1 byte) | reserved(1 byte) | indexOffset(long) | indexLength(long)
+ * record: length(int) | type(byte) | pathNodes(int, string...) | fileOffset(long) | startTime(long)
+ *         | endTime(long) | crc32(int)
+ * index:  entryNum(int) | [pathNodes(int, string...) | offset(long) | length(long)
+ *         | minStartTime(long) | maxEndTime(long)] * entryNum | crc32(int)
+ * </pre>
+ */
+public class LocalBinaryModificationAccessor
+    implements ModificationReader, ModificationWriter, AutoCloseable {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(LocalBinaryModificationAccessor.class);
+  private static final String NO_MODIFICATION_MSG =
+      "No modification has been written to this file[{}]";
+
+  private static final byte[] MAGIC = {0, 'I', 'M', 'O', 'D', 'S'};
+  private static final byte VERSION = 1;
+  private static final int INDEX_OFFSET_POSITION = MAGIC.length + 2;
+  public static final int HEADER_SIZE = INDEX_OFFSET_POSITION + Long.BYTES * 2;
+
+  private static final byte DELETION_TYPE = 0;
+  // a record longer than this must come from a corrupted length field
+  private static final int MAX_RECORD_SIZE = 1024 * 1024;
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+  private final String filePath;
+  private FileOutputStream fos;
+
+  /**
+   * Construct a LocalBinaryModificationAccessor using a file specified by filePath.
+   *
+   * @param filePath the path of the file that is used for storing modifications.
+   */
+  public LocalBinaryModificationAccessor(String filePath) {
+    this.filePath = filePath;
+  }
+
+  /**
+   * Check whether a mods file is written in the binary format. Mods files written by older versions
+   * are in the text format of {@link LocalTextModificationAccessor}.
+   */
+  public static boolean isBinaryFormat(File file) {
+    byte[] magic = new byte[MAGIC.length];
+    try (FileInputStream inputStream = new FileInputStream(file)) {
+      int read = 0;
+      while (read < magic.length) {
+        int n = inputStream.read(magic, read, magic.length - read);
+        if (n < 0) {
+          return false;
+        }
+        read += n;
+      }
+    } catch (IOException e) {
+      return false;
+    }
+    return Arrays.equals(MAGIC, magic);
+  }
+
+  @Override
+  public Collection<Modification> read() {
+    List<Modification> result = new ArrayList<>();
+    Iterator<Modification> iterator = getModificationIterator();
+    while (iterator.hasNext()) {
+      result.add(iterator.next());
+    }
+    return result;
+  }
+
+  // we need to hold the scanner for the Iterator, cannot use auto close or close in finally block
+  @SuppressWarnings("java:S2095")
+  @Override
+  public Iterator<Modification> getModificationIterator() {
+    final FileInputStream inputStream;
+    final long[] header;
+    try {
+      inputStream = new FileInputStream(FSFactoryProducer.getFSFactory().getFile(filePath));
+      header = readHeader(inputStream.getChannel());
+    } catch (IOException e) {
+      logger.debug(NO_MODIFICATION_MSG, filePath);
+      return Collections.emptyIterator();
+    }
+    if (header == null) {
+      closeQuietly(inputStream);
+      return Collections.emptyIterator();
+    }
+
+    final long fileLength = header[2];
+    return new Iterator<Modification>() {
+      // records before the index are scanned first, then records appended after the index
+      private RecordScanner scanner =
+          header[0] > 0
+              ? new RecordScanner(inputStream.getChannel(), HEADER_SIZE, header[0])
+              : new RecordScanner(inputStream.getChannel(), HEADER_SIZE, fileLength);
+      private boolean scanningTail = header[0] <= 0;
+      private Modification cachedModification;
+
+      @Override
+      public boolean hasNext() {
+        if (cachedModification != null) {
+          return true;
+        }
+        try {
+          cachedModification = scanner.next();
+          if (cachedModification == null && !scanningTail) {
+            scanningTail = true;
+            scanner =
+                new RecordScanner(inputStream.getChannel(), header[0] + header[1], fileLength);
+            cachedModification = scanner.next();
+          }
+        } catch (IOException e) {
+          logger.warn("An error occurred when reading modifications", e);
+          cachedModification = null;
+        }
+        if (cachedModification == null) {
+          closeQuietly(inputStream);
+          return false;
+        }
+        return true;
+      }
+
+      @Override
+      public Modification next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        Modification result = cachedModification;
+        cachedModification = null;
+        return result;
+      }
+    };
+  }
+
+  /**
+   * Read the modifications whose path pattern is accepted by pathFilter and whose time range
+   * overlaps [startTime, endTime]. Indexed groups that cannot match are skipped without being read.
+   */
+  public List<Modification> read(Predicate<PartialPath> pathFilter, long startTime, long endTime) {
+    List<Modification> result = new ArrayList<>();
+    try (FileInputStream inputStream =
+        new FileInputStream(FSFactoryProducer.getFSFactory().getFile(filePath))) {
+      FileChannel channel = inputStream.getChannel();
+      long[] header = readHeader(channel);
+      if (header == null) {
+        return result;
+      }
+      long tailOffset = HEADER_SIZE;
+      if (header[0] > 0) {
+        List<IndexEntry> entries;
+        try {
+          entries = readIndex(channel, header[0], header[1]);
+        } catch (IOException e) {
+          // fall back to scanning all indexed records, so that no deletion is missed
+          logger.warn("Cannot read the index of modifications {}, scan it instead", filePath, e);
+          entries =
+              Collections.singletonList(new IndexEntry(null, HEADER_SIZE, header[0] - HEADER_SIZE));
+        }
+        for (IndexEntry entry : entries) {
+          if (entry.path == null
+              || (entry.minStartTime <= endTime
+                  && entry.maxEndTime >= startTime
+                  && pathFilter.test(entry.path))) {
+            scanRecords(
+                new RecordScanner(channel, entry.offset, entry.offset + entry.length),
+                pathFilter,
+                startTime,
+                endTime,
+                result);
+          }
+        }
+        tailOffset = header[0] + header[1];
+      }
+      scanRecords(
+          new RecordScanner(channel, tailOffset, header[2]),
+          pathFilter,
+          startTime,
+          endTime,
+          result);
+    } catch (FileNotFoundException e) {
+      logger.debug(NO_MODIFICATION_MSG, filePath);
+    } catch (IOException e) {
+      logger.warn("An error occurred when reading modifications of {}", filePath, e);
+    }
+    return result;
+  }
+
+  /**
+   * Read the records starting from position, which must be the end of a record or the end of the
+   * header, into result.
+   *
+   * @return the position after the last complete record.
+   */
+  public long readFrom(long position, List<Modification> result) {
+    try (FileInputStream inputStream =
+        new FileInputStream(FSFactoryProducer.getFSFactory().getFile(filePath))) {
+      FileChannel channel = inputStream.getChannel();
+      long[] header = readHeader(channel);
+      if (header == null) {
+        return 0;
+      }
+      RecordScanner scanner;
+      if (header[0] > 0 && position < header[0]) {
+        scanner = new RecordScanner(channel, Math.max(position, HEADER_SIZE), header[0]);
+        scanRecords(scanner, null, Long.MIN_VALUE, Long.MAX_VALUE, result);
+        position = header[0] + header[1];
+      }
+      scanner = new RecordScanner(channel, Math.max(position, HEADER_SIZE), header[2]);
+      scanRecords(scanner, null, Long.MIN_VALUE, Long.MAX_VALUE, result);
+      return scanner.getValidPosition();
+    } catch (FileNotFoundException e) {
+      logger.debug(NO_MODIFICATION_MSG, filePath);
+    } catch (IOException e) {
+      logger.warn("An error occurred when reading modifications of {}", filePath, e);
+    }
+    return position;
+  }
+
+  private static void scanRecords(
+      RecordScanner scanner,
+      Predicate<PartialPath> pathFilter,
+      long startTime,
+      long endTime,
+      List<Modification> result)
+      throws IOException {
+    Modification modification;
+    while ((modification = scanner.next()) != null) {
+      Deletion deletion = (Deletion) modification;
+      if (deletion.getStartTime() <= endTime
+          && deletion.getEndTime() >= startTime
+          && (pathFilter == null || pathFilter.test(deletion.getPath()))) {
+        result.add(deletion);
+      }
+    }
+  }
+
+  /** Whether the file has an index section, i.e., it was written by {@link #writeIndexed(List)}. */
+  public boolean isIndexed() {
+    try (FileInputStream inputStream =
+        new FileInputStream(FSFactoryProducer.getFSFactory().getFile(filePath))) {
+      long[] header = readHeader(inputStream.getChannel());
+      return header != null && header[0] > 0;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (fos != null) {
+      fos.close();
+      fos = null;
+    }
+  }
+
+  @Override
+  public void force() throws IOException {
+    fos.flush();
+    fos.getFD().sync();
+  }
+
+  @Override
+  public void write(Modification mod) throws IOException {
+    writeWithOutSync(mod);
+    force();
+  }
+
+  @Override
+  public void writeWithOutSync(Modification mod) throws IOException {
+    openForAppend();
+    fos.write(encodeRecord(mod));
+  }
+
+  private void openForAppend() throws IOException {
+    if (fos == null) {
+      File file = FSFactoryProducer.getFSFactory().getFile(filePath);
+      // a file shorter than the header has no record, rewrite it from the beginning
+      boolean hasHeader = file.length() >= HEADER_SIZE;
+      fos = new FileOutputStream(file, hasHeader);
+      if (!hasHeader) {
+        fos.write(encodeHeader(0, 0));
+      }
+    }
+  }
+
+  /**
+   * Rewrite this file with the given modifications, which should be sorted by path, and build an
+   * index for them. Modifications of the same path must be adjacent to be put into the same group.
+   */
+  public void writeIndexed(List<Modification> modifications) throws IOException {
+    close();
+    List<IndexEntry> entries = new ArrayList<>();
+    try (FileOutputStream outputStream =
+            new FileOutputStream(FSFactoryProducer.getFSFactory().getFile(filePath), false);
+        DataOutputStream dataOutputStream =
+            new DataOutputStream(new BufferedOutputStream(outputStream))) {
+      dataOutputStream.write(encodeHeader(0, 0));
+      long position = HEADER_SIZE;
+      IndexEntry current = null;
+      for (Modification modification : modifications) {
+        Deletion deletion = (Deletion) modification;
+        if (current == null || !current.path.equals(deletion.getPath())) {
+          current = new IndexEntry(deletion.getPath(), position);
+          entries.add(current);
+        }
+        byte[] record = encodeRecord(deletion);
+        dataOutputStream.write(record);
+        position += record.length;
+        current.length += record.length;
+        current.minStartTime = Math.min(current.minStartTime, deletion.getStartTime());
+        current.maxEndTime = Math.max(current.maxEndTime, deletion.getEndTime());
+      }
+      byte[] index = encodeIndex(entries);
+      dataOutputStream.write(index);
+      dataOutputStream.flush();
+
+      outputStream.getChannel().write(ByteBuffer.wrap(encodeHeader(position, index.length)), 0);
+      outputStream.getFD().sync();
+    }
+  }
+
+  @TestOnly
+  public void writeInComplete(Modification mod) throws IOException {
+    openForAppend();
+    byte[] record = encodeRecord(mod);
+    fos.write(record, 0, record.length / 2);
+    force();
+  }
+
+  @Override
+  public void truncate(long size) {
+    try (FileOutputStream outputStream =
+        new FileOutputStream(FSFactoryProducer.getFSFactory().getFile(filePath), true)) {
+      outputStream.getChannel().truncate(size);
+      logger.warn("The modifications[{}] will be truncated to size {}.", filePath, size);
+    } catch (FileNotFoundException e) {
+      logger.debug(NO_MODIFICATION_MSG, filePath);
+    } catch (IOException e) {
+      logger.error(
+          "An error occurred when truncating modifications[{}] to size {}.", filePath, size, e);
+    }
+  }
+
+  /** Truncate the incomplete or corrupted records at the tail of the file. */
+  @Override
+  public void mayTruncateLastLine() {
+    long validPosition = readFrom(HEADER_SIZE, new ArrayList<>());
+    long fileLength = FSFactoryProducer.getFSFactory().getFile(filePath).length();
+    if (validPosition < fileLength) {
+      logger.warn("The last record of Mods is incomplete, will be truncated");
+      truncate(validPosition);
+    }
+  }
+
+  /**
+   * @return {indexOffset, indexLength, fileLength}, or null if the file does not have a valid
+   *     header.
+   */
+  private static long[] readHeader(FileChannel channel) throws IOException {
+    long fileLength = channel.size();
+    if (fileLength < HEADER_SIZE) {
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, buffer.position()) < 0) {
+        return null;
+      }
+    }
+    buffer.flip();
+    byte[] magic = new byte[MAGIC.length];
+    buffer.get(magic);
+    if (!Arrays.equals(MAGIC, magic) || buffer.get() != VERSION) {
+      return null;
+    }
+    buffer.position(INDEX_OFFSET_POSITION);
+    long indexOffset = buffer.getLong();
+    long indexLength = buffer.getLong();
+    if (indexOffset < HEADER_SIZE || indexOffset + indexLength > fileLength) {
+      indexOffset = 0;
+      indexLength = 0;
+    }
+    return new long[] {indexOffset, indexLength, fileLength};
+  }
+
+  private static byte[] encodeHeader(long indexOffset, long indexLength) {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+    buffer.put(MAGIC);
+    buffer.put(VERSION);
+    buffer.put((byte) 0);
+    buffer.putLong(indexOffset);
+    buffer.putLong(indexLength);
+    return buffer.array();
+  }
+
+  private static byte[] encodeRecord(Modification mod) throws IOException {
+    if (!(mod instanceof Deletion)) {
+      throw new IOException("Unknown modification type: " + mod.getType());
+    }
+    Deletion deletion = (Deletion) mod;
+    PublicBAOS byteArrayOutputStream = new PublicBAOS();
+    DataOutputStream outputStream = new DataOutputStream(byteArrayOutputStream);
+    // placeholder of the length
+    outputStream.writeInt(0);
+    outputStream.writeByte(DELETION_TYPE);
+    writePath(deletion.getPath(), outputStream);
+    outputStream.writeLong(deletion.getFileOffset());
+    outputStream.writeLong(deletion.getStartTime());
+    outputStream.writeLong(deletion.getEndTime());
+    int length = byteArrayOutputStream.size() - Integer.BYTES;
+    CRC32 crc32 = new CRC32();
+    crc32.update(byteArrayOutputStream.getBuf(), Integer.BYTES, length);
+    outputStream.writeInt((int) crc32.getValue());
+
+    byte[] record = byteArrayOutputStream.toByteArray();
+    ByteBuffer.wrap(record).putInt(length);
+    return record;
+  }
+
+  private static Modification decodeRecord(ByteBuffer buffer) throws IOException {
+    byte type = buffer.get();
+    if (type != DELETION_TYPE) {
+      throw new IOException("Unknown modification type: " + type);
+    }
+    MeasurementPath path = new MeasurementPath(readPathNodes(buffer));
+    long fileOffset = buffer.getLong();
+    long startTime = buffer.getLong();
+    long endTime = buffer.getLong();
+    return new Deletion(path, fileOffset, startTime, endTime);
+  }
+
+  private static byte[] encodeIndex(List<IndexEntry> entries) throws IOException {
+    PublicBAOS byteArrayOutputStream = new PublicBAOS();
+    DataOutputStream outputStream = new DataOutputStream(byteArrayOutputStream);
+    outputStream.writeInt(entries.size());
+    for (IndexEntry entry : entries) {
+      writePath(entry.path, outputStream);
+      outputStream.writeLong(entry.offset);
+      outputStream.writeLong(entry.length);
+      outputStream.writeLong(entry.minStartTime);
+      outputStream.writeLong(entry.maxEndTime);
+    }
+    CRC32 crc32 = new CRC32();
+    crc32.update(byteArrayOutputStream.getBuf(), 0, byteArrayOutputStream.size());
+    outputStream.writeInt((int) crc32.getValue());
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  private static List<IndexEntry> readIndex(FileChannel channel, long offset, long length)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate((int) length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of the index");
+      }
+    }
+    CRC32 crc32 = new CRC32();
+    crc32.update(buffer.array(), 0, (int) length - Integer.BYTES);
+    if ((int) crc32.getValue() != buffer.getInt((int) length - Integer.BYTES)) {
+      throw new IOException("The index of modifications is corrupted");
+    }
+    buffer.flip();
+    int entryNum = buffer.getInt();
+    List<IndexEntry> entries = new ArrayList<>(entryNum);
+    for (int i = 0; i < entryNum; i++) {
+      IndexEntry entry =
+          new IndexEntry(
+              new PartialPath(readPathNodes(buffer)), buffer.getLong(), buffer.getLong());
+      entry.minStartTime = buffer.getLong();
+      entry.maxEndTime = buffer.getLong();
+      entries.add(entry);
+    }
+    return entries;
+  }
+
+  private static void writePath(PartialPath path, DataOutputStream outputStream)
+      throws IOException {
+    String[] nodes = path.getNodes();
+    outputStream.writeInt(nodes.length);
+    for (String node : nodes) {
+      ReadWriteIOUtils.write(node, outputStream);
+    }
+  }
+
+  private static String[] readPathNodes(ByteBuffer buffer) {
+    String[] nodes = new String[buffer.getInt()];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = ReadWriteIOUtils.readString(buffer);
+    }
+    return nodes;
+  }
+
+  private static void closeQuietly(Closeable closeable) {
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      logger.warn("Cannot close the modification file", e);
+    }
+  }
+
+  private static class IndexEntry {
+
+    // null if the entry covers records of different paths
+    private final PartialPath path;
+    private final long offset;
+    private long length;
+    private long minStartTime = Long.MAX_VALUE;
+    private long maxEndTime = Long.MIN_VALUE;
+
+    private IndexEntry(PartialPath path, long offset) {
+      this.path = path;
+      this.offset = offset;
+    }
+
+    private IndexEntry(PartialPath path, long offset, long length) {
+      this(path, offset);
+      this.length = length;
+    }
+  }
+
+  /** Sequentially reads the records in [start, end) of a mods file through a buffer. */
+  private static class RecordScanner {
+
+    private final FileChannel channel;
+    private final long end;
+    private final CRC32 crc32 = new CRC32();
+    private ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    // the file position of the next byte to be loaded into the buffer
+    private long loadPosition;
+    // the file position after the last complete record
+    private long validPosition;
+
+    private RecordScanner(FileChannel channel, long start, long end) {
+      this.channel = channel;
+      this.end = end;
+      this.loadPosition = start;
+      this.validPosition = start;
+      buffer.flip();
+    }
+
+    private long getValidPosition() {
+      return validPosition;
+    }
+
+    /**
+     * @return the next record, or null if there are no more complete and valid records.
+     */
+    private Modification next() throws IOException {
+      if (!ensureRemaining(Integer.BYTES)) {
+        return null;
+      }
+      int length = buffer.getInt(buffer.position());
+      if (length <= 0 || length > MAX_RECORD_SIZE || !ensureRemaining(Integer.BYTES * 2 + length)) {
+        return null;
+      }
+      int bodyPosition = buffer.position() + Integer.BYTES;
+      crc32.reset();
+      crc32.update(buffer.array(), bodyPosition, length);
+      if ((int) crc32.getValue() != buffer.getInt(bodyPosition + length)) {
+        logger.warn("A corrupted modification record is found at {}", validPosition);
+        return null;
+      }
+      ByteBuffer body = buffer.duplicate();
+      body.position(bodyPosition);
+      body.limit(bodyPosition + length);
+      Modification modification;
+      try {
+        modification = decodeRecord(body);
+      } catch (IOException | RuntimeException e) {
+        logger.warn("An error occurred when decoding the record at {}", validPosition, e);
+        return null;
+      }
+      buffer.position(bodyPosition + length + Integer.BYTES);
+      validPosition += Integer.BYTES * 2 + length;
+      return modification;
+    }
+
+    private boolean ensureRemaining(int size) throws IOException {
+      if (buffer.remaining() >= size) {
+        return true;
+      }
+      if (size > buffer.capacity()) {
+        ByteBuffer newBuffer = ByteBuffer.allocate(size);
+        newBuffer.put(buffer);
+        buffer = newBuffer;
+      } else {
+        buffer.compact();
+      }
+      while (buffer.position() < size && loadPosition < end) {
+        int limit = (int) Math.min(buffer.capacity(), buffer.position() + end - loadPosition);
+        buffer.limit(limit);
+        int read = channel.read(buffer, loadPosition);
+        if (read < 0) {
+          break;
+        }
+        loadPosition += read;
+      }
+      buffer.flip();
+      return buffer.remaining() >= size;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.control;
+
+import org.apache.tsfile.read.reader.TsFileInput;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link TsFileInput} of a sealed TsFile on a cold tier whose reads go through {@link
+ * ColdTierReadCache}.
+ */
+public class ColdTierCachedTsFileInput implements TsFileInput {
+
+  private final TsFileInput source;
+
+  private final ColdTierReadCache cache;
+
+  // sealed TsFiles do not grow
+  private final long size;
+
+  private long position = 0;
+
+  public ColdTierCachedTsFileInput(TsFileInput source, ColdTierReadCache cache) throws IOException {
+    this.source = source;
+    this.cache = cache;
+    this.size = source.size();
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public long position() {
+    return position;
+  }
+
+  @Override
+  public TsFileInput position(long newPosition) {
+    this.position = newPosition;
+    return this;
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    int read = cache.read(source, size, dst, position);
+    if (read > 0) {
+      position += read;
+    }
+    return read;
+  }
+
+  @Override
+  public int read(ByteBuffer dst, long position) throws IOException {
+    return cache.read(source, size, dst, position);
+  }
+
+  @Override
+  public InputStream wrapAsInputStream() throws IOException {
+    source.position(position);
+    return source.wrapAsInputStream();
+  }
+
+  @Override
+  public void close() throws IOException {
+    source.close();
+  }
+
+  @Override
+  public String getFilePath() {
+    return source.getFilePath();
+  }
+}
@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.control;
+
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.storageengine.rescon.disk.TierManager;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.tsfile.read.reader.TsFileInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ColdTierReadCache} is a singleton, which keeps the recently read blocks of TsFiles placed
+ * on a slow tier (tier level above 0) in a directory on local disk. It is a read-through cache:
+ * missed blocks are read from the cold tier once and written to local disk, and blocks are evicted
+ * in LRU order when the size budget is exceeded. Blocks of the metadata index area are pinned and
+ * only dropped together with their TsFile.
+ *
+ * <p>TsFiles are immutable once sealed, so a cached block never goes stale. The cache is cleared on
+ * restart.
+ */
+public class ColdTierReadCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ColdTierReadCache.class);
+
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  private final File cacheDir;
+
+  private final long blockSize;
+
+  private final long maxCachedBytes;
+
+  /** Access ordered, the eldest block is evicted first. */
+  private final LinkedHashMap<BlockKey, CachedBlock> blocks = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** TsFile path -> offset from which its blocks are pinned. */
+  private final Map<String, Long> pinnedOffsets = new HashMap<>();
+
+  private long cachedBytes = 0;
+
+  private final AtomicLong blockFileId = new AtomicLong(0);
+
+  private final AtomicLong hitCount = new AtomicLong(0);
+
+  private final AtomicLong missCount = new AtomicLong(0);
+
+  private ColdTierReadCache() {
+    this(
+        CONFIG.getColdTierReadCacheDir(),
+        CONFIG.getColdTierReadCacheBlockSizeInKB() * 1024L,
+        CONFIG.getColdTierReadCacheSizeInMB() * 1024L * 1024L);
+  }
+
+  @TestOnly
+  ColdTierReadCache(String cacheDir, long blockSize, long maxCachedBytes) {
+    this.cacheDir = cacheDir == null || cacheDir.isEmpty() ? null : new File(cacheDir);
+    this.blockSize = blockSize;
+    this.maxCachedBytes = maxCachedBytes;
+    if (this.cacheDir != null) {
+      try {
+        // blocks left by the last run are not indexed, drop them
+        if (this.cacheDir.exists()) {
+          FileUtils.cleanDirectory(this.cacheDir);
+        }
+        FileUtils.forceMkdir(this.cacheDir);
+      } catch (IOException e) {
+        LOGGER.warn("Failed to prepare cold tier read cache dir {}", this.cacheDir, e);
+      }
+    }
+  }
+
+  public boolean isEnabled() {
+    return cacheDir != null && maxCachedBytes > 0 && blockSize > 0;
+  }
+
+  /** Whether reads of the TsFile should go through this cache. */
+  public boolean shouldCache(String filePath) {
+    return isEnabled() && TierManager.getInstance().getFileTierLevel(new File(filePath)) > 0;
+  }
+
+  /** Blocks covering the range from the offset to the end of the TsFile will not be evicted. */
+  public synchronized void pin(String filePath, long offset) {
+    pinnedOffsets.put(filePath, offset);
+    for (Map.Entry<BlockKey, CachedBlock> entry : blocks.entrySet()) {
+      if (entry.getKey().filePath.equals(filePath)) {
+        entry.getValue().pinned = isPinned(entry.getKey(), entry.getValue().length);
+      }
+    }
+  }
+
+  /** Drop all the blocks of the TsFile, called when the TsFile is removed. */
+  public synchronized void invalidate(String filePath) {
+    if (!isEnabled()) {
+      return;
+    }
+    pinnedOffsets.remove(filePath);
+    Iterator<Map.Entry<BlockKey, CachedBlock>> iterator = blocks.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<BlockKey, CachedBlock> entry = iterator.next();
+      if (entry.getKey().filePath.equals(filePath)) {
+        iterator.remove();
+        cachedBytes -= entry.getValue().length;
+        FileUtils.deleteQuietly(entry.getValue().file);
+      }
+    }
+  }
+
+  /**
+   * Read from the position of the source into dst, block by block through the cache.
+   *
+   * @return the number of bytes read, or -1 if the position is beyond the end of the source
+   */
+  public int read(TsFileInput source, long sourceSize, ByteBuffer dst, long position)
+      throws IOException {
+    if (position >= sourceSize) {
+      return -1;
+    }
+    int readBytes = 0;
+    while (dst.hasRemaining() && position < sourceSize) {
+      long blockIndex = position / blockSize;
+      int blockLength = (int) Math.min(blockSize, sourceSize - blockIndex * blockSize);
+      int offsetInBlock = (int) (position - blockIndex * blockSize);
+      int length = Math.min(dst.remaining(), blockLength - offsetInBlock);
+      ByteBuffer target = dst.duplicate();
+      target.limit(target.position() + length);
+      readFromBlock(
+          source,
+          new BlockKey(source.getFilePath(), blockIndex),
+          blockLength,
+          offsetInBlock,
+          target);
+      dst.position(dst.position() + length);
+      position += length;
+      readBytes += length;
+    }
+    return readBytes;
+  }
+
+  private void readFromBlock(
+      TsFileInput source, BlockKey key, int blockLength, int offsetInBlock, ByteBuffer target)
+      throws IOException {
+    CachedBlock block;
+    synchronized (this) {
+      block = blocks.get(key);
+    }
+    if (block != null) {
+      try (FileChannel channel = FileChannel.open(block.file.toPath(), StandardOpenOption.READ)) {
+        long position = offsetInBlock;
+        while (target.hasRemaining()) {
+          int read = channel.read(target, position);
+          if (read < 0) {
+            throw new IOException("Unexpected end of cached block " + block.file);
+          }
+          position += read;
+        }
+        hitCount.incrementAndGet();
+        return;
+      } catch (IOException e) {
+        LOGGER.warn("Failed to read cached block {}, read from the source instead", block.file, e);
+        remove(key, block);
+      }
+    }
+
+    missCount.incrementAndGet();
+    ByteBuffer content = ByteBuffer.allocate(blockLength);
+    long position = key.blockIndex * blockSize;
+    while (content.hasRemaining()) {
+      int read = source.read(content, position + content.position());
+      if (read < 0) {
+        throw new IOException(
+            "Unexpected end of " + key.filePath + " at " + (position + content.position()));
+      }
+    }
+    content.flip();
+    ByteBuffer part = content.duplicate();
+    part.position(offsetInBlock);
+    part.limit(offsetInBlock + target.remaining());
+    target.put(part);
+    admit(key, content);
+  }
+
+  private void admit(BlockKey key, ByteBuffer content) {
+    // names are made unique so that blocks of TsFiles sharing a name never overwrite each other
+    File blockFile =
+        new File(cacheDir, key.getBlockFileName() + "." + blockFileId.incrementAndGet());
+    try (FileChannel channel =
+        FileChannel.open(
+            blockFile.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+      while (content.hasRemaining()) {
+        channel.write(content);
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Failed to cache block {} of {}", key.blockIndex, key.filePath, e);
+      FileUtils.deleteQuietly(blockFile);
+      return;
+    }
+
+    synchronized (this) {
+      if (blocks.containsKey(key)) {
+        // cached by a concurrent reader
+        FileUtils.deleteQuietly(blockFile);
+        return;
+      }
+      CachedBlock block = new CachedBlock(blockFile, content.limit());
+      block.pinned = isPinned(key, block.length);
+      blocks.put(key, block);
+      cachedBytes += block.length;
+      evictIfNeeded();
+      if (cachedBytes > maxCachedBytes) {
+        // the budget is taken by pinned blocks
+        remove(key, block);
+      }
+    }
+  }
+
+  private void evictIfNeeded() {
+    Iterator<CachedBlock> iterator = blocks.values().iterator();
+    while (cachedBytes > maxCachedBytes && iterator.hasNext()) {
+      CachedBlock block = iterator.next();
+      if (block.pinned) {
+        continue;
+      }
+      iterator.remove();
+      cachedBytes -= block.length;
+      FileUtils.deleteQuietly(block.file);
+    }
+  }
+
+  private synchronized void remove(BlockKey key, CachedBlock block) {
+    if (blocks.remove(key, block)) {
+      cachedBytes -= block.length;
+      FileUtils.deleteQuietly(block.file);
+    }
+  }
+
+  private boolean isPinned(BlockKey key, int length) {
+    Long pinnedOffset = pinnedOffsets.get(key.filePath);
+    return pinnedOffset != null && key.blockIndex * blockSize + length > pinnedOffset;
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  @TestOnly
+  synchronized long getCachedBytes() {
+    return cachedBytes;
+  }
+
+  public static ColdTierReadCache getInstance() {
+    return ColdTierReadCacheHolder.INSTANCE;
+  }
+
+  private static class BlockKey {
+
+    private final String filePath;
+
+    private final long blockIndex;
+
+    private BlockKey(String filePath, long blockIndex) {
+      this.filePath = filePath;
+      this.blockIndex = blockIndex;
+    }
+
+    private String getBlockFileName() {
+      return new File(filePath).getName()
+          + "."
+          + Integer.toHexString(filePath.hashCode())
+          + "."
+          + blockIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      BlockKey blockKey = (BlockKey) o;
+      return blockIndex == blockKey.blockIndex && filePath.equals(blockKey.filePath);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(filePath, blockIndex);
+    }
+  }
+
+  private static class CachedBlock {
+
+    private final File file;
+
+    private final int length;
+
+    private boolean pinned;
+
+    private CachedBlock(File file, int length) {
+      this.file = file;
+      this.length = length;
+    }
+  }
+
+  private static class ColdTierReadCacheHolder {
+
+    private static final ColdTierReadCache INSTANCE = new ColdTierReadCache();
+
+    private ColdTierReadCacheHolder() {}
+  }
+}
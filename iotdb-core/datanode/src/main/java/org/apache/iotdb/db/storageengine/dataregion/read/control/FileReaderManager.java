@@ -20,9 +20,12 @@
 package org.apache.iotdb.db.storageengine.dataregion.read.control;
 
 import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+import org.apache.iotdb.db.utils.OpenFileNumUtil;
 
 import org.apache.tsfile.common.conf.TSFileConfig;
+import org.apache.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.tsfile.read.TsFileSequenceReader;
 import org.apache.tsfile.read.UnClosedTsFileReader;
 import org.slf4j.Logger;
@@ -31,12 +34,21 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * {@link FileReaderManager} is a singleton, which is used to manage all file readers(opened file
  * streams) to ensure that each file is opened at most once.
+ *
+ * <p>No global lock is taken: a reader is registered as a future before it is opened, so that
+ * concurrent callers of the same file wait for the only opening, and the reference counts are
+ * updated atomically per file. When the number of readers reaches {@link #maxCachedReaderNum},
+ * readers without references which have been idle for a while are evicted, unless they have been
+ * got by a caller holding no reference of the file.
  */
 public class FileReaderManager {
 
@@ -53,17 +65,32 @@ public class FileReaderManager {
    */
   private static final int PRINT_INTERVAL = 10000;
 
+  /**
+   * The proportion of the max open file number of the process that can be used by the cached
+   * readers, leaving the rest for WAL, sockets and the files being written.
+   */
+  private static final double MAX_OPEN_FILE_PROPORTION = 0.5;
+
+  /**
+   * max number of cached readers before idle ones are evicted, bounded by MAX_CACHED_FILE_SIZE and
+   * the max open file number of the process.
+   */
+  private final int maxCachedReaderNum;
+
+  /** whether a thread is evicting idle readers. */
+  private final AtomicBoolean evicting = new AtomicBoolean(false);
+
   /**
    * the key of closedFileReaderMap is the file path and the value of closedFileReaderMap is the
    * corresponding reader.
    */
-  private Map<String, TsFileSequenceReader> closedFileReaderMap;
+  private Map<String, ReaderEntry> closedFileReaderMap;
 
   /**
    * the key of unclosedFileReaderMap is the file path and the value of unclosedFileReaderMap is the
    * corresponding reader.
    */
-  private Map<String, TsFileSequenceReader> unclosedFileReaderMap;
+  private Map<String, ReaderEntry> unclosedFileReaderMap;
 
   /**
    * the key of closedFileReaderMap is the file path and the value of closedFileReaderMap is the
@@ -82,23 +109,23 @@ public class FileReaderManager {
     unclosedFileReaderMap = new ConcurrentHashMap<>();
     closedReferenceMap = new ConcurrentHashMap<>();
     unclosedReferenceMap = new ConcurrentHashMap<>();
+
+    long maxOpenFileNum = OpenFileNumUtil.getMaxOpenFileNum();
+    maxCachedReaderNum =
+        maxOpenFileNum > 0
+            ? (int) Math.min(MAX_CACHED_FILE_SIZE, maxOpenFileNum * MAX_OPEN_FILE_PROPORTION)
+            : MAX_CACHED_FILE_SIZE;
   }
 
   public static FileReaderManager getInstance() {
     return FileReaderManagerHelper.INSTANCE;
   }
 
-  public synchronized void closeFileAndRemoveReader(String filePath) throws IOException {
+  public void closeFileAndRemoveReader(String filePath) throws IOException {
     closedReferenceMap.remove(filePath);
-    TsFileSequenceReader reader = closedFileReaderMap.remove(filePath);
-    if (reader != null) {
-      reader.close();
-    }
+    closeReader(closedFileReaderMap.remove(filePath));
     unclosedReferenceMap.remove(filePath);
-    reader = unclosedFileReaderMap.remove(filePath);
-    if (reader != null) {
-      reader.close();
-    }
+    closeReader(unclosedFileReaderMap.remove(filePath));
   }
 
   /**
@@ -112,36 +139,144 @@ public class FileReaderManager {
    * @throws IOException when reader cannot be created.
    */
   @SuppressWarnings("squid:S2095")
-  public synchronized TsFileSequenceReader get(String filePath, boolean isClosed)
-      throws IOException {
-
-    Map<String, TsFileSequenceReader> readerMap =
-        !isClosed ? unclosedFileReaderMap : closedFileReaderMap;
-    if (!readerMap.containsKey(filePath)) {
-      int currentOpenedReaderCount = readerMap.size();
-      if (currentOpenedReaderCount >= MAX_CACHED_FILE_SIZE
-          && (currentOpenedReaderCount % PRINT_INTERVAL == 0)) {
-        logger.warn("Query has opened {} files !", readerMap.size());
-      }
+  public TsFileSequenceReader get(String filePath, boolean isClosed) throws IOException {
 
-      TsFileSequenceReader tsFileReader = null;
-      // check if the file is old version
-      if (!isClosed) {
-        tsFileReader = new UnClosedTsFileReader(filePath);
-      } else {
-        tsFileReader = new TsFileSequenceReader(filePath);
-        byte versionNumber = tsFileReader.readVersionNumber();
-        if (versionNumber != TSFileConfig.VERSION_NUMBER
-            && versionNumber != TSFileConfig.VERSION_NUMBER_V3) {
-          tsFileReader.close();
-          throw new IOException("The version of this TsFile is not correct.");
+    Map<String, ReaderEntry> readerMap = !isClosed ? unclosedFileReaderMap : closedFileReaderMap;
+    while (true) {
+      ReaderEntry entry = readerMap.get(filePath);
+      if (entry == null) {
+        ReaderEntry newEntry = new ReaderEntry();
+        entry = readerMap.putIfAbsent(filePath, newEntry);
+        if (entry == null) {
+          // only the thread registering the entry opens the file
+          entry = newEntry;
+          int currentOpenedReaderCount = readerMap.size();
+          if (currentOpenedReaderCount >= MAX_CACHED_FILE_SIZE
+              && (currentOpenedReaderCount % PRINT_INTERVAL == 0)) {
+            logger.warn("Query has opened {} files !", readerMap.size());
+          }
+          try {
+            newEntry.future.complete(openReader(filePath, isClosed));
+          } catch (IOException | RuntimeException e) {
+            readerMap.remove(filePath, newEntry);
+            newEntry.future.completeExceptionally(e);
+            throw e;
+          }
+          if (closedFileReaderMap.size() + unclosedFileReaderMap.size() > maxCachedReaderNum) {
+            evictIdleReaders();
+          }
         }
       }
-      readerMap.put(filePath, tsFileReader);
-      return tsFileReader;
+      if (entry.acquire(isReferenced(filePath))) {
+        return entry.getReader();
+      }
+      // the reader has been evicted meanwhile, get or open it again
+    }
+  }
+
+  private boolean isReferenced(String filePath) {
+    return closedReferenceMap.containsKey(filePath) || unclosedReferenceMap.containsKey(filePath);
+  }
+
+  private TsFileSequenceReader openReader(String filePath, boolean isClosed) throws IOException {
+    TsFileSequenceReader tsFileReader;
+    // check if the file is old version
+    if (!isClosed) {
+      tsFileReader = new UnClosedTsFileReader(filePath);
+    } else if (ColdTierReadCache.getInstance().shouldCache(filePath)) {
+      tsFileReader = openCachedReader(filePath);
+    } else {
+      tsFileReader = new TsFileSequenceReader(filePath);
+      byte versionNumber = tsFileReader.readVersionNumber();
+      if (versionNumber != TSFileConfig.VERSION_NUMBER
+          && versionNumber != TSFileConfig.VERSION_NUMBER_V3) {
+        tsFileReader.close();
+        throw new IOException("The version of this TsFile is not correct.");
+      }
+    }
+    return tsFileReader;
+  }
+
+  /**
+   * Open a reader of a sealed TsFile on a cold tier, whose reads go through {@link
+   * ColdTierReadCache}. The metadata index area is pinned in the cache.
+   */
+  private TsFileSequenceReader openCachedReader(String filePath) throws IOException {
+    ColdTierReadCache cache = ColdTierReadCache.getInstance();
+    TsFileSequenceReader tsFileReader =
+        new TsFileSequenceReader(
+            new ColdTierCachedTsFileInput(
+                FSFactoryProducer.getFileInputFactory().getTsFileInput(filePath), cache));
+    try {
+      byte versionNumber = tsFileReader.readVersionNumber();
+      if (versionNumber != TSFileConfig.VERSION_NUMBER
+          && versionNumber != TSFileConfig.VERSION_NUMBER_V3) {
+        throw new IOException("The version of this TsFile is not correct.");
+      }
+      cache.pin(filePath, tsFileReader.readFileMetadata().getMetaOffset());
+    } catch (IOException | RuntimeException e) {
+      tsFileReader.close();
+      throw e;
+    }
+    return tsFileReader;
+  }
+
+  /**
+   * Close the readers which are not referenced by any query and have not been got during the last
+   * cacheFileReaderClearPeriod, until the number of readers is below maxCachedReaderNum. A reader
+   * which has ever been got by a caller holding no reference of its file is never evicted, because
+   * there is no way to know when that caller is done with it. Such readers are closed only when
+   * their files are removed.
+   */
+  private void evictIdleReaders() {
+    if (!evicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      long idleThreshold =
+          System.currentTimeMillis()
+              - IoTDBDescriptor.getInstance().getConfig().getCacheFileReaderClearPeriod();
+      int evictedNum = evictIdleReaders(closedFileReaderMap, closedReferenceMap, idleThreshold);
+      evictedNum += evictIdleReaders(unclosedFileReaderMap, unclosedReferenceMap, idleThreshold);
+      if (evictedNum > 0 && resourceLogger.isDebugEnabled()) {
+        resourceLogger.debug("{} idle TsFileReaders are evicted.", evictedNum);
+      }
+    } finally {
+      evicting.set(false);
     }
+  }
 
-    return readerMap.get(filePath);
+  private int evictIdleReaders(
+      Map<String, ReaderEntry> readerMap, Map<String, AtomicInteger> refMap, long idleThreshold) {
+    int evictedNum = 0;
+    Iterator<Map.Entry<String, ReaderEntry>> iterator = readerMap.entrySet().iterator();
+    while (iterator.hasNext()
+        && closedFileReaderMap.size() + unclosedFileReaderMap.size() > maxCachedReaderNum) {
+      Map.Entry<String, ReaderEntry> entry = iterator.next();
+      String filePath = entry.getKey();
+      ReaderEntry readerEntry = entry.getValue();
+      if (!readerEntry.future.isDone()
+          || readerEntry.gotWithoutReference
+          || readerEntry.lastAccessTime > idleThreshold) {
+        continue;
+      }
+      // hold the reference count of the file, so that no query can reference it meanwhile
+      boolean[] evicted = new boolean[1];
+      refMap.compute(
+          filePath,
+          (k, refCount) -> {
+            if ((refCount == null || refCount.get() == 0)
+                && readerEntry.tryEvict(idleThreshold)) {
+              evicted[0] = readerMap.remove(filePath, readerEntry);
+            }
+            return refCount;
+          });
+      if (evicted[0]) {
+        closeReaderQuietly(readerEntry);
+        evictedNum++;
+      }
+    }
+    return evictedNum;
   }
 
   /**
@@ -150,17 +285,16 @@ public class FileReaderManager {
    */
   public void increaseFileReaderReference(TsFileResource tsFile, boolean isClosed) {
     tsFile.readLock();
-    synchronized (this) {
-      if (!isClosed) {
-        unclosedReferenceMap
-            .computeIfAbsent(tsFile.getTsFilePath(), k -> new AtomicInteger())
-            .getAndIncrement();
-      } else {
-        closedReferenceMap
-            .computeIfAbsent(tsFile.getTsFilePath(), k -> new AtomicInteger())
-            .getAndIncrement();
-      }
-    }
+    Map<String, AtomicInteger> refMap = !isClosed ? unclosedReferenceMap : closedReferenceMap;
+    refMap.compute(
+        tsFile.getTsFilePath(),
+        (k, refCount) -> {
+          if (refCount == null) {
+            return new AtomicInteger(1);
+          }
+          refCount.incrementAndGet();
+          return refCount;
+        });
   }
 
   /**
@@ -168,43 +302,64 @@ public class FileReaderManager {
    * Only when the reference count of a reader equals zero, the reader can be closed and removed.
    */
   public void decreaseFileReaderReference(TsFileResource tsFile, boolean isClosed) {
-    synchronized (this) {
-      if (!isClosed && unclosedReferenceMap.containsKey(tsFile.getTsFilePath())) {
-        if (unclosedReferenceMap.get(tsFile.getTsFilePath()).decrementAndGet() == 0) {
-          closeUnUsedReaderAndRemoveRef(tsFile.getTsFilePath(), false);
-        }
-      } else if (closedReferenceMap.containsKey(tsFile.getTsFilePath())
-          && (closedReferenceMap.get(tsFile.getTsFilePath()).decrementAndGet() == 0)) {
-        closeUnUsedReaderAndRemoveRef(tsFile.getTsFilePath(), true);
-      }
+    String tsFilePath = tsFile.getTsFilePath();
+    if (isClosed || !decreaseReference(tsFilePath, false)) {
+      decreaseReference(tsFilePath, true);
     }
     tsFile.readUnlock();
   }
 
-  private void closeUnUsedReaderAndRemoveRef(String tsFilePath, boolean isClosed) {
-    Map<String, TsFileSequenceReader> readerMap =
-        isClosed ? closedFileReaderMap : unclosedFileReaderMap;
+  /**
+   * Decrease the reference count of the file, and close and remove its reader when the reference
+   * count reaches zero.
+   *
+   * @return false if the file is not referenced
+   */
+  private boolean decreaseReference(String tsFilePath, boolean isClosed) {
+    Map<String, ReaderEntry> readerMap = isClosed ? closedFileReaderMap : unclosedFileReaderMap;
     Map<String, AtomicInteger> refMap = isClosed ? closedReferenceMap : unclosedReferenceMap;
-    synchronized (this) {
-      // check ref num again
-      if (refMap.get(tsFilePath).get() != 0) {
-        return;
-      }
-
-      TsFileSequenceReader reader = readerMap.get(tsFilePath);
-      if (reader != null) {
-        try {
-          reader.close();
-        } catch (IOException e) {
-          logger.error("Can not close TsFileSequenceReader {} !", reader.getFileName(), e);
-        }
-      }
-      readerMap.remove(tsFilePath);
-      refMap.remove(tsFilePath);
+    boolean[] referenced = new boolean[1];
+    ReaderEntry[] unusedReader = new ReaderEntry[1];
+    refMap.computeIfPresent(
+        tsFilePath,
+        (k, refCount) -> {
+          referenced[0] = true;
+          if (refCount.decrementAndGet() != 0) {
+            return refCount;
+          }
+          unusedReader[0] = readerMap.remove(tsFilePath);
+          return null;
+        });
+    if (unusedReader[0] != null) {
+      closeReaderQuietly(unusedReader[0]);
       if (resourceLogger.isDebugEnabled()) {
         resourceLogger.debug("{} TsFileReader is closed because of no reference.", tsFilePath);
       }
     }
+    return referenced[0];
+  }
+
+  private void closeReader(ReaderEntry readerEntry) throws IOException {
+    if (readerEntry == null) {
+      return;
+    }
+    if (!readerEntry.future.isDone()) {
+      // the reader is being opened, close it once it is opened
+      readerEntry.future.thenAccept(reader -> closeReaderQuietly(readerEntry));
+      return;
+    }
+    TsFileSequenceReader reader = readerEntry.getReaderNow();
+    if (reader != null) {
+      reader.close();
+    }
+  }
+
+  private void closeReaderQuietly(ReaderEntry readerEntry) {
+    try {
+      closeReader(readerEntry);
+    } catch (IOException e) {
+      logger.error("Can not close TsFileSequenceReader {} !", readerEntry.getReaderNow(), e);
+    }
   }
 
   /**
@@ -213,12 +368,11 @@ public class FileReaderManager {
    *
    * @throws IOException if failed to close file handlers, IOException will be thrown
    */
-  public synchronized void closeAndRemoveAllOpenedReaders() throws IOException {
-    Iterator<Map.Entry<String, TsFileSequenceReader>> iterator =
-        closedFileReaderMap.entrySet().iterator();
+  public void closeAndRemoveAllOpenedReaders() throws IOException {
+    Iterator<Map.Entry<String, ReaderEntry>> iterator = closedFileReaderMap.entrySet().iterator();
     while (iterator.hasNext()) {
-      Map.Entry<String, TsFileSequenceReader> entry = iterator.next();
-      entry.getValue().close();
+      Map.Entry<String, ReaderEntry> entry = iterator.next();
+      closeReader(entry.getValue());
       if (resourceLogger.isDebugEnabled()) {
         resourceLogger.debug("{} closedTsFileReader is closed.", entry.getKey());
       }
@@ -227,8 +381,8 @@ public class FileReaderManager {
     }
     iterator = unclosedFileReaderMap.entrySet().iterator();
     while (iterator.hasNext()) {
-      Map.Entry<String, TsFileSequenceReader> entry = iterator.next();
-      entry.getValue().close();
+      Map.Entry<String, ReaderEntry> entry = iterator.next();
+      closeReader(entry.getValue());
       if (resourceLogger.isDebugEnabled()) {
         resourceLogger.debug("{} unclosedTsFileReader is closed.", entry.getKey());
       }
@@ -238,21 +392,85 @@ public class FileReaderManager {
   }
 
   /** This method is only for unit tests. */
-  public synchronized boolean contains(TsFileResource tsFile, boolean isClosed) {
+  public boolean contains(TsFileResource tsFile, boolean isClosed) {
     return (isClosed && closedFileReaderMap.containsKey(tsFile.getTsFilePath()))
         || (!isClosed && unclosedFileReaderMap.containsKey(tsFile.getTsFilePath()));
   }
 
   @TestOnly
-  public Map<String, TsFileSequenceReader> getClosedFileReaderMap() {
+  public Map<String, ?> getClosedFileReaderMap() {
     return closedFileReaderMap;
   }
 
   @TestOnly
-  public Map<String, TsFileSequenceReader> getUnclosedFileReaderMap() {
+  public Map<String, ?> getUnclosedFileReaderMap() {
     return unclosedFileReaderMap;
   }
 
+  /** A cached reader, which is registered before it is opened. */
+  private static class ReaderEntry {
+
+    private final CompletableFuture<TsFileSequenceReader> future = new CompletableFuture<>();
+
+    /** the last time the reader was got, in milliseconds, accurate to about one second. */
+    private volatile long lastAccessTime = System.currentTimeMillis();
+
+    /** whether the reader has ever been got by a caller holding no reference of the file. */
+    private volatile boolean gotWithoutReference = false;
+
+    /** whether the reader is being evicted, after which it can not be got any more. */
+    private volatile boolean evicted = false;
+
+    /**
+     * Record a get of the reader. This publishes the access before checking {@link #evicted}, while
+     * {@link #tryEvict} publishes the eviction before checking the access, so either the get sees
+     * the eviction or the eviction sees the get.
+     *
+     * @return false if the reader has been evicted
+     */
+    private boolean acquire(boolean referenced) {
+      if (!referenced && !gotWithoutReference) {
+        gotWithoutReference = true;
+      }
+      long currentTime = System.currentTimeMillis();
+      // avoid writing the shared field for every get of a hot file
+      if (currentTime - lastAccessTime > 1000) {
+        lastAccessTime = currentTime;
+      }
+      return !evicted;
+    }
+
+    /** Called by one evicting thread at most. */
+    private boolean tryEvict(long idleThreshold) {
+      evicted = true;
+      if (gotWithoutReference || lastAccessTime > idleThreshold) {
+        evicted = false;
+        return false;
+      }
+      return true;
+    }
+
+    private TsFileSequenceReader getReader() throws IOException {
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted when waiting for the reader to be opened", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+        throw new IOException(cause);
+      }
+    }
+
+    /** the opened reader, or null if it is not opened successfully yet. */
+    private TsFileSequenceReader getReaderNow() {
+      return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+  }
+
   private static class FileReaderManagerHelper {
 
     private static final FileReaderManager INSTANCE = new FileReaderManager();
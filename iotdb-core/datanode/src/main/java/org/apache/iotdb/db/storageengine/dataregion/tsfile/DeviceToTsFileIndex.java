@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.tsfile;
+
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.ITimeIndex;
+
+import org.apache.tsfile.file.metadata.IDeviceID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from device to the TsFiles of one {@link TsFileResourceList}, i.e. one time
+ * partition, that contain it. A TsFile is indexed once it is sealed with a device level time index.
+ * Unsealed TsFiles and TsFiles with a file level time index are kept unindexed and are always
+ * returned as candidates.
+ */
+public class DeviceToTsFileIndex {
+
+  private final Map<IDeviceID, Set<TsFileResource>> deviceToTsFiles = new HashMap<>();
+
+  // devices each indexed TsFile is registered with, so that it can be removed without reading its
+  // time index, which may have been degraded in the meantime
+  private final Map<TsFileResource, IDeviceID[]> indexedTsFiles = new IdentityHashMap<>();
+
+  private final Set<TsFileResource> unindexedTsFiles =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+
+  public synchronized void add(TsFileResource tsFileResource) {
+    if (!indexedTsFiles.containsKey(tsFileResource)) {
+      unindexedTsFiles.add(tsFileResource);
+    }
+  }
+
+  public synchronized void remove(TsFileResource tsFileResource) {
+    if (unindexedTsFiles.remove(tsFileResource)) {
+      return;
+    }
+    IDeviceID[] devices = indexedTsFiles.remove(tsFileResource);
+    if (devices == null) {
+      return;
+    }
+    for (IDeviceID device : devices) {
+      Set<TsFileResource> tsFiles = deviceToTsFiles.get(device);
+      if (tsFiles != null) {
+        tsFiles.remove(tsFileResource);
+        if (tsFiles.isEmpty()) {
+          deviceToTsFiles.remove(device);
+        }
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    deviceToTsFiles.clear();
+    indexedTsFiles.clear();
+    unindexedTsFiles.clear();
+  }
+
+  /**
+   * @return the TsFiles that may contain the device, in no particular order
+   */
+  public synchronized List<TsFileResource> getCandidates(IDeviceID device) {
+    indexSealedTsFiles();
+    Set<TsFileResource> tsFiles = deviceToTsFiles.get(device);
+    List<TsFileResource> candidates =
+        new ArrayList<>(unindexedTsFiles.size() + (tsFiles == null ? 0 : tsFiles.size()));
+    candidates.addAll(unindexedTsFiles);
+    if (tsFiles != null) {
+      candidates.addAll(tsFiles);
+    }
+    return candidates;
+  }
+
+  private void indexSealedTsFiles() {
+    Iterator<TsFileResource> iterator = unindexedTsFiles.iterator();
+    while (iterator.hasNext()) {
+      TsFileResource tsFileResource = iterator.next();
+      if (!tsFileResource.isClosed()
+          || tsFileResource.getTimeIndexType() == ITimeIndex.FILE_TIME_INDEX_TYPE) {
+        continue;
+      }
+      IDeviceID[] devices = tsFileResource.getDevices().toArray(new IDeviceID[0]);
+      for (IDeviceID device : devices) {
+        deviceToTsFiles
+            .computeIfAbsent(device, k -> Collections.newSetFromMap(new IdentityHashMap<>()))
+            .add(tsFileResource);
+      }
+      indexedTsFiles.put(tsFileResource, devices);
+      iterator.remove();
+    }
+  }
+}
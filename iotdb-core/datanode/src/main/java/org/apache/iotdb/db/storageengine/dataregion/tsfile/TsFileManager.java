@@ -23,6 +23,7 @@ import org.apache.iotdb.commons.utils.TimePartitionUtils;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.FileTimeIndexCacheRecorder;
 import org.apache.iotdb.db.storageengine.rescon.memory.TsFileResourceManager;
 
+import org.apache.tsfile.file.metadata.IDeviceID;
 import org.apache.tsfile.read.filter.basic.Filter;
 
 import java.io.IOException;
@@ -69,6 +70,15 @@ public class TsFileManager {
    */
   public List<TsFileResource> getTsFileList(
       boolean sequence, List<Long> timePartitions, Filter timeFilter) {
+    return getTsFileList(sequence, timePartitions, timeFilter, null);
+  }
+
+  /**
+   * @param deviceId if not {@code null}, only the TsFiles that may contain this device are returned
+   *     by looking up the device to TsFile index of each time partition
+   */
+  public List<TsFileResource> getTsFileList(
+      boolean sequence, List<Long> timePartitions, Filter timeFilter, IDeviceID deviceId) {
     // the iteration of ConcurrentSkipListMap is not concurrent secure
     // so we must add read lock here
     readLock();
@@ -78,14 +88,14 @@ public class TsFileManager {
       if (timePartitions == null) {
         for (Map.Entry<Long, TsFileResourceList> entry : chosenMap.entrySet()) {
           if (TimePartitionUtils.satisfyTimePartition(timeFilter, entry.getKey())) {
-            allResources.addAll(entry.getValue().getArrayList());
+            allResources.addAll(getArrayList(entry.getValue(), deviceId));
           }
         }
       } else {
         for (Long timePartitionId : timePartitions) {
           TsFileResourceList tsFileResources = chosenMap.get(timePartitionId);
           if (tsFileResources != null) {
-            allResources.addAll(tsFileResources.getArrayList());
+            allResources.addAll(getArrayList(tsFileResources, deviceId));
           }
         }
       }
@@ -95,6 +105,13 @@ public class TsFileManager {
     }
   }
 
+  private static List<TsFileResource> getArrayList(
+      TsFileResourceList tsFileResources, IDeviceID deviceId) {
+    return deviceId == null
+        ? tsFileResources.getArrayList()
+        : tsFileResources.getArrayList(deviceId);
+  }
+
   public List<TsFileResource> getTsFileListSnapshot(long timePartition, boolean sequence) {
     readLock();
     try {
@@ -35,6 +35,7 @@ import org.apache.iotdb.db.storageengine.dataregion.compaction.selector.utils.In
 import org.apache.iotdb.db.storageengine.dataregion.memtable.ReadOnlyMemChunk;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.TsFileProcessor;
 import org.apache.iotdb.db.storageengine.dataregion.modification.ModificationFile;
+import org.apache.iotdb.db.storageengine.dataregion.read.control.ColdTierReadCache;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.generator.TsFileNameGenerator;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.ArrayDeviceTimeIndex;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.FileTimeIndex;
@@ -62,6 +63,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -104,9 +106,19 @@ public class TsFileResource {
 
   protected TsFileResource next;
 
+  /** Used in {@link TsFileResourceList TsFileResourceList}, increases along the list */
+  protected long positionInList;
+
   /** time index */
   private ITimeIndex timeIndex;
 
+  /**
+   * Serialized device time index mapped from the DeviceTimeIndexCache on restart. It is only
+   * deserialized into {@link #timeIndex} when the device level time is first needed.
+   */
+  @SuppressWarnings("squid:S3077")
+  private volatile ByteBuffer mappedDeviceTimeIndex;
+
   @SuppressWarnings("squid:S3077")
   private volatile ModificationFile modFile;
 
@@ -273,6 +285,7 @@ public class TsFileResource {
     try (InputStream inputStream = fsFactory.getBufferedInputStream(file + RESOURCE_SUFFIX)) {
       // The first byte is VERSION_NUMBER, second byte is timeIndexType.
       ReadWriteIOUtils.readByte(inputStream);
+      mappedDeviceTimeIndex = null;
       timeIndex = ITimeIndex.createTimeIndex(inputStream);
       maxPlanIndex = ReadWriteIOUtils.readLong(inputStream);
       minPlanIndex = ReadWriteIOUtils.readLong(inputStream);
@@ -315,6 +328,27 @@ public class TsFileResource {
     buffer.putLong(timeIndex.getMaxEndTime());
   }
 
+  /**
+   * Serialize the device time index for the DeviceTimeIndexCache.
+   *
+   * @return false if the time index has been degraded and nothing is written
+   */
+  public boolean serializeDeviceTimeIndex(OutputStream outputStream) throws IOException {
+    ByteBuffer buffer = mappedDeviceTimeIndex;
+    if (buffer != null) {
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.duplicate().get(bytes);
+      outputStream.write(bytes);
+      return true;
+    }
+    ITimeIndex currentTimeIndex = timeIndex;
+    if (currentTimeIndex.getTimeIndexType() != ITimeIndex.ARRAY_DEVICE_TIME_INDEX_TYPE) {
+      return false;
+    }
+    currentTimeIndex.serialize(outputStream);
+    return true;
+  }
+
   public void updateStartTime(IDeviceID device, long time) {
     timeIndex.updateStartTime(device, time);
   }
@@ -417,7 +451,11 @@ public class TsFileResource {
 
   public long getStartTime(IDeviceID deviceId) {
     try {
-      return deviceId == null ? getFileStartTime() : timeIndex.getStartTime(deviceId);
+      if (deviceId == null) {
+        return getFileStartTime();
+      }
+      materializeMappedDeviceTimeIndex();
+      return timeIndex.getStartTime(deviceId);
     } catch (Exception e) {
       LOGGER.error(
           "meet error when getStartTime of {} in file {}", deviceId, file.getAbsolutePath(), e);
@@ -431,7 +469,11 @@ public class TsFileResource {
   /** open file's end time is Long.MIN_VALUE */
   public long getEndTime(IDeviceID deviceId) {
     try {
-      return deviceId == null ? getFileEndTime() : timeIndex.getEndTime(deviceId);
+      if (deviceId == null) {
+        return getFileEndTime();
+      }
+      materializeMappedDeviceTimeIndex();
+      return timeIndex.getEndTime(deviceId);
     } catch (Exception e) {
       LOGGER.error(
           "meet error when getEndTime of {} in file {}", deviceId, file.getAbsolutePath(), e);
@@ -456,6 +498,7 @@ public class TsFileResource {
   }
 
   public Set<IDeviceID> getDevices() {
+    materializeMappedDeviceTimeIndex();
     return timeIndex.getDevices(file.getPath(), this);
   }
 
@@ -494,6 +537,7 @@ public class TsFileResource {
    * you really understand the meaning!!!!!
    */
   public boolean definitelyNotContains(IDeviceID device) {
+    materializeMappedDeviceTimeIndex();
     return timeIndex.definitelyNotContains(device);
   }
 
@@ -503,6 +547,7 @@ public class TsFileResource {
    */
   public Pair<Long, Long> getPossibleStartTimeAndEndTime(
       PartialPath devicePattern, Set<IDeviceID> deviceMatchInfo) {
+    materializeMappedDeviceTimeIndex();
     return timeIndex.getPossibleStartTimeAndEndTime(devicePattern, deviceMatchInfo);
   }
 
@@ -599,6 +644,7 @@ public class TsFileResource {
    */
   public boolean remove() {
     forceMarkDeleted();
+    ColdTierReadCache.getInstance().invalidate(file.getPath());
     try {
       fsFactory.deleteIfExists(file);
       fsFactory.deleteIfExists(
@@ -755,6 +801,7 @@ public class TsFileResource {
   }
 
   public boolean isDeviceIdExist(IDeviceID deviceId) {
+    materializeMappedDeviceTimeIndex();
     return timeIndex.checkDeviceIdExist(deviceId);
   }
 
@@ -947,9 +994,39 @@ public class TsFileResource {
   }
 
   public void setTimeIndex(ITimeIndex timeIndex) {
+    this.mappedDeviceTimeIndex = null;
     this.timeIndex = timeIndex;
   }
 
+  /**
+   * Keep the serialized device time index mapped from the DeviceTimeIndexCache, the current time
+   * index is expected to be the {@link FileTimeIndex} recovered from the FileTimeIndexCache.
+   */
+  public void setMappedDeviceTimeIndex(ByteBuffer mappedDeviceTimeIndex) {
+    this.mappedDeviceTimeIndex = mappedDeviceTimeIndex;
+  }
+
+  private void materializeMappedDeviceTimeIndex() {
+    if (mappedDeviceTimeIndex == null) {
+      return;
+    }
+    synchronized (this) {
+      ByteBuffer buffer = mappedDeviceTimeIndex;
+      if (buffer == null) {
+        return;
+      }
+      try {
+        buffer = buffer.duplicate();
+        timeIndex = TimeIndexLevel.valueOf(buffer.get()).getTimeIndex().deserialize(buffer);
+      } catch (Exception e) {
+        // keep the file time index, the resource file will be loaded by the async recover task
+        LOGGER.warn("Failed to load device time index of {} from DeviceTimeIndexCache", file, e);
+      } finally {
+        mappedDeviceTimeIndex = null;
+      }
+    }
+  }
+
   /**
    * Compare the name of TsFiles corresponding to the two {@link TsFileResource}. Both names should
    * meet the naming specifications.Take the generation time as the first keyword, the version
@@ -1089,6 +1166,7 @@ public class TsFileResource {
     // get the maximum endTime
     long endTime = timeIndex.getMaxEndTime();
     // replace the DeviceTimeIndex with FileTimeIndex
+    mappedDeviceTimeIndex = null;
     timeIndex = new FileTimeIndex(startTime, endTime);
 
     long beforeRamSize = ramSize;
@@ -23,10 +23,12 @@ import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.generator.TsFileNameGenerator;
 
 import org.apache.tsfile.exception.NotImplementedException;
+import org.apache.tsfile.file.metadata.IDeviceID;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
@@ -40,6 +42,13 @@ public class TsFileResourceList implements List<TsFileResource> {
   private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
   private int count = 0;
 
+  // gap between the positions of adjacent nodes, leaves room for inserting in the middle
+  private static final long POSITION_GAP = 1L << 20;
+
+  /** Built on the first device query, see {@link #getArrayList(IDeviceID)}. */
+  @SuppressWarnings("squid:S3077")
+  private volatile DeviceToTsFileIndex deviceIndex;
+
   /**
    * Insert a new node before an existing node
    *
@@ -59,6 +68,7 @@ public class TsFileResourceList implements List<TsFileResource> {
     }
     node.prev = newNode;
     count++;
+    onNodeAdded(newNode);
   }
 
   /**
@@ -77,6 +87,7 @@ public class TsFileResourceList implements List<TsFileResource> {
     }
     node.next = newNode;
     count++;
+    onNodeAdded(newNode);
   }
 
   @Override
@@ -126,6 +137,7 @@ public class TsFileResourceList implements List<TsFileResource> {
       header = newNode;
       tail = newNode;
       count++;
+      onNodeAdded(newNode);
     } else {
       insertAfter(tail, newNode);
     }
@@ -147,6 +159,7 @@ public class TsFileResourceList implements List<TsFileResource> {
       header = newNode;
       tail = newNode;
       count++;
+      onNodeAdded(newNode);
     } else {
       TsFileNameGenerator.TsFileName newTsFileName =
           TsFileNameGenerator.getTsFileName(newNode.getTsFile().getName());
@@ -221,6 +234,10 @@ public class TsFileResourceList implements List<TsFileResource> {
     tsFileResource.prev = null;
     tsFileResource.next = null;
     count--;
+    DeviceToTsFileIndex index = deviceIndex;
+    if (index != null) {
+      index.remove(tsFileResource);
+    }
     return true;
   }
 
@@ -246,6 +263,10 @@ public class TsFileResourceList implements List<TsFileResource> {
     header = null;
     tail = null;
     count = 0;
+    DeviceToTsFileIndex index = deviceIndex;
+    if (index != null) {
+      index.clear();
+    }
   }
 
   @Override
@@ -363,6 +384,66 @@ public class TsFileResourceList implements List<TsFileResource> {
     return list;
   }
 
+  /**
+   * Get the TsFiles that may contain the given device in list order. Only the candidates found by
+   * the device to TsFile index are visited, instead of every TsFile of the list.
+   */
+  public List<TsFileResource> getArrayList(IDeviceID deviceId) {
+    DeviceToTsFileIndex index = deviceIndex;
+    if (index == null) {
+      index = getOrCreateDeviceIndex();
+    }
+    List<TsFileResource> candidates = index.getCandidates(deviceId);
+    candidates.sort(Comparator.comparingLong(tsFileResource -> tsFileResource.positionInList));
+    return candidates;
+  }
+
+  private synchronized DeviceToTsFileIndex getOrCreateDeviceIndex() {
+    if (deviceIndex == null) {
+      DeviceToTsFileIndex index = new DeviceToTsFileIndex();
+      TsFileResource current = header;
+      while (current != null) {
+        index.add(current);
+        current = current.next;
+      }
+      deviceIndex = index;
+    }
+    return deviceIndex;
+  }
+
+  private void onNodeAdded(TsFileResource newNode) {
+    assignPosition(newNode);
+    // synchronized with the creation of the index, so that the new node is never missed
+    synchronized (this) {
+      if (deviceIndex != null) {
+        deviceIndex.add(newNode);
+      }
+    }
+  }
+
+  private void assignPosition(TsFileResource node) {
+    TsFileResource prev = node.prev;
+    TsFileResource next = node.next;
+    if (prev == null && next == null) {
+      node.positionInList = 0;
+    } else if (prev == null) {
+      node.positionInList = next.positionInList - POSITION_GAP;
+    } else if (next == null) {
+      node.positionInList = prev.positionInList + POSITION_GAP;
+    } else if (next.positionInList - prev.positionInList > 1) {
+      node.positionInList = prev.positionInList + (next.positionInList - prev.positionInList) / 2;
+    } else {
+      // no room left between the neighbours, re-position the whole list
+      long position = 0;
+      TsFileResource current = header;
+      while (current != null) {
+        current.positionInList = position;
+        position += POSITION_GAP;
+        current = current.next;
+      }
+    }
+  }
+
   private class TsFileIterator implements Iterator<TsFileResource> {
     List<TsFileResource> tsFileResourceList;
     int currentIndex = 0;
@@ -27,14 +27,20 @@ import org.apache.iotdb.db.storageengine.StorageEngine;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResourceList;
+import org.apache.iotdb.db.storageengine.dataregion.utils.fileTimeIndexCache.DeviceTimeIndexCacheReader;
+import org.apache.iotdb.db.storageengine.dataregion.utils.fileTimeIndexCache.DeviceTimeIndexCacheWriter;
 import org.apache.iotdb.db.storageengine.dataregion.utils.fileTimeIndexCache.FileTimeIndexCacheWriter;
 
+import org.apache.tsfile.utils.PublicBAOS;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
@@ -53,12 +59,27 @@ public class FileTimeIndexCacheRecorder {
 
   protected static final String FILE_NAME = "FileTimeIndexCache_" + VERSION;
 
+  /**
+   * Directory holding one DeviceTimeIndexCache file per time partition, each file is named by its
+   * partition id.
+   */
+  public static final String DEVICE_TIME_INDEX_CACHE_DIR_NAME = "DeviceTimeIndexCache_" + VERSION;
+
+  // the DeviceTimeIndexCache of a partition is rewritten once its stale entries outnumber the live
+  // ones by this ratio
+  private static final int DEVICE_TIME_INDEX_CACHE_COMPACT_RATIO = 2;
+
+  private static final int DEVICE_TIME_INDEX_CACHE_MIN_ENTRY_NUM_TO_COMPACT = 64;
+
   private final ScheduledExecutorService recordFileIndexThread;
 
   private final BlockingQueue<Runnable> taskQueue = new LinkedBlockingQueue<>();
 
   private final Map<Integer, FileTimeIndexCacheWriter> writerMap = new ConcurrentHashMap<>();
 
+  private final Map<Integer, Map<Long, DeviceTimeIndexCacheWriter>> deviceWriterMap =
+      new ConcurrentHashMap<>();
+
   private FileTimeIndexCacheRecorder() {
     recordFileIndexThread =
         IoTDBThreadPoolFactory.newSingleThreadScheduledExecutor(
@@ -101,6 +122,7 @@ public class FileTimeIndexCacheRecorder {
                   }
                   buffer.flip();
                   writer.write(buffer);
+                  logDeviceTimeIndex(dataRegionId, dataRegionSysDir, tsFileResources);
                 } catch (IOException e) {
                   LOGGER.warn("Meet error when record FileTimeIndexCache: {}", e.getMessage());
                 }
@@ -162,6 +184,104 @@ public class FileTimeIndexCacheRecorder {
         LOGGER.warn("Meet error when compact FileTimeIndexCache");
       }
     }
+    compactDeviceTimeIndexIfNeeded(dataRegionId, sequenceFiles, unsequenceFiles);
+  }
+
+  private void compactDeviceTimeIndexIfNeeded(
+      int dataRegionId,
+      Map<Long, TsFileResourceList> sequenceFiles,
+      Map<Long, TsFileResourceList> unsequenceFiles) {
+    Map<Long, DeviceTimeIndexCacheWriter> partitionWriters = deviceWriterMap.get(dataRegionId);
+    if (partitionWriters == null) {
+      return;
+    }
+    for (Map.Entry<Long, DeviceTimeIndexCacheWriter> entry : partitionWriters.entrySet()) {
+      List<TsFileResource> liveResources = new ArrayList<>();
+      TsFileResourceList sequenceList = sequenceFiles.get(entry.getKey());
+      if (sequenceList != null) {
+        sequenceList.forEach(liveResources::add);
+      }
+      TsFileResourceList unsequenceList = unsequenceFiles.get(entry.getKey());
+      if (unsequenceList != null) {
+        unsequenceList.forEach(liveResources::add);
+      }
+      DeviceTimeIndexCacheWriter writer = entry.getValue();
+      if (writer.getEntryNum()
+          <= Math.max(
+              DEVICE_TIME_INDEX_CACHE_MIN_ENTRY_NUM_TO_COMPACT,
+              liveResources.size() * DEVICE_TIME_INDEX_CACHE_COMPACT_RATIO)) {
+        continue;
+      }
+      boolean result =
+          taskQueue.offer(
+              () -> {
+                try {
+                  writer.clearFile();
+                  writeDeviceTimeIndex(writer, liveResources);
+                } catch (IOException e) {
+                  LOGGER.warn("Meet error when compact DeviceTimeIndexCache: {}", e.getMessage());
+                }
+              });
+      if (!result) {
+        LOGGER.warn("Meet error when compact DeviceTimeIndexCache");
+      }
+    }
+  }
+
+  private void logDeviceTimeIndex(
+      int dataRegionId, File dataRegionSysDir, TsFileResource... tsFileResources)
+      throws IOException {
+    Map<Long, List<TsFileResource>> partitionResources = new HashMap<>();
+    for (TsFileResource tsFileResource : tsFileResources) {
+      partitionResources
+          .computeIfAbsent(tsFileResource.getTsFileID().timePartitionId, k -> new ArrayList<>())
+          .add(tsFileResource);
+    }
+    for (Map.Entry<Long, List<TsFileResource>> entry : partitionResources.entrySet()) {
+      writeDeviceTimeIndex(
+          getDeviceWriter(dataRegionId, dataRegionSysDir, entry.getKey()), entry.getValue());
+    }
+  }
+
+  /**
+   * Each entry is made up of timestamp, fileVersion and compactionVersion of the TsFile followed by
+   * the length and bytes of its serialized device time index, see {@link
+   * DeviceTimeIndexCacheReader}. TsFiles whose time index has been degraded are skipped and will be
+   * recovered from their resource files.
+   */
+  private void writeDeviceTimeIndex(
+      DeviceTimeIndexCacheWriter writer, List<TsFileResource> tsFileResources) throws IOException {
+    PublicBAOS byteArrayOutputStream = new PublicBAOS();
+    List<TsFileResource> serializedResources = new ArrayList<>();
+    List<Integer> serializedSizes = new ArrayList<>();
+    for (TsFileResource tsFileResource : tsFileResources) {
+      int sizeBefore = byteArrayOutputStream.size();
+      if (!tsFileResource.serializeDeviceTimeIndex(byteArrayOutputStream)) {
+        continue;
+      }
+      serializedResources.add(tsFileResource);
+      serializedSizes.add(byteArrayOutputStream.size() - sizeBefore);
+    }
+    if (serializedResources.isEmpty()) {
+      return;
+    }
+    ByteBuffer buffer =
+        ByteBuffer.allocate(
+            serializedResources.size() * DeviceTimeIndexCacheReader.ENTRY_HEADER_SIZE
+                + byteArrayOutputStream.size());
+    int offset = 0;
+    for (int i = 0; i < serializedResources.size(); i++) {
+      TsFileID tsFileID = serializedResources.get(i).getTsFileID();
+      int size = serializedSizes.get(i);
+      buffer.putLong(tsFileID.timestamp);
+      buffer.putLong(tsFileID.fileVersion);
+      buffer.putLong(tsFileID.compactionVersion);
+      buffer.putInt(size);
+      buffer.put(byteArrayOutputStream.getBuf(), offset, size);
+      offset += size;
+    }
+    buffer.flip();
+    writer.write(buffer, serializedResources.size());
   }
 
   private FileTimeIndexCacheWriter getWriter(int dataRegionId, File dataRegionSysDir) {
@@ -186,10 +306,51 @@ public class FileTimeIndexCacheRecorder {
         });
   }
 
+  private DeviceTimeIndexCacheWriter getDeviceWriter(
+      int dataRegionId, File dataRegionSysDir, long partitionId) {
+    return deviceWriterMap
+        .computeIfAbsent(dataRegionId, k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(
+            partitionId,
+            k -> {
+              File cacheDir =
+                  SystemFileFactory.INSTANCE.getFile(
+                      dataRegionSysDir, DEVICE_TIME_INDEX_CACHE_DIR_NAME);
+              File logFile =
+                  SystemFileFactory.INSTANCE.getFile(cacheDir, String.valueOf(partitionId));
+              try {
+                if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+                  LOGGER.debug(
+                      "DeviceTimeIndexCache dir has existed，filePath:{}",
+                      cacheDir.getAbsolutePath());
+                }
+                int entryNum = 0;
+                if (!logFile.createNewFile()) {
+                  // resume appending after the entries left by the last run
+                  entryNum =
+                      new DeviceTimeIndexCacheReader(logFile, String.valueOf(dataRegionId))
+                          .countEntries();
+                }
+                return new DeviceTimeIndexCacheWriter(logFile, true, entryNum);
+              } catch (IOException e) {
+                LOGGER.error(
+                    "DeviceTimeIndex log file create filed，filePath:{}",
+                    logFile.getAbsolutePath(),
+                    e);
+                throw new RuntimeException(e);
+              }
+            });
+  }
+
   public void close() throws IOException {
     for (FileTimeIndexCacheWriter writer : writerMap.values()) {
       writer.close();
     }
+    for (Map<Long, DeviceTimeIndexCacheWriter> partitionWriters : deviceWriterMap.values()) {
+      for (DeviceTimeIndexCacheWriter writer : partitionWriters.values()) {
+        writer.close();
+      }
+    }
   }
 
   public void removeFileTimeIndexCache(int dataRegionId) {
@@ -201,6 +362,17 @@ public class FileTimeIndexCacheRecorder {
         LOGGER.warn("Meet error when close FileTimeIndexCache: {}", e.getMessage());
       }
     }
+    Map<Long, DeviceTimeIndexCacheWriter> partitionWriters = deviceWriterMap.remove(dataRegionId);
+    if (partitionWriters != null) {
+      for (DeviceTimeIndexCacheWriter writer : partitionWriters.values()) {
+        try {
+          writer.close();
+          deleteDirectoryAndEmptyParent(writer.getLogFile());
+        } catch (IOException e) {
+          LOGGER.warn("Meet error when close DeviceTimeIndexCache: {}", e.getMessage());
+        }
+      }
+    }
   }
 
   public static FileTimeIndexCacheRecorder getInstance() {
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.utils.fileTimeIndexCache;
+
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Reads the DeviceTimeIndexCache of one time partition. The file is memory-mapped and only the
+ * entry headers are visited, the serialized device time index of each TsFile is handed out as a
+ * slice of the mapping and deserialized when it is first needed.
+ */
+public class DeviceTimeIndexCacheReader {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DeviceTimeIndexCacheReader.class);
+
+  // timestamp, fileVersion, compactionVersion and the length of the serialized time index
+  public static final int ENTRY_HEADER_SIZE = 3 * Long.BYTES + Integer.BYTES;
+
+  private final File logFile;
+  private final int dataRegionId;
+  private final long partitionId;
+
+  public DeviceTimeIndexCacheReader(File logFile, String dataRegionId) {
+    this.logFile = logFile;
+    this.dataRegionId = Integer.parseInt(dataRegionId);
+    this.partitionId = Long.parseLong(logFile.getName());
+  }
+
+  /**
+   * @return the number of entries read from the file
+   */
+  public int read(Map<TsFileID, ByteBuffer> deviceTimeIndexMap) throws IOException {
+    return scan(deviceTimeIndexMap);
+  }
+
+  /** Count the entries without collecting them, used to resume appending to the file. */
+  public int countEntries() throws IOException {
+    return scan(null);
+  }
+
+  private int scan(Map<TsFileID, ByteBuffer> deviceTimeIndexMap) throws IOException {
+    long fileLength = logFile.length();
+    if (fileLength == 0) {
+      return 0;
+    }
+    // entries beyond 2GB are left to the resource files
+    long mapLength = Math.min(fileLength, Integer.MAX_VALUE);
+    MappedByteBuffer mappedBuffer;
+    try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+      mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, mapLength);
+    }
+
+    int entryNum = 0;
+    long readLength = 0L;
+    while (mappedBuffer.remaining() >= ENTRY_HEADER_SIZE) {
+      long timestamp = mappedBuffer.getLong();
+      long fileVersion = mappedBuffer.getLong();
+      long compactionVersion = mappedBuffer.getLong();
+      int length = mappedBuffer.getInt();
+      if (length <= 0 || length > mappedBuffer.remaining()) {
+        break;
+      }
+      if (deviceTimeIndexMap != null) {
+        ByteBuffer timeIndexBuffer = mappedBuffer.slice();
+        timeIndexBuffer.limit(length);
+        deviceTimeIndexMap.put(
+            new TsFileID(dataRegionId, partitionId, timestamp, fileVersion, compactionVersion),
+            timeIndexBuffer);
+      }
+      mappedBuffer.position(mappedBuffer.position() + length);
+      readLength = mappedBuffer.position();
+      entryNum++;
+    }
+    if (readLength < mapLength) {
+      // the tail is torn by a crash, truncate it so that new entries can be appended
+      LOGGER.info(
+          "Truncate DeviceTimeIndexCache {} from {} to {} bytes.",
+          logFile.getAbsolutePath(),
+          fileLength,
+          readLength);
+      try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.WRITE)) {
+        channel.truncate(readLength);
+      }
+    }
+    return entryNum;
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.utils.fileTimeIndexCache;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Appends entries to the DeviceTimeIndexCache of one time partition and counts them. */
+public class DeviceTimeIndexCacheWriter extends FileTimeIndexCacheWriter {
+
+  private final AtomicInteger entryNum;
+
+  public DeviceTimeIndexCacheWriter(File logFile, boolean forceEachWrite, int entryNum)
+      throws FileNotFoundException {
+    super(logFile, forceEachWrite);
+    this.entryNum = new AtomicInteger(entryNum);
+  }
+
+  public void write(ByteBuffer logBuffer, int entryNumInBuffer) throws IOException {
+    write(logBuffer);
+    entryNum.addAndGet(entryNumInBuffer);
+  }
+
+  @Override
+  public void clearFile() throws IOException {
+    super.clearFile();
+    entryNum.set(0);
+  }
+
+  public int getEntryNum() {
+    return entryNum.get();
+  }
+}
@@ -20,7 +20,11 @@
 package org.apache.iotdb.db.storageengine.dataregion.wal.buffer;
 
 import org.apache.iotdb.commons.file.SystemFileFactory;
+import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.storageengine.dataregion.wal.WALManager;
+import org.apache.iotdb.db.storageengine.dataregion.wal.checkpoint.CheckpointManager;
+import org.apache.iotdb.db.storageengine.dataregion.wal.exception.BrokenWALFileException;
+import org.apache.iotdb.db.storageengine.dataregion.wal.io.WALMetaData;
 import org.apache.iotdb.db.storageengine.dataregion.wal.io.WALWriter;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALFileStatus;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALFileUtils;
@@ -30,9 +34,15 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class AbstractWALBuffer implements IWALBuffer {
   private static final Logger logger = LoggerFactory.getLogger(AbstractWALBuffer.class);
@@ -55,11 +65,23 @@ public abstract class AbstractWALBuffer implements IWALBuffer {
   @SuppressWarnings("squid:S3077")
   protected volatile WALWriter currentWALFileWriter;
 
+  // manage checkpoints
+  protected final CheckpointManager checkpointManager;
+  // manage wal files which have MemTableIds
+  protected final Map<Long, Set<Long>> memTableIdsOfWal = new ConcurrentHashMap<>();
+  // decide how long to wait for more entries before fsync
+  protected final WALGroupCommitPolicy groupCommitPolicy = new WALGroupCommitPolicy();
+
   protected AbstractWALBuffer(
-      String identifier, String logDirectory, long startFileVersion, long startSearchIndex)
+      String identifier,
+      String logDirectory,
+      CheckpointManager checkpointManager,
+      long startFileVersion,
+      long startSearchIndex)
       throws IOException {
     this.identifier = identifier;
     this.logDirectory = logDirectory;
+    this.checkpointManager = checkpointManager;
     File logDirFile = SystemFileFactory.INSTANCE.getFile(logDirectory);
     if (!logDirFile.exists() && logDirFile.mkdirs()) {
       logger.info("Create folder {} for wal node-{}'s buffer.", logDirectory, identifier);
@@ -160,4 +182,49 @@ public abstract class AbstractWALBuffer implements IWALBuffer {
   public long getCurrentSearchIndex() {
     return currentSearchIndex;
   }
+
+  public CheckpointManager getCheckpointManager() {
+    return checkpointManager;
+  }
+
+  public void removeMemTableIdsOfWal(Long walVersionId) {
+    this.memTableIdsOfWal.remove(walVersionId);
+  }
+
+  public Set<Long> getMemTableIds(long fileVersionId) {
+    if (fileVersionId >= currentWALFileVersion) {
+      return null;
+    }
+    return memTableIdsOfWal.computeIfAbsent(
+        fileVersionId,
+        id -> {
+          try {
+            File file = WALFileUtils.getWALFile(new File(logDirectory), id);
+            return WALMetaData.readFromWALFile(
+                    file, FileChannel.open(file.toPath(), StandardOpenOption.READ))
+                .getMemTablesId();
+          } catch (BrokenWALFileException e) {
+            logger.warn(
+                "Fail to read memTable ids from the wal file {} of wal node {}: {}",
+                id,
+                identifier,
+                e.getMessage());
+          } catch (IOException e) {
+            logger.warn(
+                "Fail to read memTable ids from the wal file {} of wal node {}.",
+                id,
+                identifier,
+                e);
+          }
+          return Collections.emptySet();
+        });
+  }
+
+  @TestOnly
+  public Map<Long, Set<Long>> getMemTableIdsOfWal() {
+    return memTableIdsOfWal;
+  }
+
+  @TestOnly
+  public abstract void setBufferSize(int size);
 }
@@ -0,0 +1,1018 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.wal.buffer;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.commons.concurrent.ThreadName;
+import org.apache.iotdb.commons.conf.CommonDescriptor;
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.DeleteDataNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertNode;
+import org.apache.iotdb.db.service.metrics.WritingMetrics;
+import org.apache.iotdb.db.storageengine.dataregion.wal.checkpoint.Checkpoint;
+import org.apache.iotdb.db.storageengine.dataregion.wal.checkpoint.CheckpointManager;
+import org.apache.iotdb.db.storageengine.dataregion.wal.exception.WALNodeClosedException;
+import org.apache.iotdb.db.storageengine.dataregion.wal.io.WALMetaData;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALFileStatus;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.listener.WALFlushListener;
+import org.apache.iotdb.db.utils.MmapUtil;
+
+import org.apache.tsfile.compress.ICompressor;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static org.apache.iotdb.db.storageengine.dataregion.wal.node.WALNode.DEFAULT_SEARCH_INDEX;
+
+/**
+ * This buffer lets writers serialize {@link WALEntry} in their own threads. The buffer is split
+ * into a ring of off-heap segments, each writer reserves space in the current segment with CAS and
+ * copies its serialized bytes into the reserved space. The writer who finds no space left seals the
+ * segment and installs the next one. A single sync thread only writes sealed segments to the wal
+ * file in order, fsyncs a group of segments once and notifies the {@link WALFlushListener}s.
+ */
+public class ConcurrentWALBuffer extends AbstractWALBuffer {
+  private static final Logger logger = LoggerFactory.getLogger(ConcurrentWALBuffer.class);
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private static final WritingMetrics WRITING_METRICS = WritingMetrics.getInstance();
+  // set in the reserved bytes of a segment when the segment accepts no more writes
+  private static final int SEALED_BIT = 1 << 30;
+  // initial size of each writer's serialization buffer
+  private static final int INITIAL_SERIALIZE_BUFFER_SIZE = 4 * 1024;
+  // park time of writers waiting for the next segment to be installed
+  private static final long WAIT_FOR_NEXT_SEGMENT_IN_NS = 1_000L;
+  // min poll timeout of the sync thread, avoid spinning when the current segment is overdue
+  private static final long MIN_POLL_TIMEOUT_IN_NS = 50_000L;
+  // min interval to check the current segment, entries waited by writers may arrive at any time
+  private static final long MIN_CHECK_INTERVAL_IN_NS = TimeUnit.MILLISECONDS.toNanos(1);
+  // marker put into sealedSegments to stop the sync thread
+  private static final Segment CLOSE_MARKER = new Segment(null, 0, false);
+
+  // each writer thread serializes its WALEntry into this buffer before reserving space
+  private static final ThreadLocal<HeapByteBufferView> SERIALIZE_BUFFER =
+      ThreadLocal.withInitial(HeapByteBufferView::new);
+
+  // whether close method is called
+  private volatile boolean isClosed = false;
+  // number of pooled segments
+  private final int segmentsNum;
+  // capacity of each pooled segment, buffers of other capacities are replaced when recycled
+  private volatile int segmentCapacity;
+  // all pooled off-heap buffers, used to release memory when closing
+  private final List<ByteBuffer> pooledBuffers = new ArrayList<>();
+  // pooled off-heap buffers not used by any segment
+  private final BlockingQueue<ByteBuffer> idleBuffers;
+  // segment accepting writes, only replaced by the thread who sealed it
+  private final AtomicReference<Segment> currentSegment = new AtomicReference<>();
+  // sealed segments waiting for the sync thread, in order of sealing
+  private final BlockingQueue<Segment> sealedSegments = new LinkedBlockingQueue<>();
+  // number of sealed segments which haven't been synced
+  private final AtomicInteger unsyncedSegmentsNum = new AtomicInteger(0);
+  // max search index of all written entries
+  private final AtomicLong maxSearchIndex;
+  // max search index of all synced entries, only accessed by the sync thread
+  private long syncedSearchIndex;
+  // writer position of the next written entry, help record each entry's position
+  private long nextEntryPosition;
+  private ByteBuffer compressedByteBuffer;
+  // lock and condition to notify threads waiting for the next flush
+  private final Lock flushLock = new ReentrantLock();
+  private final Condition flushedCondition = flushLock.newCondition();
+  // single thread to write sealed segments to disk
+  private final ExecutorService syncBufferThread;
+
+  public ConcurrentWALBuffer(String identifier, String logDirectory) throws IOException {
+    this(identifier, logDirectory, new CheckpointManager(identifier, logDirectory), 0, 0L);
+  }
+
+  public ConcurrentWALBuffer(
+      String identifier,
+      String logDirectory,
+      CheckpointManager checkpointManager,
+      long startFileVersion,
+      long startSearchIndex)
+      throws IOException {
+    super(identifier, logDirectory, checkpointManager, startFileVersion, startSearchIndex);
+    this.segmentsNum = Math.max(2, config.getWalBufferSegmentNum());
+    this.segmentCapacity = computeSegmentCapacity(config.getWalBufferSize());
+    this.idleBuffers = new ArrayBlockingQueue<>(segmentsNum);
+    this.maxSearchIndex = new AtomicLong(startSearchIndex);
+    this.syncedSearchIndex = startSearchIndex;
+    allocateBuffers();
+    currentWALFileWriter.setCompressedByteBuffer(compressedByteBuffer);
+    currentSegment.set(Segment.ofPooledBuffer(idleBuffers.poll()));
+    syncBufferThread =
+        IoTDBThreadPoolFactory.newSingleThreadExecutor(
+            ThreadName.WAL_SYNC.getName() + "(node-" + identifier + ")");
+    syncBufferThread.submit(new SyncSegmentsTask());
+  }
+
+  private int computeSegmentCapacity(int bufferSize) {
+    return Math.max(1, Math.min(bufferSize / segmentsNum, SEALED_BIT - 1));
+  }
+
+  private void allocateBuffers() {
+    try {
+      for (int i = 0; i < segmentsNum; i++) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(segmentCapacity);
+        pooledBuffers.add(buffer);
+        idleBuffers.add(buffer);
+      }
+      compressedByteBuffer =
+          ByteBuffer.allocateDirect(
+              ICompressor.getCompressor(CompressionType.LZ4)
+                  .getMaxBytesForCompression(segmentCapacity));
+    } catch (OutOfMemoryError e) {
+      logger.error("Fail to allocate wal node-{}'s buffer because out of memory.", identifier, e);
+      releaseBuffers();
+      throw e;
+    }
+  }
+
+  @Override
+  protected File rollLogWriter(long searchIndex, WALFileStatus fileStatus) throws IOException {
+    File file = super.rollLogWriter(searchIndex, fileStatus);
+    currentWALFileWriter.setCompressedByteBuffer(compressedByteBuffer);
+    return file;
+  }
+
+  /**
+   * The segments in use and the idle ones keep their buffers, each of them is replaced by a buffer
+   * of the new size when it's recycled by the sync thread.
+   */
+  @Override
+  @TestOnly
+  public void setBufferSize(int size) {
+    segmentCapacity = computeSegmentCapacity(size);
+  }
+
+  // region methods of writer threads
+
+  @Override
+  public void write(WALEntry walEntry) {
+    if (isClosed) {
+      logger.warn(
+          "Fail to write WALEntry into wal node-{} because this node is closed. It's ok to see this log during data region deletion.",
+          identifier);
+      walEntry.getWalFlushListener().fail(new WALNodeClosedException(identifier));
+      return;
+    }
+    if (walEntry.isSignal()) {
+      handleSignalEntry((WALSignalEntry) walEntry);
+      return;
+    }
+    if (walEntry.getType() == WALEntryType.MEMORY_TABLE_CHECKPOINT) {
+      Checkpoint checkpoint = (Checkpoint) walEntry.getValue();
+      if (attachToCurrentSegment(segment -> segment.checkpoints.add(checkpoint)) == null) {
+        logger.warn(
+            "Fail to make checkpoint {} of wal node-{} because this node is closed.",
+            checkpoint,
+            identifier);
+      }
+      return;
+    }
+
+    long startTime = System.nanoTime();
+    HeapByteBufferView view = SERIALIZE_BUFFER.get();
+    ByteBuffer serializedBuffer;
+    try {
+      walEntry.serialize(view);
+      serializedBuffer = view.flip();
+    } catch (Exception e) {
+      logger.error(
+          "Fail to serialize WALEntry to wal node-{}'s buffer, discard it.", identifier, e);
+      walEntry.getWalFlushListener().fail(e);
+      view.reset();
+      return;
+    }
+    EntryInfo entryInfo = new EntryInfo(walEntry, serializedBuffer.remaining());
+    walEntry.getWalFlushListener().getWalEntryHandler().setSize(entryInfo.size);
+    try {
+      appendEntry(serializedBuffer, entryInfo);
+    } finally {
+      view.reset();
+    }
+    WRITING_METRICS.recordSerializeWALEntryTotalCost(System.nanoTime() - startTime);
+  }
+
+  private void handleSignalEntry(WALSignalEntry walSignalEntry) {
+    switch (walSignalEntry.getType()) {
+      case ROLL_WAL_LOG_WRITER_SIGNAL:
+        if (logger.isDebugEnabled()) {
+          logger.debug("Handle roll log writer signal for wal node-{}.", identifier);
+        }
+        WALFlushListener rollListener = walSignalEntry.getWalFlushListener();
+        Segment segment =
+            attachToCurrentSegment(current -> current.rollListeners.add(rollListener));
+        if (segment == null) {
+          rollListener.fail(new WALNodeClosedException(identifier));
+        } else if (segment.trySeal()) {
+          rollSegment(segment, null);
+        }
+        break;
+      case CLOSE_SIGNAL:
+        sealForClose();
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Copy serialized bytes of one entry into the current segment. Entries larger than a segment are
+   * written as a dedicated segment right after the current one.
+   */
+  private void appendEntry(ByteBuffer serializedBuffer, EntryInfo entryInfo) {
+    while (true) {
+      Segment segment = currentSegment.get();
+      boolean sealedByThisThread = false;
+      segment.activeWritersNum.incrementAndGet();
+      try {
+        if (entryInfo.size <= segment.capacity) {
+          int offset = segment.reserve(entryInfo.size);
+          if (offset >= 0) {
+            if (offset == 0) {
+              segment.firstEntryTime = System.nanoTime();
+            }
+            segment.put(offset, serializedBuffer);
+            entryInfo.offset = offset;
+            segment.addEntry(entryInfo);
+            if (entryInfo.listener.getDurabilityLevel().needWait()) {
+              segment.hasWaitingListeners = true;
+            }
+            if (entryInfo.searchIndex != DEFAULT_SEARCH_INDEX) {
+              maxSearchIndex.accumulateAndGet(entryInfo.searchIndex, Math::max);
+            }
+            return;
+          }
+        }
+        sealedByThisThread = segment.trySeal();
+      } finally {
+        // must be decreased before rolling, otherwise the sync thread may wait for this writer
+        segment.activeWritersNum.decrementAndGet();
+      }
+
+      if (sealedByThisThread) {
+        if (entryInfo.size > segment.capacity) {
+          rollSegment(segment, Segment.ofSingleEntry(serializedBuffer, entryInfo));
+          if (entryInfo.searchIndex != DEFAULT_SEARCH_INDEX) {
+            maxSearchIndex.accumulateAndGet(entryInfo.searchIndex, Math::max);
+          }
+          return;
+        }
+        rollSegment(segment, null);
+      } else if (!waitForNextSegment(segment)) {
+        logger.warn(
+            "Fail to write WALEntry into wal node-{} because this node is closed. It's ok to see this log during data region deletion.",
+            identifier);
+        entryInfo.listener.fail(new WALNodeClosedException(identifier));
+        return;
+      }
+    }
+  }
+
+  /**
+   * Attach some info to the current unsealed segment, the info will be handled when this segment is
+   * synced.
+   *
+   * @return the segment attached to, null if this buffer is closed
+   */
+  private Segment attachToCurrentSegment(Consumer<Segment> attachment) {
+    while (true) {
+      Segment segment = currentSegment.get();
+      segment.activeWritersNum.incrementAndGet();
+      try {
+        if (!segment.isSealed()) {
+          attachment.accept(segment);
+          return segment;
+        }
+      } finally {
+        segment.activeWritersNum.decrementAndGet();
+      }
+      if (!waitForNextSegment(segment)) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Wait until the sealed segment is replaced by the thread who sealed it.
+   *
+   * @return false if the segment won't be replaced because this buffer is closed
+   */
+  private boolean waitForNextSegment(Segment sealedSegment) {
+    while (currentSegment.get() == sealedSegment) {
+      if (isClosed) {
+        return false;
+      }
+      LockSupport.parkNanos(WAIT_FOR_NEXT_SEGMENT_IN_NS);
+    }
+    return true;
+  }
+
+  /**
+   * Hand over the sealed segment to the sync thread and install the next segment. Notice: only
+   * called by the thread who sealed the segment, so the order of sealedSegments is the order of
+   * segments.
+   */
+  private void rollSegment(Segment sealedSegment, Segment singleEntrySegment) {
+    unsyncedSegmentsNum.incrementAndGet();
+    sealedSegments.add(sealedSegment);
+    if (singleEntrySegment != null) {
+      unsyncedSegmentsNum.incrementAndGet();
+      sealedSegments.add(singleEntrySegment);
+    }
+    currentSegment.set(Segment.ofPooledBuffer(takeIdleBuffer()));
+  }
+
+  private ByteBuffer takeIdleBuffer() {
+    boolean interrupted = false;
+    ByteBuffer buffer = null;
+    while (buffer == null) {
+      try {
+        buffer = idleBuffers.take();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    return buffer;
+  }
+
+  private void sealForClose() {
+    if (isClosed) {
+      return;
+    }
+    isClosed = true;
+    while (true) {
+      Segment segment = currentSegment.get();
+      if (segment.trySeal()) {
+        // the current segment is never replaced after sealing, writers will notice isClosed
+        unsyncedSegmentsNum.incrementAndGet();
+        sealedSegments.add(segment);
+        sealedSegments.add(CLOSE_MARKER);
+        return;
+      }
+      // the thread who sealed it is rolling, wait for the next segment
+      while (currentSegment.get() == segment) {
+        LockSupport.parkNanos(WAIT_FOR_NEXT_SEGMENT_IN_NS);
+      }
+    }
+  }
+
+  // endregion
+
+  // region Task of syncBufferThread
+
+  /** This task writes sealed segments to disk, and seals the current segment when it's idle. */
+  private class SyncSegmentsTask implements Runnable {
+    private final List<Segment> group = new ArrayList<>();
+
+    @Override
+    public void run() {
+      boolean closed = false;
+      while (!closed) {
+        Segment segment;
+        try {
+          segment = sealedSegments.poll(getPollTimeoutInNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+          logger.warn("Interrupted when waiting for sealed segments of wal node-{}.", identifier);
+          Thread.currentThread().interrupt();
+          return;
+        }
+        if (segment == null) {
+          sealIdleSegment();
+          continue;
+        }
+        // group commit: write all sealed segments and fsync once
+        while (segment != null) {
+          if (segment == CLOSE_MARKER) {
+            closed = true;
+            break;
+          }
+          group.add(segment);
+          segment = sealedSegments.poll();
+        }
+        try {
+          syncSegments(group);
+        } finally {
+          group.clear();
+        }
+      }
+    }
+
+    /**
+     * No segment is sealed in time, seal the current segment to bound the latency. Notice: the
+     * sealed segments queue must be checked after reading the current segment, then only this
+     * thread can enqueue segments and at least one idle buffer is available.
+     */
+    private void sealIdleSegment() {
+      Segment segment = currentSegment.get();
+      if (segment.isEmpty()
+          || !sealedSegments.isEmpty()
+          || System.nanoTime() - segment.createTime
+              < getSealDelayInNanos(segment.hasWaitingListeners)) {
+        return;
+      }
+      if (segment.trySeal()) {
+        rollSegment(segment, null);
+      }
+    }
+
+    /** Wake up before the current segment should be sealed, or when a waiter may have arrived. */
+    private long getPollTimeoutInNanos() {
+      long checkInterval = Math.max(MIN_CHECK_INTERVAL_IN_NS, getSealDelayInNanos(true));
+      Segment segment = currentSegment.get();
+      if (segment.isEmpty()) {
+        return checkInterval;
+      }
+      long remaining =
+          getSealDelayInNanos(segment.hasWaitingListeners)
+              - (System.nanoTime() - segment.createTime);
+      return Math.max(MIN_POLL_TIMEOUT_IN_NS, Math.min(checkInterval, remaining));
+    }
+  }
+
+  /** Max duration a segment which is not filled up stays unsealed. */
+  private long getSealDelayInNanos(boolean hasWaitingListeners) {
+    long window = groupCommitPolicy.getBatchWindowInNanos(hasWaitingListeners);
+    return window == Long.MAX_VALUE
+        ? groupCommitPolicy.getMaxFsyncDelayInNanos(hasWaitingListeners)
+        : window;
+  }
+
+  private void syncSegments(List<Segment> segments) {
+    long startTime = System.nanoTime();
+    List<Segment> unforcedSegments = new ArrayList<>();
+    int entriesCount = 0;
+    for (Segment segment : segments) {
+      Exception writeCause = writeSegment(segment);
+      for (EntryInfo entryInfo : segment.sortedEntries) {
+        entryInfo
+            .listener
+            .getWalEntryHandler()
+            .setEntryPosition(currentWALFileVersion, nextEntryPosition);
+        nextEntryPosition += entryInfo.size;
+        // entries in the os page cache survive a crash of the process
+        if (entryInfo.listener.getDurabilityLevel() == WALDurabilityLevel.PAGE_CACHE) {
+          if (writeCause == null) {
+            entryInfo.listener.succeed();
+          } else {
+            entryInfo.listener.fail(writeCause);
+          }
+        }
+      }
+      unforcedSegments.add(segment);
+      entriesCount += segment.sortedEntries.size();
+      if (!segment.rollListeners.isEmpty()) {
+        commitSegments(unforcedSegments, true);
+        unforcedSegments.clear();
+      }
+    }
+    if (!unforcedSegments.isEmpty()) {
+      // TODO: Control the wal file by the number of WALEntry
+      commitSegments(
+          unforcedSegments,
+          currentWALFileWriter.originalSize() >= config.getWalFileSizeThresholdInByte());
+    }
+    WRITING_METRICS.recordWALBufferEntriesCount(entriesCount);
+    WRITING_METRICS.recordSyncWALBufferCost(System.nanoTime() - startTime, true);
+  }
+
+  /**
+   * Write one sealed segment to the current wal file without fsync.
+   *
+   * @return the cause if the segment fails to be written, otherwise null
+   */
+  private Exception writeSegment(Segment segment) {
+    segment.awaitWriters();
+    makeMemTableCheckpoints(segment);
+
+    WALMetaData metaData = new WALMetaData();
+    Map<Long, Long> memTableId2WalDiskUsage = new HashMap<>();
+    WALFileStatus fileStatus = WALFileStatus.CONTAINS_NONE_SEARCH_INDEX;
+    for (EntryInfo entryInfo : segment.sortEntries()) {
+      metaData.add(entryInfo.size, entryInfo.searchIndex, entryInfo.memTableId);
+      memTableId2WalDiskUsage.merge(entryInfo.memTableId, (long) entryInfo.size, Long::sum);
+      if (entryInfo.searchIndex != DEFAULT_SEARCH_INDEX) {
+        syncedSearchIndex = Math.max(syncedSearchIndex, entryInfo.searchIndex);
+        fileStatus = WALFileStatus.CONTAINS_SEARCH_INDEX;
+      }
+    }
+    currentWALFileWriter.updateFileStatus(fileStatus);
+
+    int size = segment.size();
+    if (segment.isPooled) {
+      double usedRatio = (double) size / segment.capacity;
+      WRITING_METRICS.recordWALBufferUsedRatio(usedRatio);
+      logger.debug(
+          "Sync wal segment, buffer used: {} / {} = {}%", size, segment.capacity, usedRatio * 100);
+    }
+
+    double compressionRatio = 1.0;
+    Exception cause = null;
+    try {
+      currentWALFileWriter.updateMetaData(metaData);
+      ByteBuffer buffer = segment.buffer;
+      buffer.clear();
+      buffer.position(size);
+      // single entry segments are larger than the compressed buffer
+      compressionRatio = currentWALFileWriter.write(buffer, segment.isPooled);
+    } catch (Throwable e) {
+      logger.error(
+          "Fail to sync wal node-{}'s buffer, change system mode to error.", identifier, e);
+      cause = e instanceof Exception ? (Exception) e : new IOException(e);
+      CommonDescriptor.getInstance().getConfig().handleUnrecoverableError();
+    }
+
+    memTableIdsOfWal
+        .computeIfAbsent(currentWALFileVersion, memTableIds -> new HashSet<>())
+        .addAll(metaData.getMemTablesId());
+    checkpointManager.updateCostOfActiveMemTables(memTableId2WalDiskUsage, compressionRatio);
+    return cause;
+  }
+
+  private void makeMemTableCheckpoints(Segment segment) {
+    if (segment.checkpoints.isEmpty()) {
+      return;
+    }
+    for (Checkpoint checkpoint : segment.checkpoints) {
+      switch (checkpoint.getType()) {
+        case CREATE_MEMORY_TABLE:
+          checkpointManager.makeCreateMemTableCPOnDisk(
+              checkpoint.getMemTableInfos().get(0).getMemTableId());
+          break;
+        case FLUSH_MEMORY_TABLE:
+          checkpointManager.makeFlushMemTableCP(
+              checkpoint.getMemTableInfos().get(0).getMemTableId());
+          break;
+        default:
+          throw new RuntimeException(
+              "Cannot make other checkpoint types in the wal buffer, type is "
+                  + checkpoint.getType());
+      }
+    }
+    checkpointManager.fsyncCheckpointFile();
+  }
+
+  /**
+   * Fsync or roll the current wal file, then notify all listeners of the written segments which
+   * haven't been notified and recycle their buffers.
+   */
+  private void commitSegments(List<Segment> segments, boolean rollWALFile) {
+    Exception cause = null;
+    try {
+      if (rollWALFile) {
+        // closing the old log writer forces it
+        rollLogWriter(syncedSearchIndex, currentWALFileWriter.getWalFileStatus());
+      } else {
+        long forceStartTime = System.nanoTime();
+        currentWALFileWriter.force();
+        int entriesNum = 0;
+        long batchStartTime = forceStartTime;
+        for (Segment segment : segments) {
+          if (entriesNum == 0 && !segment.sortedEntries.isEmpty()) {
+            batchStartTime = segment.firstEntryTime;
+          }
+          entriesNum += segment.sortedEntries.size();
+        }
+        groupCommitPolicy.recordFsync(
+            entriesNum, batchStartTime, System.nanoTime() - forceStartTime);
+      }
+    } catch (IOException e) {
+      logger.error(
+          "Fail to {} wal node-{}'s log writer, change system mode to error.",
+          rollWALFile ? "roll" : "fsync",
+          identifier,
+          e);
+      cause = e;
+      CommonDescriptor.getInstance().getConfig().handleUnrecoverableError();
+    }
+
+    for (Segment segment : segments) {
+      for (EntryInfo entryInfo : segment.sortedEntries) {
+        if (entryInfo.listener.getDurabilityLevel() == WALDurabilityLevel.PAGE_CACHE) {
+          // already notified after writing
+          continue;
+        }
+        if (cause == null) {
+          entryInfo.listener.succeed();
+        } else {
+          entryInfo.listener.fail(cause);
+        }
+      }
+      for (WALFlushListener rollListener : segment.rollListeners) {
+        if (cause == null) {
+          rollListener.succeed();
+        } else {
+          rollListener.fail(cause);
+        }
+      }
+      recycleSegment(segment);
+    }
+    nextEntryPosition = currentWALFileWriter.originalSize();
+
+    flushLock.lock();
+    try {
+      flushedCondition.signalAll();
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private void recycleSegment(Segment segment) {
+    if (segment.isPooled) {
+      ByteBuffer buffer = segment.buffer;
+      if (buffer.capacity() != segmentCapacity) {
+        buffer = resizePooledBuffer(buffer);
+      }
+      buffer.clear();
+      idleBuffers.add(buffer);
+    }
+    unsyncedSegmentsNum.decrementAndGet();
+  }
+
+  /**
+   * Replace the pooled buffer with one of the current segment capacity after the buffer size is
+   * changed. Notice: only called by the sync thread, which is the only one using the compressed
+   * buffer.
+   */
+  private ByteBuffer resizePooledBuffer(ByteBuffer oldBuffer) {
+    int capacity = segmentCapacity;
+    ByteBuffer newBuffer;
+    try {
+      int compressedSize =
+          ICompressor.getCompressor(CompressionType.LZ4).getMaxBytesForCompression(capacity);
+      // the compressed buffer only grows, other pooled buffers may still be of the old capacity
+      if (compressedByteBuffer.capacity() < compressedSize) {
+        ByteBuffer newCompressedBuffer = ByteBuffer.allocateDirect(compressedSize);
+        MmapUtil.clean(compressedByteBuffer);
+        compressedByteBuffer = newCompressedBuffer;
+        currentWALFileWriter.setCompressedByteBuffer(compressedByteBuffer);
+      }
+      newBuffer = ByteBuffer.allocateDirect(capacity);
+    } catch (OutOfMemoryError e) {
+      logger.error(
+          "Fail to resize wal node-{}'s buffer because out of memory, keep the old one.",
+          identifier,
+          e);
+      return oldBuffer;
+    }
+    for (int i = 0; i < pooledBuffers.size(); i++) {
+      // ByteBuffer#equals compares the contents, so find it by identity
+      if (pooledBuffers.get(i) == oldBuffer) {
+        pooledBuffers.set(i, newBuffer);
+        break;
+      }
+    }
+    MmapUtil.clean(oldBuffer);
+    return newBuffer;
+  }
+
+  // endregion
+
+  @Override
+  public long getCurrentSearchIndex() {
+    return maxSearchIndex.get();
+  }
+
+  @Override
+  public void waitForFlush() throws InterruptedException {
+    flushLock.lock();
+    try {
+      flushedCondition.await();
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean waitForFlush(long time, TimeUnit unit) throws InterruptedException {
+    flushLock.lock();
+    try {
+      return flushedCondition.await(time, unit);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean isAllWALEntriesConsumed() {
+    return unsyncedSegmentsNum.get() == 0 && currentSegment.get().isEmpty();
+  }
+
+  @Override
+  public void close() {
+    // first waiting sync task finished, then release all resources
+    sealForClose();
+    syncBufferThread.shutdown();
+    try {
+      if (!syncBufferThread.awaitTermination(30, TimeUnit.SECONDS)) {
+        logger.warn("Waiting thread {} to be terminated is timeout", ThreadName.WAL_SYNC.getName());
+      }
+    } catch (InterruptedException e) {
+      logger.warn("Thread {} still doesn't exit after 30s", ThreadName.WAL_SYNC.getName());
+      Thread.currentThread().interrupt();
+    }
+
+    if (currentWALFileWriter != null) {
+      try {
+        currentWALFileWriter.close();
+      } catch (IOException e) {
+        logger.error("Fail to close wal node-{}'s log writer.", identifier, e);
+      }
+    }
+    checkpointManager.close();
+    releaseBuffers();
+  }
+
+  private void releaseBuffers() {
+    for (ByteBuffer buffer : pooledBuffers) {
+      MmapUtil.clean(buffer);
+    }
+    pooledBuffers.clear();
+    idleBuffers.clear();
+    MmapUtil.clean(compressedByteBuffer);
+  }
+
+  /** Serialized info of one WALEntry, used to build wal metadata and notify its listener. */
+  private static class EntryInfo {
+    private final int size;
+    private final long searchIndex;
+    private final long memTableId;
+    private final WALFlushListener listener;
+    // start position in the segment
+    private int offset;
+
+    private EntryInfo(WALEntry walEntry, int size) {
+      this.size = size;
+      this.memTableId = walEntry.getMemTableId();
+      this.listener = walEntry.getWalFlushListener();
+      long index = DEFAULT_SEARCH_INDEX;
+      if (walEntry.getType().needSearch()) {
+        if (walEntry.getType() == WALEntryType.DELETE_DATA_NODE) {
+          index = ((DeleteDataNode) walEntry.getValue()).getSearchIndex();
+        } else {
+          index = ((InsertNode) walEntry.getValue()).getSearchIndex();
+        }
+      }
+      this.searchIndex = index;
+    }
+  }
+
+  /** One piece of the ring buffer, writers fill it concurrently before it's sealed. */
+  private static class Segment {
+    private final ByteBuffer buffer;
+    private final int capacity;
+    // false iff this segment holds a single entry larger than the pooled buffers
+    private final boolean isPooled;
+    // reserved bytes, with SEALED_BIT set after this segment is sealed
+    private final AtomicInteger reserved = new AtomicInteger(0);
+    // writers which may still write into this segment
+    private final AtomicInteger activeWritersNum = new AtomicInteger(0);
+    private final Queue<EntryInfo> entries = new ConcurrentLinkedQueue<>();
+    private final Queue<Checkpoint> checkpoints = new ConcurrentLinkedQueue<>();
+    private final Queue<WALFlushListener> rollListeners = new ConcurrentLinkedQueue<>();
+    // used to seal this segment in time when it's not filled up
+    private final long createTime = System.nanoTime();
+    // arrival time of the first entry, set by the writer who reserved offset 0
+    private volatile long firstEntryTime;
+    // true if some writers are waiting for entries of this segment
+    private volatile boolean hasWaitingListeners = false;
+    // entries ordered by offset, only accessed by the sync thread
+    private List<EntryInfo> sortedEntries = new ArrayList<>();
+
+    private Segment(ByteBuffer buffer, int capacity, boolean isPooled) {
+      this.buffer = buffer;
+      this.capacity = capacity;
+      this.isPooled = isPooled;
+    }
+
+    private static Segment ofPooledBuffer(ByteBuffer buffer) {
+      return new Segment(buffer, buffer.capacity(), true);
+    }
+
+    private static Segment ofSingleEntry(ByteBuffer serializedBuffer, EntryInfo entryInfo) {
+      ByteBuffer copy = ByteBuffer.allocate(entryInfo.size);
+      copy.put(serializedBuffer.duplicate());
+      Segment segment = new Segment(copy, entryInfo.size, false);
+      segment.reserved.set(entryInfo.size | SEALED_BIT);
+      segment.firstEntryTime = System.nanoTime();
+      entryInfo.offset = 0;
+      segment.entries.add(entryInfo);
+      return segment;
+    }
+
+    /**
+     * Reserve space for one entry.
+     *
+     * @return start offset of the reserved space, -1 if this segment is sealed or has no space
+     */
+    private int reserve(int size) {
+      while (true) {
+        int current = reserved.get();
+        if ((current & SEALED_BIT) != 0 || current + size > capacity) {
+          return -1;
+        }
+        if (reserved.compareAndSet(current, current + size)) {
+          return current;
+        }
+      }
+    }
+
+    /**
+     * Seal this segment to reject all later writes.
+     *
+     * @return true iff this call sealed the segment
+     */
+    private boolean trySeal() {
+      while (true) {
+        int current = reserved.get();
+        if ((current & SEALED_BIT) != 0) {
+          return false;
+        }
+        if (reserved.compareAndSet(current, current | SEALED_BIT)) {
+          return true;
+        }
+      }
+    }
+
+    private boolean isSealed() {
+      return (reserved.get() & SEALED_BIT) != 0;
+    }
+
+    private boolean isEmpty() {
+      return (reserved.get() & ~SEALED_BIT) == 0
+          && checkpoints.isEmpty()
+          && rollListeners.isEmpty();
+    }
+
+    private int size() {
+      return reserved.get() & ~SEALED_BIT;
+    }
+
+    private void put(int offset, ByteBuffer src) {
+      ByteBuffer target = buffer.duplicate();
+      target.position(offset);
+      target.put(src.duplicate());
+    }
+
+    private void addEntry(EntryInfo entryInfo) {
+      entries.add(entryInfo);
+    }
+
+    /** Wait for writers who have reserved space but not finished copying. */
+    private void awaitWriters() {
+      while (activeWritersNum.get() > 0) {
+        LockSupport.parkNanos(WAIT_FOR_NEXT_SEGMENT_IN_NS);
+      }
+    }
+
+    private List<EntryInfo> sortEntries() {
+      sortedEntries = new ArrayList<>(entries);
+      sortedEntries.sort(Comparator.comparingInt(entryInfo -> entryInfo.offset));
+      return sortedEntries;
+    }
+  }
+
+  /** This view serializes one WALEntry into a growable heap buffer owned by the writer thread. */
+  private static class HeapByteBufferView extends IWALByteBufferView {
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_SERIALIZE_BUFFER_SIZE);
+
+    @Override
+    public void write(int b) {
+      put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b) {
+      put(b);
+    }
+
+    private void ensureEnoughSpace(int bytesNum) {
+      if (buffer.remaining() < bytesNum) {
+        int newCapacity = Math.max(buffer.capacity() << 1, buffer.position() + bytesNum);
+        ByteBuffer newBuffer = ByteBuffer.allocate(newCapacity);
+        buffer.flip();
+        newBuffer.put(buffer);
+        buffer = newBuffer;
+      }
+    }
+
+    /** Return the serialized bytes, which stay valid until {@link #reset()}. */
+    private ByteBuffer flip() {
+      ByteBuffer serialized = buffer.duplicate();
+      serialized.flip();
+      return serialized;
+    }
+
+    /** Clear this view and shrink the buffer enlarged by a huge entry. */
+    private void reset() {
+      if (buffer.capacity() > INITIAL_SERIALIZE_BUFFER_SIZE * 256) {
+        buffer = ByteBuffer.allocate(INITIAL_SERIALIZE_BUFFER_SIZE);
+      } else {
+        buffer.clear();
+      }
+    }
+
+    @Override
+    public void put(byte b) {
+      ensureEnoughSpace(Byte.BYTES);
+      buffer.put(b);
+    }
+
+    @Override
+    public void put(byte[] src) {
+      ensureEnoughSpace(src.length);
+      buffer.put(src);
+    }
+
+    @Override
+    public void putChar(char value) {
+      ensureEnoughSpace(Character.BYTES);
+      buffer.putChar(value);
+    }
+
+    @Override
+    public void putShort(short value) {
+      ensureEnoughSpace(Short.BYTES);
+      buffer.putShort(value);
+    }
+
+    @Override
+    public void putInt(int value) {
+      ensureEnoughSpace(Integer.BYTES);
+      buffer.putInt(value);
+    }
+
+    @Override
+    public void putLong(long value) {
+      ensureEnoughSpace(Long.BYTES);
+      buffer.putLong(value);
+    }
+
+    @Override
+    public void putFloat(float value) {
+      ensureEnoughSpace(Float.BYTES);
+      buffer.putFloat(value);
+    }
+
+    @Override
+    public void putDouble(double value) {
+      ensureEnoughSpace(Double.BYTES);
+      buffer.putDouble(value);
+    }
+
+    @Override
+    public int position() {
+      return buffer.position();
+    }
+  }
+}
@@ -30,12 +30,10 @@ import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertNode;
 import org.apache.iotdb.db.service.metrics.WritingMetrics;
 import org.apache.iotdb.db.storageengine.dataregion.wal.checkpoint.Checkpoint;
 import org.apache.iotdb.db.storageengine.dataregion.wal.checkpoint.CheckpointManager;
-import org.apache.iotdb.db.storageengine.dataregion.wal.exception.BrokenWALFileException;
 import org.apache.iotdb.db.storageengine.dataregion.wal.exception.WALNodeClosedException;
 import org.apache.iotdb.db.storageengine.dataregion.wal.io.WALMetaData;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALFileStatus;
-import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALFileUtils;
-import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALMode;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.listener.WALFlushListener;
 import org.apache.iotdb.db.utils.MmapUtil;
 
@@ -47,18 +45,13 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
@@ -81,8 +74,6 @@ public class WALBuffer extends AbstractWALBuffer {
 
   // whether close method is called
   private volatile boolean isClosed = false;
-  // manage checkpoints
-  private final CheckpointManager checkpointManager;
   // WALEntries
   private final BlockingQueue<WALEntry> walEntries = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
   // lock to provide synchronization for double buffers mechanism, protecting buffers status
@@ -119,9 +110,6 @@ public class WALBuffer extends AbstractWALBuffer {
   // single thread to sync syncingBuffer to disk
   private final ExecutorService syncBufferThread;
 
-  // manage wal files which have MemTableIds
-  private final Map<Long, Set<Long>> memTableIdsOfWal = new ConcurrentHashMap<>();
-
   public WALBuffer(String identifier, String logDirectory) throws IOException {
     this(identifier, logDirectory, new CheckpointManager(identifier, logDirectory), 0, 0L);
   }
@@ -133,8 +121,7 @@ public class WALBuffer extends AbstractWALBuffer {
       long startFileVersion,
       long startSearchIndex)
       throws IOException {
-    super(identifier, logDirectory, startFileVersion, startSearchIndex);
-    this.checkpointManager = checkpointManager;
+    super(identifier, logDirectory, checkpointManager, startFileVersion, startSearchIndex);
     currentFileStatus = WALFileStatus.CONTAINS_NONE_SEARCH_INDEX;
     allocateBuffers();
     currentWALFileWriter.setCompressedByteBuffer(compressedByteBuffer);
@@ -172,6 +159,7 @@ public class WALBuffer extends AbstractWALBuffer {
     return file;
   }
 
+  @Override
   @TestOnly
   public void setBufferSize(int size) {
     int capacity = size / 3;
@@ -220,6 +208,10 @@ public class WALBuffer extends AbstractWALBuffer {
     final List<Checkpoint> checkpoints = new ArrayList<>();
     final List<WALFlushListener> fsyncListeners = new ArrayList<>();
     WALFlushListener rollWALFileWriterListener = null;
+    // true if some writers are waiting for entries of this batch
+    boolean hasWaitingListeners = false;
+    // arrival time of the first entry of this batch
+    long batchStartTime = System.nanoTime();
   }
 
   /** This task serializes WALEntry to workingBuffer and will call fsync at last. */
@@ -243,8 +235,11 @@ public class WALBuffer extends AbstractWALBuffer {
     private void serialize() {
       // try to get first WALEntry with blocking interface
       long start = System.nanoTime();
+      long batchStartTime = start;
       try {
         WALEntry firstWALEntry = walEntries.take();
+        batchStartTime = System.nanoTime();
+        info.batchStartTime = batchStartTime;
         boolean returnFlag = handleWALEntry(firstWALEntry);
         if (returnFlag) {
           WRITING_METRICS.recordSerializeWALEntryTotalCost(System.nanoTime() - start);
@@ -261,13 +256,18 @@ public class WALBuffer extends AbstractWALBuffer {
         WALEntry walEntry = null;
         try {
           // for better fsync performance, wait a while to enlarge write batch
-          if (config.getWalMode().equals(WALMode.ASYNC)) {
-            walEntry =
-                walEntries.poll(config.getWalAsyncModeFsyncDelayInMs(), TimeUnit.MILLISECONDS);
-          } else {
-            walEntry =
-                walEntries.poll(config.getWalSyncModeFsyncDelayInMs(), TimeUnit.MILLISECONDS);
+          long remainingWindow =
+              groupCommitPolicy.getBatchWindowInNanos(info.hasWaitingListeners)
+                  - (System.nanoTime() - batchStartTime);
+          if (remainingWindow <= 0) {
+            break;
           }
+          walEntry =
+              walEntries.poll(
+                  Math.min(
+                      groupCommitPolicy.getFsyncDelayInNanos(info.hasWaitingListeners),
+                      remainingWindow),
+                  TimeUnit.NANOSECONDS);
         } catch (InterruptedException e) {
           logger.warn(
               "Interrupted when waiting for taking WALEntry from blocking queue to serialize.");
@@ -344,6 +344,9 @@ public class WALBuffer extends AbstractWALBuffer {
           walEntry.getMemTableId(), (k, v) -> v == null ? size : v + size);
       walEntry.getWalFlushListener().getWalEntryHandler().setSize(size);
       info.fsyncListeners.add(walEntry.getWalFlushListener());
+      if (walEntry.getWalFlushListener().getDurabilityLevel().needWait()) {
+        info.hasWaitingListeners = true;
+      }
     }
 
     /**
@@ -548,16 +551,35 @@ public class WALBuffer extends AbstractWALBuffer {
 
       // flush buffer to os
       double compressionRatio = 1.0;
+      Exception writeCause = null;
       try {
         compressionRatio = currentWALFileWriter.write(syncingBuffer, info.metaData);
       } catch (Throwable e) {
         logger.error(
             "Fail to sync wal node-{}'s buffer, change system mode to error.", identifier, e);
+        writeCause = e instanceof Exception ? (Exception) e : new IOException(e);
         CommonDescriptor.getInstance().getConfig().handleUnrecoverableError();
       } finally {
         switchSyncingBufferToIdle();
       }
 
+      // record positions before notifying, entries in the os page cache survive a crash of the
+      // process
+      long position = lastFsyncPosition;
+      for (WALFlushListener fsyncListener : info.fsyncListeners) {
+        if (fsyncListener.getWalEntryHandler() != null) {
+          fsyncListener.getWalEntryHandler().setEntryPosition(walFileVersionId, position);
+          position += fsyncListener.getWalEntryHandler().getSize();
+        }
+        if (fsyncListener.getDurabilityLevel() == WALDurabilityLevel.PAGE_CACHE) {
+          if (writeCause == null) {
+            fsyncListener.succeed();
+          } else {
+            fsyncListener.fail(writeCause);
+          }
+        }
+      }
+
       // update info
       memTableIdsOfWal
           .computeIfAbsent(currentWALFileVersion, memTableIds -> new HashSet<>())
@@ -587,7 +609,12 @@ public class WALBuffer extends AbstractWALBuffer {
       } else if (forceFlag) { // force os cache to the storage device, avoid force twice by judging
         // after rolling file
         try {
+          long forceStartTime = System.nanoTime();
           currentWALFileWriter.force();
+          groupCommitPolicy.recordFsync(
+              info.fsyncListeners.size(),
+              info.batchStartTime,
+              System.nanoTime() - forceStartTime);
           forceSuccess = true;
         } catch (IOException e) {
           logger.error(
@@ -595,7 +622,10 @@ public class WALBuffer extends AbstractWALBuffer {
               identifier,
               e);
           for (WALFlushListener fsyncListener : info.fsyncListeners) {
-            fsyncListener.fail(e);
+            // entries in the os page cache have been notified after writing
+            if (fsyncListener.getDurabilityLevel() != WALDurabilityLevel.PAGE_CACHE) {
+              fsyncListener.fail(e);
+            }
           }
           CommonDescriptor.getInstance().getConfig().handleUnrecoverableError();
         }
@@ -603,12 +633,9 @@ public class WALBuffer extends AbstractWALBuffer {
 
       // notify all waiting listeners
       if (forceSuccess) {
-        long position = lastFsyncPosition;
         for (WALFlushListener fsyncListener : info.fsyncListeners) {
-          fsyncListener.succeed();
-          if (fsyncListener.getWalEntryHandler() != null) {
-            fsyncListener.getWalEntryHandler().setEntryPosition(walFileVersionId, position);
-            position += fsyncListener.getWalEntryHandler().getSize();
+          if (fsyncListener.getDurabilityLevel() != WALDurabilityLevel.PAGE_CACHE) {
+            fsyncListener.succeed();
           }
         }
         lastFsyncPosition = currentWALFileWriter.originalSize();
@@ -731,46 +758,4 @@ public class WALBuffer extends AbstractWALBuffer {
       buffersLock.unlock();
     }
   }
-
-  public CheckpointManager getCheckpointManager() {
-    return checkpointManager;
-  }
-
-  public void removeMemTableIdsOfWal(Long walVersionId) {
-    this.memTableIdsOfWal.remove(walVersionId);
-  }
-
-  public Set<Long> getMemTableIds(long fileVersionId) {
-    if (fileVersionId >= currentWALFileVersion) {
-      return null;
-    }
-    return memTableIdsOfWal.computeIfAbsent(
-        fileVersionId,
-        id -> {
-          try {
-            File file = WALFileUtils.getWALFile(new File(logDirectory), id);
-            return WALMetaData.readFromWALFile(
-                    file, FileChannel.open(file.toPath(), StandardOpenOption.READ))
-                .getMemTablesId();
-          } catch (BrokenWALFileException e) {
-            logger.warn(
-                "Fail to read memTable ids from the wal file {} of wal node {}: {}",
-                id,
-                identifier,
-                e.getMessage());
-          } catch (IOException e) {
-            logger.warn(
-                "Fail to read memTable ids from the wal file {} of wal node {}.",
-                id,
-                identifier,
-                e);
-          }
-          return Collections.emptySet();
-        });
-  }
-
-  @TestOnly
-  public Map<Long, Set<Long>> getMemTableIdsOfWal() {
-    return memTableIdsOfWal;
-  }
 }
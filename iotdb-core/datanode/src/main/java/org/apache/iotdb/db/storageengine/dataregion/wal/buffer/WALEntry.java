@@ -29,12 +29,14 @@ import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertTablet
 import org.apache.iotdb.db.storageengine.dataregion.memtable.AbstractMemTable;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.IMemTable;
 import org.apache.iotdb.db.storageengine.dataregion.wal.checkpoint.Checkpoint;
+import org.apache.iotdb.db.storageengine.dataregion.wal.io.WALByteBufReader;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.listener.WALFlushListener;
 import org.apache.iotdb.db.utils.SerializedSize;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -131,6 +133,38 @@ public abstract class WALEntry implements SerializedSize {
     return new WALInfoEntry(type, memTableId, value);
   }
 
+  /**
+   * Deserialize a WALEntry from the buffer returned by {@link WALByteBufReader}. Insert and delete
+   * nodes are decoded from the buffer in place, so the buffer can be a read-only slice of a memory
+   * mapped wal file.
+   */
+  public static WALEntry deserialize(ByteBuffer buffer) throws IOException {
+    WALEntryType type = WALEntryType.valueOf(buffer.get(buffer.position()));
+    switch (type) {
+      case INSERT_ROW_NODE:
+      case INSERT_TABLET_NODE:
+      case INSERT_ROWS_NODE:
+      case DELETE_DATA_NODE:
+        buffer.get();
+        long memTableId = buffer.getLong();
+        return new WALInfoEntry(
+            type, memTableId, (WALEntryValue) PlanNodeType.deserializeFromWAL(buffer));
+      default:
+        // signals and memTable snapshots are rare, decode them from the stream
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return deserialize(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+  }
+
+  /**
+   * Get the memTable id of a serialized WALEntry without deserializing it, see {@link
+   * WALInfoEntry#serialize}.
+   */
+  public static long getMemTableId(ByteBuffer buffer) {
+    return buffer.getLong(buffer.position() + Byte.BYTES);
+  }
+
   /**
    * This deserialization method is only for iot consensus and just deserializes InsertRowNode and
    * InsertTabletNode.
@@ -19,6 +19,7 @@
 
 package org.apache.iotdb.db.storageengine.dataregion.wal.buffer;
 
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
 import org.apache.iotdb.db.utils.SerializedSize;
 
 /** A class implements this interface can be written into .wal file. */
@@ -28,4 +29,13 @@ public interface WALEntryValue extends SerializedSize {
    * java.nio.BufferOverflowException} occurs in {@link java.nio.ByteBuffer}.
    */
   void serializeToWAL(IWALByteBufferView buffer);
+
+  /**
+   * Durability this value asks for, null means following the wal mode of the DataNode.
+   *
+   * @see org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALMode
+   */
+  default WALDurabilityLevel getWalDurabilityLevel() {
+    return null;
+  }
 }
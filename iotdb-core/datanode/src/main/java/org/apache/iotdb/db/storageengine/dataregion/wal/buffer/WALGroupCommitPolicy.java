@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.wal.buffer;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class decides how long a wal buffer waits to group more entries into one fsync. Waiting only
+ * pays off when new entries arrive before an fsync finishes, so with adaptive fsync delay enabled
+ * the delays follow the smoothed arrival interval of entries and the smoothed cost of fsync, and
+ * the configured fsync delays are only upper bounds.
+ */
+public class WALGroupCommitPolicy {
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  // weight of the latest sample when smoothing
+  private static final double SMOOTHING_FACTOR = 0.2;
+  private static final long NO_SAMPLE = -1;
+
+  // smoothed interval between two adjacent entries, unit: ns
+  private volatile long entryIntervalInNanos = NO_SAMPLE;
+  // smoothed cost of one fsync, unit: ns
+  private volatile long fsyncCostInNanos = NO_SAMPLE;
+  // only accessed by the thread calling fsync
+  private long lastFsyncTime = NO_SAMPLE;
+
+  /**
+   * Record one fsync that persisted entriesNum entries, called by the thread calling fsync.
+   *
+   * @param batchStartTime arrival time of the first entry of this batch
+   */
+  public void recordFsync(int entriesNum, long batchStartTime, long costInNanos) {
+    long now = System.nanoTime();
+    if (entriesNum > 0) {
+      // only count the busy window, the idle time before the batch says nothing about bursts
+      long windowStart =
+          lastFsyncTime == NO_SAMPLE || batchStartTime - lastFsyncTime > 0
+              ? batchStartTime
+              : lastFsyncTime;
+      entryIntervalInNanos = smooth(entryIntervalInNanos, (now - windowStart) / entriesNum);
+    }
+    lastFsyncTime = now;
+    fsyncCostInNanos = smooth(fsyncCostInNanos, costInNanos);
+  }
+
+  private static long smooth(long previous, long sample) {
+    if (previous == NO_SAMPLE) {
+      return sample;
+    }
+    return (long) (previous + SMOOTHING_FACTOR * (sample - previous));
+  }
+
+  /** Configured delay before fsync, entries waited by writers use the one of sync mode. */
+  public long getMaxFsyncDelayInNanos(boolean hasWaitingListeners) {
+    long delayInMs =
+        hasWaitingListeners || config.getWalMode() == WALMode.SYNC
+            ? config.getWalSyncModeFsyncDelayInMs()
+            : config.getWalAsyncModeFsyncDelayInMs();
+    return TimeUnit.MILLISECONDS.toNanos(delayInMs);
+  }
+
+  /** Max duration to wait for the next entry before syncing the batched ones. */
+  public long getFsyncDelayInNanos(boolean hasWaitingListeners) {
+    long maxDelay = getMaxFsyncDelayInNanos(hasWaitingListeners);
+    if (!isAdaptive(hasWaitingListeners)) {
+      return maxDelay;
+    }
+    long interval = entryIntervalInNanos;
+    if (interval >= fsyncCostInNanos) {
+      return 0;
+    }
+    // no entry within two intervals means the burst is over
+    return Math.min(maxDelay, 2 * interval);
+  }
+
+  /**
+   * Max duration a batch keeps accepting entries since it's started.
+   *
+   * @return Long.MAX_VALUE if the batch is only bounded by its size and the fsync delay
+   */
+  public long getBatchWindowInNanos(boolean hasWaitingListeners) {
+    if (!isAdaptive(hasWaitingListeners)) {
+      return Long.MAX_VALUE;
+    }
+    long cost = fsyncCostInNanos;
+    if (entryIntervalInNanos >= cost) {
+      return 0;
+    }
+    return Math.min(getMaxFsyncDelayInNanos(true), cost);
+  }
+
+  private boolean isAdaptive(boolean hasWaitingListeners) {
+    // nobody waits for entries of the async mode, so batch them as much as possible
+    return config.isEnableWalAdaptiveFsyncDelay()
+        && hasWaitingListeners
+        && entryIntervalInNanos != NO_SAMPLE
+        && fsyncCostInNanos != NO_SAMPLE;
+  }
+}
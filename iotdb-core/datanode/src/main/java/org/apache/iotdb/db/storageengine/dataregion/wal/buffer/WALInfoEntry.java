@@ -22,6 +22,7 @@ package org.apache.iotdb.db.storageengine.dataregion.wal.buffer;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertTabletNode;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALMode;
 
 import java.util.Objects;
@@ -40,14 +41,14 @@ public class WALInfoEntry extends WALEntry {
   }
 
   public WALInfoEntry(long memTableId, WALEntryValue value) {
-    this(memTableId, value, config.getWalMode() == WALMode.SYNC);
+    this(memTableId, value, needWait(value));
     if (value instanceof InsertTabletNode) {
       tabletInfo = new TabletInfo(0, ((InsertTabletNode) value).getRowCount());
     }
   }
 
   public WALInfoEntry(long memTableId, InsertTabletNode value, int tabletStart, int tabletEnd) {
-    this(memTableId, value, config.getWalMode() == WALMode.SYNC);
+    this(memTableId, value, needWait(value));
     tabletInfo = new TabletInfo(tabletStart, tabletEnd);
   }
 
@@ -58,6 +59,11 @@ public class WALInfoEntry extends WALEntry {
     }
   }
 
+  private static boolean needWait(WALEntryValue value) {
+    WALDurabilityLevel level = value == null ? null : value.getWalDurabilityLevel();
+    return level == null ? config.getWalMode() == WALMode.SYNC : level.needWait();
+  }
+
   @Override
   public int serializedSize() {
     return FIXED_SERIALIZED_SIZE + (value == null ? 0 : value.serializedSize());
@@ -23,7 +23,6 @@ import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.WALEntry;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALEntryPosition;
 
 import java.io.Closeable;
-import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -31,29 +30,35 @@ import java.util.Iterator;
 
 /**
  * This reader returns {@link WALEntry} as {@link ByteBuffer}, the usage of WALByteBufReader is like
- * {@link Iterator}.
+ * {@link Iterator}. In memory mapped mode, the returned buffers are slices of the mapped wal file
+ * and may be read-only, use {@link WALEntry#deserialize(ByteBuffer)} to decode them. They are
+ * unmapped when this reader is closed, so copy the bytes to keep before that.
  */
 public class WALByteBufReader implements Closeable {
+  private final WALInputStream walInputStream;
   private WALMetaData metaData;
-  private DataInputStream logStream;
   private Iterator<Integer> sizeIterator;
 
   public WALByteBufReader(File logFile) throws IOException {
-    WALInputStream walInputStream = new WALInputStream(logFile);
-    try {
-      this.logStream = new DataInputStream(walInputStream);
-      this.metaData = walInputStream.getWALMetaData();
-      this.sizeIterator = metaData.getBuffersSize().iterator();
-    } catch (Exception e) {
-      walInputStream.close();
-      throw e;
-    }
+    this(logFile, false);
+  }
+
+  public WALByteBufReader(File logFile, boolean memoryMapped) throws IOException {
+    this(new WALInputStream(logFile, memoryMapped));
   }
 
   public WALByteBufReader(WALEntryPosition walEntryPosition) throws IOException {
-    WALInputStream walInputStream = walEntryPosition.openReadFileStream();
+    this(walEntryPosition, false);
+  }
+
+  public WALByteBufReader(WALEntryPosition walEntryPosition, boolean memoryMapped)
+      throws IOException {
+    this(walEntryPosition.openReadFileStream(memoryMapped));
+  }
+
+  private WALByteBufReader(WALInputStream walInputStream) throws IOException {
+    this.walInputStream = walInputStream;
     try {
-      this.logStream = new DataInputStream(walInputStream);
       this.metaData = walInputStream.getWALMetaData();
       this.sizeIterator = metaData.getBuffersSize().iterator();
     } catch (Exception e) {
@@ -73,16 +78,7 @@ public class WALByteBufReader implements Closeable {
    * @throws IOException when failing to read from channel.
    */
   public ByteBuffer next() throws IOException {
-    int size = sizeIterator.next();
-    // TODO: Reuse this buffer
-    ByteBuffer buffer = ByteBuffer.allocate(size);
-    /*
-     Notice, we don't need to flip the buffer after calling
-     logStream.readFully, since this function does not change
-     the position of the buffer.
-    */
-    logStream.readFully(buffer.array(), 0, size);
-    return buffer;
+    return walInputStream.readSlice(sizeIterator.next());
   }
 
   public WALMetaData getMetaData() {
@@ -91,7 +87,7 @@ public class WALByteBufReader implements Closeable {
 
   @Override
   public void close() throws IOException {
-    logStream.close();
+    walInputStream.close();
   }
 
   public long getFirstSearchIndex() {
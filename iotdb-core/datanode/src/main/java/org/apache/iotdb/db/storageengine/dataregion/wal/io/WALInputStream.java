@@ -32,6 +32,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
@@ -60,19 +61,45 @@ public class WALInputStream extends InputStream implements AutoCloseable {
 
   WALFileVersion version;
 
+  /*
+   The whole wal file mapped into memory, not null only in memory mapped mode. Segments are sliced
+   from it instead of being read into buffers, and it is unmapped when this stream is closed, so
+   buffers returned by readSlice must not be accessed after that.
+  */
+  private MappedByteBuffer mappedFile = null;
+
   public WALInputStream(File logFile) throws IOException {
+    this(logFile, false);
+  }
+
+  /**
+   * @param memoryMapped whether to read the segments of a V2 wal file from a memory mapped buffer
+   */
+  public WALInputStream(File logFile, boolean memoryMapped) throws IOException {
     channel = FileChannel.open(logFile.toPath());
     this.logFile = logFile;
     try {
       fileSize = channel.size();
       analyzeFileVersion();
       getEndOffset();
+      if (memoryMapped && version == WALFileVersion.V2 && fileSize <= Integer.MAX_VALUE) {
+        mapFile();
+      }
     } catch (Exception e) {
       channel.close();
       throw e;
     }
   }
 
+  private void mapFile() {
+    try {
+      mappedFile = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+    } catch (IOException e) {
+      // fall back to read the segments from the channel
+      logger.warn("Fail to map wal file {}, read it from file channel instead.", logFile, e);
+    }
+  }
+
   private void getEndOffset() throws IOException {
     if (channel.size() < WALFileVersion.V2.getVersionBytes().length + Integer.BYTES) {
       // An broken file
@@ -171,8 +198,13 @@ public class WALInputStream extends InputStream implements AutoCloseable {
   @Override
   public void close() throws IOException {
     channel.close();
-    MmapUtil.clean(dataBuffer);
-    MmapUtil.clean(compressedBuffer);
+    if (mappedFile == null) {
+      MmapUtil.clean(dataBuffer);
+      MmapUtil.clean(compressedBuffer);
+    } else {
+      MmapUtil.clean(mappedFile);
+      mappedFile = null;
+    }
     dataBuffer = null;
   }
 
@@ -218,6 +250,10 @@ public class WALInputStream extends InputStream implements AutoCloseable {
 
   private void loadNextSegmentV2() throws IOException {
     SegmentInfo segmentInfo = getNextSegmentInfo();
+    if (mappedFile != null) {
+      loadMappedSegment(segmentInfo);
+      return;
+    }
     if (segmentInfo.compressionType != CompressionType.UNCOMPRESSED) {
       // A compressed segment
       if (Objects.isNull(dataBuffer)
@@ -262,6 +298,33 @@ public class WALInputStream extends InputStream implements AutoCloseable {
     dataBuffer.flip();
   }
 
+  /**
+   * Slice the next segment from the mapped file. A compressed segment is uncompressed into a new
+   * heap buffer instead of reusing the last one, because slices of it may be still in use.
+   */
+  private void loadMappedSegment(SegmentInfo segmentInfo) throws IOException {
+    long position = channel.position();
+    if (position + segmentInfo.dataInDiskSize > endOffset) {
+      throw new IOException("Unexpected end of file");
+    }
+    ByteBuffer segment = mappedFile.duplicate();
+    segment.position((int) position);
+    segment.limit((int) position + segmentInfo.dataInDiskSize);
+    channel.position(position + segmentInfo.dataInDiskSize);
+    if (segmentInfo.compressionType != CompressionType.UNCOMPRESSED) {
+      byte[] compressed = new byte[segmentInfo.dataInDiskSize];
+      segment.get(compressed);
+      byte[] uncompressed = new byte[segmentInfo.uncompressedSize];
+      long startTime = System.nanoTime();
+      IUnCompressor.getUnCompressor(segmentInfo.compressionType)
+          .uncompress(compressed, 0, compressed.length, uncompressed, 0);
+      WritingMetrics.getInstance().recordWALUncompressCost(System.nanoTime() - startTime);
+      dataBuffer = ByteBuffer.wrap(uncompressed);
+    } else {
+      dataBuffer = segment.slice();
+    }
+  }
+
   private void tryLoadSegment() throws IOException {
     long originPosition = channel.position();
     try {
@@ -334,6 +397,28 @@ public class WALInputStream extends InputStream implements AutoCloseable {
     buffer.flip();
   }
 
+  /**
+   * Read the next size bytes. In memory mapped mode, the bytes are not copied if they are in the
+   * same segment, and the result is a slice of the mapped file or of the uncompressed segment,
+   * which may be read-only and not backed by an accessible array. Such a slice is only valid until
+   * this stream is closed, so callers must copy the bytes they keep after that.
+   */
+  public ByteBuffer readSlice(int size) throws IOException {
+    if (Objects.isNull(dataBuffer) || dataBuffer.position() >= dataBuffer.limit()) {
+      loadNextSegment();
+    }
+    if (mappedFile != null && dataBuffer.remaining() >= size) {
+      ByteBuffer slice = dataBuffer.duplicate();
+      slice.limit(slice.position() + size);
+      dataBuffer.position(dataBuffer.position() + size);
+      return slice.slice();
+    }
+    // the bytes cross segments
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    read(buffer);
+    return buffer;
+  }
+
   public long getFileCurrentPos() throws IOException {
     return channel.position();
   }
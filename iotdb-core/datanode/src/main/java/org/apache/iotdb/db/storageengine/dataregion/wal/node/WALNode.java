@@ -39,6 +39,8 @@ import org.apache.iotdb.db.storageengine.dataregion.DataRegion;
 import org.apache.iotdb.db.storageengine.dataregion.flush.FlushStatus;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.IMemTable;
 import org.apache.iotdb.db.storageengine.dataregion.wal.WALManager;
+import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.AbstractWALBuffer;
+import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.ConcurrentWALBuffer;
 import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.IWALBuffer;
 import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.WALBuffer;
 import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.WALEntry;
@@ -51,6 +53,7 @@ import org.apache.iotdb.db.storageengine.dataregion.wal.checkpoint.CheckpointTyp
 import org.apache.iotdb.db.storageengine.dataregion.wal.checkpoint.MemTableInfo;
 import org.apache.iotdb.db.storageengine.dataregion.wal.exception.MemTablePinException;
 import org.apache.iotdb.db.storageengine.dataregion.wal.io.WALByteBufReader;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALBufferType;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALFileStatus;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALFileUtils;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.listener.AbstractResultListener;
@@ -102,7 +105,7 @@ public class WALNode implements IWALNode {
   // directory to store this node's files
   private final File logDirectory;
   // wal buffer
-  private final WALBuffer buffer;
+  private final AbstractWALBuffer buffer;
   // manage checkpoints
   private final CheckpointManager checkpointManager;
   // memTable id -> memTable snapshot count
@@ -125,8 +128,11 @@ public class WALNode implements IWALNode {
     }
     this.checkpointManager = new CheckpointManager(identifier, logDirectory);
     this.buffer =
-        new WALBuffer(
-            identifier, logDirectory, checkpointManager, startFileVersion, startSearchIndex);
+        config.getWalBufferType() == WALBufferType.CONCURRENT
+            ? new ConcurrentWALBuffer(
+                identifier, logDirectory, checkpointManager, startFileVersion, startSearchIndex)
+            : new WALBuffer(
+                identifier, logDirectory, checkpointManager, startFileVersion, startSearchIndex);
   }
 
   @Override
@@ -983,7 +989,7 @@ public class WALNode implements IWALNode {
   }
 
   @TestOnly
-  public WALBuffer getWALBuffer() {
+  public AbstractWALBuffer getWALBuffer() {
     return buffer;
   }
 }
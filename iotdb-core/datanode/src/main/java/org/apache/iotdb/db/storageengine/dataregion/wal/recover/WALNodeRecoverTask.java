@@ -41,8 +41,6 @@ import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALFileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -71,6 +69,8 @@ public class WALNodeRecoverTask implements Runnable {
   private long firstValidVersionId = Long.MAX_VALUE;
   private Map<Long, MemTableInfo> memTableId2Info;
   private Map<Long, UnsealedTsFileRecoverPerformer> memTableId2RecoverPerformer;
+  // total size of .wal files read to redo logs
+  private long recoveredWALSize = 0L;
 
   public WALNodeRecoverTask(File logDirectory, CountDownLatch allNodesRecoveredLatch) {
     this.logDirectory = logDirectory;
@@ -264,21 +264,18 @@ public class WALNodeRecoverTask implements Runnable {
     // read .wal files and redo logs
     for (int i = 0; i < walFiles.length; ++i) {
       File walFile = walFiles[i];
-      try (WALByteBufReader reader = new WALByteBufReader(walFile)) {
+      try (WALByteBufReader reader = new WALByteBufReader(walFile, true)) {
         if (Collections.disjoint(memTableId2Info.keySet(), reader.getMetaData().getMemTablesId())) {
           continue;
         }
+        recoveredWALSize += walFile.length();
         while (reader.hasNext()) {
+          // entries are sliced from the mapped wal file, only decode those to redo
           ByteBuffer buffer = reader.next();
-          // see WALInfoEntry#serialize, entry type
-          buffer.position(Byte.BYTES);
-          long memTableId = buffer.getLong();
-          if (!memTableId2Info.containsKey(memTableId)) {
+          if (!memTableId2Info.containsKey(WALEntry.getMemTableId(buffer))) {
             continue;
           }
-          buffer.clear();
-          WALEntry walEntry =
-              WALEntry.deserialize(new DataInputStream(new ByteArrayInputStream(buffer.array())));
+          WALEntry walEntry = WALEntry.deserialize(buffer);
           UnsealedTsFileRecoverPerformer recoverPerformer =
               memTableId2RecoverPerformer.get(walEntry.getMemTableId());
           if (recoverPerformer != null) {
@@ -305,6 +302,10 @@ public class WALNodeRecoverTask implements Runnable {
     endRecovery();
   }
 
+  public long getRecoveredWALSize() {
+    return recoveredWALSize;
+  }
+
   private void endRecovery() {
     // end recovering all recover performers
     for (UnsealedTsFileRecoverPerformer recoverPerformer : memTableId2RecoverPerformer.values()) {
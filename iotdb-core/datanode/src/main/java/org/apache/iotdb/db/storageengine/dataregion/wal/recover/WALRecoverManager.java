@@ -27,8 +27,11 @@ import org.apache.iotdb.commons.conf.CommonDescriptor;
 import org.apache.iotdb.commons.exception.StartupException;
 import org.apache.iotdb.commons.file.SystemFileFactory;
 import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.DataRegionException;
 import org.apache.iotdb.db.exception.runtime.StorageEngineFailureException;
+import org.apache.iotdb.db.service.metrics.WritingMetrics;
 import org.apache.iotdb.db.storageengine.dataregion.wal.exception.WALRecoverException;
 import org.apache.iotdb.db.storageengine.dataregion.wal.recover.file.UnsealedTsFileRecoverPerformer;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.listener.WALRecoverListener;
@@ -54,6 +57,7 @@ import static org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALFileUtil
 public class WALRecoverManager {
   private static final Logger logger = LoggerFactory.getLogger(WALRecoverManager.class);
   private static final CommonConfig commonConfig = CommonDescriptor.getInstance().getConfig();
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
 
   // true when the recover procedure has started
   private volatile boolean hasStarted = false;
@@ -103,11 +107,18 @@ public class WALRecoverManager {
           "Data regions have submitted all unsealed TsFiles, start recovering TsFiles in each wal node.");
       // recover each wal node's TsFiles
       if (!walNodeDirs.isEmpty()) {
+        long startTime = System.currentTimeMillis();
         recoverThreadPool =
-            IoTDBThreadPoolFactory.newCachedThreadPool(ThreadName.WAL_RECOVER.getName());
+            IoTDBThreadPoolFactory.newFixedThreadPool(
+                Math.min(walNodeDirs.size(), config.getWalRecoverThreadCount()),
+                ThreadName.WAL_RECOVER.getName());
         CountDownLatch allNodesRecoveredLatch = new CountDownLatch(walNodeDirs.size());
+        List<WALNodeRecoverTask> recoverTasks = new ArrayList<>(walNodeDirs.size());
         for (File walNodeDir : walNodeDirs) {
-          recoverThreadPool.submit(new WALNodeRecoverTask(walNodeDir, allNodesRecoveredLatch));
+          WALNodeRecoverTask recoverTask =
+              new WALNodeRecoverTask(walNodeDir, allNodesRecoveredLatch);
+          recoverTasks.add(recoverTask);
+          recoverThreadPool.submit(recoverTask);
         }
 
         try {
@@ -116,6 +127,17 @@ public class WALRecoverManager {
           Thread.currentThread().interrupt();
           throw new WALRecoverException("Fail to recover wal.", e);
         }
+        long recoveredWALSize = 0L;
+        for (WALNodeRecoverTask recoverTask : recoverTasks) {
+          recoveredWALSize += recoverTask.getRecoveredWALSize();
+        }
+        long costTime = System.currentTimeMillis() - startTime;
+        WritingMetrics.getInstance().recordWALRecover(recoveredWALSize, costTime);
+        logger.info(
+            "Recover {} wal nodes with {} bytes of wal files to redo in {} ms.",
+            walNodeDirs.size(),
+            recoveredWALSize,
+            costTime);
       }
       // deal with remaining TsFiles which don't have wal
       asyncRecoverLeftTsFiles();
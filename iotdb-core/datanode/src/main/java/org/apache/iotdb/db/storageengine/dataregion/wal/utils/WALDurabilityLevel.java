@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.wal.utils;
+
+/** Durability of wal that a write request waits for before it returns. */
+public enum WALDurabilityLevel {
+  // write request returns once its wal entry is put into the wal buffer
+  MEMORY((byte) 0),
+  // write request returns once its wal entry is written to the page cache of the os
+  PAGE_CACHE((byte) 1),
+  // write request returns once its wal entry is flushed to the disk successfully
+  FSYNC((byte) 2),
+  ;
+
+  private final byte code;
+
+  WALDurabilityLevel(byte code) {
+    this.code = code;
+  }
+
+  public byte getCode() {
+    return code;
+  }
+
+  public boolean needWait() {
+    return this != MEMORY;
+  }
+
+  public static WALDurabilityLevel valueOf(byte code) {
+    for (WALDurabilityLevel level : WALDurabilityLevel.values()) {
+      if (level.code == code) {
+        return level;
+      }
+    }
+    throw new IllegalArgumentException("Invalid WALDurabilityLevel code: " + code);
+  }
+
+  /** Parse the level from its case-insensitive name, e.g. page_cache. */
+  public static WALDurabilityLevel parse(String level) {
+    for (WALDurabilityLevel value : WALDurabilityLevel.values()) {
+      if (value.name().equalsIgnoreCase(level)) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Unknown wal_durability: " + level);
+  }
+}
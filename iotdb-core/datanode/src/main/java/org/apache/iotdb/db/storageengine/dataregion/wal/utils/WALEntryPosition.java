@@ -137,19 +137,23 @@ public class WALEntryPosition {
   }
 
   public WALInputStream openReadFileStream() throws IOException {
+    return openReadFileStream(false);
+  }
+
+  public WALInputStream openReadFileStream(boolean memoryMapped) throws IOException {
     // TODO: Refactor this part of code
     if (isInSealedFile()) {
       walFile = walNode.getWALFile(walFileVersionId);
-      return new WALInputStream(walFile);
+      return new WALInputStream(walFile, memoryMapped);
     } else {
       try {
         walFile = walNode.getWALFile(walFileVersionId);
-        return new WALInputStream(walFile);
+        return new WALInputStream(walFile, memoryMapped);
       } catch (IOException e) {
         // unsealed file may be renamed after sealed, so we should try again
         if (isInSealedFile()) {
           walFile = walNode.getWALFile(walFileVersionId);
-          return new WALInputStream(walFile);
+          return new WALInputStream(walFile, memoryMapped);
         } else {
           throw e;
         }
@@ -272,7 +272,8 @@ public class WALInsertNodeCache {
 
         // batch load when wal file is sealed
         long position = 0;
-        try (final WALByteBufReader walByteBufReader = new WALByteBufReader(walEntryPosition)) {
+        try (final WALByteBufReader walByteBufReader =
+            new WALByteBufReader(walEntryPosition, true)) {
           while (walByteBufReader.hasNext()) {
             // see WALInfoEntry#serialize, entry type + memtable id + plan node type
             final ByteBuffer buffer = walByteBufReader.next();
@@ -285,10 +286,14 @@ public class WALInsertNodeCache {
                     || walEntryPosition.getPosition() == position)
                 && type.needSearch()) {
               buffer.clear();
+              // copy the cached entries out of the mapped wal file, so the file can be deleted
+              final ByteBuffer cachedBuffer = ByteBuffer.allocate(size);
+              cachedBuffer.put(buffer);
+              cachedBuffer.clear();
               loadedEntries.put(
                   new WALEntryPosition(
                       walEntryPosition.getIdentifier(), walFileVersionId, position, size),
-                  new Pair<>(buffer, null));
+                  new Pair<>(cachedBuffer, null));
             }
 
             position += size;
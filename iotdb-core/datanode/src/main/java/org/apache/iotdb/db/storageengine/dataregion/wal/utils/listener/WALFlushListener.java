@@ -20,16 +20,30 @@
 package org.apache.iotdb.db.storageengine.dataregion.wal.utils.listener;
 
 import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.WALEntryValue;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALDurabilityLevel;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALEntryHandler;
 
 /** This class helps judge whether wal is flushed to the storage device. */
 public class WALFlushListener extends AbstractResultListener {
   // handler for pipeline, only exists when value is InsertNode
   private final WALEntryHandler walEntryHandler;
+  // durability the waiters of this listener need, MEMORY means nobody waits
+  private final WALDurabilityLevel durabilityLevel;
 
   public WALFlushListener(boolean wait, WALEntryValue value) {
     super(wait);
     walEntryHandler = new WALEntryHandler(value);
+    if (!wait) {
+      durabilityLevel = WALDurabilityLevel.MEMORY;
+    } else if (value != null && value.getWalDurabilityLevel() == WALDurabilityLevel.PAGE_CACHE) {
+      durabilityLevel = WALDurabilityLevel.PAGE_CACHE;
+    } else {
+      durabilityLevel = WALDurabilityLevel.FSYNC;
+    }
+  }
+
+  public WALDurabilityLevel getDurabilityLevel() {
+    return durabilityLevel;
   }
 
   public WALEntryHandler getWalEntryHandler() {
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.rescon.memory;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.MmapUtil;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.write.UnSupportedDataTypeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.ARRAY_SIZE;
+
+/**
+ * Manage off-heap primitive arrays of off-heap TVLists. Each array is a direct buffer holding
+ * ARRAY_SIZE elements of 1, 4 or 8 bytes. Released arrays are pooled by their element size and the
+ * rest are freed immediately instead of waiting for the GC. All allocated arrays, pooled or not,
+ * are charged to the off-heap TVList memory of {@link SystemInfo}.
+ */
+public class OffHeapArrayManager {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapArrayManager.class);
+
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  /** element size in bytes -> pooled arrays, only 1, 4 and 8 are used */
+  private static final ArrayDeque<ByteBuffer>[] POOLED_ARRAYS = new ArrayDeque[Long.BYTES + 1];
+
+  private static final AtomicLong POOLED_MEMORY_SIZE = new AtomicLong(0);
+
+  static {
+    for (int elementSize : new int[] {Byte.BYTES, Integer.BYTES, Long.BYTES}) {
+      POOLED_ARRAYS[elementSize] = new ArrayDeque<>();
+    }
+    LOGGER.info("Off-heap BufferedArraySizeThreshold is {}", getPooledArraysMemoryThreshold());
+  }
+
+  private OffHeapArrayManager() {
+    // Empty constructor
+  }
+
+  /** Threshold total size of pooled arrays, a part of the off-heap TVList memory. */
+  private static long getPooledArraysMemoryThreshold() {
+    return (long)
+        (SystemInfo.getInstance().getMemorySizeForOffHeapTVList()
+            * CONFIG.getBufferedArraysMemoryProportion());
+  }
+
+  /** Whether new off-heap TVLists can be created without exceeding the off-heap TVList memory. */
+  public static boolean isMemoryAvailable() {
+    return SystemInfo.getInstance().isOffHeapTVListMemoryAvailable();
+  }
+
+  /** Get size in bytes of one element of the data type, only fixed-length types are supported. */
+  public static int getElementSize(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        return Byte.BYTES;
+      case INT32:
+      case DATE:
+      case FLOAT:
+        return Integer.BYTES;
+      case INT64:
+      case TIMESTAMP:
+      case DOUBLE:
+        return Long.BYTES;
+      default:
+        throw new UnSupportedDataTypeException(dataType.name());
+    }
+  }
+
+  /** Get or allocate an off-heap array whose elements have the given size in bytes. */
+  public static ByteBuffer allocate(int elementSize) {
+    ArrayDeque<ByteBuffer> arrays = POOLED_ARRAYS[elementSize];
+    ByteBuffer array;
+    synchronized (arrays) {
+      array = arrays.poll();
+    }
+    if (array != null) {
+      POOLED_MEMORY_SIZE.addAndGet(-array.capacity());
+      return array;
+    }
+    array = ByteBuffer.allocateDirect(ARRAY_SIZE * elementSize).order(ByteOrder.nativeOrder());
+    SystemInfo.getInstance().addOffHeapTVListMemoryCost(array.capacity());
+    return array;
+  }
+
+  /** Return the array to the pool, or free it if the pool is full. */
+  public static void release(ByteBuffer array) {
+    int elementSize = array.capacity() / ARRAY_SIZE;
+    if (POOLED_MEMORY_SIZE.addAndGet(array.capacity()) <= getPooledArraysMemoryThreshold()) {
+      array.clear();
+      ArrayDeque<ByteBuffer> arrays = POOLED_ARRAYS[elementSize];
+      synchronized (arrays) {
+        arrays.add(array);
+      }
+      return;
+    }
+    POOLED_MEMORY_SIZE.addAndGet(-array.capacity());
+    SystemInfo.getInstance().decreaseOffHeapTVListMemoryCost(array.capacity());
+    MmapUtil.clean(array);
+  }
+
+  /** Free all pooled arrays, arrays still in use are freed when they are released. */
+  public static void close() {
+    for (int elementSize : new int[] {Byte.BYTES, Integer.BYTES, Long.BYTES}) {
+      ArrayDeque<ByteBuffer> arrays = POOLED_ARRAYS[elementSize];
+      synchronized (arrays) {
+        for (ByteBuffer array : arrays) {
+          POOLED_MEMORY_SIZE.addAndGet(-array.capacity());
+          SystemInfo.getInstance().decreaseOffHeapTVListMemoryCost(array.capacity());
+          MmapUtil.clean(array);
+        }
+        arrays.clear();
+      }
+    }
+  }
+}
@@ -30,6 +30,7 @@ import org.apache.iotdb.db.storageengine.dataregion.DataRegionInfo;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.constant.CompactionTaskType;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.execute.exception.CompactionFileCountExceededException;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.execute.exception.CompactionMemoryNotEnoughException;
+import org.apache.iotdb.db.storageengine.dataregion.memtable.IMemTable;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.TsFileProcessor;
 
 import org.slf4j.Logger;
@@ -54,11 +55,16 @@ public class SystemInfo {
 
   private long memorySizeForMemtable;
   private long memorySizeForCompaction;
+  private long memorySizeForOffHeapTVList;
   private long totalDirectBufferMemorySizeLimit;
   private Map<DataRegionInfo, Long> reportedStorageGroupMemCostMap = new HashMap<>();
 
   private long flushingMemTablesCost = 0L;
+  private long flushingOffHeapTVListsCost = 0L;
+  // flushing memtable -> its off-heap TVList cost when it started flushing
+  private final Map<IMemTable, Long> flushingMemTableOffHeapCostMap = new HashMap<>();
   private final AtomicLong directBufferMemoryCost = new AtomicLong(0);
+  private final AtomicLong offHeapTVListMemoryCost = new AtomicLong(0);
   private final AtomicLong compactionMemoryCost = new AtomicLong(0L);
   private final AtomicLong seqInnerSpaceCompactionMemoryCost = new AtomicLong(0L);
   private final AtomicLong unseqInnerSpaceCompactionMemoryCost = new AtomicLong(0L);
@@ -103,6 +109,15 @@ public class SystemInfo {
     reportedStorageGroupMemCostMap.put(dataRegionInfo, currentDataRegionMemCost);
     dataRegionInfo.setLastReportedSize(currentDataRegionMemCost);
     if (totalStorageGroupMemCost < FLUSH_THRESHOLD) {
+      long activeOffHeapTVListCost = offHeapTVListMemoryCost.get() - flushingOffHeapTVListsCost;
+      if (activeOffHeapTVListCost >= memorySizeForOffHeapTVList * config.getFlushProportion()) {
+        logger.debug(
+            "The off-heap TVLists cost too much memory, call for flushing. "
+                + "Current off-heap TVList cost is {}, flushing off-heap TVList cost is {}",
+            offHeapTVListMemoryCost.get(),
+            flushingOffHeapTVListsCost);
+        chooseMemTableToMarkFlush(activeOffHeapTVListCost);
+      }
       return true;
     } else if (totalStorageGroupMemCost < REJECT_THRESHOLD) {
       logger.debug(
@@ -196,6 +211,21 @@ public class SystemInfo {
     this.flushingMemTablesCost -= flushingMemTableCost;
   }
 
+  public synchronized void addFlushingOffHeapTVListCost(IMemTable flushingMemTable) {
+    long cost = flushingMemTable.getOffHeapTVListsRamCost();
+    if (cost > 0) {
+      flushingMemTableOffHeapCostMap.put(flushingMemTable, cost);
+      flushingOffHeapTVListsCost += cost;
+    }
+  }
+
+  public synchronized void resetFlushingOffHeapTVListCost(IMemTable flushedMemTable) {
+    Long cost = flushingMemTableOffHeapCostMap.remove(flushedMemTable);
+    if (cost != null) {
+      flushingOffHeapTVListsCost -= cost;
+    }
+  }
+
   public boolean addDirectBufferMemoryCost(long size) {
     AtomicBoolean result = new AtomicBoolean(false);
     directBufferMemoryCost.updateAndGet(
@@ -221,6 +251,31 @@ public class SystemInfo {
     return directBufferMemoryCost.get();
   }
 
+  /**
+   * Charge the memory of an allocated off-heap TVList array. Arrays of existing lists are always
+   * allocated, the budget is checked before creating new lists by {@link
+   * #isOffHeapTVListMemoryAvailable()}.
+   */
+  public void addOffHeapTVListMemoryCost(long size) {
+    offHeapTVListMemoryCost.addAndGet(size);
+  }
+
+  public void decreaseOffHeapTVListMemoryCost(long size) {
+    offHeapTVListMemoryCost.addAndGet(-size);
+  }
+
+  public boolean isOffHeapTVListMemoryAvailable() {
+    return offHeapTVListMemoryCost.get() < memorySizeForOffHeapTVList;
+  }
+
+  public long getMemorySizeForOffHeapTVList() {
+    return memorySizeForOffHeapTVList;
+  }
+
+  public long getOffHeapTVListMemoryCost() {
+    return offHeapTVListMemoryCost.get();
+  }
+
   public boolean addCompactionFileNum(int fileNum, long timeOutInSecond)
       throws InterruptedException, CompactionFileCountExceededException {
     if (fileNum > totalFileLimitForCompactionTask) {
@@ -403,6 +458,12 @@ public class SystemInfo {
             (config.getAllocateMemoryForStorageEngine() * config.getWriteProportionForMemtable());
     memorySizeForCompaction =
         (long) (config.getAllocateMemoryForStorageEngine() * config.getCompactionProportion());
+    // off-heap TVLists fall back to the limit of memtables if the direct memory size is unknown
+    memorySizeForOffHeapTVList =
+        config.getMaxOffHeapMemoryBytes() == 0
+            ? memorySizeForMemtable
+            : (long)
+                (config.getMaxOffHeapMemoryBytes() * config.getOffHeapTVListMemoryProportion());
     FLUSH_THRESHOLD = memorySizeForMemtable * config.getFlushProportion();
     REJECT_THRESHOLD = memorySizeForMemtable * config.getRejectProportion();
     WritingMetrics.getInstance().recordFlushThreshold(FLUSH_THRESHOLD);
@@ -488,6 +549,36 @@ public class SystemInfo {
     return isCurrentTsFileProcessorSelected;
   }
 
+  /**
+   * Mark the working memtable holding the most off-heap TVList memory as to be flushed, unless the
+   * memtables already marked are enough to bring the off-heap TVList cost under the threshold.
+   *
+   * @param activeOffHeapTVListCost off-heap TVList cost excluding the flushing memtables
+   */
+  private void chooseMemTableToMarkFlush(long activeOffHeapTVListCost) {
+    TsFileProcessor selectedTsFileProcessor = null;
+    long selectedCost = 0;
+    long markedCost = 0;
+    for (DataRegionInfo dataRegionInfo : reportedStorageGroupMemCostMap.keySet()) {
+      for (TsFileProcessor tsFileProcessor : dataRegionInfo.getAllReportedTsp()) {
+        long cost = tsFileProcessor.getWorkMemTableOffHeapTVListRamCost();
+        if (tsFileProcessor.isWorkMemTableMarkedToFlush()) {
+          markedCost += cost;
+        } else if (cost > selectedCost) {
+          selectedTsFileProcessor = tsFileProcessor;
+          selectedCost = cost;
+        }
+      }
+    }
+    if (selectedTsFileProcessor == null
+        || activeOffHeapTVListCost - markedCost
+            < memorySizeForOffHeapTVList * config.getFlushProportion()) {
+      return;
+    }
+    selectedTsFileProcessor.setWorkMemTableShouldFlush();
+    flushTaskSubmitThreadPool.submit(selectedTsFileProcessor::submitAFlushTask);
+  }
+
   public boolean isRejected() {
     return rejected;
   }
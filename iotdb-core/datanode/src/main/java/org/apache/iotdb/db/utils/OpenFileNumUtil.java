@@ -26,12 +26,15 @@ import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.storageengine.rescon.disk.TierManager;
 
+import com.sun.management.UnixOperatingSystemMXBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
@@ -260,6 +263,20 @@ public class OpenFileNumUtil {
     return statisticsMap.getOrDefault(statistics, UNKNOWN_STATISTICS_ERROR_CODE);
   }
 
+  /**
+   * get the max number of files the IoTDB process can open, i.e., the limit of file descriptors.
+   * Unlike {@link #get(OpenFileNumStatistics)}, no external command is executed.
+   *
+   * @return max open file number, or a negative value if it is unknown on this OS
+   */
+  public static long getMaxOpenFileNum() {
+    OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+    if (osBean instanceof UnixOperatingSystemMXBean) {
+      return ((UnixOperatingSystemMXBean) osBean).getMaxFileDescriptorCount();
+    }
+    return UNSUPPORTED_OS_ERROR_CODE;
+  }
+
   boolean isCommandValid() {
     return isOutputValid;
   }
@@ -82,6 +82,9 @@ public abstract class AlignedTVList extends TVList {
   // not null when constructed by queries
   BitMap rowBitMap;
 
+  // the list whose arrays are shared by this one, not null when constructed by queries
+  private AlignedTVList sourceList;
+
   AlignedTVList(List<TSDataType> types) {
     super();
     indices = new ArrayList<>(types.size());
@@ -106,6 +109,16 @@ public abstract class AlignedTVList extends TVList {
     }
   }
 
+  @Override
+  public void decreaseReferenceCount() {
+    // references of a list constructed by queries are counted on the list it shares arrays with
+    if (sourceList != null) {
+      sourceList.decreaseReferenceCount();
+    } else {
+      super.decreaseReferenceCount();
+    }
+  }
+
   @Override
   public TVList getTvListByColumnIndex(List<Integer> columnIndex, List<TSDataType> dataTypeList) {
     List<List<Object>> values = new ArrayList<>();
@@ -134,6 +147,7 @@ public abstract class AlignedTVList extends TVList {
     alignedTvList.bitMaps = bitMaps;
     alignedTvList.rowCount = this.rowCount;
     alignedTvList.rowBitMap = getRowBitMap();
+    alignedTvList.sourceList = this;
     return alignedTvList;
   }
 
@@ -723,7 +737,6 @@ public abstract class AlignedTVList extends TVList {
     return reachMaxChunkSizeFlag || rowCount >= MAX_SERIES_POINT_NUMBER;
   }
 
-  @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
   @Override
   public void putAlignedValues(
       long[] time, Object[] value, BitMap[] bitMaps, int start, int end, TSStatus[] results) {
@@ -733,52 +746,125 @@ public abstract class AlignedTVList extends TVList {
     updateMaxTimeAndSorted(time, start, end);
 
     while (idx < end) {
-      int inputRemaining = end - idx;
       int arrayIdx = rowCount / ARRAY_SIZE;
       int elementIdx = rowCount % ARRAY_SIZE;
-      int internalRemaining = ARRAY_SIZE - elementIdx;
-      if (internalRemaining >= inputRemaining) {
-        // the remaining inputs can fit the last array, copy all remaining inputs into last array
-        System.arraycopy(time, idx, timestamps.get(arrayIdx), elementIdx, inputRemaining);
-        arrayCopy(value, idx, arrayIdx, elementIdx, inputRemaining);
-        for (int i = 0; i < inputRemaining; i++) {
-          indices.get(arrayIdx)[elementIdx + i] = rowCount;
-          for (int j = 0; j < values.size(); j++) {
-            if (value[j] == null
-                || bitMaps != null && bitMaps[j] != null && bitMaps[j].isMarked(idx + i)
-                || results != null
-                    && results[idx + i] != null
-                    && results[idx + i].code != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
-              markNullValue(j, arrayIdx, elementIdx + i);
-            }
-          }
-          rowCount++;
+      // copy as many inputs as the last array can hold column by column, and create a new array
+      // in the next loop if there are still inputs remaining
+      int copyLength = Math.min(end - idx, ARRAY_SIZE - elementIdx);
+      System.arraycopy(time, idx, timestamps.get(arrayIdx), elementIdx, copyLength);
+      arrayCopy(value, idx, arrayIdx, elementIdx, copyLength);
+      int[] indexArray = indices.get(arrayIdx);
+      for (int i = 0; i < copyLength; i++) {
+        indexArray[elementIdx + i] = rowCount + i;
+      }
+      markNullValues(value, bitMaps, results, idx, arrayIdx, elementIdx, copyLength);
+      rowCount += copyLength;
+      idx += copyLength;
+      if (idx < end) {
+        checkExpansion();
+      }
+    }
+  }
+
+  /**
+   * Mark the null values of a column slice copied by {@link #putAlignedValues}. Bitmaps of the
+   * input are merged word by word instead of being checked row by row.
+   */
+  private void markNullValues(
+      Object[] value,
+      BitMap[] inputBitMaps,
+      TSStatus[] results,
+      int idx,
+      int arrayIndex,
+      int elementIndex,
+      int length) {
+    for (int j = 0; j < values.size(); j++) {
+      if (value[j] == null) {
+        BitMap bitMap = getOrCreateBitMap(j, arrayIndex);
+        for (int i = 0; i < length; i++) {
+          bitMap.mark(elementIndex + i);
         }
-        break;
-      } else {
-        // the remaining inputs cannot fit the last array, fill the last array and create a new
-        // one and enter the next loop
-        System.arraycopy(time, idx, timestamps.get(arrayIdx), elementIdx, internalRemaining);
-        arrayCopy(value, idx, arrayIdx, elementIdx, internalRemaining);
-        for (int i = 0; i < internalRemaining; i++) {
-          indices.get(arrayIdx)[elementIdx + i] = rowCount;
-          for (int j = 0; j < values.size(); j++) {
-            if (value[j] == null
-                || bitMaps != null && bitMaps[j] != null && bitMaps[j].isMarked(idx + i)
-                || results != null
-                    && results[idx + i] != null
-                    && results[idx + i].code != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
-              markNullValue(j, arrayIdx, elementIdx + i);
-            }
-          }
-          rowCount++;
+      } else if (inputBitMaps != null && inputBitMaps[j] != null) {
+        mergeBitMap(inputBitMaps[j], idx, j, arrayIndex, elementIndex, length);
+      }
+    }
+    if (results == null) {
+      return;
+    }
+    for (int i = 0; i < length; i++) {
+      if (results[idx + i] != null
+          && results[idx + i].code != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
+        for (int j = 0; j < values.size(); j++) {
+          markNullValue(j, arrayIndex, elementIndex + i);
         }
-        idx += internalRemaining;
-        checkExpansion();
       }
     }
   }
 
+  /**
+   * Merge the marked bits of source[sourceIndex, sourceIndex + length) into the bitmap of the given
+   * column at [elementIndex, elementIndex + length). The bitmap of this list is created only if
+   * there is any marked bit.
+   */
+  private void mergeBitMap(
+      BitMap source,
+      int sourceIndex,
+      int columnIndex,
+      int arrayIndex,
+      int elementIndex,
+      int length) {
+    byte[] sourceBits = source.getByteArray();
+    BitMap target = null;
+    int i = 0;
+    // merge bit by bit until the target position is byte aligned
+    for (; i < length && ((elementIndex + i) & 7) != 0; i++) {
+      if (source.isMarked(sourceIndex + i)) {
+        if (target == null) {
+          target = getOrCreateBitMap(columnIndex, arrayIndex);
+        }
+        target.mark(elementIndex + i);
+      }
+    }
+    // merge 64 bits at a time
+    for (; length - i >= Long.SIZE; i += Long.SIZE) {
+      long word = readWord(sourceBits, sourceIndex + i);
+      if (word != 0) {
+        if (target == null) {
+          target = getOrCreateBitMap(columnIndex, arrayIndex);
+        }
+        byte[] targetBits = target.getByteArray();
+        int targetByteIndex = (elementIndex + i) >>> 3;
+        for (int k = 0; k < Long.BYTES; k++) {
+          targetBits[targetByteIndex + k] |= (byte) (word >>> (k << 3));
+        }
+      }
+    }
+    // merge the tail bit by bit
+    for (; i < length; i++) {
+      if (source.isMarked(sourceIndex + i)) {
+        if (target == null) {
+          target = getOrCreateBitMap(columnIndex, arrayIndex);
+        }
+        target.mark(elementIndex + i);
+      }
+    }
+  }
+
+  /** Read 64 bits starting at the given bit position, lower bits first as BitMap lays them out. */
+  private static long readWord(byte[] bits, int position) {
+    int byteIndex = position >>> 3;
+    int shift = position & 7;
+    long word = 0;
+    for (int k = 0; k < Long.BYTES; k++) {
+      word |= (bits[byteIndex + k] & 0xFFL) << (k << 3);
+    }
+    if (shift != 0) {
+      word >>>= shift;
+      word |= (bits[byteIndex + Long.BYTES] & 0xFFL) << (Long.SIZE - shift);
+    }
+    return word;
+  }
+
   private void arrayCopy(Object[] value, int idx, int arrayIndex, int elementIndex, int remaining) {
     for (int i = 0; i < values.size(); i++) {
       if (value[i] == null) {
@@ -830,6 +916,11 @@ public abstract class AlignedTVList extends TVList {
   }
 
   private void markNullValue(int columnIndex, int arrayIndex, int elementIndex) {
+    // mark the null value in the current bitmap
+    getOrCreateBitMap(columnIndex, arrayIndex).mark(elementIndex);
+  }
+
+  private BitMap getOrCreateBitMap(int columnIndex, int arrayIndex) {
     // init BitMaps if doesn't have
     if (bitMaps == null) {
       bitMaps = new ArrayList<>(dataTypes.size());
@@ -851,9 +942,7 @@ public abstract class AlignedTVList extends TVList {
     if (bitMaps.get(columnIndex).get(arrayIndex) == null) {
       bitMaps.get(columnIndex).set(arrayIndex, new BitMap(ARRAY_SIZE));
     }
-
-    // mark the null value in the current bitmap
-    bitMaps.get(columnIndex).get(arrayIndex).mark(elementIndex);
+    return bitMaps.get(columnIndex).get(arrayIndex);
   }
 
   @Override
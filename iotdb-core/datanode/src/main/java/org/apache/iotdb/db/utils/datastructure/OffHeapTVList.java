@@ -0,0 +1,716 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.IWALByteBufferView;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALWriteUtils;
+import org.apache.iotdb.db.storageengine.rescon.memory.OffHeapArrayManager;
+import org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager;
+
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.tsfile.read.TimeValuePair;
+import org.apache.tsfile.read.common.TimeRange;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.utils.BitMap;
+import org.apache.tsfile.utils.TsPrimitiveType;
+import org.apache.tsfile.write.UnSupportedDataTypeException;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.ARRAY_SIZE;
+import static org.apache.iotdb.db.utils.ModificationUtils.isPointDeleted;
+
+/**
+ * TVList of one fixed-length data type whose timestamps and values are stored in off-heap arrays
+ * allocated by {@link OffHeapArrayManager}. Values are kept as raw bits of 1, 4 or 8 bytes, so one
+ * class serves all fixed-length types. Sorting always uses tim sort, whose temporary arrays are
+ * off-heap too. All arrays are given back when the list is cleared, which happens only after the
+ * memtable has released the list and no query references it, see {@link TVList#release()}.
+ */
+public class OffHeapTVList extends TVList implements TimSort {
+  private final TSDataType dataType;
+  // size of each value in bytes
+  private final int valueSize;
+
+  // list of off-heap arrays, add 1 when expanded
+  // index relation: arrayIndex -> elementIndex
+  private final List<ByteBuffer> timeArrays;
+  private final List<ByteBuffer> valueArrays;
+
+  // temporary arrays of tim sort, only exist while sorting
+  private List<ByteBuffer> sortedTimeArrays;
+  private List<ByteBuffer> sortedValueArrays;
+  private long pivotTime;
+  private long pivotValue;
+
+  // arrays emptied by deletions while queries reference this list, given back when it is cleared
+  private final List<ByteBuffer> deletedArrays = new ArrayList<>();
+
+  // off-heap memory of the lists of the owning memtable, null if there is no owner. The temporary
+  // arrays of sorting are not charged to it.
+  private final AtomicLong memTableOffHeapCost;
+
+  OffHeapTVList(TSDataType dataType) {
+    this(dataType, null);
+  }
+
+  OffHeapTVList(TSDataType dataType, AtomicLong memTableOffHeapCost) {
+    super();
+    this.memTableOffHeapCost = memTableOffHeapCost;
+    // share the same wal format with the on-heap lists
+    if (dataType == TSDataType.DATE) {
+      this.dataType = TSDataType.INT32;
+    } else if (dataType == TSDataType.TIMESTAMP) {
+      this.dataType = TSDataType.INT64;
+    } else {
+      this.dataType = dataType;
+    }
+    this.valueSize = OffHeapArrayManager.getElementSize(dataType);
+    this.timeArrays = new ArrayList<>();
+    this.valueArrays = new ArrayList<>();
+  }
+
+  public static boolean isSupported(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+      case INT32:
+      case DATE:
+      case INT64:
+      case TIMESTAMP:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  // region raw access
+
+  private static long getTime(List<ByteBuffer> arrays, int index) {
+    return arrays.get(index / ARRAY_SIZE).getLong((index % ARRAY_SIZE) * Long.BYTES);
+  }
+
+  private static void setTime(List<ByteBuffer> arrays, int index, long time) {
+    arrays.get(index / ARRAY_SIZE).putLong((index % ARRAY_SIZE) * Long.BYTES, time);
+  }
+
+  private long getValueBits(List<ByteBuffer> arrays, int index) {
+    ByteBuffer array = arrays.get(index / ARRAY_SIZE);
+    int offset = (index % ARRAY_SIZE) * valueSize;
+    switch (valueSize) {
+      case Long.BYTES:
+        return array.getLong(offset);
+      case Integer.BYTES:
+        return array.getInt(offset);
+      default:
+        return array.get(offset);
+    }
+  }
+
+  private void setValueBits(List<ByteBuffer> arrays, int index, long bits) {
+    ByteBuffer array = arrays.get(index / ARRAY_SIZE);
+    int offset = (index % ARRAY_SIZE) * valueSize;
+    switch (valueSize) {
+      case Long.BYTES:
+        array.putLong(offset, bits);
+        break;
+      case Integer.BYTES:
+        array.putInt(offset, (int) bits);
+        break;
+      default:
+        array.put(offset, (byte) bits);
+        break;
+    }
+  }
+
+  private long getValueBits(int index) {
+    if (index >= rowCount) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    return getValueBits(valueArrays, index);
+  }
+
+  private void checkDataType(TSDataType expected) {
+    if (dataType != expected) {
+      throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+    }
+  }
+
+  // endregion
+
+  // region write
+
+  private void putValueBits(long timestamp, long bits) {
+    checkExpansion();
+    maxTime = Math.max(maxTime, timestamp);
+    setTime(timeArrays, rowCount, timestamp);
+    setValueBits(valueArrays, rowCount, bits);
+    rowCount++;
+    if (sorted && rowCount > 1 && timestamp < getTime(rowCount - 2)) {
+      sorted = false;
+    }
+  }
+
+  @Override
+  public void putLong(long timestamp, long value) {
+    checkDataType(TSDataType.INT64);
+    putValueBits(timestamp, value);
+  }
+
+  @Override
+  public void putInt(long timestamp, int value) {
+    checkDataType(TSDataType.INT32);
+    putValueBits(timestamp, value);
+  }
+
+  @Override
+  public void putFloat(long timestamp, float value) {
+    checkDataType(TSDataType.FLOAT);
+    putValueBits(timestamp, Float.floatToRawIntBits(value));
+  }
+
+  @Override
+  public void putDouble(long timestamp, double value) {
+    checkDataType(TSDataType.DOUBLE);
+    putValueBits(timestamp, Double.doubleToRawLongBits(value));
+  }
+
+  @Override
+  public void putBoolean(long timestamp, boolean value) {
+    checkDataType(TSDataType.BOOLEAN);
+    putValueBits(timestamp, value ? 1 : 0);
+  }
+
+  @Override
+  public void putLongs(long[] time, long[] value, BitMap bitMap, int start, int end) {
+    checkDataType(TSDataType.INT64);
+    if (bitMap != null && !bitMap.isAllUnmarked()) {
+      for (int i = start; i < end; i++) {
+        if (!bitMap.isMarked(i)) {
+          putValueBits(time[i], value[i]);
+        }
+      }
+      return;
+    }
+    putTimes(
+        time,
+        start,
+        end,
+        (array, elementIndex, index, length) -> {
+          LongBuffer values = array.asLongBuffer();
+          values.position(elementIndex);
+          values.put(value, index, length);
+        });
+  }
+
+  @Override
+  public void putInts(long[] time, int[] value, BitMap bitMap, int start, int end) {
+    checkDataType(TSDataType.INT32);
+    if (bitMap != null && !bitMap.isAllUnmarked()) {
+      for (int i = start; i < end; i++) {
+        if (!bitMap.isMarked(i)) {
+          putValueBits(time[i], value[i]);
+        }
+      }
+      return;
+    }
+    putTimes(
+        time,
+        start,
+        end,
+        (array, elementIndex, index, length) -> {
+          IntBuffer values = array.asIntBuffer();
+          values.position(elementIndex);
+          values.put(value, index, length);
+        });
+  }
+
+  @Override
+  public void putFloats(long[] time, float[] value, BitMap bitMap, int start, int end) {
+    checkDataType(TSDataType.FLOAT);
+    if (bitMap != null && !bitMap.isAllUnmarked()) {
+      for (int i = start; i < end; i++) {
+        if (!bitMap.isMarked(i)) {
+          putValueBits(time[i], Float.floatToRawIntBits(value[i]));
+        }
+      }
+      return;
+    }
+    putTimes(
+        time,
+        start,
+        end,
+        (array, elementIndex, index, length) -> {
+          FloatBuffer values = array.asFloatBuffer();
+          values.position(elementIndex);
+          values.put(value, index, length);
+        });
+  }
+
+  @Override
+  public void putDoubles(long[] time, double[] value, BitMap bitMap, int start, int end) {
+    checkDataType(TSDataType.DOUBLE);
+    if (bitMap != null && !bitMap.isAllUnmarked()) {
+      for (int i = start; i < end; i++) {
+        if (!bitMap.isMarked(i)) {
+          putValueBits(time[i], Double.doubleToRawLongBits(value[i]));
+        }
+      }
+      return;
+    }
+    putTimes(
+        time,
+        start,
+        end,
+        (array, elementIndex, index, length) -> {
+          DoubleBuffer values = array.asDoubleBuffer();
+          values.position(elementIndex);
+          values.put(value, index, length);
+        });
+  }
+
+  @Override
+  public void putBooleans(long[] time, boolean[] value, BitMap bitMap, int start, int end) {
+    checkDataType(TSDataType.BOOLEAN);
+    if (bitMap != null && !bitMap.isAllUnmarked()) {
+      for (int i = start; i < end; i++) {
+        if (!bitMap.isMarked(i)) {
+          putValueBits(time[i], value[i] ? 1 : 0);
+        }
+      }
+      return;
+    }
+    putTimes(
+        time,
+        start,
+        end,
+        (array, elementIndex, index, length) -> {
+          for (int i = 0; i < length; i++) {
+            array.put(elementIndex + i, value[index + i] ? (byte) 1 : (byte) 0);
+          }
+        });
+  }
+
+  /** Copy rows without null values array by array, values are copied by the given copier. */
+  private void putTimes(long[] time, int start, int end, ValuesCopier valuesCopier) {
+    updateMaxTimeAndSorted(time, start, end);
+    int idx = start;
+    while (idx < end) {
+      checkExpansion();
+      int arrayIdx = rowCount / ARRAY_SIZE;
+      int elementIdx = rowCount % ARRAY_SIZE;
+      int length = Math.min(ARRAY_SIZE - elementIdx, end - idx);
+      LongBuffer times = timeArrays.get(arrayIdx).asLongBuffer();
+      times.position(elementIdx);
+      times.put(time, idx, length);
+      valuesCopier.copy(valueArrays.get(arrayIdx), elementIdx, idx, length);
+      idx += length;
+      rowCount += length;
+    }
+  }
+
+  @FunctionalInterface
+  private interface ValuesCopier {
+    void copy(ByteBuffer array, int elementIndex, int index, int length);
+  }
+
+  // endregion
+
+  // region read
+
+  @Override
+  public long getTime(int index) {
+    if (index >= rowCount) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    return getTime(timeArrays, index);
+  }
+
+  @Override
+  public long getLong(int index) {
+    checkDataType(TSDataType.INT64);
+    return getValueBits(index);
+  }
+
+  @Override
+  public int getInt(int index) {
+    checkDataType(TSDataType.INT32);
+    return (int) getValueBits(index);
+  }
+
+  @Override
+  public float getFloat(int index) {
+    checkDataType(TSDataType.FLOAT);
+    return Float.intBitsToFloat((int) getValueBits(index));
+  }
+
+  @Override
+  public double getDouble(int index) {
+    checkDataType(TSDataType.DOUBLE);
+    return Double.longBitsToDouble(getValueBits(index));
+  }
+
+  @Override
+  public boolean getBoolean(int index) {
+    checkDataType(TSDataType.BOOLEAN);
+    return getValueBits(index) != 0;
+  }
+
+  /** Copy timestamps to on-heap arrays, only used when building chunk handles of memtables. */
+  @Override
+  public List<long[]> getTimestamps() {
+    List<long[]> timestamps = new ArrayList<>(timeArrays.size());
+    for (ByteBuffer timeArray : timeArrays) {
+      long[] times = new long[ARRAY_SIZE];
+      timeArray.asLongBuffer().get(times);
+      timestamps.add(times);
+    }
+    return timestamps;
+  }
+
+  @Override
+  public TimeValuePair getTimeValuePair(int index) {
+    return getTimeValuePair(index, getTime(index), null, TSEncoding.PLAIN);
+  }
+
+  @Override
+  protected TimeValuePair getTimeValuePair(
+      int index, long time, Integer floatPrecision, TSEncoding encoding) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new TimeValuePair(time, TsPrimitiveType.getByType(dataType, getBoolean(index)));
+      case INT32:
+        return new TimeValuePair(time, TsPrimitiveType.getByType(dataType, getInt(index)));
+      case INT64:
+        return new TimeValuePair(time, TsPrimitiveType.getByType(dataType, getLong(index)));
+      case FLOAT:
+        float floatValue = getFloat(index);
+        if (floatPrecision != null) {
+          floatValue = roundValueWithGivenPrecision(floatValue, floatPrecision, encoding);
+        }
+        return new TimeValuePair(time, TsPrimitiveType.getByType(dataType, floatValue));
+      case DOUBLE:
+        double doubleValue = getDouble(index);
+        if (floatPrecision != null) {
+          doubleValue = roundValueWithGivenPrecision(doubleValue, floatPrecision, encoding);
+        }
+        return new TimeValuePair(time, TsPrimitiveType.getByType(dataType, doubleValue));
+      default:
+        throw new UnSupportedDataTypeException(dataType.name());
+    }
+  }
+
+  @Override
+  protected void writeValidValuesIntoTsBlock(
+      TsBlockBuilder builder,
+      int floatPrecision,
+      TSEncoding encoding,
+      List<TimeRange> deletionList) {
+    int[] deleteCursor = {0};
+    ColumnBuilder valueBuilder = builder.getColumnBuilder(0);
+    for (int i = 0; i < rowCount; i++) {
+      long time = getTime(i);
+      if (isPointDeleted(time, deletionList, deleteCursor)
+          || (i != rowCount - 1 && time == getTime(i + 1))) {
+        continue;
+      }
+      builder.getTimeColumnBuilder().writeLong(time);
+      switch (dataType) {
+        case BOOLEAN:
+          valueBuilder.writeBoolean(getBoolean(i));
+          break;
+        case INT32:
+          valueBuilder.writeInt(getInt(i));
+          break;
+        case INT64:
+          valueBuilder.writeLong(getLong(i));
+          break;
+        case FLOAT:
+          valueBuilder.writeFloat(
+              roundValueWithGivenPrecision(getFloat(i), floatPrecision, encoding));
+          break;
+        case DOUBLE:
+          valueBuilder.writeDouble(
+              roundValueWithGivenPrecision(getDouble(i), floatPrecision, encoding));
+          break;
+        default:
+          throw new UnSupportedDataTypeException(dataType.name());
+      }
+      builder.declarePosition();
+    }
+  }
+
+  @Override
+  public TSDataType getDataType() {
+    return dataType;
+  }
+
+  // endregion
+
+  // region memory management
+
+  @Override
+  protected void checkExpansion() {
+    if ((rowCount % ARRAY_SIZE) == 0) {
+      expandValues();
+      timeArrays.add(allocateArray(Long.BYTES));
+    }
+  }
+
+  @Override
+  protected void expandValues() {
+    valueArrays.add(allocateArray(valueSize));
+  }
+
+  @Override
+  protected void releaseLastTimeArray() {
+    releaseArray(timeArrays.remove(timeArrays.size() - 1));
+  }
+
+  @Override
+  protected void releaseLastValueArray() {
+    releaseArray(valueArrays.remove(valueArrays.size() - 1));
+  }
+
+  @Override
+  public int delete(long lowerBound, long upperBound) {
+    int deletedNumber = super.delete(lowerBound, upperBound);
+    // release arrays that are empty
+    int newArrayNum = PrimitiveArrayManager.getArrayRowCount(rowCount);
+    while (timeArrays.size() > newArrayNum) {
+      if (getReferenceCount() > 0) {
+        // a query may still read them, so they must not be reused before the list is cleared
+        deletedArrays.add(timeArrays.remove(timeArrays.size() - 1));
+        deletedArrays.add(valueArrays.remove(valueArrays.size() - 1));
+      } else {
+        releaseLastTimeArray();
+        releaseLastValueArray();
+      }
+    }
+    return deletedNumber;
+  }
+
+  @Override
+  protected void clearTime() {
+    for (ByteBuffer timeArray : timeArrays) {
+      releaseArray(timeArray);
+    }
+    timeArrays.clear();
+  }
+
+  @Override
+  void clearValue() {
+    for (ByteBuffer valueArray : valueArrays) {
+      releaseArray(valueArray);
+    }
+    valueArrays.clear();
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    clearSortedTime();
+    clearSortedValue();
+    for (ByteBuffer deletedArray : deletedArrays) {
+      releaseArray(deletedArray);
+    }
+    deletedArrays.clear();
+  }
+
+  @Override
+  public OffHeapTVList clone() {
+    OffHeapTVList cloneList = new OffHeapTVList(dataType, memTableOffHeapCost);
+    cloneAs(cloneList);
+    for (ByteBuffer timeArray : timeArrays) {
+      cloneList.timeArrays.add(cloneList.cloneArray(timeArray, Long.BYTES));
+    }
+    for (ByteBuffer valueArray : valueArrays) {
+      cloneList.valueArrays.add(cloneList.cloneArray(valueArray, valueSize));
+    }
+    return cloneList;
+  }
+
+  private ByteBuffer cloneArray(ByteBuffer array, int elementSize) {
+    ByteBuffer cloneArray = allocateArray(elementSize);
+    // the byte order of a duplicate is reset, but raw bytes are copied here
+    cloneArray.put(array.duplicate());
+    cloneArray.clear();
+    return cloneArray;
+  }
+
+  private ByteBuffer allocateArray(int elementSize) {
+    ByteBuffer array = OffHeapArrayManager.allocate(elementSize);
+    if (memTableOffHeapCost != null) {
+      memTableOffHeapCost.addAndGet(array.capacity());
+    }
+    return array;
+  }
+
+  private void releaseArray(ByteBuffer array) {
+    if (memTableOffHeapCost != null) {
+      memTableOffHeapCost.addAndGet(-array.capacity());
+    }
+    OffHeapArrayManager.release(array);
+  }
+
+  // endregion
+
+  // region sort
+
+  @Override
+  public void sort() {
+    if (!sorted) {
+      int arrayNum = PrimitiveArrayManager.getArrayRowCount(rowCount);
+      sortedTimeArrays = new ArrayList<>(arrayNum);
+      sortedValueArrays = new ArrayList<>(arrayNum);
+      for (int i = 0; i < arrayNum; i++) {
+        sortedTimeArrays.add(OffHeapArrayManager.allocate(Long.BYTES));
+        sortedValueArrays.add(OffHeapArrayManager.allocate(valueSize));
+      }
+      sort(0, rowCount);
+    }
+    clearSortedValue();
+    clearSortedTime();
+    sorted = true;
+  }
+
+  protected void set(int index, long timestamp, long valueBits) {
+    if (index >= rowCount) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    setTime(timeArrays, index, timestamp);
+    setValueBits(valueArrays, index, valueBits);
+  }
+
+  @Override
+  protected void set(int src, int dest) {
+    set(dest, getTime(src), getValueBits(src));
+  }
+
+  @Override
+  public void tim_set(int src, int dest) {
+    set(src, dest);
+  }
+
+  @Override
+  public void setToSorted(int src, int dest) {
+    setTime(sortedTimeArrays, dest, getTime(src));
+    setValueBits(sortedValueArrays, dest, getValueBits(src));
+  }
+
+  @Override
+  public void setFromSorted(int src, int dest) {
+    set(dest, getTime(sortedTimeArrays, src), getValueBits(sortedValueArrays, src));
+  }
+
+  @Override
+  public void saveAsPivot(int pos) {
+    pivotTime = getTime(pos);
+    pivotValue = getValueBits(pos);
+  }
+
+  @Override
+  public void setPivotTo(int pos) {
+    set(pos, pivotTime, pivotValue);
+  }
+
+  @Override
+  public void clearSortedTime() {
+    if (sortedTimeArrays != null) {
+      sortedTimeArrays.forEach(OffHeapArrayManager::release);
+      sortedTimeArrays = null;
+    }
+  }
+
+  @Override
+  public void clearSortedValue() {
+    if (sortedValueArrays != null) {
+      sortedValueArrays.forEach(OffHeapArrayManager::release);
+      sortedValueArrays = null;
+    }
+  }
+
+  @Override
+  public int compare(int idx1, int idx2) {
+    return Long.compare(getTime(idx1), getTime(idx2));
+  }
+
+  @Override
+  public void reverseRange(int lo, int hi) {
+    hi--;
+    while (lo < hi) {
+      long loT = getTime(lo);
+      long loV = getValueBits(lo);
+      long hiT = getTime(hi);
+      long hiV = getValueBits(hi);
+      set(lo++, hiT, hiV);
+      set(hi--, loT, loV);
+    }
+  }
+
+  // endregion
+
+  // region serialization
+
+  @Override
+  public int serializedSize() {
+    return Byte.BYTES + Integer.BYTES + rowCount * (Long.BYTES + valueSize);
+  }
+
+  @Override
+  public void serializeToWAL(IWALByteBufferView buffer) {
+    WALWriteUtils.write(dataType, buffer);
+    buffer.putInt(rowCount);
+    for (int rowIdx = 0; rowIdx < rowCount; ++rowIdx) {
+      buffer.putLong(getTime(rowIdx));
+      switch (dataType) {
+        case BOOLEAN:
+          WALWriteUtils.write(getBoolean(rowIdx), buffer);
+          break;
+        case INT32:
+          buffer.putInt(getInt(rowIdx));
+          break;
+        case INT64:
+          buffer.putLong(getLong(rowIdx));
+          break;
+        case FLOAT:
+          buffer.putFloat(getFloat(rowIdx));
+          break;
+        case DOUBLE:
+          buffer.putDouble(getDouble(rowIdx));
+          break;
+        default:
+          throw new UnSupportedDataTypeException(dataType.name());
+      }
+    }
+  }
+
+  // endregion
+}
@@ -23,6 +23,7 @@ import org.apache.iotdb.common.rpc.thrift.TSStatus;
 import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.WALEntryValue;
+import org.apache.iotdb.db.storageengine.rescon.memory.OffHeapArrayManager;
 import org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager;
 import org.apache.iotdb.db.utils.MathUtils;
 
@@ -42,6 +43,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.ARRAY_SIZE;
 import static org.apache.tsfile.utils.RamUsageEstimator.NUM_BYTES_ARRAY_HEADER;
@@ -53,6 +55,8 @@ public abstract class TVList implements WALEntryValue {
       IoTDBDescriptor.getInstance().getConfig().getTargetChunkSize();
   protected static final long MAX_SERIES_POINT_NUMBER =
       IoTDBDescriptor.getInstance().getConfig().getAvgSeriesPointNumberThreshold();
+  private static final boolean ENABLE_OFF_HEAP_TV_LIST =
+      IoTDBDescriptor.getInstance().getConfig().isEnableOffHeapTVList();
   // list of timestamp array, add 1 when expanded -> data point timestamp array
   // index relation: arrayIndex -> elementIndex
   protected List<long[]> timestamps;
@@ -60,9 +64,11 @@ public abstract class TVList implements WALEntryValue {
 
   protected boolean sorted = true;
   protected long maxTime;
-  // record reference count of this tv list
-  // currently this reference will only be increase because we can't know when to decrease it
+  // record reference count of this tv list, a query increases it before copying points out of the
+  // list and decreases it after that
   protected AtomicInteger referenceCount;
+  // whether the owner of this list has released it, guarded by this
+  private boolean released = false;
   private long version;
 
   protected TVList() {
@@ -73,6 +79,20 @@ public abstract class TVList implements WALEntryValue {
   }
 
   public static TVList newList(TSDataType dataType) {
+    return newList(dataType, null);
+  }
+
+  /**
+   * Create a list of the data type. If it is an off-heap list, the memory of its arrays is charged
+   * to memTableOffHeapCost when it is not null.
+   */
+  public static TVList newList(TSDataType dataType, AtomicLong memTableOffHeapCost) {
+    // new lists are created on-heap once the off-heap memory is used up
+    if (ENABLE_OFF_HEAP_TV_LIST
+        && OffHeapTVList.isSupported(dataType)
+        && OffHeapArrayManager.isMemoryAvailable()) {
+      return new OffHeapTVList(dataType, memTableOffHeapCost);
+    }
     switch (dataType) {
       case TEXT:
       case BLOB:
@@ -115,10 +135,29 @@ public abstract class TVList implements WALEntryValue {
 
   public abstract void sort();
 
-  public void increaseReferenceCount() {
+  public synchronized void increaseReferenceCount() {
     referenceCount.incrementAndGet();
   }
 
+  /** Called by a query once it has copied the points it needs out of this list. */
+  public synchronized void decreaseReferenceCount() {
+    if (referenceCount.decrementAndGet() == 0 && released) {
+      clear();
+    }
+  }
+
+  /**
+   * Called by the owner of this list, e.g., the memtable after flushing, when it no longer needs
+   * the list. The arrays are given back at once if no query references the list, or else by the
+   * last query decreasing the reference count.
+   */
+  public synchronized void release() {
+    released = true;
+    if (referenceCount.get() == 0) {
+      clear();
+    }
+  }
+
   public int getReferenceCount() {
     return referenceCount.get();
   }
@@ -331,13 +370,13 @@ public abstract class TVList implements WALEntryValue {
   }
 
   void updateMaxTimeAndSorted(long[] time, int start, int end) {
-    int length = time.length;
     long inPutMinTime = Long.MAX_VALUE;
     boolean inputSorted = true;
     for (int i = start; i < end; i++) {
       inPutMinTime = Math.min(inPutMinTime, time[i]);
       maxTime = Math.max(maxTime, time[i]);
-      if (inputSorted && i < length - 1 && time[i] > time[i + 1]) {
+      // only compare within [start, end), rows after end belong to another time partition
+      if (inputSorted && i < end - 1 && time[i] > time[i + 1]) {
         inputSorted = false;
       }
     }
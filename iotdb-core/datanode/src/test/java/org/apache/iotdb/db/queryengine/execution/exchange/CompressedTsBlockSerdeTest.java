@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.exchange;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.IntColumn;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+import org.apache.tsfile.read.common.block.column.TimeColumn;
+import org.apache.tsfile.read.common.block.column.TsBlockSerde;
+import org.apache.tsfile.utils.Binary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+public class CompressedTsBlockSerdeTest {
+
+  private static final int POSITION_COUNT = 1000;
+
+  @Test
+  public void testSerializeAndDeserialize() throws IOException {
+    TsBlock tsBlock = createTsBlock();
+    CompressedTsBlockSerde serde = new CompressedTsBlockSerde(CompressionType.LZ4);
+
+    ByteBuffer serialized = serde.serialize(tsBlock);
+    Assert.assertEquals(CompressedTsBlockSerde.COMPRESSED_FORMAT_MARKER, serialized.getInt(0));
+    Assert.assertTrue(serialized.remaining() < new TsBlockSerde().serialize(tsBlock).remaining());
+
+    assertTsBlockEquals(tsBlock, serde.deserialize(serialized));
+  }
+
+  @Test
+  public void testPlainFormatCompatibility() throws IOException {
+    TsBlock tsBlock = createTsBlock();
+
+    // a channel without compression sends the plain format
+    ByteBuffer serialized =
+        new CompressedTsBlockSerde(CompressionType.UNCOMPRESSED).serialize(tsBlock);
+    Assert.assertEquals(tsBlock.getValueColumnCount(), serialized.getInt(0));
+    assertTsBlockEquals(tsBlock, new TsBlockSerde().deserialize(serialized));
+
+    // a receiver reads the plain format of an upstream DataNode
+    assertTsBlockEquals(
+        tsBlock,
+        new CompressedTsBlockSerde(CompressionType.LZ4)
+            .deserialize(new TsBlockSerde().serialize(tsBlock)));
+  }
+
+  @Test
+  public void testRunLengthEncodedColumn() throws IOException {
+    TsBlock tsBlock =
+        new TsBlock(
+            POSITION_COUNT,
+            new RunLengthEncodedColumn(new TimeColumn(1, new long[] {100L}), POSITION_COUNT),
+            new RunLengthEncodedColumn(
+                new IntColumn(1, Optional.empty(), new int[] {7}), POSITION_COUNT));
+    CompressedTsBlockSerde serde = new CompressedTsBlockSerde(CompressionType.LZ4);
+
+    TsBlock result = serde.deserialize(serde.serialize(tsBlock));
+    Assert.assertTrue(result.getColumn(0) instanceof RunLengthEncodedColumn);
+    assertTsBlockEquals(tsBlock, result);
+  }
+
+  private static TsBlock createTsBlock() {
+    TsBlockBuilder builder =
+        new TsBlockBuilder(
+            Arrays.asList(
+                TSDataType.BOOLEAN,
+                TSDataType.INT32,
+                TSDataType.INT64,
+                TSDataType.FLOAT,
+                TSDataType.DOUBLE,
+                TSDataType.TEXT,
+                TSDataType.STRING));
+    for (int i = 0; i < POSITION_COUNT; i++) {
+      builder.getTimeColumnBuilder().writeLong(1000L * i);
+      if (i % 7 == 0) {
+        for (int j = 0; j < builder.getValueColumnBuilders().length; j++) {
+          builder.getColumnBuilder(j).appendNull();
+        }
+      } else {
+        builder.getColumnBuilder(0).writeBoolean(i % 3 == 0);
+        builder.getColumnBuilder(1).writeInt(i * 31 - 5000);
+        builder.getColumnBuilder(2).writeLong(Long.MAX_VALUE - i * 17L);
+        builder.getColumnBuilder(3).writeFloat(i * 0.5f);
+        builder.getColumnBuilder(4).writeDouble(i * 0.25);
+        builder
+            .getColumnBuilder(5)
+            .writeBinary(new Binary("device_" + (i % 10), StandardCharsets.UTF_8));
+        builder.getColumnBuilder(6).writeBinary(new Binary("value_" + i, StandardCharsets.UTF_8));
+      }
+      builder.declarePosition();
+    }
+    return builder.build();
+  }
+
+  private static void assertTsBlockEquals(TsBlock expected, TsBlock actual) {
+    Assert.assertEquals(expected.getPositionCount(), actual.getPositionCount());
+    Assert.assertEquals(expected.getValueColumnCount(), actual.getValueColumnCount());
+    for (int i = 0; i < expected.getPositionCount(); i++) {
+      Assert.assertEquals(expected.getTimeByIndex(i), actual.getTimeByIndex(i));
+      for (int j = 0; j < expected.getValueColumnCount(); j++) {
+        Column expectedColumn = expected.getColumn(j);
+        Column actualColumn = actual.getColumn(j);
+        Assert.assertEquals(expectedColumn.isNull(i), actualColumn.isNull(i));
+        if (!expectedColumn.isNull(i)) {
+          Assert.assertEquals(expectedColumn.getObject(i), actualColumn.getObject(i));
+        }
+      }
+    }
+  }
+}
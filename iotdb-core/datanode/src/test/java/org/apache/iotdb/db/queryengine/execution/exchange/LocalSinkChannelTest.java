@@ -110,7 +110,8 @@ public class LocalSinkChannelTest {
     Assert.assertTrue(localSinkChannel.isFull().isDone());
     Assert.assertFalse(localSinkChannel.isFinished());
     Assert.assertEquals(0L, localSinkChannel.getBufferRetainedSizeInBytes());
-    Mockito.verify(spyMemoryPool, Mockito.times(11))
+    // the memory of the last received TsBlock is kept for the next TsBlock
+    Mockito.verify(spyMemoryPool, Mockito.times(10))
         .free(
             queryId,
             FragmentInstanceId.createFragmentInstanceIdFromTFragmentInstanceId(
@@ -122,6 +123,13 @@ public class LocalSinkChannelTest {
     localSinkChannel.setNoMoreTsBlocks();
     Assert.assertTrue(localSinkChannel.isFull().isDone());
     Assert.assertTrue(localSinkChannel.isFinished());
+    Mockito.verify(spyMemoryPool, Mockito.times(11))
+        .free(
+            queryId,
+            FragmentInstanceId.createFragmentInstanceIdFromTFragmentInstanceId(
+                remoteFragmentInstanceId),
+            remotePlanNodeId,
+            mockTsBlockSize);
     Mockito.verify(mockSinkListener, Mockito.times(1)).onEndOfBlocks(localSinkChannel);
     Mockito.verify(mockSinkListener, Mockito.times(1)).onFinish(localSinkChannel);
   }
@@ -19,6 +19,7 @@
 
 package org.apache.iotdb.db.queryengine.execution.exchange;
 
+import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
 import org.apache.iotdb.db.queryengine.execution.memory.LocalMemoryManager;
 import org.apache.iotdb.db.queryengine.execution.memory.MemoryPool;
 import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
@@ -83,6 +84,41 @@ public class SharedTsBlockQueueTest {
     }
   }
 
+  @Test
+  public void testReservationCredit() {
+    final String queryId = "q0";
+    final long mockTsBlockSize = 1024L * 1024L;
+    final TFragmentInstanceId fragmentInstanceId = new TFragmentInstanceId(queryId, 0, "0");
+    final String fullFragmentInstanceId =
+        FragmentInstanceId.createFragmentInstanceIdFromTFragmentInstanceId(fragmentInstanceId);
+
+    LocalMemoryManager mockLocalMemoryManager = Mockito.mock(LocalMemoryManager.class);
+    MemoryPool spyMemoryPool =
+        Mockito.spy(new MemoryPool("test", 10 * mockTsBlockSize, 5 * mockTsBlockSize));
+    Mockito.when(mockLocalMemoryManager.getQueryPool()).thenReturn(spyMemoryPool);
+    SharedTsBlockQueue queue =
+        new SharedTsBlockQueue(
+            fragmentInstanceId, "test", mockLocalMemoryManager, newDirectExecutorService());
+    queue.setMaxBytesCanReserve(Long.MAX_VALUE);
+
+    // a consumer keeping pace with the producer reuses the memory of the consumed TsBlock
+    for (int i = 0; i < 100; i++) {
+      Assert.assertTrue(queue.add(Utils.createMockTsBlock(mockTsBlockSize)).isDone());
+      queue.remove();
+    }
+    Mockito.verify(spyMemoryPool, Mockito.times(1))
+        .reserve(queryId, fullFragmentInstanceId, "test", mockTsBlockSize, Long.MAX_VALUE);
+    Mockito.verify(spyMemoryPool, Mockito.never())
+        .free(Mockito.anyString(), Mockito.anyString(), Mockito.anyString(), Mockito.anyLong());
+    Assert.assertEquals(mockTsBlockSize, spyMemoryPool.getReservedBytes());
+
+    // the credit is returned once the queue is finished
+    queue.setNoMoreTsBlocks(true);
+    Mockito.verify(spyMemoryPool, Mockito.times(1))
+        .free(queryId, fullFragmentInstanceId, "test", mockTsBlockSize);
+    Assert.assertEquals(0L, spyMemoryPool.getReservedBytes());
+  }
+
   private static class SendTask implements Runnable {
 
     private final SharedTsBlockQueue queue;
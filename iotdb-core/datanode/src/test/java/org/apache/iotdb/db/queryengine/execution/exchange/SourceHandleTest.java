@@ -35,6 +35,10 @@ import org.apache.iotdb.mpp.rpc.thrift.TGetDataBlockRequest;
 import org.apache.iotdb.mpp.rpc.thrift.TGetDataBlockResponse;
 
 import org.apache.thrift.TException;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
 import org.apache.tsfile.read.common.block.column.TsBlockSerde;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -44,6 +48,7 @@ import org.mockito.Mockito;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -523,6 +528,121 @@ public class SourceHandleTest {
         .onFinished(sourceHandle);
   }
 
+  @Test
+  public void testPushedReceive() {
+    final String queryId = "q0";
+    final int numOfMockTsBlock = 2;
+    final TEndPoint remoteEndpoint =
+        new TEndPoint("remote", IoTDBDescriptor.getInstance().getConfig().getMppDataExchangePort());
+    final TFragmentInstanceId remoteFragmentInstanceId = new TFragmentInstanceId(queryId, 1, "0");
+    final String localPlanNodeId = "exchange_0";
+    final TFragmentInstanceId localFragmentInstanceId = new TFragmentInstanceId(queryId, 0, "0");
+    final long streamingCredit =
+        IoTDBDescriptor.getInstance().getConfig().getMppDataExchangeStreamingCreditInBytes();
+    IoTDBDescriptor.getInstance()
+        .getConfig()
+        .setMppDataExchangeStreamingCreditInBytes(numOfMockTsBlock * MOCK_TSBLOCK_SIZE);
+
+    try {
+      LocalMemoryManager mockLocalMemoryManager = Mockito.mock(LocalMemoryManager.class);
+      MemoryPool spyMemoryPool =
+          Mockito.spy(new MemoryPool("test", 10 * MOCK_TSBLOCK_SIZE, 5 * MOCK_TSBLOCK_SIZE));
+      Mockito.when(mockLocalMemoryManager.getQueryPool()).thenReturn(spyMemoryPool);
+      IClientManager<TEndPoint, SyncDataNodeMPPDataExchangeServiceClient> mockClientManager =
+          Mockito.mock(IClientManager.class);
+      // Construct a mock client.
+      SyncDataNodeMPPDataExchangeServiceClient mockClient =
+          Mockito.mock(SyncDataNodeMPPDataExchangeServiceClient.class);
+      try {
+        Mockito.when(mockClientManager.borrowClient(remoteEndpoint)).thenReturn(mockClient);
+      } catch (ClientManagerException e) {
+        e.printStackTrace();
+        Assert.fail();
+      }
+      // Construct a mock SourceHandleListener.
+      SourceHandleListener mockSourceHandleListener = Mockito.mock(SourceHandleListener.class);
+      // Construct a mock TsBlockSerde that deserializes any bytebuffer into a mock TsBlock.
+      TsBlockSerde mockTsBlockSerde = Utils.createMockTsBlockSerde(MOCK_TSBLOCK_SIZE);
+
+      SourceHandle sourceHandle =
+          new SourceHandle(
+              remoteEndpoint,
+              remoteFragmentInstanceId,
+              localFragmentInstanceId,
+              localPlanNodeId,
+              0,
+              mockLocalMemoryManager,
+              Executors.newSingleThreadExecutor(),
+              mockTsBlockSerde,
+              mockSourceHandleListener,
+              mockClientManager);
+      sourceHandle.setMaxBytesCanReserve(5 * MOCK_TSBLOCK_SIZE);
+      Assert.assertFalse(sourceHandle.isBlocked().isDone());
+
+      // The credit is granted once the handle is started.
+      Mockito.verify(mockClient, Mockito.timeout(10_000).times(1))
+          .onAcknowledgeDataBlockEvent(
+              Mockito.argThat(
+                  e ->
+                      0 == e.getStartSequenceId()
+                          && 0 == e.getEndSequenceId()
+                          && numOfMockTsBlock * MOCK_TSBLOCK_SIZE == e.getCreditBytes()));
+      Assert.assertEquals(numOfMockTsBlock * MOCK_TSBLOCK_SIZE, spyMemoryPool.getReservedBytes());
+
+      // The upstream pushes the data blocks with the new data blocks event.
+      sourceHandle.receivePushedTsBlocks(
+          0,
+          Stream.generate(() -> MOCK_TSBLOCK_SIZE)
+              .limit(numOfMockTsBlock)
+              .collect(Collectors.toList()),
+          Stream.generate(() -> ByteBuffer.allocate(0))
+              .limit(numOfMockTsBlock)
+              .collect(Collectors.toList()));
+      Mockito.verify(mockClient, Mockito.timeout(10_000).times(1))
+          .onAcknowledgeDataBlockEvent(
+              Mockito.argThat(
+                  e ->
+                      0 == e.getStartSequenceId()
+                          && numOfMockTsBlock == e.getEndSequenceId()
+                          && !e.isSetCreditBytes()));
+      Mockito.verify(mockClient, Mockito.never())
+          .getDataBlock(Mockito.any(TGetDataBlockRequest.class));
+      Assert.assertTrue(sourceHandle.isBlocked().isDone());
+      Assert.assertEquals(
+          numOfMockTsBlock * MOCK_TSBLOCK_SIZE, sourceHandle.getBufferRetainedSizeInBytes());
+
+      // The consumed memory is granted to the upstream again rather than freed.
+      for (int i = 0; i < numOfMockTsBlock; i++) {
+        sourceHandle.receive();
+        final int sequenceId = i;
+        final long totalCredit = (numOfMockTsBlock + i + 1) * MOCK_TSBLOCK_SIZE;
+        Mockito.verify(mockClient, Mockito.timeout(10_000).times(1))
+            .onAcknowledgeDataBlockEvent(
+                Mockito.argThat(
+                    e ->
+                        sequenceId == e.getStartSequenceId()
+                            && sequenceId == e.getEndSequenceId()
+                            && totalCredit == e.getCreditBytes()));
+      }
+      Assert.assertEquals(numOfMockTsBlock * MOCK_TSBLOCK_SIZE, spyMemoryPool.getReservedBytes());
+
+      sourceHandle.setNoMoreTsBlocks(numOfMockTsBlock - 1);
+      Assert.assertTrue(sourceHandle.isFinished());
+      Assert.assertEquals(0L, sourceHandle.getBufferRetainedSizeInBytes());
+
+      // The credit not used by the upstream is freed on close.
+      sourceHandle.close();
+      Assert.assertEquals(0L, spyMemoryPool.getReservedBytes());
+    } catch (TException e) {
+      e.printStackTrace();
+      Assert.fail();
+    } finally {
+      IoTDBDescriptor.getInstance()
+          .getConfig()
+          .setMppDataExchangeStreamingCreditInBytes(streamingCredit);
+    }
+  }
+
   @Test
   public void testFailedReceive() {
     final String queryId = "q0";
@@ -674,4 +794,72 @@ public class SourceHandleTest {
     Mockito.verify(mockSourceHandleListener, Mockito.timeout(10_0000).times(1))
         .onAborted(sourceHandle);
   }
+
+  @Test
+  public void testGetSerializedTsBlockInPlainFormat() throws Exception {
+    final String queryId = "q0";
+    final TEndPoint remoteEndpoint =
+        new TEndPoint("remote", IoTDBDescriptor.getInstance().getConfig().getMppDataExchangePort());
+    final TFragmentInstanceId remoteFragmentInstanceId = new TFragmentInstanceId(queryId, 1, "0");
+    final String localPlanNodeId = "exchange_0";
+    final TFragmentInstanceId localFragmentInstanceId = new TFragmentInstanceId(queryId, 0, "0");
+
+    TsBlockBuilder builder = new TsBlockBuilder(Collections.singletonList(TSDataType.INT32));
+    for (int i = 0; i < 100; i++) {
+      builder.getTimeColumnBuilder().writeLong(i);
+      builder.getColumnBuilder(0).writeInt(i % 10);
+      builder.declarePosition();
+    }
+    TsBlock tsBlock = builder.build();
+    // the upstream channel sends the block in the compressed format
+    ByteBuffer compressedTsBlock =
+        new CompressedTsBlockSerde(CompressionType.LZ4).serialize(tsBlock);
+    Assert.assertTrue(CompressedTsBlockSerde.isCompressedFormat(compressedTsBlock));
+
+    LocalMemoryManager mockLocalMemoryManager = Mockito.mock(LocalMemoryManager.class);
+    MemoryPool mockMemoryPool = Utils.createMockNonBlockedMemoryPool();
+    Mockito.when(mockLocalMemoryManager.getQueryPool()).thenReturn(mockMemoryPool);
+    IClientManager<TEndPoint, SyncDataNodeMPPDataExchangeServiceClient> mockClientManager =
+        Mockito.mock(IClientManager.class);
+    SyncDataNodeMPPDataExchangeServiceClient mockClient =
+        Mockito.mock(SyncDataNodeMPPDataExchangeServiceClient.class);
+    Mockito.when(mockClientManager.borrowClient(remoteEndpoint)).thenReturn(mockClient);
+    Mockito.doAnswer(
+            invocation ->
+                new TGetDataBlockResponse(
+                    Collections.singletonList(compressedTsBlock.duplicate())))
+        .when(mockClient)
+        .getDataBlock(Mockito.any(TGetDataBlockRequest.class));
+
+    SourceHandle sourceHandle =
+        new SourceHandle(
+            remoteEndpoint,
+            remoteFragmentInstanceId,
+            localFragmentInstanceId,
+            localPlanNodeId,
+            0,
+            mockLocalMemoryManager,
+            Executors.newSingleThreadExecutor(),
+            new TsBlockSerdeFactory().get(),
+            Mockito.mock(SourceHandleListener.class),
+            mockClientManager);
+    sourceHandle.updatePendingDataBlockInfo(
+        0, Collections.singletonList((long) compressedTsBlock.remaining()));
+    Mockito.verify(mockClient, Mockito.timeout(10_000).times(1))
+        .getDataBlock(Mockito.any(TGetDataBlockRequest.class));
+    Mockito.verify(mockClient, Mockito.timeout(10_000).times(1))
+        .onAcknowledgeDataBlockEvent(Mockito.any(TAcknowledgeDataBlockEvent.class));
+
+    // the result handle of the coordinator returns the bytes to clients, which read the plain
+    // format only
+    ByteBuffer serializedTsBlock = sourceHandle.getSerializedTsBlock();
+    Assert.assertFalse(CompressedTsBlockSerde.isCompressedFormat(serializedTsBlock));
+    TsBlock result = new TsBlockSerde().deserialize(serializedTsBlock);
+    Assert.assertEquals(tsBlock.getPositionCount(), result.getPositionCount());
+    for (int i = 0; i < tsBlock.getPositionCount(); i++) {
+      Assert.assertEquals(tsBlock.getTimeByIndex(i), result.getTimeByIndex(i));
+      Assert.assertEquals(tsBlock.getColumn(0).getInt(i), result.getColumn(0).getInt(i));
+    }
+    sourceHandle.abort();
+  }
 }
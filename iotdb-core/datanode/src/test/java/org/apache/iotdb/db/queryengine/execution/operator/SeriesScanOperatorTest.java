@@ -26,6 +26,7 @@ import org.apache.iotdb.commons.path.NonAlignedFullPath;
 import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
 import org.apache.iotdb.db.queryengine.common.PlanFragmentId;
 import org.apache.iotdb.db.queryengine.common.QueryId;
+import org.apache.iotdb.db.queryengine.common.SessionInfo;
 import org.apache.iotdb.db.queryengine.execution.driver.DriverContext;
 import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext;
 import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceStateMachine;
@@ -51,6 +52,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -143,4 +145,69 @@ public class SeriesScanOperatorTest {
       instanceNotificationExecutor.shutdown();
     }
   }
+
+  @Test
+  public void batchTestWithChunkReadAhead() throws Exception {
+    ExecutorService instanceNotificationExecutor =
+        IoTDBThreadPoolFactory.newFixedThreadPool(1, "test-instance-notification");
+    try {
+      IFullPath measurementPath =
+          new NonAlignedFullPath(
+              IDeviceID.Factory.DEFAULT_FACTORY.create(SERIES_SCAN_OPERATOR_TEST_SG + ".device0"),
+              new MeasurementSchema("sensor0", TSDataType.INT32));
+      Set<String> allSensors = Sets.newHashSet("sensor0");
+      QueryId queryId = new QueryId("stub_query");
+      FragmentInstanceId instanceId =
+          new FragmentInstanceId(new PlanFragmentId(queryId, 0), "stub-instance");
+      FragmentInstanceStateMachine stateMachine =
+          new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
+      SessionInfo sessionInfo = new SessionInfo(0, "root", ZoneId.systemDefault());
+      sessionInfo.setReadAheadChunkNum(2);
+      FragmentInstanceContext fragmentInstanceContext =
+          createFragmentInstanceContext(instanceId, stateMachine, sessionInfo);
+      DriverContext driverContext = new DriverContext(fragmentInstanceContext, 0);
+      PlanNodeId planNodeId = new PlanNodeId("1");
+      driverContext.addOperatorContext(1, planNodeId, SeriesScanOperator.class.getSimpleName());
+
+      SeriesScanOptions.Builder scanOptionsBuilder = new SeriesScanOptions.Builder();
+      scanOptionsBuilder.withAllSensors(allSensors);
+      SeriesScanOperator seriesScanOperator =
+          new SeriesScanOperator(
+              driverContext.getOperatorContexts().get(0),
+              planNodeId,
+              measurementPath,
+              Ordering.ASC,
+              scanOptionsBuilder.build());
+      seriesScanOperator.initQueryDataSource(new QueryDataSource(seqResources, unSeqResources));
+      seriesScanOperator
+          .getOperatorContext()
+          .setMaxRunTime(new Duration(500, TimeUnit.MILLISECONDS));
+
+      int count = 0;
+      while (seriesScanOperator.hasNext()) {
+        TsBlock tsBlock = seriesScanOperator.next();
+        if (tsBlock == null) {
+          // the scan yields while the next chunk is being read ahead
+          seriesScanOperator.isBlocked().get();
+          continue;
+        }
+        for (int i = 0; i < tsBlock.getPositionCount(); i++, count++) {
+          assertEquals(count, tsBlock.getTimeByIndex(i));
+          if ((long) count < 200) {
+            assertEquals(20000 + (long) count, tsBlock.getColumn(0).getInt(i));
+          } else if ((long) count < 260
+              || ((long) count >= 300 && (long) count < 380)
+              || (long) count >= 400) {
+            assertEquals(10000 + (long) count, tsBlock.getColumn(0).getInt(i));
+          } else {
+            assertEquals(count, tsBlock.getColumn(0).getInt(i));
+          }
+        }
+      }
+      assertEquals(500, count);
+      seriesScanOperator.close();
+    } finally {
+      instanceNotificationExecutor.shutdown();
+    }
+  }
 }
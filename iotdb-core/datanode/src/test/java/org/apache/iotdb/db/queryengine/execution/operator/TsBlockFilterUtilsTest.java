@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator;
+
+import org.apache.iotdb.db.queryengine.execution.operator.source.TsBlockFilterUtils;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.column.IntColumn;
+import org.apache.tsfile.read.common.block.column.TimeColumn;
+import org.apache.tsfile.read.filter.factory.ValueFilterApi;
+import org.apache.tsfile.read.reader.series.PaginationController;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TsBlockFilterUtilsTest {
+
+  private static TsBlock buildTsBlock() {
+    int size = 10;
+    long[] times = new long[size];
+    int[] values = new int[size];
+    boolean[] isNull = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      times[i] = i;
+      values[i] = i * 10;
+      isNull[i] = i == 7;
+    }
+    return new TsBlock(
+        size, new TimeColumn(size, times), new IntColumn(size, Optional.of(isNull), values));
+  }
+
+  @Test
+  public void testFilterAndLimitOffset() {
+    // 30, 40, 50, 60, 80, 90 satisfy the filter, the null at position 7 never does
+    PaginationController paginationController = new PaginationController(3, 1);
+    TsBlock result =
+        TsBlockFilterUtils.applyFilterAndLimitOffset(
+            buildTsBlock(), ValueFilterApi.gt(0, 20, TSDataType.INT32), paginationController);
+
+    assertEquals(3, result.getPositionCount());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(i + 4, result.getTimeByIndex(i));
+      assertEquals((i + 4) * 10, result.getColumn(0).getInt(i));
+    }
+    assertFalse(paginationController.hasCurLimit());
+  }
+
+  @Test
+  public void testNullValueSkipped() {
+    TsBlock result =
+        TsBlockFilterUtils.applyFilterAndLimitOffset(
+            buildTsBlock(),
+            ValueFilterApi.gt(0, 60, TSDataType.INT32),
+            PaginationController.UNLIMITED_PAGINATION_CONTROLLER);
+
+    assertEquals(2, result.getPositionCount());
+    assertEquals(8, result.getTimeByIndex(0));
+    assertEquals(9, result.getTimeByIndex(1));
+  }
+
+  @Test
+  public void testAllNonNullValuesSatisfied() {
+    TsBlock result =
+        TsBlockFilterUtils.applyFilterAndLimitOffset(
+            buildTsBlock(),
+            ValueFilterApi.ltEq(0, 90, TSDataType.INT32),
+            PaginationController.UNLIMITED_PAGINATION_CONTROLLER);
+    // the null row is filtered out, so the block has to be copied
+    assertEquals(9, result.getPositionCount());
+  }
+
+  @Test
+  public void testNoPushDownFilter() {
+    TsBlock result =
+        TsBlockFilterUtils.applyFilterAndLimitOffset(
+            buildTsBlock(), null, PaginationController.UNLIMITED_PAGINATION_CONTROLLER);
+    assertEquals(10, result.getPositionCount());
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.resourcegroup;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResourceGroupTest {
+
+  @Test
+  public void testParse() {
+    ResourceGroup group =
+        ResourceGroup.parse(
+            "adhoc: user=alice|bob, statement=QUERY, max_running=2, max_queued=10, "
+                + "cpu_share=4, memory_share=0.5");
+    assertEquals("adhoc", group.getName());
+    assertEquals(4.0, group.getCpuShare(), 0.0);
+    assertEquals(0.5, group.getMemoryShare(), 0.0);
+    assertTrue(group.matches("alice", "127.0.0.1", "QUERY"));
+    assertTrue(group.matches("bob", null, "QUERY"));
+    assertFalse(group.matches("carol", "127.0.0.1", "QUERY"));
+    assertFalse(group.matches("alice", "127.0.0.1", "LAST"));
+
+    ResourceGroup matchAll = ResourceGroup.parse("all");
+    assertTrue(matchAll.matches("carol", null, null));
+
+    String[] illegalDefinitions = {
+      ":user=alice", "a:user", "a:cpu_share=0", "a:memory_share=1.5", "a:unknown=1"
+    };
+    for (String definition : illegalDefinitions) {
+      try {
+        ResourceGroup.parse(definition);
+        fail(definition);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testAdmit() throws Exception {
+    ResourceGroup group = ResourceGroup.parse("a:max_running=1,max_queued=1");
+    assertTrue(group.admit(0));
+    assertEquals(1, group.getRunningQueries());
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> queued = executor.submit(() -> group.admit(Long.MAX_VALUE));
+      while (group.getQueuedQueries() == 0) {
+        Thread.sleep(10);
+      }
+      // the queue is full
+      assertFalse(group.admit(Long.MAX_VALUE));
+
+      group.release();
+      assertTrue(queued.get(10, TimeUnit.SECONDS));
+      assertEquals(1, group.getRunningQueries());
+      assertEquals(0, group.getQueuedQueries());
+
+      // times out while waiting
+      assertFalse(group.admit(50));
+      assertEquals(0, group.getQueuedQueries());
+
+      // raising the limit admits the query at once
+      group.update(ResourceGroup.parse("a:max_running=2"));
+      assertTrue(group.admit(0));
+      assertEquals(2, group.getRunningQueries());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testOperatorMemory() {
+    ResourceGroup group = ResourceGroup.parse("a:memory_share=0.5");
+    assertTrue(group.tryReserveOperatorMemory(30, 100));
+    assertTrue(group.tryReserveOperatorMemory(20, 100));
+    assertFalse(group.tryReserveOperatorMemory(1, 100));
+    group.releaseOperatorMemory(20);
+    assertTrue(group.tryReserveOperatorMemory(20, 100));
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.schedule.queue;
+
+import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
+import org.apache.iotdb.db.queryengine.common.PlanFragmentId;
+import org.apache.iotdb.db.queryengine.common.QueryId;
+import org.apache.iotdb.db.queryengine.execution.driver.IDriver;
+import org.apache.iotdb.db.queryengine.execution.schedule.DriverScheduler;
+import org.apache.iotdb.db.queryengine.execution.schedule.queue.multilevelqueue.DriverTaskHandle;
+import org.apache.iotdb.db.queryengine.execution.schedule.queue.multilevelqueue.MultilevelPriorityQueue;
+import org.apache.iotdb.db.queryengine.execution.schedule.queue.multilevelqueue.WorkStealingMultilevelPriorityQueue;
+import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTask;
+import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTaskId;
+import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTaskStatus;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WorkStealingMultilevelPriorityQueueTest {
+
+  @Test
+  public void testPollLocalQueueFirst() throws InterruptedException {
+    WorkStealingMultilevelPriorityQueue queue =
+        new WorkStealingMultilevelPriorityQueue(2, 1000, new DriverTask(), 2);
+    // DriverTasks never polled are spread among the local queues
+    DriverTask e1 = mockDriverTask("inst-0");
+    queue.push(e1);
+    DriverTask e2 = mockDriverTask("inst-1");
+    queue.push(e2);
+    Assert.assertEquals(2, queue.size());
+
+    Assert.assertEquals(e2.getDriverTaskId(), queue.poll(1).getDriverTaskId());
+    Assert.assertEquals(1, queue.size());
+    // the local queue of worker 1 is empty, so it steals from worker 0
+    Assert.assertEquals(e1.getDriverTaskId(), queue.poll(1).getDriverTaskId());
+    Assert.assertEquals(0, queue.size());
+    Assert.assertEquals(1, e1.getWorkerIndex());
+  }
+
+  @Test
+  public void testRepushToLastWorker() throws InterruptedException {
+    WorkStealingMultilevelPriorityQueue queue =
+        new WorkStealingMultilevelPriorityQueue(2, 1000, new DriverTask(), 2);
+    DriverTask e1 = mockDriverTask("inst-0");
+    queue.push(e1);
+    Assert.assertEquals(e1.getDriverTaskId(), queue.poll(1).getDriverTaskId());
+
+    // the DriverTask goes back to the worker which has run it
+    queue.repush(e1);
+    DriverTask e2 = mockDriverTask("inst-1");
+    queue.push(e2);
+    Assert.assertEquals(2, queue.size());
+    Assert.assertEquals(e1.getDriverTaskId(), queue.poll(1).getDriverTaskId());
+    Assert.assertEquals(e2.getDriverTaskId(), queue.poll(1).getDriverTaskId());
+  }
+
+  @Test
+  public void testRemove() {
+    WorkStealingMultilevelPriorityQueue queue =
+        new WorkStealingMultilevelPriorityQueue(2, 1000, new DriverTask(), 2);
+    DriverTask e1 = mockDriverTask("inst-0");
+    queue.push(e1);
+    DriverTask e2 = mockDriverTask("inst-1");
+    queue.push(e2);
+
+    Assert.assertEquals(e2.getDriverTaskId(), queue.remove(e2.getDriverTaskId()).getDriverTaskId());
+    Assert.assertEquals(1, queue.size());
+    Assert.assertNull(queue.remove(e2.getDriverTaskId()));
+    Assert.assertEquals(1, queue.size());
+    queue.clear();
+    Assert.assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testPushExceedCapacity() throws InterruptedException {
+    WorkStealingMultilevelPriorityQueue queue =
+        new WorkStealingMultilevelPriorityQueue(2, 1, new DriverTask(), 2);
+    DriverTask e1 = mockDriverTask("inst-0");
+    queue.push(e1);
+    DriverTask e2 = mockDriverTask("inst-1");
+    Assert.assertThrows(IllegalStateException.class, () -> queue.push(e2));
+
+    // the polled DriverTask still holds its place
+    queue.poll(0);
+    Assert.assertThrows(IllegalStateException.class, () -> queue.push(e2));
+    queue.decreaseReservedSize();
+    queue.push(e2);
+    Assert.assertEquals(1, queue.size());
+  }
+
+  @Test
+  public void testConcurrentPushNotExceedCapacity() throws InterruptedException {
+    int capacity = 10;
+    WorkStealingMultilevelPriorityQueue queue =
+        new WorkStealingMultilevelPriorityQueue(2, capacity, new DriverTask(), 2);
+    AtomicInteger accepted = new AtomicInteger(0);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < capacity * 4; i++) {
+      DriverTask task = mockDriverTask("inst-" + i);
+      Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                  queue.push(task);
+                  accepted.incrementAndGet();
+                } catch (IllegalStateException ignored) {
+                  // the queue is full
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join(10_000);
+    }
+    Assert.assertEquals(capacity, accepted.get());
+    Assert.assertEquals(capacity, queue.size());
+  }
+
+  @Test
+  public void testPollBlocked() throws InterruptedException {
+    WorkStealingMultilevelPriorityQueue queue =
+        new WorkStealingMultilevelPriorityQueue(2, 1000, new DriverTask(), 2);
+    List<DriverTask> res = new ArrayList<>();
+    Thread t1 =
+        new Thread(
+            () -> {
+              try {
+                res.add(queue.poll(0));
+              } catch (InterruptedException e) {
+                e.printStackTrace();
+                Assert.fail();
+              }
+            });
+    t1.start();
+    Thread.sleep(100);
+    Assert.assertEquals(Thread.State.WAITING, t1.getState());
+    DriverTask e1 = mockDriverTask("inst-0");
+    queue.push(e1);
+    // push to the local queue of the other worker
+    DriverTask e2 = mockDriverTask("inst-1");
+    queue.push(e2);
+    t1.join(10_000);
+    Assert.assertEquals(Thread.State.TERMINATED, t1.getState());
+    Assert.assertEquals(1, res.size());
+    Assert.assertEquals(1, queue.size());
+  }
+
+  private DriverTask mockDriverTask(String instanceId) {
+    DriverScheduler manager = DriverScheduler.getInstance();
+    IDriver mockDriver = Mockito.mock(IDriver.class);
+    DriverTaskHandle driverTaskHandle =
+        new DriverTaskHandle(
+            1,
+            (MultilevelPriorityQueue) manager.getReadyQueue(),
+            OptionalInt.of(Integer.MAX_VALUE));
+    Mockito.when(mockDriver.getDriverTaskId())
+        .thenReturn(
+            new DriverTaskId(
+                new FragmentInstanceId(new PlanFragmentId(new QueryId("test"), 0), instanceId), 0));
+    return new DriverTask(mockDriver, 100L, DriverTaskStatus.READY, driverTaskHandle, 0, false);
+  }
+}
@@ -26,13 +26,18 @@ import org.apache.iotdb.commons.exception.IllegalPathException;
 import org.apache.iotdb.commons.path.AlignedPath;
 import org.apache.iotdb.commons.path.MeasurementPath;
 import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.commons.utils.TimePartitionUtils;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
 import org.apache.iotdb.db.queryengine.common.PlanFragmentId;
 import org.apache.iotdb.db.queryengine.common.QueryId;
+import org.apache.iotdb.db.queryengine.common.SessionInfo;
 import org.apache.iotdb.db.queryengine.execution.fragment.DataNodeQueryContext;
 import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext;
 import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceStateMachine;
 import org.apache.iotdb.db.queryengine.execution.operator.Operator;
+import org.apache.iotdb.db.queryengine.execution.operator.process.CollectOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.process.SingleDeviceViewOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.process.join.FullOuterTimeJoinOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.AlignedSeriesScanOperator;
@@ -66,9 +71,11 @@ import org.apache.iotdb.db.storageengine.dataregion.DataRegion;
 
 import org.apache.tsfile.enums.TSDataType;
 import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.read.filter.factory.TimeFilterApi;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -1577,6 +1584,57 @@ public class PipelineBuilderTest {
     }
   }
 
+  /**
+   * A raw series scan covering three time partitions with split num 4 and dop 4 is expected to be
+   * split into three sub-scans, each in its own pipeline, concatenated by a CollectOperator.
+   */
+  @Test
+  public void testSeriesScanSplitByTimePartition() throws Exception {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    int originSplitNum = config.getSeriesScanTimeSplitNum();
+    config.setSeriesScanTimeSplitNum(4);
+    try {
+      TypeProvider typeProvider = new TypeProvider();
+      SeriesScanNode seriesScanNode =
+          new SeriesScanNode(
+              new PlanNodeId("SeriesScanNode"),
+              new MeasurementPath("root.sg.d0.s1", TSDataType.INT32));
+      typeProvider.setTreeModelType(seriesScanNode.getSeriesPath().toString(), TSDataType.INT32);
+
+      ExecutorService instanceNotificationExecutor =
+          IoTDBThreadPoolFactory.newFixedThreadPool(1, "test-instance-notification");
+      FragmentInstanceId instanceId =
+          new FragmentInstanceId(new PlanFragmentId(new QueryId("stub_query"), 0), "stub-instance");
+      FragmentInstanceStateMachine stateMachine =
+          new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
+      long startTime = TimePartitionUtils.getTimePartitionLowerBound(0);
+      FragmentInstanceContext fragmentInstanceContext =
+          createFragmentInstanceContext(
+              instanceId,
+              stateMachine,
+              new SessionInfo(1, "test", ZoneId.systemDefault()),
+              Mockito.mock(DataRegion.class),
+              TimeFilterApi.between(
+                  startTime, startTime + 3 * TimePartitionUtils.getTimePartitionInterval() - 1));
+      LocalExecutionPlanContext context =
+          new LocalExecutionPlanContext(
+              typeProvider, fragmentInstanceContext, new DataNodeQueryContext(1));
+      context.setDegreeOfParallelism(4);
+
+      try (Operator root = seriesScanNode.accept(operatorTreeGenerator, context)) {
+        assertEquals(CollectOperator.class, root.getClass());
+        assertEquals(3, context.getPipelineNumber());
+        assertEquals(3, ((CollectOperator) root).getChildren().size());
+        for (Operator child : ((CollectOperator) root).getChildren()) {
+          assertEquals(ExchangeOperator.class, child.getClass());
+        }
+      }
+      instanceNotificationExecutor.shutdown();
+    } finally {
+      config.setSeriesScanTimeSplitNum(originSplitNum);
+    }
+  }
+
   private LocalExecutionPlanContext createLocalExecutionPlanContext(TypeProvider typeProvider) {
     ExecutorService instanceNotificationExecutor =
         IoTDBThreadPoolFactory.newFixedThreadPool(1, "test-instance-notification");
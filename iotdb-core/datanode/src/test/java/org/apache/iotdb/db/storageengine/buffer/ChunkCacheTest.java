@@ -135,6 +135,51 @@ public class ChunkCacheTest {
     }
   }
 
+  @Test
+  public void testBypassChunkCache() throws IOException {
+    TsFileResource tsFileResource = seqResources.get(0);
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(tsFileResource.getTsFilePath())) {
+      List<Path> paths = reader.getAllPaths();
+      ChunkMetadata firstChunkMetadata = reader.getChunkMetadataList(paths.get(0)).get(0);
+      ChunkCache.ChunkCacheKey key =
+          new ChunkCache.ChunkCacheKey(
+              tsFileResource.getTsFilePath(),
+              tsFileResource.getTsFileID(),
+              firstChunkMetadata.getOffsetOfChunkHeader(),
+              true);
+
+      // a bypassing read is served from disk and leaves the cache untouched
+      Chunk chunk1 =
+          chunkCache.get(
+              key,
+              firstChunkMetadata.getDeleteIntervalList(),
+              firstChunkMetadata.getStatistics(),
+              false,
+              true);
+      Assert.assertTrue(chunkCache.isEmpty());
+
+      // a normal read populates the cache, and later bypassing reads hit it
+      Chunk chunk2 =
+          chunkCache.get(
+              key,
+              firstChunkMetadata.getDeleteIntervalList(),
+              firstChunkMetadata.getStatistics(),
+              false);
+      Assert.assertFalse(chunkCache.isEmpty());
+      Chunk chunk3 =
+          chunkCache.get(
+              key,
+              firstChunkMetadata.getDeleteIntervalList(),
+              firstChunkMetadata.getStatistics(),
+              false,
+              true);
+      Assert.assertEquals(chunk1.getData(), chunk2.getData());
+      Assert.assertEquals(chunk2.getData(), chunk3.getData());
+      Assert.assertTrue(chunkCache.getHitCounter().getBypassQueryHitRatio() < 1.0);
+      Assert.assertTrue(chunkCache.getHitCounter().getBypassQueryHitRatio() > 0.0);
+    }
+  }
+
   void prepareSeries() throws MetadataException {
     measurementSchemas = new MeasurementSchema[measurementNum];
     for (int i = 0; i < measurementNum; i++) {
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.buffer;
+
+import org.apache.iotdb.db.storageengine.buffer.ChunkCache.ChunkCacheKey;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.header.ChunkHeader;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.tsfile.read.common.Chunk;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class OffHeapChunkCacheTest {
+
+  private static final String FILE_PATH = "1-1-0-0.tsfile";
+
+  private static ChunkCacheKey key(long offset) {
+    return new ChunkCacheKey(FILE_PATH, new TsFileID(1, 0, 1, 1, 0), offset, true);
+  }
+
+  private static Chunk chunk(int size, byte value) {
+    byte[] data = new byte[size];
+    for (int i = 0; i < size; i++) {
+      data[i] = value;
+    }
+    ChunkHeader header =
+        new ChunkHeader(null, size, TSDataType.INT32, CompressionType.LZ4, TSEncoding.PLAIN, 1);
+    return new Chunk(header, ByteBuffer.wrap(data));
+  }
+
+  @Test
+  public void testGetAndPut() {
+    OffHeapChunkCache cache = new OffHeapChunkCache(4096, 1024);
+    Assert.assertTrue(cache.isEnabled());
+    Assert.assertNull(cache.get(key(0)));
+
+    Chunk chunk = chunk(100, (byte) 7);
+    cache.put(key(0), chunk);
+    Chunk cachedChunk = cache.get(key(0));
+    Assert.assertNotNull(cachedChunk);
+    Assert.assertSame(chunk.getHeader(), cachedChunk.getHeader());
+    Assert.assertEquals(chunk.getData(), cachedChunk.getData());
+    Assert.assertEquals(50, cache.getHitRate(), 0.001);
+
+    // chunks larger than a slab are not cached
+    cache.put(key(1), chunk(2048, (byte) 1));
+    Assert.assertNull(cache.get(key(1)));
+  }
+
+  @Test
+  public void testRecycleOldestSlab() {
+    // 2 slabs, each holds 2 chunks
+    OffHeapChunkCache cache = new OffHeapChunkCache(2048, 1024);
+    for (int i = 0; i < 4; i++) {
+      cache.put(key(i), chunk(512, (byte) i));
+    }
+    Assert.assertEquals(4, cache.getCachedChunkNum());
+
+    // the first slab is recycled for the fifth chunk
+    cache.put(key(4), chunk(512, (byte) 4));
+    Assert.assertEquals(3, cache.getCachedChunkNum());
+    Assert.assertNull(cache.get(key(0)));
+    Assert.assertNull(cache.get(key(1)));
+    for (int i = 2; i <= 4; i++) {
+      Assert.assertEquals(chunk(512, (byte) i).getData(), cache.get(key(i)).getData());
+    }
+
+    cache.clear();
+    Assert.assertEquals(0, cache.getCachedChunkNum());
+    Assert.assertNull(cache.get(key(4)));
+  }
+
+  @Test
+  public void testDisabled() {
+    OffHeapChunkCache cache = new OffHeapChunkCache(0, 1024);
+    Assert.assertFalse(cache.isEnabled());
+    cache.put(key(0), chunk(100, (byte) 7));
+    Assert.assertNull(cache.get(key(0)));
+  }
+}
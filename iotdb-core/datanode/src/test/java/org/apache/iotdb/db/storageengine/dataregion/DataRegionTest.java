@@ -30,8 +30,10 @@ import org.apache.iotdb.commons.path.IFullPath;
 import org.apache.iotdb.commons.path.MeasurementPath;
 import org.apache.iotdb.commons.path.NonAlignedFullPath;
 import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.commons.utils.TimePartitionUtils;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.BatchProcessException;
 import org.apache.iotdb.db.exception.DataRegionException;
 import org.apache.iotdb.db.exception.TsFileProcessorException;
 import org.apache.iotdb.db.exception.WriteProcessException;
@@ -40,6 +42,7 @@ import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.queryengine.common.QueryId;
 import org.apache.iotdb.db.queryengine.execution.fragment.QueryContext;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertMultiTabletsNode;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertRowNode;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertRowsNode;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertTabletNode;
@@ -446,6 +449,63 @@ public class DataRegionTest {
     }
   }
 
+  @Test
+  public void testIoTDBMultiTabletsWriteAndSyncClose()
+      throws QueryProcessException, IllegalPathException, BatchProcessException {
+    String[] measurements = new String[] {"s0", "s1"};
+    TSDataType[] dataTypes = new TSDataType[] {TSDataType.INT32, TSDataType.INT64};
+    MeasurementSchema[] measurementSchemas =
+        new MeasurementSchema[] {
+          new MeasurementSchema("s0", TSDataType.INT32, TSEncoding.PLAIN),
+          new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.PLAIN)
+        };
+    long timePartitionInterval = TimePartitionUtils.getTimePartitionInterval();
+
+    InsertMultiTabletsNode insertMultiTabletsNode =
+        new InsertMultiTabletsNode(new QueryId("test_write").genPlanNodeId());
+    // the second tablet spans two time partitions
+    long[] startTimes = new long[] {0, timePartitionInterval - 50};
+    for (int t = 0; t < startTimes.length; t++) {
+      long[] times = new long[100];
+      Object[] columns = new Object[] {new int[100], new long[100]};
+      for (int r = 0; r < 100; r++) {
+        times[r] = startTimes[t] + r;
+        ((int[]) columns[0])[r] = 1;
+        ((long[]) columns[1])[r] = 1;
+      }
+      insertMultiTabletsNode.addInsertTabletNode(
+          new InsertTabletNode(
+              new QueryId("test_write").genPlanNodeId(),
+              new PartialPath("root.vehicle.d0"),
+              false,
+              measurements,
+              dataTypes,
+              measurementSchemas,
+              times,
+              null,
+              columns,
+              times.length),
+          t);
+    }
+
+    dataRegion.insertTablets(insertMultiTabletsNode);
+    Assert.assertTrue(insertMultiTabletsNode.getResults().isEmpty());
+    dataRegion.syncCloseAllWorkingTsFileProcessors();
+
+    QueryDataSource queryDataSource =
+        dataRegion.query(
+            Collections.singletonList(nonAlignedFullPath), device, context, null, null);
+
+    Assert.assertEquals(2, queryDataSource.getSeqResources().size());
+    Assert.assertEquals(0, queryDataSource.getUnseqResources().size());
+    for (TsFileResource resource : queryDataSource.getSeqResources()) {
+      Assert.assertTrue(resource.isClosed());
+    }
+    Assert.assertEquals(0, queryDataSource.getSeqResources().get(0).getStartTime(device));
+    Assert.assertEquals(
+        timePartitionInterval + 49, queryDataSource.getSeqResources().get(1).getEndTime(device));
+  }
+
   @Test
   public void testIoTDBTabletWriteAndDeleteDataRegion()
       throws QueryProcessException,
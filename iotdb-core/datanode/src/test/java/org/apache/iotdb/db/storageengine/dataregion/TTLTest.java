@@ -29,6 +29,7 @@ import org.apache.iotdb.commons.path.NonAlignedFullPath;
 import org.apache.iotdb.commons.path.PartialPath;
 import org.apache.iotdb.commons.schema.ttl.TTLCache;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.BatchProcessException;
 import org.apache.iotdb.db.exception.DataRegionException;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.WriteProcessException;
@@ -38,7 +39,9 @@ import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContex
 import org.apache.iotdb.db.queryengine.plan.analyze.cache.schema.DataNodeTTLCache;
 import org.apache.iotdb.db.queryengine.plan.parser.StatementGenerator;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertMultiTabletsNode;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertRowNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertTabletNode;
 import org.apache.iotdb.db.queryengine.plan.statement.metadata.SetTTLStatement;
 import org.apache.iotdb.db.queryengine.plan.statement.metadata.ShowTTLStatement;
 import org.apache.iotdb.db.queryengine.plan.statement.metadata.UnSetTTLStatement;
@@ -51,6 +54,7 @@ import org.apache.iotdb.db.storageengine.dataregion.read.QueryDataSource;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 import org.apache.iotdb.db.storageengine.rescon.disk.TierManager;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.rpc.TSStatusCode;
 
 import org.apache.tsfile.common.constant.TsFileConstant;
 import org.apache.tsfile.enums.TSDataType;
@@ -67,6 +71,7 @@ import java.io.File;
 import java.io.IOException;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -143,6 +148,60 @@ public class TTLTest {
     dataRegion.insert(node);
   }
 
+  @Test
+  public void testTTLWriteMultiTablets() throws IllegalPathException, QueryProcessException {
+    DataNodeTTLCache.getInstance().setTTL(sg1, 1000);
+    long now = System.currentTimeMillis();
+    InsertMultiTabletsNode insertMultiTabletsNode = new InsertMultiTabletsNode(new PlanNodeId("0"));
+    // all the rows are alive
+    insertMultiTabletsNode.addInsertTabletNode(
+        genInsertTabletNode(new long[] {now - 100, now - 99, now - 98}), 0);
+    // the first two rows are out of ttl, so none of the rows are inserted
+    insertMultiTabletsNode.addInsertTabletNode(
+        genInsertTabletNode(new long[] {now - 2000, now - 1999, now - 50, now - 49}), 1);
+
+    boolean caught = false;
+    try {
+      dataRegion.insertTablets(insertMultiTabletsNode);
+    } catch (BatchProcessException e) {
+      caught = true;
+    }
+    assertTrue(caught);
+    assertEquals(1, insertMultiTabletsNode.getResults().size());
+    assertEquals(
+        TSStatusCode.OUT_OF_TTL.getStatusCode(),
+        insertMultiTabletsNode.getResults().get(1).getCode());
+
+    dataRegion.syncCloseAllWorkingTsFileProcessors();
+    IDeviceID device = IDeviceID.Factory.DEFAULT_FACTORY.create(sg1);
+    QueryDataSource dataSource =
+        dataRegion.query(
+            Collections.singletonList(mockMeasurementPath()),
+            device,
+            EnvironmentUtils.TEST_QUERY_CONTEXT,
+            null,
+            null);
+    assertEquals(1, dataSource.getSeqResources().size());
+    assertEquals(0, dataSource.getUnseqResources().size());
+    assertEquals(now - 98, dataSource.getSeqResources().get(0).getEndTime(device));
+  }
+
+  private InsertTabletNode genInsertTabletNode(long[] times) throws IllegalPathException {
+    long[] values = new long[times.length];
+    Arrays.fill(values, 1L);
+    return new InsertTabletNode(
+        new PlanNodeId("0"),
+        new PartialPath(sg1),
+        false,
+        new String[] {"s1"},
+        new TSDataType[] {TSDataType.INT64},
+        new MeasurementSchema[] {new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.PLAIN)},
+        times,
+        null,
+        new Object[] {values},
+        times.length);
+  }
+
   private void prepareData() throws WriteProcessException, IllegalPathException {
     InsertRowNode node =
         new InsertRowNode(
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.memtable;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.tsfile.utils.BitMap;
+import org.apache.tsfile.write.schema.IMeasurementSchema;
+import org.apache.tsfile.write.schema.MeasurementSchema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aligned tablet insert benchmark. Compare writing a wide aligned tablet into an aligned memtable
+ * chunk row by row with writing it column by column as a whole tablet.
+ */
+public class AlignedTabletBenchmark {
+
+  private static int numOfMeasurement = 10000;
+  private static int numOfRowsPerTablet = 1000;
+  private static int numOfTablet = 2;
+  private static TSDataType tsDataType = TSDataType.INT64;
+
+  private static List<IMeasurementSchema> schemaList = new ArrayList<>(numOfMeasurement);
+
+  static {
+    for (int i = 0; i < numOfMeasurement; i++) {
+      schemaList.add(new MeasurementSchema("m" + i, tsDataType, TSEncoding.PLAIN));
+    }
+  }
+
+  public static void main(String[] args) {
+    Object[] columns = new Object[numOfMeasurement];
+    BitMap[] bitMaps = new BitMap[numOfMeasurement];
+    for (int j = 0; j < numOfMeasurement; j++) {
+      long[] column = new long[numOfRowsPerTablet];
+      bitMaps[j] = new BitMap(numOfRowsPerTablet);
+      for (int i = 0; i < numOfRowsPerTablet; i++) {
+        column[i] = i;
+        // one null value every 10 rows
+        if ((i + j) % 10 == 0) {
+          bitMaps[j].mark(i);
+        }
+      }
+      columns[j] = column;
+    }
+
+    // warm up both paths before measuring
+    writeByRow(columns, bitMaps);
+    writeByTablet(columns, bitMaps);
+
+    long rowCost = writeByRow(columns, bitMaps);
+    long tabletCost = writeByTablet(columns, bitMaps);
+    long points = (long) numOfMeasurement * numOfRowsPerTablet * numOfTablet;
+    System.out.println(
+        String.format(
+            "Num of measurements: %d, num of rows per tablet: %d, num of tablets: %d. "
+                + "Row by row: %d ms (%.2f ns/point), "
+                + "columnar tablet: %d ms (%.2f ns/point).",
+            numOfMeasurement,
+            numOfRowsPerTablet,
+            numOfTablet,
+            rowCost / 1_000_000,
+            (double) rowCost / points,
+            tabletCost / 1_000_000,
+            (double) tabletCost / points));
+  }
+
+  private static long writeByRow(Object[] columns, BitMap[] bitMaps) {
+    AlignedWritableMemChunk memChunk = new AlignedWritableMemChunk(new ArrayList<>(schemaList));
+    Object[] row = new Object[numOfMeasurement];
+    long startTime = System.nanoTime();
+    for (int t = 0; t < numOfTablet; t++) {
+      for (int i = 0; i < numOfRowsPerTablet; i++) {
+        for (int j = 0; j < numOfMeasurement; j++) {
+          row[j] = bitMaps[j].isMarked(i) ? null : ((long[]) columns[j])[i];
+        }
+        memChunk.writeAlignedValueWithFlushCheck(
+            (long) t * numOfRowsPerTablet + i, row, schemaList);
+      }
+    }
+    long cost = System.nanoTime() - startTime;
+    memChunk.release();
+    return cost;
+  }
+
+  private static long writeByTablet(Object[] columns, BitMap[] bitMaps) {
+    AlignedWritableMemChunk memChunk = new AlignedWritableMemChunk(new ArrayList<>(schemaList));
+    long[] tabletTimes = new long[numOfRowsPerTablet];
+    long startTime = System.nanoTime();
+    for (int t = 0; t < numOfTablet; t++) {
+      for (int i = 0; i < numOfRowsPerTablet; i++) {
+        tabletTimes[i] = (long) t * numOfRowsPerTablet + i;
+      }
+      memChunk.writeAlignedValuesWithFlushCheck(
+          tabletTimes, columns, bitMaps, schemaList, 0, numOfRowsPerTablet, null);
+    }
+    long cost = System.nanoTime() - startTime;
+    memChunk.release();
+    return cost;
+  }
+}
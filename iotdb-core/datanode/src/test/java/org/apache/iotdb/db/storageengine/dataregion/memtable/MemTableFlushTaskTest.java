@@ -21,17 +21,23 @@ package org.apache.iotdb.db.storageengine.dataregion.memtable;
 import org.apache.iotdb.commons.exception.IllegalPathException;
 import org.apache.iotdb.db.exception.WriteProcessException;
 import org.apache.iotdb.db.storageengine.dataregion.flush.MemTableFlushTask;
+import org.apache.iotdb.db.storageengine.dataregion.flush.pool.FlushEncodingPoolManager;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.db.utils.constant.TestConstant;
 
 import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.ChunkGroupMetadata;
 import org.apache.tsfile.file.metadata.ChunkMetadata;
+import org.apache.tsfile.file.metadata.IDeviceID;
 import org.apache.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.assertEquals;
@@ -105,6 +111,51 @@ public class MemTableFlushTaskTest {
     assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
   }
 
+  @Test
+  public void testFlushMultiDevicesInParallel()
+      throws ExecutionException, InterruptedException, IllegalPathException {
+    // more chunk groups than the encoding task queue can hold, so that they are encoded ahead of
+    // the io task and concurrently with each other
+    int deviceNum = FlushEncodingPoolManager.getInstance().getParallelism() * 2 + 10;
+    List<IDeviceID> deviceIds = new ArrayList<>();
+    for (int i = 0; i < deviceNum; i++) {
+      deviceIds.add(IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d" + i));
+    }
+    // write in reverse order, the chunk groups must still be flushed in device order
+    for (int i = deviceNum - 1; i >= 0; i--) {
+      MemTableTestUtils.produceData(
+          memTable, startTime, endTime, deviceIds.get(i), "s0", TSDataType.INT32);
+      MemTableTestUtils.produceData(
+          memTable, startTime + i, endTime + i, deviceIds.get(i), "s1", TSDataType.INT32);
+    }
+    MemTableFlushTask memTableFlushTask =
+        new MemTableFlushTask(memTable, writer, storageGroup, dataRegionId);
+    memTableFlushTask.syncFlushMemTable();
+    writer.makeMetadataVisible();
+
+    List<IDeviceID> flushedDeviceIds = new ArrayList<>();
+    for (ChunkGroupMetadata chunkGroupMetadata : writer.getChunkGroupMetadataList()) {
+      flushedDeviceIds.add(chunkGroupMetadata.getDevice());
+    }
+    List<IDeviceID> sortedDeviceIds = new ArrayList<>(deviceIds);
+    Collections.sort(sortedDeviceIds);
+    assertEquals(sortedDeviceIds, flushedDeviceIds);
+
+    for (int i = 0; i < deviceNum; i++) {
+      List<ChunkMetadata> s0 =
+          writer.getVisibleMetadataList(deviceIds.get(i), "s0", TSDataType.INT32);
+      assertEquals(1, s0.size());
+      assertEquals(startTime, s0.get(0).getStartTime());
+      assertEquals(endTime, s0.get(0).getEndTime());
+      List<ChunkMetadata> s1 =
+          writer.getVisibleMetadataList(deviceIds.get(i), "s1", TSDataType.INT32);
+      assertEquals(1, s1.size());
+      assertEquals(startTime + i, s1.get(0).getStartTime());
+      assertEquals(endTime + i, s1.get(0).getEndTime());
+      assertEquals(endTime - startTime + 1, s1.get(0).getNumOfPoints());
+    }
+  }
+
   @Test
   public void testFlushVectorMemTable()
       throws ExecutionException, InterruptedException, IllegalPathException, WriteProcessException {
@@ -33,6 +33,7 @@ import org.apache.iotdb.db.storageengine.dataregion.modification.Deletion;
 import org.apache.iotdb.db.storageengine.dataregion.modification.Modification;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALByteBufferForTest;
 import org.apache.iotdb.db.utils.MathUtils;
+import org.apache.iotdb.db.utils.datastructure.TVList;
 
 import org.apache.tsfile.common.conf.TSFileConfig;
 import org.apache.tsfile.common.conf.TSFileDescriptor;
@@ -114,6 +115,22 @@ public class PrimitiveMemTableTest {
     Assert.assertEquals(count, i);
   }
 
+  @Test
+  public void memSeriesFirstAndLastPointTest() throws IOException {
+    WritableMemChunk series =
+        new WritableMemChunk(new MeasurementSchema("s1", TSDataType.INT32, TSEncoding.PLAIN));
+    for (int i = 100; i > 0; i--) {
+      series.writeWithFlushCheck(i, i);
+    }
+    Assert.assertEquals(1, series.getFirstPoint());
+    Assert.assertEquals(100, series.getLastPoint());
+    // first and last points do not reference the list
+    Assert.assertEquals(0, series.getTVList().getReferenceCount());
+
+    Assert.assertEquals(10, series.delete(91, 100));
+    Assert.assertEquals(90, series.getLastPoint());
+  }
+
   @Test
   public void memSeriesToStringTest() throws IOException {
     TSDataType dataType = TSDataType.INT32;
@@ -178,6 +195,43 @@ public class PrimitiveMemTableTest {
     }
   }
 
+  @Test
+  public void queryReleasesTvListTest()
+      throws IOException, QueryProcessException, MetadataException {
+    IMemTable memTable = new PrimitiveMemTable(database, dataRegionId);
+    IDeviceID alignedDeviceID = IDeviceID.Factory.DEFAULT_FACTORY.create("d2");
+    List<IMeasurementSchema> schemaList =
+        Collections.singletonList(new MeasurementSchema("s0", TSDataType.INT32, TSEncoding.RLE));
+    for (int i = 100; i >= 0; i--) {
+      memTable.write(deviceID, schemaList, i, new Object[] {i});
+      memTable.writeAlignedRow(alignedDeviceID, schemaList, i, new Object[] {i});
+    }
+
+    ReadOnlyMemChunk memChunk =
+        memTable.query(new QueryContext(), nonAlignedFullPath, Long.MIN_VALUE, null);
+    ReadOnlyMemChunk alignedMemChunk =
+        memTable.query(
+            new QueryContext(),
+            new AlignedFullPath(alignedDeviceID, Collections.singletonList("s0"), schemaList),
+            Long.MIN_VALUE,
+            null);
+
+    // the points are copied out, so the lists are no longer referenced by the queries
+    TVList tvList = memTable.getMemTableMap().get(deviceID).getMemChunkMap().get("s0").getTVList();
+    TVList alignedTvList =
+        ((AlignedWritableMemChunkGroup) memTable.getMemTableMap().get(alignedDeviceID))
+            .getAlignedMemChunk()
+            .getTVList();
+    Assert.assertEquals(0, tvList.getReferenceCount());
+    Assert.assertEquals(0, alignedTvList.getReferenceCount());
+
+    memTable.release();
+    Assert.assertEquals(0, tvList.rowCount());
+    Assert.assertEquals(0, alignedTvList.rowCount());
+    Assert.assertEquals(101, memChunk.getTsBlock().getPositionCount());
+    Assert.assertEquals(101, alignedMemChunk.getTsBlock().getPositionCount());
+  }
+
   @Test
   public void totalSeriesNumberTest() throws IOException, QueryProcessException, MetadataException {
     IMemTable memTable = new PrimitiveMemTable(database, dataRegionId);
@@ -20,6 +20,8 @@
 package org.apache.iotdb.db.storageengine.dataregion.modification;
 
 import org.apache.iotdb.commons.path.MeasurementPath;
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.execute.recover.CompactionRecoverManager;
 import org.apache.iotdb.db.storageengine.dataregion.modification.io.LocalTextModificationAccessor;
 import org.apache.iotdb.db.utils.constant.TestConstant;
@@ -34,6 +36,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -209,6 +212,107 @@ public class ModificationFileTest {
     }
   }
 
+  // test new mods files are written in the text format unless the binary format is enabled
+  @Test
+  public void testFormatOfNewFile() throws IOException {
+    String textFileName = TestConstant.BASE_OUTPUT_PATH.concat("text.mods");
+    String binaryFileName = TestConstant.BASE_OUTPUT_PATH.concat("binary.mods");
+    Deletion deletion =
+        new Deletion(new MeasurementPath(new String[] {"root", "sg", "d1", "s1"}), 1, 1);
+    boolean prevEnableBinaryModsFile =
+        IoTDBDescriptor.getInstance().getConfig().isEnableBinaryModsFile();
+    try (ModificationFile textFile = new ModificationFile(textFileName);
+        ModificationFile binaryFile = new ModificationFile(binaryFileName)) {
+      IoTDBDescriptor.getInstance().getConfig().setEnableBinaryModsFile(false);
+      textFile.write(deletion);
+      assertFalse(textFile.isBinaryFormat());
+
+      IoTDBDescriptor.getInstance().getConfig().setEnableBinaryModsFile(true);
+      binaryFile.write(deletion);
+      assertTrue(binaryFile.isBinaryFormat());
+      // an existing file keeps its format
+      textFile.write(deletion);
+      assertFalse(textFile.isBinaryFormat());
+      assertEquals(2, textFile.getModifications().size());
+      assertEquals(1, binaryFile.getModifications().size());
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnableBinaryModsFile(prevEnableBinaryModsFile);
+      new File(textFileName).delete();
+      new File(binaryFileName).delete();
+    }
+  }
+
+  // test a mods file in the text format is still readable and upgraded when compacted
+  @Test
+  public void testUpgradeTextFormat() throws IOException {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("upgrade.mods");
+    long time = 1000;
+    boolean prevEnableBinaryModsFile =
+        IoTDBDescriptor.getInstance().getConfig().isEnableBinaryModsFile();
+    try (LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(tempFileName)) {
+      while (new File(tempFileName).length() < 1024 * 1024) {
+        accessor.writeWithOutSync(
+            new Deletion(
+                new MeasurementPath(new String[] {"root", "sg", "d1"}),
+                1000,
+                Long.MIN_VALUE,
+                time += 5000));
+      }
+    }
+    IoTDBDescriptor.getInstance().getConfig().setEnableBinaryModsFile(true);
+    try (ModificationFile modificationFile = new ModificationFile(tempFileName)) {
+      assertFalse(modificationFile.isBinaryFormat());
+      int modificationNum = modificationFile.getModifications().size();
+      assertEquals(modificationNum, modificationFile.getCachedModifications().size());
+      modificationFile.write(
+          new Deletion(
+              new MeasurementPath(new String[] {"root", "sg", "d2"}), 1000, Long.MIN_VALUE, time));
+      assertEquals(modificationNum + 1, modificationFile.getModifications().size());
+
+      modificationFile.compact();
+      assertTrue(modificationFile.isBinaryFormat());
+      List<Modification> modificationList = new ArrayList<>(modificationFile.getModifications());
+      assertEquals(2, modificationList.size());
+      assertEquals(2, modificationFile.getCachedModifications().size());
+      List<Modification> d2Modifications =
+          modificationFile.getModifications(
+              path -> path.matchFullPath(new PartialPath(new String[] {"root", "sg", "d2"})));
+      assertEquals(1, d2Modifications.size());
+      assertEquals(time, ((Deletion) d2Modifications.get(0)).getEndTime());
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnableBinaryModsFile(prevEnableBinaryModsFile);
+      new File(tempFileName).delete();
+    }
+  }
+
+  @Test
+  public void testCachedModifications() throws IOException {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("cache.mods");
+    boolean prevEnableBinaryModsFile =
+        IoTDBDescriptor.getInstance().getConfig().isEnableBinaryModsFile();
+    IoTDBDescriptor.getInstance().getConfig().setEnableBinaryModsFile(true);
+    try (ModificationFile modificationFile = new ModificationFile(tempFileName)) {
+      assertTrue(modificationFile.getCachedModifications().isEmpty());
+      modificationFile.write(
+          new Deletion(new MeasurementPath(new String[] {"root", "sg", "d1", "s1"}), 1, 1));
+      List<Modification> cached = modificationFile.getCachedModifications();
+      assertEquals(1, cached.size());
+      assertTrue(cached == modificationFile.getCachedModifications());
+
+      // appended modifications are visible
+      modificationFile.write(
+          new Deletion(new MeasurementPath(new String[] {"root", "sg", "d1", "s2"}), 2, 2));
+      assertEquals(2, modificationFile.getCachedModifications().size());
+
+      // truncated modifications are invisible
+      modificationFile.truncate(new File(tempFileName).length() - 1);
+      assertEquals(1, modificationFile.getCachedModifications().size());
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnableBinaryModsFile(prevEnableBinaryModsFile);
+      new File(tempFileName).delete();
+    }
+  }
+
   // test mods file and mods settle file both exists
   @Test
   public void testRecover01() {
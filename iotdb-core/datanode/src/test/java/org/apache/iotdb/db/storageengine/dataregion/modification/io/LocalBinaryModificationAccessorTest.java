@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.modification.io;
+
+import org.apache.iotdb.commons.path.MeasurementPath;
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.storageengine.dataregion.modification.Deletion;
+import org.apache.iotdb.db.storageengine.dataregion.modification.Modification;
+import org.apache.iotdb.db.utils.constant.TestConstant;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LocalBinaryModificationAccessorTest {
+
+  private static final String TEMP_FILE_NAME = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+
+  private final Modification[] modifications =
+      new Modification[] {
+        new Deletion(new MeasurementPath(new String[] {"root", "sg", "d1", "s1"}), 1, 1, 10),
+        new Deletion(new MeasurementPath(new String[] {"root", "sg", "d1", "s2"}), 2, 2, 20),
+        new Deletion(new MeasurementPath(new String[] {"root", "sg", "d2", "*"}), 3, 30, 40),
+        new Deletion(new MeasurementPath(new String[] {"root", "sg", "`d.3`", "s1"}), 4, 4),
+      };
+
+  @After
+  public void tearDown() {
+    new File(TEMP_FILE_NAME).delete();
+  }
+
+  @Test
+  public void readMyWrite() throws IOException {
+    try (LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(TEMP_FILE_NAME)) {
+      for (int i = 0; i < 2; i++) {
+        accessor.write(modifications[i]);
+      }
+      List<Modification> modificationList = new ArrayList<>(accessor.read());
+      assertEquals(Arrays.asList(modifications).subList(0, 2), modificationList);
+
+      for (int i = 2; i < 4; i++) {
+        accessor.write(modifications[i]);
+      }
+      modificationList = new ArrayList<>(accessor.read());
+      assertEquals(Arrays.asList(modifications), modificationList);
+      assertEquals(
+          modifications[3].getPathString(), modificationList.get(3).getPath().getFullPath());
+    }
+    assertTrue(LocalBinaryModificationAccessor.isBinaryFormat(new File(TEMP_FILE_NAME)));
+  }
+
+  @Test
+  public void readNull() {
+    LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(TEMP_FILE_NAME);
+    assertTrue(accessor.read().isEmpty());
+    assertFalse(accessor.getModificationIterator().hasNext());
+    assertTrue(accessor.read(path -> true, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+  }
+
+  @Test
+  public void readAndTruncateIncompleteRecord() throws IOException {
+    try (LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(TEMP_FILE_NAME)) {
+      for (int i = 0; i < 3; i++) {
+        accessor.write(modifications[i]);
+      }
+      long length = new File(TEMP_FILE_NAME).length();
+      accessor.writeInComplete(modifications[3]);
+
+      // the incomplete record is ignored
+      assertEquals(Arrays.asList(modifications).subList(0, 3), accessor.read());
+
+      accessor.mayTruncateLastLine();
+      assertEquals(length, new File(TEMP_FILE_NAME).length());
+      accessor.write(modifications[3]);
+      assertEquals(Arrays.asList(modifications), accessor.read());
+    }
+  }
+
+  @Test
+  public void seekIndexedRecords() throws IOException {
+    try (LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(TEMP_FILE_NAME)) {
+      accessor.writeIndexed(Arrays.asList(modifications).subList(0, 3));
+      assertTrue(accessor.isIndexed());
+      // appended after the index
+      accessor.write(modifications[3]);
+      assertEquals(Arrays.asList(modifications), accessor.read());
+
+      PartialPath d2s1 = new PartialPath(new String[] {"root", "sg", "d2", "s1"});
+      assertEquals(
+          Arrays.asList(modifications[2]),
+          accessor.read(path -> path.matchFullPath(d2s1), Long.MIN_VALUE, Long.MAX_VALUE));
+      PartialPath d1 = new PartialPath(new String[] {"root", "sg", "d1", "**"});
+      assertEquals(
+          Arrays.asList(modifications[1]), accessor.read(path -> path.overlapWith(d1), 15, 25));
+      PartialPath d3s1 = new PartialPath(new String[] {"root", "sg", "`d.3`", "s1"});
+      assertEquals(
+          Arrays.asList(modifications[3]),
+          accessor.read(path -> path.matchFullPath(d3s1), Long.MIN_VALUE, Long.MAX_VALUE));
+
+      // records from the position after the index
+      List<Modification> tail = new ArrayList<>();
+      long position = accessor.readFrom(0, new ArrayList<>());
+      assertEquals(new File(TEMP_FILE_NAME).length(), position);
+      accessor.write(modifications[0]);
+      assertEquals(new File(TEMP_FILE_NAME).length(), accessor.readFrom(position, tail));
+      assertEquals(Arrays.asList(modifications[0]), tail);
+    }
+  }
+}
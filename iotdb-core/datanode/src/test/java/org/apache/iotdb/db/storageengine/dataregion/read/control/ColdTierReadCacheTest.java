@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.control;
+
+import org.apache.iotdb.db.utils.constant.TestConstant;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.tsfile.read.reader.LocalTsFileInput;
+import org.apache.tsfile.read.reader.TsFileInput;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+public class ColdTierReadCacheTest {
+
+  private static final int BLOCK_SIZE = 1024;
+
+  private static final int FILE_SIZE = 10 * BLOCK_SIZE + 100;
+
+  private final File sourceFile = new File(TestConstant.BASE_OUTPUT_PATH, "cold.tsfile");
+
+  private final File cacheDir = new File(TestConstant.BASE_OUTPUT_PATH, "cold_tier_read_cache");
+
+  private ColdTierReadCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+    byte[] content = new byte[FILE_SIZE];
+    for (int i = 0; i < FILE_SIZE; i++) {
+      content[i] = (byte) i;
+    }
+    FileUtils.forceMkdirParent(sourceFile);
+    Files.write(sourceFile.toPath(), content);
+    cache = new ColdTierReadCache(cacheDir.getPath(), BLOCK_SIZE, 4L * BLOCK_SIZE);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteQuietly(sourceFile);
+    FileUtils.deleteDirectory(cacheDir);
+  }
+
+  @Test
+  public void testReadThrough() throws IOException {
+    TsFileInput input =
+        new ColdTierCachedTsFileInput(new LocalTsFileInput(sourceFile.toPath()), cache);
+    try {
+      // spans three blocks
+      assertRead(input, BLOCK_SIZE - 10, BLOCK_SIZE + 20);
+      Assert.assertEquals(0, cache.getHitCount());
+      Assert.assertEquals(3, cache.getMissCount());
+      Assert.assertEquals(3L * BLOCK_SIZE, cache.getCachedBytes());
+
+      assertRead(input, BLOCK_SIZE + 5, 100);
+      Assert.assertEquals(1, cache.getHitCount());
+      Assert.assertEquals(3, cache.getMissCount());
+
+      // the last block is shorter than the others
+      assertRead(input, FILE_SIZE - 50, 50);
+      Assert.assertEquals(-1, input.read(ByteBuffer.allocate(1), FILE_SIZE));
+    } finally {
+      input.close();
+    }
+  }
+
+  @Test
+  public void testEvictionAndPinning() throws IOException {
+    TsFileInput input =
+        new ColdTierCachedTsFileInput(new LocalTsFileInput(sourceFile.toPath()), cache);
+    try {
+      // pin the last two blocks
+      cache.pin(input.getFilePath(), 9L * BLOCK_SIZE + 1);
+      assertRead(input, 9L * BLOCK_SIZE, FILE_SIZE - 9 * BLOCK_SIZE);
+      for (int i = 0; i < 9; i++) {
+        assertRead(input, (long) i * BLOCK_SIZE, BLOCK_SIZE);
+      }
+      Assert.assertTrue(cache.getCachedBytes() <= 4L * BLOCK_SIZE);
+
+      long missCount = cache.getMissCount();
+      assertRead(input, 9L * BLOCK_SIZE, FILE_SIZE - 9 * BLOCK_SIZE);
+      Assert.assertEquals(missCount, cache.getMissCount());
+      // the least recently used block has been evicted
+      assertRead(input, 0, BLOCK_SIZE);
+      Assert.assertEquals(missCount + 1, cache.getMissCount());
+
+      cache.invalidate(input.getFilePath());
+      Assert.assertEquals(0, cache.getCachedBytes());
+      String[] cachedFiles = cacheDir.list();
+      Assert.assertNotNull(cachedFiles);
+      Assert.assertEquals(0, cachedFiles.length);
+    } finally {
+      input.close();
+    }
+  }
+
+  private void assertRead(TsFileInput input, long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    Assert.assertEquals(length, input.read(buffer, position));
+    buffer.flip();
+    for (int i = 0; i < length; i++) {
+      Assert.assertEquals((byte) (position + i), buffer.get());
+    }
+  }
+}
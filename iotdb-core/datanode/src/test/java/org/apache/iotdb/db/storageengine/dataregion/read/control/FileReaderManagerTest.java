@@ -24,6 +24,7 @@ import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 import org.apache.iotdb.db.utils.constant.TestConstant;
 
+import org.apache.tsfile.read.TsFileSequenceReader;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -31,6 +32,12 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.fail;
 
@@ -134,4 +141,46 @@ public class FileReaderManagerTest {
       }
     }
   }
+
+  @Test
+  public void testConcurrentGetOpensOnce() throws Exception {
+    File file = SystemFileFactory.INSTANCE.getFile(TestConstant.BASE_OUTPUT_PATH.concat("test.c"));
+    file.createNewFile();
+    TsFileResource tsFileResource = new TsFileResource(file);
+    FileReaderManager manager = FileReaderManager.getInstance();
+
+    int threadNum = 8;
+    ExecutorService pool = Executors.newFixedThreadPool(threadNum);
+    CountDownLatch startLatch = new CountDownLatch(1);
+    try {
+      List<Future<TsFileSequenceReader>> futures = new ArrayList<>();
+      for (int i = 0; i < threadNum; i++) {
+        futures.add(
+            pool.submit(
+                () -> {
+                  startLatch.await();
+                  manager.increaseFileReaderReference(tsFileResource, false);
+                  return manager.get(tsFileResource.getTsFilePath(), false);
+                }));
+      }
+      startLatch.countDown();
+      TsFileSequenceReader reader = futures.get(0).get();
+      for (Future<TsFileSequenceReader> future : futures) {
+        Assert.assertSame(reader, future.get());
+      }
+      Assert.assertEquals(1, manager.getUnclosedFileReaderMap().size());
+
+      for (int i = 0; i < threadNum; i++) {
+        Assert.assertTrue(manager.contains(tsFileResource, false));
+        manager.decreaseFileReaderReference(tsFileResource, false);
+      }
+      Assert.assertFalse(manager.contains(tsFileResource, false));
+    } finally {
+      pool.shutdown();
+      manager.closeAndRemoveAllOpenedReaders();
+      if (!file.delete()) {
+        fail();
+      }
+    }
+  }
 }
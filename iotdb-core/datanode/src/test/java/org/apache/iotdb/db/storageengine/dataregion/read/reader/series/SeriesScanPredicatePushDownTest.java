@@ -38,6 +38,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.tsfile.read.filter.factory.ValueFilterApi.DEFAULT_MEASUREMENT_INDEX;
 
@@ -158,11 +159,17 @@ public class SeriesScanPredicatePushDownTest extends AbstractSeriesScanTest {
 
   @Test
   public void testSkipFileByPushDownFilter() throws IllegalPathException, IOException {
+    AtomicLong skippedFileCount =
+        EnvironmentUtils.TEST_QUERY_FI_CONTEXT
+            .getQueryStatistics()
+            .getTimeSeriesMetadataSkippedByStatisticsCount();
+    long skippedFileCountBefore = skippedFileCount.get();
     SeriesScanUtil seriesScanUtil =
         getSeriesScanUtil(
             TimeFilterApi.gt(0),
             ValueFilterApi.gtEq(DEFAULT_MEASUREMENT_INDEX, 10, TSDataType.INT32));
     checkFile1Skipped(seriesScanUtil);
+    Assert.assertEquals(skippedFileCountBefore + 1, skippedFileCount.get());
   }
 
   private void checkFile1Skipped(SeriesScanUtil seriesScanUtil) throws IOException {
@@ -190,11 +197,17 @@ public class SeriesScanPredicatePushDownTest extends AbstractSeriesScanTest {
 
   @Test
   public void testSkipChunkByPushDownFilter() throws IllegalPathException, IOException {
+    AtomicLong skippedChunkCount =
+        EnvironmentUtils.TEST_QUERY_FI_CONTEXT
+            .getQueryStatistics()
+            .getChunkSkippedByStatisticsCount();
+    long skippedChunkCountBefore = skippedChunkCount.get();
     SeriesScanUtil seriesScanUtil =
         getSeriesScanUtil(
             TimeFilterApi.gt(0),
             ValueFilterApi.gtEq(DEFAULT_MEASUREMENT_INDEX, 20, TSDataType.INT32));
     checkFile2Chunk1Skipped(seriesScanUtil);
+    Assert.assertEquals(skippedChunkCountBefore + 1, skippedChunkCount.get());
   }
 
   private void checkFile2Chunk1Skipped(SeriesScanUtil seriesScanUtil) throws IOException {
@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.reader.series;
+
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.commons.path.IFullPath;
+import org.apache.iotdb.commons.path.MeasurementPath;
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.queryengine.execution.fragment.QueryStatistics;
+import org.apache.iotdb.db.queryengine.execution.operator.source.SeriesScanUtil;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.parameter.SeriesScanOptions;
+import org.apache.iotdb.db.queryengine.plan.statement.component.Ordering;
+import org.apache.iotdb.db.storageengine.dataregion.modification.Deletion;
+import org.apache.iotdb.db.storageengine.dataregion.modification.ModificationFile;
+import org.apache.iotdb.db.storageengine.dataregion.read.QueryDataSource;
+import org.apache.iotdb.db.storageengine.dataregion.read.control.FileReaderManager;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResourceStatus;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.constant.TestConstant;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.exception.write.WriteProcessException;
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.tsfile.read.common.TimeRange;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.filter.basic.Filter;
+import org.apache.tsfile.read.filter.factory.ValueFilterApi;
+import org.apache.tsfile.write.chunk.ChunkWriterImpl;
+import org.apache.tsfile.write.chunk.IChunkWriter;
+import org.apache.tsfile.write.writer.TsFileIOWriter;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.iotdb.db.storageengine.dataregion.compaction.utils.TsFileGeneratorUtils.createChunkWriter;
+import static org.apache.iotdb.db.storageengine.dataregion.compaction.utils.TsFileGeneratorUtils.writeNonAlignedChunk;
+import static org.apache.tsfile.read.filter.factory.ValueFilterApi.DEFAULT_MEASUREMENT_INDEX;
+
+/** Value statistics of modified non-aligned data still prune files, chunks and pages. */
+public class SeriesScanPredicatePushDownWithDeletionTest {
+
+  private static final String TEST_DATABASE = "root.sg_pd_mods";
+  private static final IDeviceID TEST_DEVICE =
+      IDeviceID.Factory.DEFAULT_FACTORY.create(TEST_DATABASE + ".d1");
+  private static final String TEST_PATH = TEST_DEVICE.toString() + ".s1";
+
+  /**
+   * The data distribution is as follows, the value of each point equals to its time, and the points
+   * in [5, 24] are deleted.
+   *
+   * <pre>
+   *  time    root.sg_pd_mods.d1.s1
+   *      ┌──────────┐
+   *   0  │ f1-c1-p1 │
+   *      │----------│
+   *  10  │ f1-c1-p2 │
+   *      │==========│
+   *  20  │ f1-c2-p1 │
+   *      └──────────┘
+   * </pre>
+   */
+  private static final List<TsFileResource> seqResources = new ArrayList<>();
+
+  @BeforeClass
+  public static void setUp() throws IOException, WriteProcessException, IllegalPathException {
+    List<PartialPath> writtenPaths = Collections.singletonList(new PartialPath(TEST_PATH));
+    List<TSDataType> dataTypes = Collections.singletonList(TSDataType.INT32);
+    List<TSEncoding> encodings = Collections.singletonList(TSEncoding.PLAIN);
+    List<CompressionType> compressionTypes =
+        Collections.singletonList(CompressionType.UNCOMPRESSED);
+
+    // the version differs from the files of AbstractSeriesScanTest, since the shared query context
+    // remembers which files have no mods file
+    File seqFile1 = new File(TestConstant.getTestTsFilePath(TEST_DATABASE, 0, 0, 101));
+    TsFileResource seqFileResource1 = new TsFileResource(seqFile1);
+    if (!seqFile1.getParentFile().exists()) {
+      Assert.assertTrue(seqFile1.getParentFile().mkdirs());
+    }
+    try (TsFileIOWriter tsFileIOWriter = new TsFileIOWriter(seqFileResource1.getTsFile())) {
+      // prepare f1-c1
+      tsFileIOWriter.startChunkGroup(TEST_DEVICE);
+      List<TimeRange> pages = new ArrayList<>();
+      // prepare f1-c1-p1
+      pages.add(new TimeRange(0L, 9L));
+      // prepare f1-c1-p2
+      pages.add(new TimeRange(10L, 19L));
+      for (IChunkWriter chunkWriter :
+          createChunkWriter(writtenPaths, dataTypes, encodings, compressionTypes, false)) {
+        writeNonAlignedChunk((ChunkWriterImpl) chunkWriter, tsFileIOWriter, pages, true);
+      }
+      tsFileIOWriter.endChunkGroup();
+
+      // prepare f1-c2
+      tsFileIOWriter.startChunkGroup(TEST_DEVICE);
+      pages.clear();
+      // prepare f1-c2-p1
+      pages.add(new TimeRange(20L, 29L));
+      for (IChunkWriter chunkWriter :
+          createChunkWriter(writtenPaths, dataTypes, encodings, compressionTypes, false)) {
+        writeNonAlignedChunk((ChunkWriterImpl) chunkWriter, tsFileIOWriter, pages, true);
+      }
+      tsFileIOWriter.endChunkGroup();
+
+      seqFileResource1.updateStartTime(TEST_DEVICE, 0);
+      seqFileResource1.updateEndTime(TEST_DEVICE, 29);
+      tsFileIOWriter.endFile();
+    }
+    ModificationFile modificationFile = seqFileResource1.getModFile();
+    modificationFile.write(new Deletion(new MeasurementPath(TEST_PATH), Long.MAX_VALUE, 5, 24));
+    modificationFile.close();
+    seqFileResource1.setStatusForTest(TsFileResourceStatus.NORMAL);
+    seqResources.add(seqFileResource1);
+  }
+
+  @AfterClass
+  public static void tearDown() throws IOException {
+    FileReaderManager.getInstance().closeAndRemoveAllOpenedReaders();
+    for (TsFileResource tsFileResource : seqResources) {
+      if (tsFileResource.getTsFile().exists()) {
+        tsFileResource.remove();
+      }
+    }
+    seqResources.clear();
+    EnvironmentUtils.cleanAllDir();
+  }
+
+  private SeriesScanUtil getSeriesScanUtil(Filter pushDownFilter) throws IllegalPathException {
+    MeasurementPath scanPath = new MeasurementPath(TEST_PATH, TSDataType.INT32);
+
+    SeriesScanOptions.Builder scanOptionsBuilder = new SeriesScanOptions.Builder();
+    scanOptionsBuilder.withAllSensors(Collections.singleton(scanPath.getMeasurement()));
+    scanOptionsBuilder.withPushDownFilter(pushDownFilter);
+    SeriesScanUtil seriesScanUtil =
+        new SeriesScanUtil(
+            IFullPath.convertToIFullPath(scanPath),
+            Ordering.ASC,
+            scanOptionsBuilder.build(),
+            EnvironmentUtils.TEST_QUERY_FI_CONTEXT);
+    seriesScanUtil.initQueryDataSource(new QueryDataSource(seqResources, Collections.emptyList()));
+    return seriesScanUtil;
+  }
+
+  /**
+   * Scan all the data with the push-down filter, and check the returned times and the number of
+   * time series metadata, chunks and pages skipped by statistics.
+   */
+  private void checkScan(
+      Filter pushDownFilter,
+      List<Long> expectedTimes,
+      long expectedSkippedFiles,
+      long expectedSkippedChunks,
+      long expectedSkippedPages)
+      throws IllegalPathException, IOException {
+    QueryStatistics statistics = EnvironmentUtils.TEST_QUERY_FI_CONTEXT.getQueryStatistics();
+    long skippedFilesBefore = statistics.getTimeSeriesMetadataSkippedByStatisticsCount().get();
+    long skippedChunksBefore = statistics.getChunkSkippedByStatisticsCount().get();
+    long skippedPagesBefore = statistics.getPageSkippedByStatisticsCount().get();
+
+    SeriesScanUtil seriesScanUtil = getSeriesScanUtil(pushDownFilter);
+    List<Long> times = new ArrayList<>();
+    while (seriesScanUtil.hasNextFile()) {
+      while (seriesScanUtil.hasNextChunk()) {
+        while (seriesScanUtil.hasNextPage()) {
+          TsBlock tsBlock = seriesScanUtil.nextPage();
+          if (tsBlock == null) {
+            continue;
+          }
+          for (int i = 0; i < tsBlock.getPositionCount(); i++) {
+            times.add(tsBlock.getTimeByIndex(i));
+          }
+        }
+      }
+    }
+
+    Assert.assertEquals(expectedTimes, times);
+    Assert.assertEquals(
+        expectedSkippedFiles,
+        statistics.getTimeSeriesMetadataSkippedByStatisticsCount().get() - skippedFilesBefore);
+    Assert.assertEquals(
+        expectedSkippedChunks,
+        statistics.getChunkSkippedByStatisticsCount().get() - skippedChunksBefore);
+    Assert.assertEquals(
+        expectedSkippedPages,
+        statistics.getPageSkippedByStatisticsCount().get() - skippedPagesBefore);
+  }
+
+  @Test
+  public void testSkipModifiedFileByRangeFilter() throws IllegalPathException, IOException {
+    checkScan(
+        ValueFilterApi.gtEq(DEFAULT_MEASUREMENT_INDEX, 30, TSDataType.INT32),
+        Collections.emptyList(),
+        1,
+        0,
+        0);
+  }
+
+  @Test
+  public void testSkipModifiedChunkByRangeFilter() throws IllegalPathException, IOException {
+    // f1-c1 is skipped, the deleted points of f1-c2 are not returned
+    checkScan(
+        ValueFilterApi.gtEq(DEFAULT_MEASUREMENT_INDEX, 20, TSDataType.INT32),
+        Arrays.asList(25L, 26L, 27L, 28L, 29L),
+        0,
+        1,
+        0);
+  }
+
+  @Test
+  public void testSkipModifiedPageByRangeFilter() throws IllegalPathException, IOException {
+    // f1-c1-p1 is skipped, f1-c1-p2 is read but all its matched points are deleted
+    checkScan(
+        ValueFilterApi.gtEq(DEFAULT_MEASUREMENT_INDEX, 15, TSDataType.INT32),
+        Arrays.asList(25L, 26L, 27L, 28L, 29L),
+        0,
+        0,
+        1);
+  }
+
+  @Test
+  public void testNotSkipModifiedDataByRangeFilter() throws IllegalPathException, IOException {
+    checkScan(
+        ValueFilterApi.gtEq(DEFAULT_MEASUREMENT_INDEX, 0, TSDataType.INT32),
+        Arrays.asList(0L, 1L, 2L, 3L, 4L, 25L, 26L, 27L, 28L, 29L),
+        0,
+        0,
+        0);
+  }
+
+  @Test
+  public void testSkipModifiedFileByPointFilter() throws IllegalPathException, IOException {
+    checkScan(
+        ValueFilterApi.eq(DEFAULT_MEASUREMENT_INDEX, 35, TSDataType.INT32),
+        Collections.emptyList(),
+        1,
+        0,
+        0);
+  }
+
+  @Test
+  public void testSkipModifiedChunkAndPageByPointFilter()
+      throws IllegalPathException, IOException {
+    // f1-c1-p2 and f1-c2 are skipped
+    checkScan(
+        ValueFilterApi.eq(DEFAULT_MEASUREMENT_INDEX, 3, TSDataType.INT32),
+        Collections.singletonList(3L),
+        0,
+        1,
+        1);
+  }
+
+  @Test
+  public void testNotSkipModifiedDataByPointFilter() throws IllegalPathException, IOException {
+    // the statistics of f1-c2 cover the deleted point, so it's read and nothing is returned
+    checkScan(
+        ValueFilterApi.eq(DEFAULT_MEASUREMENT_INDEX, 22, TSDataType.INT32),
+        Collections.emptyList(),
+        0,
+        1,
+        0);
+  }
+}
@@ -20,14 +20,17 @@
 package org.apache.iotdb.db.storageengine.dataregion.tsfile;
 
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.generator.TsFileNameGenerator;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.ArrayDeviceTimeIndex;
 import org.apache.iotdb.db.utils.constant.TestConstant;
 
+import org.apache.tsfile.file.metadata.IDeviceID;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -323,4 +326,52 @@ public class TsFileResourceListTest {
     tsFileResourceList.keepOrderInsert(seqResources.get(0));
     Assert.assertEquals(seqResources, tsFileResourceList.getArrayList());
   }
+
+  @Test
+  public void testGetArrayListByDevice() throws IOException {
+    IDeviceID d0 = IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d0");
+    IDeviceID d1 = IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d1");
+    TsFileResourceList tsFileResourceList = new TsFileResourceList();
+    TsFileResource resource10 = generateSealedTsFileResource(10, d0);
+    TsFileResource resource20 = generateSealedTsFileResource(20, d1);
+    TsFileResource resource30 = generateSealedTsFileResource(30, d0, d1);
+    // still unsealed, always a candidate
+    TsFileResource resource40 = generateTsFileResource(40);
+    tsFileResourceList.keepOrderInsert(resource30);
+    tsFileResourceList.keepOrderInsert(resource10);
+    tsFileResourceList.keepOrderInsert(resource40);
+    tsFileResourceList.keepOrderInsert(resource20);
+
+    Assert.assertEquals(
+        Arrays.asList(resource10, resource30, resource40), tsFileResourceList.getArrayList(d0));
+    Assert.assertEquals(
+        Arrays.asList(resource20, resource30, resource40), tsFileResourceList.getArrayList(d1));
+
+    // files added, removed and sealed after the index is built
+    TsFileResource resource15 = generateSealedTsFileResource(15, d1);
+    tsFileResourceList.keepOrderInsert(resource15);
+    tsFileResourceList.remove(resource30);
+    resource40.setTimeIndex(new ArrayDeviceTimeIndex());
+    resource40.updateStartTime(d0, 0);
+    resource40.updateEndTime(d0, 1);
+    resource40.setStatusForTest(TsFileResourceStatus.NORMAL);
+
+    Assert.assertEquals(Arrays.asList(resource10, resource40), tsFileResourceList.getArrayList(d0));
+    Assert.assertEquals(Arrays.asList(resource15, resource20), tsFileResourceList.getArrayList(d1));
+    Assert.assertTrue(
+        tsFileResourceList
+            .getArrayList(IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d2"))
+            .isEmpty());
+  }
+
+  private TsFileResource generateSealedTsFileResource(int id, IDeviceID... devices) {
+    TsFileResource resource = generateTsFileResource(id);
+    resource.setTimeIndex(new ArrayDeviceTimeIndex());
+    for (IDeviceID device : devices) {
+      resource.updateStartTime(device, id);
+      resource.updateEndTime(device, id + 1);
+    }
+    resource.setStatusForTest(TsFileResourceStatus.NORMAL);
+    return resource;
+  }
 }
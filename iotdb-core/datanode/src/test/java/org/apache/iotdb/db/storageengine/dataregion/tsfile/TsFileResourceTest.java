@@ -20,11 +20,15 @@ package org.apache.iotdb.db.storageengine.dataregion.tsfile;
 
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.generator.TsFileNameGenerator;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.ArrayDeviceTimeIndex;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.FileTimeIndex;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.ITimeIndex;
+import org.apache.iotdb.db.storageengine.dataregion.utils.fileTimeIndexCache.DeviceTimeIndexCacheReader;
+import org.apache.iotdb.db.storageengine.dataregion.utils.fileTimeIndexCache.DeviceTimeIndexCacheWriter;
 import org.apache.iotdb.db.utils.constant.TestConstant;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.utils.PublicBAOS;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -32,6 +36,7 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.IntStream;
@@ -100,4 +105,52 @@ public class TsFileResourceTest {
           DEVICE_NUM);
     }
   }
+
+  @Test
+  public void testMappedDeviceTimeIndex() throws IOException {
+    File cacheDir = new File(TestConstant.BASE_OUTPUT_PATH, "DeviceTimeIndexCache_0");
+    File cacheFile = new File(cacheDir, "0");
+    try {
+      Assert.assertTrue(cacheDir.exists() || cacheDir.mkdirs());
+      PublicBAOS serializedTimeIndex = new PublicBAOS();
+      Assert.assertTrue(tsFileResource.serializeDeviceTimeIndex(serializedTimeIndex));
+      ByteBuffer entry =
+          ByteBuffer.allocate(
+              DeviceTimeIndexCacheReader.ENTRY_HEADER_SIZE + serializedTimeIndex.size() + 5);
+      entry.putLong(1).putLong(1).putLong(0).putInt(serializedTimeIndex.size());
+      entry.put(serializedTimeIndex.getBuf(), 0, serializedTimeIndex.size());
+      // a torn entry left by a crash
+      entry.put(new byte[5]);
+      entry.flip();
+      DeviceTimeIndexCacheWriter writer = new DeviceTimeIndexCacheWriter(cacheFile, false, 0);
+      writer.write(entry, 1);
+      writer.close();
+
+      Map<TsFileID, ByteBuffer> deviceTimeIndexMap = new HashMap<>();
+      DeviceTimeIndexCacheReader reader = new DeviceTimeIndexCacheReader(cacheFile, "1");
+      Assert.assertEquals(1, reader.read(deviceTimeIndexMap));
+      Assert.assertEquals(
+          DeviceTimeIndexCacheReader.ENTRY_HEADER_SIZE + serializedTimeIndex.size(),
+          cacheFile.length());
+      ByteBuffer mappedTimeIndex = deviceTimeIndexMap.get(new TsFileID(1, 0, 1, 1, 0));
+      Assert.assertNotNull(mappedTimeIndex);
+
+      TsFileResource recoveredResource = new TsFileResource(file);
+      recoveredResource.setTimeIndex(new FileTimeIndex(0, DEVICE_NUM));
+      recoveredResource.setMappedDeviceTimeIndex(mappedTimeIndex);
+      Assert.assertEquals(ITimeIndex.FILE_TIME_INDEX_TYPE, recoveredResource.getTimeIndexType());
+      Assert.assertTrue(
+          recoveredResource.definitelyNotContains(
+              IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d" + DEVICE_NUM)));
+      Assert.assertEquals(
+          ITimeIndex.ARRAY_DEVICE_TIME_INDEX_TYPE, recoveredResource.getTimeIndexType());
+      for (int i = 0; i < DEVICE_NUM; i++) {
+        IDeviceID deviceID = IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d" + i);
+        Assert.assertEquals(i, recoveredResource.getStartTime(deviceID));
+        Assert.assertEquals(i + 1, recoveredResource.getEndTime(deviceID));
+      }
+    } finally {
+      FileUtils.deleteDirectory(cacheDir);
+    }
+  }
 }
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.wal.buffer;
+
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertRowNode;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrentWALBufferTest extends WALBufferCommonTest {
+  private static final Logger logger = LoggerFactory.getLogger(ConcurrentWALBufferTest.class);
+
+  @Override
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.cleanDir(logDirectory);
+    walBuffer = new ConcurrentWALBuffer(identifier, logDirectory);
+  }
+
+  @Override
+  @After
+  public void tearDown() throws Exception {
+    super.tearDown();
+    EnvironmentUtils.cleanDir(logDirectory);
+  }
+
+  @Override
+  @Test
+  public void testHugeWrite() throws Exception {
+    // use small segments (only 4 bytes) so that every entry is written as a dedicated segment
+    int prevWalBufferSize = config.getWalBufferSize();
+    walBuffer.close();
+    EnvironmentUtils.cleanDir(logDirectory);
+    config.setWalBufferSize(32);
+    try {
+      walBuffer = new ConcurrentWALBuffer(identifier, logDirectory);
+      testConcurrentWrite();
+    } finally {
+      config.setWalBufferSize(prevWalBufferSize);
+    }
+  }
+
+  @Test
+  public void testSetBufferSize() throws Exception {
+    // recycled segments are replaced by small ones, so later entries become dedicated segments
+    ((ConcurrentWALBuffer) walBuffer).setBufferSize(32);
+    testConcurrentWrite();
+  }
+
+  @Ignore("Benchmark, run it manually to compare the throughput of the two wal buffer types.")
+  @Test
+  public void compareThroughputWithQueueWALBuffer() throws Exception {
+    walBuffer.close();
+    EnvironmentUtils.cleanDir(logDirectory);
+    int threadsNum = 16;
+    int entriesNumPerThread = 20_000;
+    long queueCost =
+        measureWriteCost(
+            () -> new WALBuffer(identifier, logDirectory), threadsNum, entriesNumPerThread);
+    long concurrentCost =
+        measureWriteCost(
+            () -> new ConcurrentWALBuffer(identifier, logDirectory),
+            threadsNum,
+            entriesNumPerThread);
+    long totalEntriesNum = (long) threadsNum * entriesNumPerThread;
+    logger.info(
+        "Write {} InsertRowNodes with {} threads, QUEUE: {} rows/s, CONCURRENT: {} rows/s",
+        totalEntriesNum,
+        threadsNum,
+        totalEntriesNum * TimeUnit.SECONDS.toNanos(1) / queueCost,
+        totalEntriesNum * TimeUnit.SECONDS.toNanos(1) / concurrentCost);
+    walBuffer = new ConcurrentWALBuffer(identifier, logDirectory);
+  }
+
+  /** Return the time cost in nanoseconds until all entries are synced. */
+  private long measureWriteCost(WALBufferFactory factory, int threadsNum, int entriesNumPerThread)
+      throws Exception {
+    List<List<InsertRowNode>> insertRowNodes = new ArrayList<>();
+    for (int i = 0; i < threadsNum; ++i) {
+      List<InsertRowNode> nodes = new ArrayList<>(entriesNumPerThread);
+      for (int j = 0; j < entriesNumPerThread; ++j) {
+        nodes.add(getInsertRowNode(devicePath + i, j));
+      }
+      insertRowNodes.add(nodes);
+    }
+
+    IWALBuffer buffer = factory.create();
+    ExecutorService executorService = Executors.newFixedThreadPool(threadsNum);
+    try {
+      CountDownLatch startLatch = new CountDownLatch(1);
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threadsNum; ++i) {
+        int memTableId = i;
+        futures.add(
+            executorService.submit(
+                () -> {
+                  startLatch.await();
+                  for (InsertRowNode node : insertRowNodes.get(memTableId)) {
+                    buffer.write(new WALInfoEntry(memTableId, node));
+                  }
+                  return null;
+                }));
+      }
+      long startTime = System.nanoTime();
+      startLatch.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      while (!buffer.isAllWALEntriesConsumed()) {
+        Thread.sleep(1);
+      }
+      return System.nanoTime() - startTime;
+    } finally {
+      executorService.shutdown();
+      buffer.close();
+      EnvironmentUtils.cleanDir(logDirectory);
+    }
+  }
+
+  @FunctionalInterface
+  private interface WALBufferFactory {
+    IWALBuffer create() throws IOException;
+  }
+}
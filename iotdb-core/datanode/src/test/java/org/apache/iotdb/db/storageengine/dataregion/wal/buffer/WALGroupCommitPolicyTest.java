@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.wal.buffer;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALMode;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WALGroupCommitPolicyTest {
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private WALMode prevMode;
+  private boolean prevEnableAdaptiveFsyncDelay;
+
+  @Before
+  public void setUp() {
+    prevMode = config.getWalMode();
+    prevEnableAdaptiveFsyncDelay = config.isEnableWalAdaptiveFsyncDelay();
+    config.setWalMode(WALMode.ASYNC);
+  }
+
+  @After
+  public void tearDown() {
+    config.setWalMode(prevMode);
+    config.setEnableWalAdaptiveFsyncDelay(prevEnableAdaptiveFsyncDelay);
+  }
+
+  @Test
+  public void testFixedDelay() {
+    config.setEnableWalAdaptiveFsyncDelay(false);
+    WALGroupCommitPolicy policy = new WALGroupCommitPolicy();
+    policy.recordFsync(10, System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(1));
+    policy.recordFsync(10, System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(1));
+    // async entries wait for the async delay, waited entries wait for the sync delay
+    assertEquals(
+        TimeUnit.MILLISECONDS.toNanos(config.getWalAsyncModeFsyncDelayInMs()),
+        policy.getFsyncDelayInNanos(false));
+    assertEquals(
+        TimeUnit.MILLISECONDS.toNanos(config.getWalSyncModeFsyncDelayInMs()),
+        policy.getFsyncDelayInNanos(true));
+    assertEquals(Long.MAX_VALUE, policy.getBatchWindowInNanos(true));
+  }
+
+  @Test
+  public void testAdaptiveDelay() throws InterruptedException {
+    config.setEnableWalAdaptiveFsyncDelay(true);
+    WALGroupCommitPolicy policy = new WALGroupCommitPolicy();
+    // no samples yet
+    assertEquals(Long.MAX_VALUE, policy.getBatchWindowInNanos(true));
+
+    // entries arrive much faster than fsync, wait for at most one fsync
+    long fsyncCost = TimeUnit.SECONDS.toNanos(10);
+    policy.recordFsync(1_000, System.nanoTime(), fsyncCost);
+    Thread.sleep(1);
+    policy.recordFsync(1_000, System.nanoTime(), fsyncCost);
+    long maxDelay = TimeUnit.MILLISECONDS.toNanos(config.getWalSyncModeFsyncDelayInMs());
+    assertTrue(policy.getFsyncDelayInNanos(true) > 0);
+    assertTrue(policy.getFsyncDelayInNanos(true) <= maxDelay);
+    assertEquals(maxDelay, policy.getBatchWindowInNanos(true));
+    // async entries are not affected
+    assertEquals(Long.MAX_VALUE, policy.getBatchWindowInNanos(false));
+
+    // entries arrive slower than fsync, sync them immediately
+    policy = new WALGroupCommitPolicy();
+    long batchStartTime = System.nanoTime();
+    Thread.sleep(1);
+    policy.recordFsync(1, batchStartTime, 1);
+    batchStartTime = System.nanoTime();
+    Thread.sleep(1);
+    policy.recordFsync(1, batchStartTime, 1);
+    assertEquals(0, policy.getFsyncDelayInNanos(true));
+    assertEquals(0, policy.getBatchWindowInNanos(true));
+  }
+
+  @Test
+  public void testIdleTimeIgnored() throws InterruptedException {
+    config.setEnableWalAdaptiveFsyncDelay(true);
+    WALGroupCommitPolicy policy = new WALGroupCommitPolicy();
+    long fsyncCost = TimeUnit.MILLISECONDS.toNanos(1);
+    policy.recordFsync(10, System.nanoTime(), fsyncCost);
+    // a long idle period followed by a burst of entries
+    Thread.sleep(50);
+    policy.recordFsync(10, System.nanoTime(), fsyncCost);
+    assertTrue(policy.getBatchWindowInNanos(true) > 0);
+  }
+}
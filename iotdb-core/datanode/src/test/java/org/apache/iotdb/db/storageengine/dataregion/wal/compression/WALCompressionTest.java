@@ -364,6 +364,16 @@ public class WALCompressionTest {
         Assert.assertEquals(entryList.get(i).serializedSize(), buffer.array().length);
       }
     }
+
+    List<WALEntry> mappedWALEntryList = new ArrayList<>();
+    try (WALByteBufReader reader = new WALByteBufReader(walFiles[0], true)) {
+      while (reader.hasNext()) {
+        ByteBuffer buffer = reader.next();
+        Assert.assertEquals(0, WALEntry.getMemTableId(buffer));
+        mappedWALEntryList.add(WALEntry.deserialize(buffer));
+      }
+    }
+    Assert.assertEquals(entryList, mappedWALEntryList);
   }
 
   @Test
@@ -43,6 +43,7 @@ import org.apache.iotdb.db.storageengine.dataregion.wal.WALManager;
 import org.apache.iotdb.db.storageengine.dataregion.wal.recover.WALRecoverManager;
 import org.apache.iotdb.db.storageengine.rescon.disk.TierManager;
 import org.apache.iotdb.db.storageengine.rescon.memory.MemTableManager;
+import org.apache.iotdb.db.storageengine.rescon.memory.OffHeapArrayManager;
 import org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager;
 import org.apache.iotdb.db.storageengine.rescon.memory.SystemInfo;
 import org.apache.iotdb.db.storageengine.rescon.memory.TsFileResourceManager;
@@ -147,6 +148,7 @@ public class EnvironmentUtils {
 
     // close array manager
     PrimitiveArrayManager.close();
+    OffHeapArrayManager.close();
 
     // clear system info
     SystemInfo.getInstance().close();
@@ -18,6 +18,10 @@
  */
 package org.apache.iotdb.db.utils.datastructure;
 
+import org.apache.iotdb.common.rpc.thrift.TSStatus;
+import org.apache.iotdb.rpc.RpcUtils;
+import org.apache.iotdb.rpc.TSStatusCode;
+
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.tsfile.common.conf.TSFileConfig;
 import org.apache.tsfile.enums.TSDataType;
@@ -142,6 +146,56 @@ public class AlignedTVListTest {
     }
   }
 
+  @Test
+  public void testPutAlignedValuesInSlices() {
+    int columnNum = 3;
+    int rowNum = 1000;
+    List<TSDataType> dataTypes = new ArrayList<>();
+    Object[] vectorArray = new Object[columnNum];
+    BitMap[] bitMaps = new BitMap[columnNum];
+    for (int j = 0; j < columnNum; j++) {
+      dataTypes.add(TSDataType.INT64);
+      vectorArray[j] = new long[rowNum];
+      bitMaps[j] = new BitMap(rowNum);
+    }
+    // the last column is missing in the tablet
+    vectorArray[columnNum - 1] = null;
+    long[] times = new long[rowNum];
+    TSStatus[] results = new TSStatus[rowNum];
+    for (int i = 0; i < rowNum; i++) {
+      times[i] = i;
+      ((long[]) vectorArray[0])[i] = i;
+      ((long[]) vectorArray[1])[i] = i;
+      if (i % 3 == 0) {
+        bitMaps[0].mark(i);
+      }
+      if (i >= 100 && i < 300) {
+        bitMaps[1].mark(i);
+      }
+      if (i == 777) {
+        results[i] = RpcUtils.getStatus(TSStatusCode.INTERNAL_SERVER_ERROR);
+      }
+    }
+
+    AlignedTVList tvList = AlignedTVList.newAlignedList(dataTypes);
+    // slices are not aligned with the bytes of the bitmaps and the arrays of the list
+    int[] ends = {13, 150, 151, 509, rowNum};
+    int start = 0;
+    for (int end : ends) {
+      tvList.putAlignedValues(times, vectorArray, bitMaps, start, end, results);
+      start = end;
+    }
+
+    Assert.assertTrue(tvList.isSorted());
+    Assert.assertEquals(rowNum, tvList.rowCount());
+    for (int i = 0; i < rowNum; i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals(i % 3 == 0 || i == 777, tvList.isNullValue(i, 0));
+      Assert.assertEquals(i >= 100 && i < 300 || i == 777, tvList.isNullValue(i, 1));
+      Assert.assertTrue(tvList.isNullValue(i, 2));
+    }
+  }
+
   @Test
   public void testClone() {
     List<TSDataType> dataTypes = new ArrayList<>();
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.iotdb.db.storageengine.rescon.memory.OffHeapArrayManager;
+import org.apache.iotdb.db.storageengine.rescon.memory.SystemInfo;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.TimeValuePair;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.utils.BitMap;
+import org.apache.tsfile.utils.TsPrimitiveType.TsDouble;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.ARRAY_SIZE;
+
+public class OffHeapTVListTest {
+
+  @After
+  public void tearDown() {
+    OffHeapArrayManager.close();
+  }
+
+  @Test
+  public void testPutAndSort() {
+    Random random = new Random();
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.DOUBLE);
+    List<TimeValuePair> inputs = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      long time = random.nextInt(10000);
+      double value = random.nextDouble();
+      tvList.putDouble(time, value);
+      inputs.add(new TimeValuePair(time, new TsDouble(value)));
+    }
+    // the arrays are charged to the off-heap TVList memory
+    Assert.assertTrue(SystemInfo.getInstance().getOffHeapTVListMemoryCost() > 0);
+    tvList.sort();
+    inputs.sort(TimeValuePair::compareTo);
+    for (int i = 0; i < tvList.rowCount(); i++) {
+      Assert.assertEquals(inputs.get(i).getTimestamp(), tvList.getTime(i));
+      Assert.assertEquals(inputs.get(i).getValue().getDouble(), tvList.getDouble(i), 0);
+    }
+    tvList.clear();
+    OffHeapArrayManager.close();
+    Assert.assertEquals(0, SystemInfo.getInstance().getOffHeapTVListMemoryCost());
+  }
+
+  @Test
+  public void testPutIntsWithBitMap() {
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.INT32);
+    long[] times = new long[1001];
+    int[] values = new int[1001];
+    BitMap bitMap = new BitMap(1001);
+    for (int i = 1000; i >= 0; i--) {
+      times[1000 - i] = i;
+      values[1000 - i] = i;
+      if (i % 100 == 0) {
+        bitMap.mark(1000 - i);
+      }
+    }
+    tvList.putInts(times, values, null, 0, 1001);
+    Assert.assertEquals(1001, tvList.rowCount());
+    tvList.clear();
+
+    tvList.putInts(times, values, bitMap, 0, 1001);
+    tvList.sort();
+    Assert.assertEquals(990, tvList.rowCount());
+    int index = 0;
+    for (int i = 0; i <= 1000; i++) {
+      if (i % 100 != 0) {
+        Assert.assertEquals(i, tvList.getTime(index));
+        Assert.assertEquals(i, tvList.getInt(index));
+        index++;
+      }
+    }
+    tvList.clear();
+  }
+
+  @Test
+  public void testDeleteAndClone() {
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.BOOLEAN);
+    for (int i = 0; i < 1000; i++) {
+      tvList.putBoolean(i, i % 2 == 0);
+    }
+    Assert.assertEquals(900, tvList.delete(100, 999));
+    OffHeapTVList cloneList = tvList.clone();
+    tvList.clear();
+    Assert.assertEquals(100, cloneList.rowCount());
+    Assert.assertEquals(99, cloneList.getMaxTime());
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(i, cloneList.getTime(i));
+      Assert.assertEquals(i % 2 == 0, cloneList.getBoolean(i));
+    }
+    cloneList.clear();
+  }
+
+  @Test
+  public void testReleaseWhileReferenced() {
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.INT64);
+    for (int i = 0; i < 1000; i++) {
+      tvList.putLong(i, i);
+    }
+    tvList.increaseReferenceCount();
+
+    // arrays emptied by the deletion are not reused while the list is referenced
+    Assert.assertEquals(900, tvList.delete(100, 999));
+    OffHeapTVList otherList = new OffHeapTVList(TSDataType.INT64);
+    for (int i = 0; i < 1000; i++) {
+      otherList.putLong(i, -i);
+    }
+    Assert.assertEquals(100, tvList.rowCount());
+    Assert.assertEquals(99, tvList.getLong(99));
+
+    // the owner releases the list, but it is cleared only after the query is done
+    tvList.release();
+    Assert.assertEquals(100, tvList.rowCount());
+    tvList.decreaseReferenceCount();
+    Assert.assertEquals(0, tvList.rowCount());
+
+    otherList.release();
+    OffHeapArrayManager.close();
+    Assert.assertEquals(0, SystemInfo.getInstance().getOffHeapTVListMemoryCost());
+  }
+
+  @Test
+  public void testChargeMemTableOffHeapCost() {
+    AtomicLong memTableOffHeapCost = new AtomicLong(0);
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.INT64, memTableOffHeapCost);
+    for (int i = ARRAY_SIZE; i >= 0; i--) {
+      tvList.putLong(i, i);
+    }
+    // two arrays of timestamps and two arrays of values
+    long listCost = 2L * ARRAY_SIZE * (Long.BYTES + Long.BYTES);
+    Assert.assertEquals(listCost, memTableOffHeapCost.get());
+    // the temporary arrays of sorting are not charged
+    tvList.sort();
+    Assert.assertEquals(listCost, memTableOffHeapCost.get());
+
+    OffHeapTVList cloneList = tvList.clone();
+    Assert.assertEquals(2 * listCost, memTableOffHeapCost.get());
+    tvList.clear();
+    Assert.assertEquals(listCost, memTableOffHeapCost.get());
+    cloneList.clear();
+    Assert.assertEquals(0, memTableOffHeapCost.get());
+  }
+
+  @Test
+  public void testBuildTsBlock() {
+    TVList tvList = new OffHeapTVList(TSDataType.INT64);
+    tvList.putLongs(new long[] {3, 1, 2, 2}, new long[] {30, 10, 20, 21}, null, 0, 4);
+    tvList.sort();
+    TsBlock tsBlock = tvList.buildTsBlock();
+    Assert.assertEquals(3, tsBlock.getPositionCount());
+    Assert.assertEquals(1, tsBlock.getTimeByIndex(0));
+    Assert.assertEquals(10, tsBlock.getColumn(0).getLong(0));
+    Assert.assertEquals(21, tsBlock.getColumn(0).getLong(1));
+    Assert.assertEquals(30, tsBlock.getColumn(0).getLong(2));
+    tvList.clear();
+  }
+}
@@ -30,6 +30,8 @@ import org.slf4j.LoggerFactory;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledExecutorService;
@@ -37,6 +39,7 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class is used to create thread pool which must contain the pool name. Notice that IoTDB
@@ -58,6 +61,10 @@ public class IoTDBThreadPoolFactory {
   private static final String NEW_SYNCHRONOUS_QUEUE_THREAD_POOL_LOGGER_FORMAT =
       "new SynchronousQueue thread pool: {}";
   private static final String NEW_THREAD_POOL_LOGGER_FORMAT = "new thread pool: {}";
+  private static final String NEW_WORK_STEALING_POOL_LOGGER_FORMAT =
+      "new work stealing pool: {}, parallelism: {}";
+
+  private static final AtomicInteger WORK_STEALING_POOL_NUMBER = new AtomicInteger(1);
 
   private IoTDBThreadPoolFactory() {}
 
@@ -203,6 +210,31 @@ public class IoTDBThreadPoolFactory {
         poolName);
   }
 
+  /**
+   * see {@link Executors#newWorkStealingPool(int)}.
+   *
+   * @param parallelism the target parallelism level.
+   * @param poolName the name of thread pool.
+   * @return work stealing thread pool.
+   */
+  public static ForkJoinPool newWorkStealingPool(int parallelism, String poolName) {
+    logger.info(NEW_WORK_STEALING_POOL_LOGGER_FORMAT, poolName, parallelism);
+    // thread name format : pool-number-IoTDB-poolName-threadnum
+    String namePrefix =
+        "pool-" + WORK_STEALING_POOL_NUMBER.getAndIncrement() + "-IoTDB-" + poolName;
+    AtomicInteger threadNumber = new AtomicInteger(1);
+    return new ForkJoinPool(
+        parallelism,
+        pool -> {
+          ForkJoinWorkerThread thread =
+              ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+          thread.setName(namePrefix + "-" + threadNumber.getAndIncrement());
+          return thread;
+        },
+        new IoTDBDefaultThreadExceptionHandler(),
+        true);
+  }
+
   /**
    * see {@link Executors#newSingleThreadExecutor(java.util.concurrent.ThreadFactory)}.
    *
@@ -76,6 +76,7 @@ public enum Metric {
   WAL_COST("wal_cost"),
   FLUSH_COST("flush_cost"),
   FLUSH_SUB_TASK_COST("flush_sub_task_cost"),
+  FLUSH_MEMTABLE_COST("flush_memtable_cost"),
   MEMTABLE_THRESHOLD("memtable_threshold"),
   FLUSH_MEMTABLE_COUNT("flush_memtable_count"),
   ACTIVE_MEMTABLE_COUNT("active_memtable_count"),
@@ -106,6 +107,8 @@ public enum Metric {
   SERIES_SCAN_COST("series_scan_cost"),
   MEMORY_USAGE_MONITOR("memory_usage_monitor"),
   METRIC_LOAD_TIME_SERIES_METADATA("metric_load_time_series_metadata"),
+  METRIC_MEM_CHUNK_COPIED_POINTS("metric_mem_chunk_copied_points"),
+  CHUNK_READ_AHEAD("chunk_read_ahead"),
   QUERY_METADATA_COST("query_metadata_cost"),
   DISPATCHER("dispatcher"),
   QUERY_EXECUTION("query_execution"),
@@ -114,6 +117,7 @@ public enum Metric {
   DATA_EXCHANGE_COST("data_exchange_cost"),
   DATA_EXCHANGE_COUNT("data_exchange_count"),
   DATA_EXCHANGE_SIZE("data_exchange_size"),
+  DATA_EXCHANGE_BYTES("data_exchange_bytes"),
   DRIVER_SCHEDULER("driver_scheduler"),
   COORDINATOR("coordinator"),
   FRAGMENT_INSTANCE_MANAGER("fragment_instance_manager"),
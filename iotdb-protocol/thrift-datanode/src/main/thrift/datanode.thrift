@@ -93,6 +93,9 @@ struct TAcknowledgeDataBlockEvent {
   3: required i32 endSequenceId
   // Index of upstream SinkChannel
   4: required i32 index
+  // Total bytes of TsBlocks the upstream SinkChannel may push without being pulled, counted since
+  // the SourceHandle started, so that a retried event grants nothing more
+  5: optional i64 creditBytes
 }
 
 struct TCloseSinkChannelEvent {
@@ -107,6 +110,8 @@ struct TNewDataBlockEvent {
   3: required TFragmentInstanceId sourceFragmentInstanceId
   4: required i32 startSequenceId
   5: required list<i64> blockSizes
+  // Serialized TsBlocks pushed under the credit granted by the downstream SourceHandle
+  6: optional list<binary> tsBlocks
 }
 
 struct TEndOfDataBlockEvent {
@@ -139,6 +144,8 @@ struct TSendFragmentInstanceResp {
 struct TSendSinglePlanNodeReq {
   1: required TPlanNode planNode
   2: required common.TConsensusGroupId consensusGroupId
+  // durability of wal that the write waits for, absent means following the wal mode
+  3: optional i8 walDurabilityLevel
 }
 
 struct TSendSinglePlanNodeResp {
@@ -625,6 +632,10 @@ struct TQueryStatistics {
   35: i64 alignedTimeSeriesMetadataModificationTime
   36: i64 nonAlignedTimeSeriesMetadataModificationCount
   37: i64 nonAlignedTimeSeriesMetadataModificationTime
+
+  38: i64 timeSeriesMetadataSkippedByStatisticsCount
+  39: i64 chunkSkippedByStatisticsCount
+  40: i64 pageSkippedByStatisticsCount
 }
 
 